@@ -0,0 +1,65 @@
+package org.teinelund.javacodevisualizer.benchmarks;
+
+import org.teinelund.javacodevisualizer.synthetic.SyntheticCodebaseGenerator;
+
+import java.io.IOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Writes the code bases of the benchmarks with SyntheticCodebaseGenerator. The code base is the same for the same
+ * number of types: modules of TYPES_PER_MODULE types, in 20 packages of 50 types, three package names below the
+ * module, four fields per type, and a tenth of the types named like types in other packages.
+ */
+public class SyntheticCodebases {
+
+    public static final long SEED = 1;
+    public static final int TYPES_PER_PACKAGE = 50;
+    public static final int PACKAGES_PER_MODULE = 20;
+    public static final int TYPES_PER_MODULE = TYPES_PER_PACKAGE * PACKAGES_PER_MODULE;
+
+    /**
+     * Write a code base with numberOfTypes types below root.
+     *
+     * @param root is the directory to write the code base in. It is created if it does not exist.
+     * @param numberOfTypes is the number of types, rounded up to a multiple of TYPES_PER_MODULE. Each type is
+     *                      written in a java source file of its own.
+     * @return the java source files, in the order they were written.
+     * @throws IOException
+     */
+    public static List<Path> write(Path root, int numberOfTypes) throws IOException {
+        SyntheticCodebaseGenerator generator = SyntheticCodebaseGenerator.builder().setSeed(SEED).
+                setNumberOfModules((numberOfTypes + TYPES_PER_MODULE - 1) / TYPES_PER_MODULE).setPackageDepth(3).
+                setPackagesPerModule(PACKAGES_PER_MODULE).setTypesPerPackage(TYPES_PER_PACKAGE).
+                setFieldsPerType(4).setNameCollisionRate(0.1).build();
+        List<Path> javaSourceFiles = new ArrayList<>(generator.getNumberOfTypes());
+        for (SyntheticCodebaseGenerator.SyntheticType type : generator.generate(root)) {
+            javaSourceFiles.add(type.getPath());
+        }
+        return javaSourceFiles;
+    }
+
+    /**
+     * Delete a directory and everything in it.
+     */
+    public static void deleteDirectory(Path path) throws IOException {
+        Files.walkFileTree(path, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                Files.delete(file);
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult postVisitDirectory(Path dir, IOException exc) throws IOException {
+                Files.delete(dir);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+}
@@ -0,0 +1,126 @@
+package org.teinelund.javacodevisualizer.dom;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Contention: 1, 8 and 32 writers that add their own types to one ConcurrentJavaProjectObjectModelImpl, and remove
+ * them again, so the size of the model stays the same. The types of all writers share their names, and half of the
+ * packages, so the writers update the same buckets.
+ *
+ * The locked benchmarks do the same with a JavaProjectObjectModelImpl behind a lock, the alternative to a concurrent
+ * model for parser threads that add types as soon as they are parsed.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ConcurrentJavaProjectObjectModelBenchmark {
+
+    static final int TYPES_PER_WRITER = 64;
+
+    private final JavaProjectObjectModel jpom = new ConcurrentJavaProjectObjectModelImpl();
+    private final JavaProjectObjectModel lockedJpom = new JavaProjectObjectModelImpl();
+    private final Lock lock = new ReentrantLock();
+    private final AtomicInteger writers = new AtomicInteger();
+
+    @Setup
+    public void setUp() {
+        this.jpom.addJavaTypeDeclarationPaths(JavaProjectObjectModelBenchmark.createTypes(10000));
+        this.lockedJpom.addJavaTypeDeclarationPaths(JavaProjectObjectModelBenchmark.createTypes(10000));
+    }
+
+    @State(Scope.Thread)
+    public static class Writer {
+        private List<JavaTypeDeclarationPath> types;
+
+        @Setup
+        public void setUp(ConcurrentJavaProjectObjectModelBenchmark benchmark) {
+            int writer = benchmark.writers.getAndIncrement();
+            this.types = new ArrayList<>(TYPES_PER_WRITER);
+            for (int i = 0; i < TYPES_PER_WRITER; i++) {
+                String packageName = i % 2 == 0 ? "org.teinelund.shared" : "org.teinelund.writer" + writer;
+                this.types.add(JavaProjectObjectModelBenchmark.createType("Type" + i, packageName));
+            }
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void oneWriter(Writer writer) {
+        addAndRemove(writer);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public void eightWriters(Writer writer) {
+        addAndRemove(writer);
+    }
+
+    @Benchmark
+    @Threads(32)
+    public void thirtyTwoWriters(Writer writer) {
+        addAndRemove(writer);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void lockedOneWriter(Writer writer) {
+        lockedAddAndRemove(writer);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public void lockedEightWriters(Writer writer) {
+        lockedAddAndRemove(writer);
+    }
+
+    @Benchmark
+    @Threads(32)
+    public void lockedThirtyTwoWriters(Writer writer) {
+        lockedAddAndRemove(writer);
+    }
+
+    void addAndRemove(Writer writer) {
+        this.jpom.addJavaTypeDeclarationPaths(writer.types);
+        this.jpom.removeJavaTypeDeclarationPaths(writer.types);
+    }
+
+    /**
+     * Add and remove under the lock once each, as a parser thread would add the types of one file.
+     */
+    void lockedAddAndRemove(Writer writer) {
+        this.lock.lock();
+        try {
+            this.lockedJpom.addJavaTypeDeclarationPaths(writer.types);
+        }
+        finally {
+            this.lock.unlock();
+        }
+        this.lock.lock();
+        try {
+            this.lockedJpom.removeJavaTypeDeclarationPaths(writer.types);
+        }
+        finally {
+            this.lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package org.teinelund.javacodevisualizer.dom;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Graph analytics on a DependencyGraph: creating it from a wired JavaProjectObjectModel, and finding strongly
+ * connected components, layers and reachable types. Every type has FIELDS_PER_TYPE fields of random types, so the
+ * largest graph has two million edges. The model is frozen, like a model built by the factory.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DependencyGraphBenchmark {
+
+    static final int FIELDS_PER_TYPE = 20;
+
+    @Param({"1000", "10000", "100000"})
+    private int numberOfTypes;
+
+    private JavaProjectObjectModel jpom;
+    private DependencyGraph graph;
+
+    @Setup
+    public void setUp() {
+        List<JavaTypeDeclarationPath> types = JavaProjectObjectModelBenchmark.createTypes(this.numberOfTypes);
+        Random random = new Random(23);
+        for (JavaTypeDeclarationPath type : types) {
+            for (int i = 0; i < FIELDS_PER_TYPE; i++) {
+                type.addField("field" + i, types.get(random.nextInt(types.size())));
+            }
+        }
+        this.jpom = new JavaProjectObjectModelImpl();
+        this.jpom.addJavaTypeDeclarationPaths(types);
+        this.jpom.freeze();
+        this.graph = DependencyGraph.create(this.jpom);
+    }
+
+    @Benchmark
+    public DependencyGraph create() {
+        return DependencyGraph.create(this.jpom);
+    }
+
+    @Benchmark
+    public int[] findStronglyConnectedComponents() {
+        return this.graph.findStronglyConnectedComponents();
+    }
+
+    @Benchmark
+    public int[] computeLayers() {
+        return this.graph.computeLayers();
+    }
+
+    @Benchmark
+    public BitSet findReachable() {
+        return this.graph.findReachable(0);
+    }
+}
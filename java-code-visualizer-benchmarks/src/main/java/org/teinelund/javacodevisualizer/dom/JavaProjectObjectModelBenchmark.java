@@ -0,0 +1,116 @@
+package org.teinelund.javacodevisualizer.dom;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Indexing: adding types to a JavaProjectObjectModel, and looking them up by name, by package name and by qualified
+ * name. The types are created in memory, in packages of TYPES_PER_PACKAGE types, and every package has the same type
+ * names, so each name is shared by all packages: the worst case for the name index.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JavaProjectObjectModelBenchmark {
+
+    static final int TYPES_PER_PACKAGE = 50;
+
+    @Param({"1000", "10000", "100000"})
+    private int numberOfTypes;
+
+    private List<JavaTypeDeclarationPath> types;
+    private JavaProjectObjectModel jpom;
+    private JavaProjectObjectModel frozenJpom;
+
+    @Setup
+    public void setUp() {
+        this.types = createTypes(this.numberOfTypes);
+        this.jpom = new JavaProjectObjectModelImpl();
+        this.jpom.addJavaTypeDeclarationPaths(this.types);
+        this.frozenJpom = new JavaProjectObjectModelImpl();
+        this.frozenJpom.addJavaTypeDeclarationPaths(this.types);
+        this.frozenJpom.freeze();
+    }
+
+    @Benchmark
+    public JavaProjectObjectModel addJavaTypeDeclarationPaths() {
+        JavaProjectObjectModel jpom = new JavaProjectObjectModelImpl();
+        jpom.addJavaTypeDeclarationPaths(this.types);
+        return jpom;
+    }
+
+    @Benchmark
+    public JavaProjectObjectModel addJavaTypeDeclarationPathsConcurrent() {
+        JavaProjectObjectModel jpom = new ConcurrentJavaProjectObjectModelImpl();
+        jpom.addJavaTypeDeclarationPaths(this.types);
+        return jpom;
+    }
+
+    @Benchmark
+    public void getAllTypesGivenName(Blackhole blackhole) {
+        getAllTypesGivenName(this.jpom, blackhole);
+    }
+
+    @Benchmark
+    public void getAllTypesGivenNameFrozen(Blackhole blackhole) {
+        getAllTypesGivenName(this.frozenJpom, blackhole);
+    }
+
+    @Benchmark
+    public void getAllTypesGivenPackageName(Blackhole blackhole) {
+        for (String packageName : this.jpom.getAllPackageNames()) {
+            blackhole.consume(this.jpom.getAllTypesGivenPackageName(packageName));
+        }
+    }
+
+    @Benchmark
+    public void getTypeByQualifiedName(Blackhole blackhole) {
+        for (JavaTypeDeclarationPath type : this.types) {
+            blackhole.consume(this.frozenJpom.getTypeByQualifiedName(type.getPackageName(), type.getName()));
+        }
+    }
+
+    void getAllTypesGivenName(JavaProjectObjectModel jpom, Blackhole blackhole) {
+        for (JavaTypeDeclarationPath type : this.types) {
+            blackhole.consume(jpom.getAllTypesGivenName(type.getName()));
+        }
+    }
+
+    /**
+     * Create types in packages of TYPES_PER_PACKAGE types, named Type0 to Type49 in every package, without writing or
+     * parsing any java source files.
+     */
+    static List<JavaTypeDeclarationPath> createTypes(int numberOfTypes) {
+        List<JavaTypeDeclarationPath> types = new ArrayList<>(numberOfTypes);
+        for (int i = 0; i < numberOfTypes; i++) {
+            types.add(createType("Type" + (i % TYPES_PER_PACKAGE),
+                    "org.teinelund.synthetic.package" + (i / TYPES_PER_PACKAGE)));
+        }
+        return types;
+    }
+
+    static JavaTypeDeclarationPath createType(String name, String packageName) {
+        return JavaTypeDeclarationPathBuilder.builder().setName(name).setPackageName(packageName).
+                setJavaType(JavaType.CLASS).setAccessModifier(AccessModifier.PUBLIC).
+                setPathToTypeDeclaration(Paths.get("/synthetic", packageName.replace('.', '/'), name + ".java")).
+                build();
+    }
+}
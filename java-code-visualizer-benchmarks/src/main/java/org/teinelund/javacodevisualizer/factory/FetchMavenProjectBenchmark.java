@@ -0,0 +1,65 @@
+package org.teinelund.javacodevisualizer.factory;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.teinelund.javacodevisualizer.benchmarks.SyntheticCodebases;
+import org.teinelund.javacodevisualizer.dom.JavaTypeDeclarationPath;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parse throughput: FetchMavenProject.findJavaClassPathsInSrcDirectory, which finds and parses all java source files
+ * of a directory tree, with numberOfWorkers parser threads. The throughput is in parsed directory trees per second;
+ * compare the scores of one worker and one worker per core to see how parsing scales:
+ *
+ * java -jar java-code-visualizer-benchmarks/target/benchmarks.jar FetchMavenProjectBenchmark -p numberOfWorkers=1,8
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class FetchMavenProjectBenchmark {
+
+    @Param({"1000"})
+    private int numberOfTypes;
+
+    @Param({"1", "4"})
+    private int numberOfWorkers;
+
+    private Path root;
+    private FetchMavenProject fetchMavenProject;
+
+    @Setup
+    public void setUp() throws IOException {
+        this.root = Files.createTempDirectory("java-code-visualizer-benchmarks");
+        SyntheticCodebases.write(this.root, this.numberOfTypes);
+        this.fetchMavenProject = new FetchMavenProject();
+        this.fetchMavenProject.setNumberOfWorkers(this.numberOfWorkers);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        SyntheticCodebases.deleteDirectory(this.root);
+    }
+
+    @Benchmark
+    public List<JavaTypeDeclarationPath> findJavaClassPathsInSrcDirectory() throws IOException {
+        return this.fetchMavenProject.findJavaClassPathsInSrcDirectory(this.root);
+    }
+}
@@ -0,0 +1,65 @@
+package org.teinelund.javacodevisualizer.factory;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.teinelund.javacodevisualizer.benchmarks.SyntheticCodebases;
+import org.teinelund.javacodevisualizer.dom.JavaProjectObjectModel;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End to end: JavaProjectObjectModelFactory.createrAndStore, from the directory tree to a wired and frozen model,
+ * without storage.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class JavaProjectObjectModelFactoryBenchmark {
+
+    @Param({"1000", "10000"})
+    private int numberOfTypes;
+
+    @Param({"1", "4"})
+    private int numberOfWorkers;
+
+    private Path root;
+    private List<Path> javaProjectPaths;
+    private JavaProjectObjectModelFactoryImpl factory;
+
+    @Setup
+    public void setUp() throws IOException {
+        this.root = Files.createTempDirectory("java-code-visualizer-benchmarks");
+        SyntheticCodebases.write(this.root, this.numberOfTypes);
+        this.javaProjectPaths = Collections.singletonList(this.root);
+        this.factory = new JavaProjectObjectModelFactoryImpl();
+        this.factory.setNumberOfWorkers(this.numberOfWorkers);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        SyntheticCodebases.deleteDirectory(this.root);
+    }
+
+    @Benchmark
+    public JavaProjectObjectModel createrAndStore() throws IOException {
+        return this.factory.createrAndStore(this.javaProjectPaths, Collections.emptyList(), null);
+    }
+}
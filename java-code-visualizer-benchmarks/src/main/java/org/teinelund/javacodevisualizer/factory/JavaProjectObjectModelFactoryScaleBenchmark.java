@@ -0,0 +1,90 @@
+package org.teinelund.javacodevisualizer.factory;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.teinelund.javacodevisualizer.benchmarks.SyntheticCodebases;
+import org.teinelund.javacodevisualizer.dom.JavaProjectObjectModel;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Scale: JavaProjectObjectModelFactory.createrAndStore of a large generated code base. A build takes longer than an
+ * iteration, so each iteration is a single build. The time is reported as usual, and the types indexed and the upper
+ * bound of the peak heap usage of the BuildMetrics of the build as secondary results. The build needs a large heap:
+ *
+ * java -jar java-code-visualizer-benchmarks/target/benchmarks.jar JavaProjectObjectModelFactoryScaleBenchmark
+ *     -p numberOfTypes=500000 -jvmArgs -Xmx8g
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 1, time = 1)
+@Measurement(iterations = 3, time = 1)
+@Fork(1)
+public class JavaProjectObjectModelFactoryScaleBenchmark {
+
+    @Param({"100000"})
+    private int numberOfTypes;
+
+    private Path root;
+    private List<Path> javaProjectPaths;
+    private JavaProjectObjectModelFactoryImpl factory;
+
+    /**
+     * The BuildMetrics of the last build, as JMH secondary results.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Counters {
+
+        public long typesIndexed;
+        public long peakHeapMegabytes;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            this.typesIndexed = 0;
+            this.peakHeapMegabytes = 0;
+        }
+    }
+
+    @Setup
+    public void setUp() throws IOException {
+        this.root = Files.createTempDirectory("java-code-visualizer-benchmarks");
+        SyntheticCodebases.write(this.root, this.numberOfTypes);
+        this.javaProjectPaths = Collections.singletonList(this.root);
+        this.factory = new JavaProjectObjectModelFactoryImpl();
+        this.factory.setNumberOfWorkers(Runtime.getRuntime().availableProcessors());
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        SyntheticCodebases.deleteDirectory(this.root);
+    }
+
+    @Benchmark
+    public JavaProjectObjectModel createrAndStore(Counters counters) throws IOException {
+        JavaProjectObjectModel jpom = this.factory.createrAndStore(this.javaProjectPaths, Collections.emptyList(),
+                null);
+        BuildMetrics metrics = this.factory.getBuildMetrics();
+        counters.typesIndexed = metrics.getTypesIndexed();
+        counters.peakHeapMegabytes = metrics.getPeakHeapBytes() / (1024 * 1024);
+        return jpom;
+    }
+}
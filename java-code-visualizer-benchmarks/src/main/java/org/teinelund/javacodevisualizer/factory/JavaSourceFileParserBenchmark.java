@@ -0,0 +1,88 @@
+package org.teinelund.javacodevisualizer.factory;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.teinelund.javacodevisualizer.benchmarks.SyntheticCodebases;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parsing: JavaSourceFileParser.parseJavaFile on java source files that are already in memory, so only the parser
+ * and the extraction of the TypeSummary are measured. extractJavaFile measures the lexical JavaSourceFileExtractor on
+ * the same files, and readJavaFile reads them from disk before they are parsed. Run with the gc profiler to see the
+ * allocation per operation, and with 100000 types to see that no file handles are left open:
+ *
+ * java -jar java-code-visualizer-benchmarks/target/benchmarks.jar JavaSourceFileParserBenchmark.readJavaFile
+ *     -p numberOfTypes=100000 -prof gc
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JavaSourceFileParserBenchmark {
+
+    @Param({"1000", "10000"})
+    private int numberOfTypes;
+
+    private Path root;
+    private List<Path> paths;
+    private List<String> sources;
+
+    @Setup
+    public void setUp() throws IOException {
+        this.root = Files.createTempDirectory("java-code-visualizer-benchmarks");
+        this.paths = SyntheticCodebases.write(this.root, this.numberOfTypes);
+        this.sources = new ArrayList<>(this.paths.size());
+        for (Path path : this.paths) {
+            this.sources.add(new String(Files.readAllBytes(path), StandardCharsets.UTF_8));
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        SyntheticCodebases.deleteDirectory(this.root);
+    }
+
+    @Benchmark
+    public void parseJavaFile(Blackhole blackhole) {
+        for (int i = 0; i < this.sources.size(); i++) {
+            blackhole.consume(JavaSourceFileParser.instance().parseJavaFile(new StringReader(this.sources.get(i)),
+                    this.paths.get(i)));
+        }
+    }
+
+    @Benchmark
+    public void extractJavaFile(Blackhole blackhole) {
+        for (int i = 0; i < this.sources.size(); i++) {
+            blackhole.consume(JavaSourceFileExtractor.instance().extractJavaFile(new StringReader(this.sources.get(i)),
+                    this.paths.get(i)));
+        }
+    }
+
+    @Benchmark
+    public void readJavaFile(Blackhole blackhole) throws IOException {
+        for (Path path : this.paths) {
+            blackhole.consume(JavaSourceFileParser.instance().readJavaFile(path));
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package org.teinelund.javacodevisualizer.factory;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.teinelund.javacodevisualizer.benchmarks.SyntheticCodebases;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Discovery: finding the Maven projects, and the java source files in their src directories.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MavenProjectPathBenchmark {
+
+    @Param({"1000", "10000"})
+    private int numberOfTypes;
+
+    private Path root;
+    private List<Path> javaProjectPaths;
+
+    @Setup
+    public void setUp() throws IOException {
+        this.root = Files.createTempDirectory("java-code-visualizer-benchmarks");
+        SyntheticCodebases.write(this.root, this.numberOfTypes);
+        this.javaProjectPaths = Collections.singletonList(this.root);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        SyntheticCodebases.deleteDirectory(this.root);
+    }
+
+    @Benchmark
+    public List<Path> getMavenProjectPaths() throws IOException {
+        return MavenProjectPath.instance().getMavenProjectPaths(this.javaProjectPaths, Collections.emptyList());
+    }
+
+    @Benchmark
+    public List<MavenProjectSourceFiles> findMavenProjects() throws IOException {
+        return MavenProjectPath.instance().findMavenProjects(this.javaProjectPaths, Collections.emptyList());
+    }
+}
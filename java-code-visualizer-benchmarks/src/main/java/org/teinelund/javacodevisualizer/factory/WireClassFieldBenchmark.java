@@ -0,0 +1,73 @@
+package org.teinelund.javacodevisualizer.factory;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.teinelund.javacodevisualizer.benchmarks.SyntheticCodebases;
+import org.teinelund.javacodevisualizer.dom.DomainObjectModelFactory;
+import org.teinelund.javacodevisualizer.dom.JavaProjectObjectModel;
+import org.teinelund.javacodevisualizer.dom.JavaTypeDeclarationPath;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Wiring: WireClassField.wireClassFields on a model of parsed types. The fields of all types are cleared before each
+ * invocation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WireClassFieldBenchmark {
+
+    @Param({"1000", "10000"})
+    private int numberOfTypes;
+
+    @Param({"1", "4"})
+    private int numberOfWorkers;
+
+    private List<JavaTypeDeclarationPath> types;
+    private JavaProjectObjectModel jpom;
+
+    @Setup
+    public void setUp() throws IOException {
+        Path root = Files.createTempDirectory("java-code-visualizer-benchmarks");
+        try {
+            this.types = FetchMavenProject.instance().readJavaFiles(SyntheticCodebases.write(root, this.numberOfTypes));
+        }
+        finally {
+            SyntheticCodebases.deleteDirectory(root);
+        }
+        this.jpom = DomainObjectModelFactory.instance().createJavaProjectObjectModel();
+        this.jpom.addJavaTypeDeclarationPaths(this.types);
+        WireClassField.instance().setNumberOfWorkers(this.numberOfWorkers);
+    }
+
+    @Setup(Level.Invocation)
+    public void clearFields() {
+        for (JavaTypeDeclarationPath type : this.types) {
+            WireClassField.instance().clearClassFields(type, this.jpom);
+        }
+    }
+
+    @Benchmark
+    public JavaProjectObjectModel wireClassFields() {
+        WireClassField.instance().wireClassFields(this.jpom);
+        return this.jpom;
+    }
+}
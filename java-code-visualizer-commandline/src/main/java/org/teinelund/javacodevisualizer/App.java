@@ -1,13 +1,117 @@
 package org.teinelund.javacodevisualizer;
 
+import org.teinelund.javacodevisualizer.factory.JavaProjectObjectModelFactoryImpl;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
 /**
- * Hello world!
+ * Builds a JavaProjectObjectModel of the Maven projects found in the given paths, and optionally writes a JSON
+ * report of the build, see BuildReport.
  *
+ * Usage: App [--exclude path]... [--storage file] [--workers n] [--lexical] [--memory-ceiling megabytes]
+ *            [--spill-directory directory] [--report file|-] path...
+ *
+ * With --memory-ceiling, the model is built in bounded memory by spilling to disk, which needs --storage.
  */
-public class App 
-{
-    public static void main( String[] args )
-    {
-        System.out.println( "Hello World!" );
+public class App {
+
+    static final String USAGE = "Usage: App [--exclude path]... [--storage file] [--workers n] [--lexical] " +
+            "[--memory-ceiling megabytes] [--spill-directory directory] [--report file|-] path...";
+
+    public static void main(String[] args) {
+        try {
+            new App().run(args);
+        }
+        catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(USAGE);
+            System.exit(1);
+        }
+        catch (IOException e) {
+            System.err.println("Could not build the model: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    void run(String[] args) throws IOException {
+        List<Path> paths = new ArrayList<>();
+        List<Path> excludePaths = new ArrayList<>();
+        Path storagePath = null;
+        String report = null;
+        JavaProjectObjectModelFactoryImpl factory = new JavaProjectObjectModelFactoryImpl();
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--exclude":
+                    excludePaths.add(Paths.get(value(args, ++i)));
+                    break;
+                case "--storage":
+                    storagePath = Paths.get(value(args, ++i));
+                    break;
+                case "--workers":
+                    factory.setNumberOfWorkers(parseWorkers(value(args, ++i)));
+                    break;
+                case "--lexical":
+                    factory.setLexicalExtraction(true);
+                    break;
+                case "--memory-ceiling":
+                    factory.setMemoryCeiling(parseMegabytes(value(args, ++i)) * 1024 * 1024);
+                    break;
+                case "--spill-directory":
+                    factory.setSpillDirectory(Paths.get(value(args, ++i)));
+                    break;
+                case "--report":
+                    report = value(args, ++i);
+                    break;
+                default:
+                    if (args[i].startsWith("--")) {
+                        throw new IllegalArgumentException("Unknown option " + args[i] + ".");
+                    }
+                    paths.add(Paths.get(args[i]));
+            }
+        }
+        if (paths.isEmpty()) {
+            throw new IllegalArgumentException("No path given.");
+        }
+        factory.createrAndStore(paths, excludePaths, storagePath);
+        if (report != null) {
+            String json = new BuildReport(factory.getBuildMetrics()).toJson();
+            if ("-".equals(report)) {
+                System.out.print(json);
+            }
+            else {
+                Files.write(Paths.get(report), json.getBytes(StandardCharsets.UTF_8));
+            }
+        }
+    }
+
+    String value(String[] args, int i) {
+        if (i >= args.length) {
+            throw new IllegalArgumentException("Option " + args[i - 1] + " needs a value.");
+        }
+        return args[i];
+    }
+
+    int parseWorkers(String value) {
+        try {
+            return Integer.parseInt(value);
+        }
+        catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Number of workers must be a number, was " + value + ".");
+        }
+    }
+
+    long parseMegabytes(String value) {
+        try {
+            return Long.parseLong(value);
+        }
+        catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Memory ceiling must be a number, was " + value + ".");
+        }
     }
 }
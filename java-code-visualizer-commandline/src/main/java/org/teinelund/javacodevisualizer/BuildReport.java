@@ -0,0 +1,66 @@
+package org.teinelund.javacodevisualizer;
+
+import org.teinelund.javacodevisualizer.factory.BuildMetrics;
+
+import java.util.Locale;
+
+/**
+ * Renders the BuildMetrics of a model build as a JSON object, so runs can be compared by scripts. Times are in
+ * milliseconds, and the parse time percentiles are the time to parse a single java source file. peakHeapBytes is an
+ * upper bound of the peak heap usage, see BuildMetrics.getPeakHeapBytes.
+ */
+public class BuildReport {
+
+    private static final double[] PERCENTILES = {50, 90, 99, 100};
+    private static final String[] PERCENTILE_NAMES = {"p50", "p90", "p99", "max"};
+
+    private final BuildMetrics metrics;
+
+    public BuildReport(BuildMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    public String toJson() {
+        StringBuilder json = new StringBuilder();
+        json.append("{\n");
+        json.append("  \"wallTimeMillis\": {");
+        BuildMetrics.Phase[] phases = BuildMetrics.Phase.values();
+        for (int i = 0; i < phases.length; i++) {
+            json.append(i == 0 ? "\n" : ",\n");
+            appendMember(json, "    ", phases[i].name().toLowerCase(Locale.ROOT),
+                    millis(this.metrics.getWallTimeNanos(phases[i])));
+        }
+        json.append("\n  },\n");
+        appendMember(json, "  ", "directoriesListed", Long.toString(this.metrics.getDirectoriesListed()));
+        json.append(",\n");
+        appendMember(json, "  ", "filesStated", Long.toString(this.metrics.getFilesStated()));
+        json.append(",\n");
+        appendMember(json, "  ", "bytesRead", Long.toString(this.metrics.getBytesRead()));
+        json.append(",\n");
+        appendMember(json, "  ", "filesParsed", Long.toString(this.metrics.getFilesParsed()));
+        json.append(",\n");
+        json.append("  \"parseTimeMillis\": {");
+        for (int i = 0; i < PERCENTILES.length; i++) {
+            json.append(i == 0 ? "\n" : ",\n");
+            appendMember(json, "    ", PERCENTILE_NAMES[i], millis(this.metrics.getParseTimeNanos(PERCENTILES[i])));
+        }
+        json.append("\n  },\n");
+        appendMember(json, "  ", "typesIndexed", Long.toString(this.metrics.getTypesIndexed()));
+        json.append(",\n");
+        appendMember(json, "  ", "fieldsResolved", Long.toString(this.metrics.getFieldsResolved()));
+        json.append(",\n");
+        appendMember(json, "  ", "fieldsUnresolved", Long.toString(this.metrics.getFieldsUnresolved()));
+        json.append(",\n");
+        appendMember(json, "  ", "peakHeapBytes", Long.toString(this.metrics.getPeakHeapBytes()));
+        json.append("\n}\n");
+        return json.toString();
+    }
+
+    void appendMember(StringBuilder json, String indent, String name, String value) {
+        json.append(indent).append('"').append(name).append("\": ").append(value);
+    }
+
+    String millis(long nanos) {
+        return String.format(Locale.ROOT, "%.3f", nanos / 1_000_000.0);
+    }
+}
@@ -0,0 +1,70 @@
+package org.teinelund.javacodevisualizer;
+
+import com.google.common.jimfs.Configuration;
+import com.google.common.jimfs.Jimfs;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.teinelund.javacodevisualizer.factory.JavaProjectObjectModelFactoryImpl;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystem;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.LinkedList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BuildReportTest {
+
+    private FileSystem fs = null;
+    private BuildReport sut = null;
+
+    @BeforeEach
+    void initTest() throws IOException {
+        fs = Jimfs.newFileSystem(Configuration.unix());
+        Path projectPath = fs.getPath("/Users/Cody/Projects/Project");
+        Path packagePath = projectPath.resolve("src/main/java/org/teinelund/ordersystem");
+        Files.createDirectories(packagePath);
+        Files.createFile(projectPath.resolve("pom.xml"));
+        Files.write(packagePath.resolve("Customer.java"), ("package org.teinelund.ordersystem;\n" +
+                "public class Customer {\n    private String name;\n}\n").getBytes(StandardCharsets.UTF_8));
+        Files.write(packagePath.resolve("Order.java"), ("package org.teinelund.ordersystem;\n" +
+                "public class Order {\n    private Customer customer;\n}\n").getBytes(StandardCharsets.UTF_8));
+        JavaProjectObjectModelFactoryImpl factory = new JavaProjectObjectModelFactoryImpl();
+        factory.createrAndStore(Collections.singletonList(projectPath), new LinkedList<>(), null);
+        sut = new BuildReport(factory.getBuildMetrics());
+    }
+
+    @AfterEach
+    void cleanUpTest() throws IOException {
+        fs.close();
+    }
+
+    @Test
+    void toJson() {
+        // Initialize
+        // Test
+        String result = sut.toJson();
+        // Verify
+        assertThat(result).startsWith("{\n").endsWith("}\n");
+        assertThat(result).contains("\"wallTimeMillis\": {\n    \"discover\": ", "\"parse\": ", "\"index\": ",
+                "\"wire\": ", "\"store\": 0.000", "\"total\": ");
+        assertThat(result).contains("\"filesParsed\": 2,", "\"typesIndexed\": 2,", "\"fieldsResolved\": 1,",
+                "\"fieldsUnresolved\": 1,");
+        assertThat(result).contains("\"parseTimeMillis\": {\n    \"p50\": ", "\"p90\": ", "\"p99\": ", "\"max\": ");
+        assertThat(result).containsPattern("\"bytesRead\": [1-9][0-9]*,");
+        assertThat(result).containsPattern("\"peakHeapBytes\": [1-9][0-9]*\n");
+    }
+
+    @Test
+    void millis() {
+        // Initialize
+        // Test
+        String result = sut.millis(1_234_567);
+        // Verify
+        assertThat(result).isEqualTo("1.235");
+    }
+}
@@ -1,17 +0,0 @@
-package org.teinelund.javacodevisualizer;
-
-/**
- * Hello world!
- *
- */
-public class App 
-{
-    public static void main( String[] args )
-    {
-        System.out.println( "Hello World!" );
-    }
-
-    public void hello() {
-        int x = 0;
-    }
-}
@@ -0,0 +1,153 @@
+package org.teinelund.javacodevisualizer.dom;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A JavaProjectObjectModel that many threads can add types to, for instance parser workers that add the types of
+ * each file as soon as it is parsed, while other threads query it.
+ *
+ * The name and package indices are ConcurrentHashMaps of copy-on-write buckets: a bucket is an unmodifiable list,
+ * which is never changed, but replaced by a copy with one more (or one less) type by ConcurrentHashMap.merge. Adding
+ * to different buckets does not contend, and adding to the same bucket is serialized by the map. A reader gets a
+ * bucket that does not change while it is read, without locks. Types added by one call to addJavaTypeDeclarationPaths
+ * become visible one by one, not all at once.
+ *
+ * Buckets are copied on every add, so a bucket with n types costs O(n) to extend. Buckets are small for names (most
+ * names are unique) but not for packages; types of a package added in one call are therefore merged into the
+ * package bucket in one copy.
+ *
+ * Without an order, types are in the order they are added, which depends on the timing of the writers. With an
+ * order, the buckets are kept sorted on it, and of two types with the same package name and name, the first in order
+ * is the one found by getTypeByQualifiedName. The model is then the same whatever order the types are added in.
+ * Types that are equal in order are kept in the order they are added.
+ */
+class ConcurrentJavaProjectObjectModelImpl extends JavaProjectObjectModelImpl {
+
+    /**
+     * The order of the types, or null. Released when the model is frozen.
+     */
+    private Comparator<JavaTypeDeclarationPath> order;
+
+    public ConcurrentJavaProjectObjectModelImpl() {
+        this(null);
+    }
+
+    /**
+     * @param order is the order of the types in the buckets, or null to keep them in the order they are added.
+     */
+    public ConcurrentJavaProjectObjectModelImpl(Comparator<JavaTypeDeclarationPath> order) {
+        typeNameMap = new ConcurrentHashMap<>();
+        packageNameToTypeListMap = new ConcurrentHashMap<>();
+        qualifiedNameIndex = QualifiedNameIndex.concurrent();
+        this.order = order;
+    }
+
+    @Override
+    public void addJavaTypeDeclarationPaths(List<JavaTypeDeclarationPath> javaTypeDeclarationPaths) {
+        checkNotFrozen();
+        Comparator<JavaTypeDeclarationPath> order = this.order;
+        List<JavaTypeDeclarationPath> types = javaTypeDeclarationPaths;
+        if (order != null) {
+            types = new ArrayList<>(javaTypeDeclarationPaths);
+            types.sort(order);
+        }
+        for (JavaTypeDeclarationPath jtdp : types) {
+            typeNameMap.merge(jtdp.getName(), Collections.singletonList(jtdp), (list, added) -> merge(list, added, order));
+            qualifiedNameIndex.add(jtdp, order);
+        }
+        // Group the types by package, so each package bucket is copied once per call.
+        Map<String, List<JavaTypeDeclarationPath>> typesByPackageName = new HashMap<>();
+        for (JavaTypeDeclarationPath jtdp : types) {
+            typesByPackageName.computeIfAbsent(jtdp.getPackageName(), key -> new ArrayList<>()).add(jtdp);
+        }
+        for (Map.Entry<String, List<JavaTypeDeclarationPath>> entry : typesByPackageName.entrySet()) {
+            packageNameToTypeListMap.merge(entry.getKey(), Collections.unmodifiableList(entry.getValue()),
+                    (list, added) -> merge(list, added, order));
+        }
+    }
+
+    /**
+     * Remove types from the name and package indices, the reverse field index and the dependency rollups. Types are
+     * compared by identity. A name or package that has no types left is removed as well.
+     *
+     * @param javaTypeDeclarationPaths is a list of types to remove.
+     */
+    @Override
+    public void removeJavaTypeDeclarationPaths(List<JavaTypeDeclarationPath> javaTypeDeclarationPaths) {
+        checkNotFrozen();
+        for (JavaTypeDeclarationPath jtdp : javaTypeDeclarationPaths) {
+            typeNameMap.computeIfPresent(jtdp.getName(), (key, list) -> remove(list, jtdp));
+            packageNameToTypeListMap.computeIfPresent(jtdp.getPackageName(), (key, list) -> remove(list, jtdp));
+            qualifiedNameIndex.remove(jtdp, typeNameMap.get(jtdp.getName()));
+            reverseFieldIndex.remove(jtdp);
+            dependencyRollups.removeFields(jtdp);
+        }
+    }
+
+    /**
+     * The buckets are unmodifiable, and are returned as they are.
+     */
+    @Override
+    List<JavaTypeDeclarationPath> getTypes(Map<String, List<JavaTypeDeclarationPath>> index, String key) {
+        List<JavaTypeDeclarationPath> list = index.get(key);
+        return list != null ? list : Collections.emptyList();
+    }
+
+    @Override
+    public void freeze() {
+        super.freeze();
+        this.order = null;
+    }
+
+    /**
+     * @param list is a bucket, sorted on order.
+     * @param types are the types to add, sorted on order.
+     * @return a copy of list with types, sorted on order, or with types last if order is null.
+     */
+    static List<JavaTypeDeclarationPath> merge(List<JavaTypeDeclarationPath> list, List<JavaTypeDeclarationPath> types,
+                                               Comparator<JavaTypeDeclarationPath> order) {
+        List<JavaTypeDeclarationPath> copy = new ArrayList<>(list.size() + types.size());
+        int i = 0;
+        if (order != null) {
+            for (JavaTypeDeclarationPath type : types) {
+                while (i < list.size() && order.compare(list.get(i), type) <= 0) {
+                    copy.add(list.get(i++));
+                }
+                copy.add(type);
+            }
+        }
+        else {
+            copy.addAll(list);
+            i = list.size();
+            copy.addAll(types);
+        }
+        copy.addAll(list.subList(i, list.size()));
+        return Collections.unmodifiableList(copy);
+    }
+
+    /**
+     * @return a copy of list without jtdp, or null if the copy is empty.
+     */
+    static List<JavaTypeDeclarationPath> remove(List<JavaTypeDeclarationPath> list, JavaTypeDeclarationPath jtdp) {
+        List<JavaTypeDeclarationPath> copy = new ArrayList<>(list.size());
+        boolean removed = false;
+        for (JavaTypeDeclarationPath type : list) {
+            if (type == jtdp && !removed) {
+                removed = true;
+            }
+            else {
+                copy.add(type);
+            }
+        }
+        if (!removed) {
+            return list;
+        }
+        return copy.isEmpty() ? null : Collections.unmodifiableList(copy);
+    }
+}
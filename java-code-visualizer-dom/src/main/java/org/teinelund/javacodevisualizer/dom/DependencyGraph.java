@@ -0,0 +1,297 @@
+package org.teinelund.javacodevisualizer.dom;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The field dependencies of a JavaProjectObjectModel as a graph in compressed sparse row form. The types are numbered
+ * 0 to getTypeCount() - 1, in name index order, and every field of a type is an edge from the type to the type of
+ * the field. The targets of the edges of type id are targets[offsets[id]] to targets[offsets[id + 1] - 1], in the
+ * order of the fields.
+ *
+ * The graph is a copy of the fields when it was created, and is not updated when the model changes. The algorithms
+ * work on the int arrays only, and are iterative, so they neither chase object references nor recurse, regardless of
+ * the size of the graph.
+ */
+public class DependencyGraph {
+
+    private final JavaTypeDeclarationPath[] types;
+    private final Map<JavaTypeDeclarationPath, Integer> ids;
+    private final int[] offsets;
+    private final int[] targets;
+
+    private DependencyGraph(JavaTypeDeclarationPath[] types, Map<JavaTypeDeclarationPath, Integer> ids, int[] offsets,
+                            int[] targets) {
+        this.types = types;
+        this.ids = ids;
+        this.offsets = offsets;
+        this.targets = targets;
+    }
+
+    /**
+     * Create the DependencyGraph of the fields of all types in jpom. Fields whose type is not in jpom are left out.
+     *
+     * @param jpom is a wired JavaProjectObjectModel.
+     * @return a DependencyGraph.
+     */
+    public static DependencyGraph create(JavaProjectObjectModel jpom) {
+        List<JavaTypeDeclarationPath> typeList = new ArrayList<>();
+        for (String name : jpom.getAllTypeNames()) {
+            typeList.addAll(jpom.getAllTypesGivenName(name));
+        }
+        JavaTypeDeclarationPath[] types = typeList.toArray(new JavaTypeDeclarationPath[0]);
+        Map<JavaTypeDeclarationPath, Integer> ids = new IdentityHashMap<>(types.length);
+        for (int id = 0; id < types.length; id++) {
+            ids.put(types[id], id);
+        }
+        // One pass over the fields, so each field is looked up once. Targets grows like an ArrayList, and is trimmed.
+        int[] offsets = new int[types.length + 1];
+        int[] targets = new int[Math.max(16, types.length)];
+        int edgeCount = 0;
+        for (int id = 0; id < types.length; id++) {
+            for (Field field : types[id].getFields()) {
+                Integer target = ids.get(field.getType());
+                if (target != null) {
+                    if (edgeCount == targets.length) {
+                        targets = Arrays.copyOf(targets, targets.length + (targets.length >> 1));
+                    }
+                    targets[edgeCount++] = target;
+                }
+            }
+            offsets[id + 1] = edgeCount;
+        }
+        if (edgeCount != targets.length) {
+            targets = Arrays.copyOf(targets, edgeCount);
+        }
+        return new DependencyGraph(types, ids, offsets, targets);
+    }
+
+    public int getTypeCount() {
+        return this.types.length;
+    }
+
+    public int getEdgeCount() {
+        return this.targets.length;
+    }
+
+    public JavaTypeDeclarationPath getType(int id) {
+        return this.types[id];
+    }
+
+    /**
+     * @return the id of jtdp, or -1 if jtdp is not in the graph.
+     */
+    public int getId(JavaTypeDeclarationPath jtdp) {
+        Integer id = this.ids.get(jtdp);
+        return id != null ? id : -1;
+    }
+
+    /**
+     * @return the offsets of the edges of each type, getTypeCount() + 1 offsets. The array is shared, and must not be
+     * modified.
+     */
+    public int[] getOffsets() {
+        return this.offsets;
+    }
+
+    /**
+     * @return the target type id of each edge. The array is shared, and must not be modified.
+     */
+    public int[] getTargets() {
+        return this.targets;
+    }
+
+    /**
+     * Find the strongly connected components with Tarjan's algorithm. The types of a component all depend on each
+     * other, directly or through other types of the component.
+     *
+     * The components are numbered in reverse topological order: if a type depends on a type in another component,
+     * the number of its own component is the greater one.
+     *
+     * @return the component number of each type.
+     */
+    public int[] findStronglyConnectedComponents() {
+        int typeCount = this.types.length;
+        int[] index = new int[typeCount];
+        int[] lowLink = new int[typeCount];
+        int[] component = new int[typeCount];
+        Arrays.fill(index, -1);
+        Arrays.fill(component, -1);
+        // The stack of visited types that are not assigned to a component yet.
+        int[] stack = new int[typeCount];
+        boolean[] onStack = new boolean[typeCount];
+        int stackSize = 0;
+        // The depth first search path, and the next edge to follow from each type on it.
+        int[] path = new int[typeCount];
+        int[] nextEdge = new int[typeCount];
+        int pathLength = 0;
+        int nextIndex = 0;
+        int componentCount = 0;
+        for (int root = 0; root < typeCount; root++) {
+            if (index[root] != -1) {
+                continue;
+            }
+            index[root] = lowLink[root] = nextIndex++;
+            stack[stackSize++] = root;
+            onStack[root] = true;
+            path[pathLength] = root;
+            nextEdge[pathLength++] = this.offsets[root];
+            while (pathLength > 0) {
+                int type = path[pathLength - 1];
+                if (nextEdge[pathLength - 1] < this.offsets[type + 1]) {
+                    int target = this.targets[nextEdge[pathLength - 1]++];
+                    if (index[target] == -1) {
+                        index[target] = lowLink[target] = nextIndex++;
+                        stack[stackSize++] = target;
+                        onStack[target] = true;
+                        path[pathLength] = target;
+                        nextEdge[pathLength++] = this.offsets[target];
+                    }
+                    else if (onStack[target]) {
+                        lowLink[type] = Math.min(lowLink[type], index[target]);
+                    }
+                    continue;
+                }
+                pathLength--;
+                if (lowLink[type] == index[type]) {
+                    int member;
+                    do {
+                        member = stack[--stackSize];
+                        onStack[member] = false;
+                        component[member] = componentCount;
+                    } while (member != type);
+                    componentCount++;
+                }
+                if (pathLength > 0) {
+                    int parent = path[pathLength - 1];
+                    lowLink[parent] = Math.min(lowLink[parent], lowLink[type]);
+                }
+            }
+        }
+        return component;
+    }
+
+    /**
+     * Find the cycles of field dependencies: the strongly connected components of more than one type, and the types
+     * with a field of their own type.
+     *
+     * @return the type ids of each cycle, in ascending order.
+     */
+    public List<int[]> findCycles() {
+        int[][] groups = groupByComponent(findStronglyConnectedComponents());
+        int[] componentOffsets = groups[0];
+        int[] members = groups[1];
+        List<int[]> cycles = new ArrayList<>();
+        for (int c = 0; c < componentOffsets.length - 1; c++) {
+            int start = componentOffsets[c];
+            int end = componentOffsets[c + 1];
+            if (end - start > 1 || hasEdge(members[start], members[start])) {
+                cycles.add(Arrays.copyOfRange(members, start, end));
+            }
+        }
+        return cycles;
+    }
+
+    /**
+     * Assign each type to a layer, such that a type only depends on types in lower layers, or in its own strongly
+     * connected component. Types without dependencies (outside their component) are in layer 0, and any other type
+     * is one layer above its highest dependency, so the layer is the length of the longest dependency chain below it.
+     *
+     * @return the layer of each type.
+     */
+    public int[] computeLayers() {
+        int[] component = findStronglyConnectedComponents();
+        int[][] groups = groupByComponent(component);
+        int[] componentOffsets = groups[0];
+        int[] members = groups[1];
+        int[] componentLayer = new int[componentOffsets.length - 1];
+        // In reverse topological order, the dependencies of a component have lower component numbers.
+        for (int c = 0; c < componentLayer.length; c++) {
+            int layer = 0;
+            for (int member = componentOffsets[c]; member < componentOffsets[c + 1]; member++) {
+                int type = members[member];
+                for (int edge = this.offsets[type]; edge < this.offsets[type + 1]; edge++) {
+                    int targetComponent = component[this.targets[edge]];
+                    if (targetComponent != c) {
+                        layer = Math.max(layer, componentLayer[targetComponent] + 1);
+                    }
+                }
+            }
+            componentLayer[c] = layer;
+        }
+        int[] layers = new int[component.length];
+        for (int type = 0; type < component.length; type++) {
+            layers[type] = componentLayer[component[type]];
+        }
+        return layers;
+    }
+
+    /**
+     * Find the types reachable from the sources through fields, with a breadth first search.
+     *
+     * @param sources are type ids.
+     * @return the ids of the sources and of all types they depend on, directly or indirectly.
+     */
+    public BitSet findReachable(int... sources) {
+        BitSet reachable = new BitSet(this.types.length);
+        int[] queue = new int[this.types.length];
+        int head = 0;
+        int tail = 0;
+        for (int source : sources) {
+            if (!reachable.get(source)) {
+                reachable.set(source);
+                queue[tail++] = source;
+            }
+        }
+        while (head < tail) {
+            int type = queue[head++];
+            for (int edge = this.offsets[type]; edge < this.offsets[type + 1]; edge++) {
+                int target = this.targets[edge];
+                if (!reachable.get(target)) {
+                    reachable.set(target);
+                    queue[tail++] = target;
+                }
+            }
+        }
+        return reachable;
+    }
+
+    boolean hasEdge(int source, int target) {
+        for (int edge = this.offsets[source]; edge < this.offsets[source + 1]; edge++) {
+            if (this.targets[edge] == target) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Group the types by component, in compressed sparse row form like the graph: the types of component c are
+     * members[componentOffsets[c]] to members[componentOffsets[c + 1] - 1], in ascending order.
+     *
+     * @return componentOffsets as element 0, and members as element 1.
+     */
+    int[][] groupByComponent(int[] component) {
+        int componentCount = 0;
+        for (int c : component) {
+            componentCount = Math.max(componentCount, c + 1);
+        }
+        int[] componentOffsets = new int[componentCount + 1];
+        for (int c : component) {
+            componentOffsets[c + 1]++;
+        }
+        for (int c = 0; c < componentCount; c++) {
+            componentOffsets[c + 1] += componentOffsets[c];
+        }
+        int[] next = Arrays.copyOf(componentOffsets, componentCount);
+        int[] members = new int[component.length];
+        for (int type = 0; type < component.length; type++) {
+            members[next[component[type]]++] = type;
+        }
+        return new int[][] { componentOffsets, members };
+    }
+}
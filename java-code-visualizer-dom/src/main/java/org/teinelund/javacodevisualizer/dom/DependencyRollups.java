@@ -0,0 +1,195 @@
+package org.teinelund.javacodevisualizer.dom;
+
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * The fields of a JavaProjectObjectModel rolled up to weighted dependencies between packages and between Maven
+ * modules. A field of a type in package A, of a type in package B, is one unit of weight on the edge A -> B. Fields
+ * within a package or a module are edges from the package or module to itself.
+ *
+ * The tables are updated as fields are wired, like the ReverseFieldIndex, so they are read without visiting any
+ * field. The package table is kept as it is. Fields are also counted between the directories of the java source
+ * files, and the module table is rolled up from the directory table, once per change, with the Maven project paths
+ * of setModulePaths. The directories are far fewer than the fields, and a type belongs to the module with the
+ * deepest Maven project path above its file, so the modules can be set before or after the fields are wired. Types
+ * without a path, or outside all modules, are left out of the module table.
+ */
+public class DependencyRollups {
+
+    private final Map<String, Map<String, Integer>> packageWeights = new HashMap<>();
+    private final Map<Path, Map<Path, Integer>> directoryWeights = new HashMap<>();
+    private Set<Path> modulePaths = Collections.emptySet();
+
+    /**
+     * The module table, rolled up on first access after a change. Null if it has to be rolled up again.
+     */
+    private Map<Path, Map<Path, Integer>> moduleWeights = null;
+
+    /**
+     * Set the Maven project paths of the modules of the model.
+     */
+    public synchronized void setModulePaths(Collection<Path> modulePaths) {
+        Set<Path> paths = new HashSet<>(modulePaths);
+        if (!paths.equals(this.modulePaths)) {
+            this.modulePaths = paths;
+            this.moduleWeights = null;
+        }
+    }
+
+    /**
+     * @return the Maven project paths of the modules of the model, in path order.
+     */
+    public synchronized Set<Path> getModulePaths() {
+        return Collections.unmodifiableSet(new TreeSet<>(this.modulePaths));
+    }
+
+    /**
+     * Count a field of holder, of type fieldType. Does nothing if fieldType is null.
+     */
+    public synchronized void add(JavaTypeDeclarationPath holder, JavaTypeDeclarationPath fieldType) {
+        update(holder, fieldType, 1);
+    }
+
+    /**
+     * Count all current fields of holder.
+     */
+    public synchronized void addFields(JavaTypeDeclarationPath holder) {
+        for (Field field : holder.getFields()) {
+            update(holder, field.getType(), 1);
+        }
+    }
+
+    /**
+     * Uncount the fields of holder. Must be called before the fields of holder are cleared, or holder is removed from
+     * the model.
+     */
+    public synchronized void removeFields(JavaTypeDeclarationPath holder) {
+        for (Field field : holder.getFields()) {
+            update(holder, field.getType(), -1);
+        }
+    }
+
+    /**
+     * Count weight fields of types in package from, of types in package to. For models that count their fields without
+     * creating JavaTypeDeclarationPaths, like a memory-mapped model. A null package name is the unnamed package.
+     */
+    public synchronized void addPackageWeight(String from, String to, int weight) {
+        updateWeight(this.packageWeights, from != null ? from : "", to != null ? to : "", weight);
+    }
+
+    /**
+     * Count weight fields of types in java source files in directory from, of types in java source files in directory
+     * to. Like addPackageWeight, for models that do not create JavaTypeDeclarationPaths.
+     */
+    public synchronized void addDirectoryWeight(Path from, Path to, int weight) {
+        updateWeight(this.directoryWeights, from, to, weight);
+        this.moduleWeights = null;
+    }
+
+    void update(JavaTypeDeclarationPath holder, JavaTypeDeclarationPath fieldType, int weight) {
+        if (fieldType == null) {
+            return;
+        }
+        addPackageWeight(holder.getPackageName(), fieldType.getPackageName(), weight);
+        Path holderDirectory = getDirectory(holder);
+        Path fieldTypeDirectory = getDirectory(fieldType);
+        if (holderDirectory != null && fieldTypeDirectory != null) {
+            addDirectoryWeight(holderDirectory, fieldTypeDirectory, weight);
+        }
+    }
+
+    static <K> void updateWeight(Map<K, Map<K, Integer>> weights, K from, K to, int weight) {
+        Map<K, Integer> targets = weights.computeIfAbsent(from, key -> new HashMap<>());
+        if (targets.merge(to, weight, Integer::sum) == 0) {
+            targets.remove(to);
+            if (targets.isEmpty()) {
+                weights.remove(from);
+            }
+        }
+    }
+
+    static Path getDirectory(JavaTypeDeclarationPath jtdp) {
+        Path path = jtdp.getPathToTypeDeclaration();
+        return path != null ? path.getParent() : null;
+    }
+
+    /**
+     * @return the number of fields from package from to package to, or 0.
+     */
+    public synchronized int getPackageWeight(String from, String to) {
+        return getWeight(this.packageWeights, from, to);
+    }
+
+    /**
+     * @return a copy of the package table, by package name and then target package name, in name order.
+     */
+    public synchronized Map<String, Map<String, Integer>> getPackageDependencies() {
+        return copy(this.packageWeights);
+    }
+
+    /**
+     * @return the number of fields from the module with Maven project path from to the module with Maven project path
+     * to, or 0.
+     */
+    public synchronized int getModuleWeight(Path from, Path to) {
+        return getWeight(getModuleWeights(), from, to);
+    }
+
+    /**
+     * @return a copy of the module table, by Maven project path and then target Maven project path, in path order.
+     */
+    public synchronized Map<Path, Map<Path, Integer>> getModuleDependencies() {
+        return copy(getModuleWeights());
+    }
+
+    Map<Path, Map<Path, Integer>> getModuleWeights() {
+        if (this.moduleWeights == null) {
+            Map<Path, Map<Path, Integer>> weights = new HashMap<>();
+            Map<Path, Path> modules = new HashMap<>();
+            for (Map.Entry<Path, Map<Path, Integer>> entry : this.directoryWeights.entrySet()) {
+                Path from = modules.computeIfAbsent(entry.getKey(), this::findModule);
+                for (Map.Entry<Path, Integer> target : entry.getValue().entrySet()) {
+                    Path to = modules.computeIfAbsent(target.getKey(), this::findModule);
+                    if (from != null && to != null) {
+                        updateWeight(weights, from, to, target.getValue());
+                    }
+                }
+            }
+            this.moduleWeights = weights;
+        }
+        return this.moduleWeights;
+    }
+
+    /**
+     * @return the deepest Maven project path above directory, or null.
+     */
+    Path findModule(Path directory) {
+        for (Path path = directory; path != null; path = path.getParent()) {
+            if (this.modulePaths.contains(path)) {
+                return path;
+            }
+        }
+        return null;
+    }
+
+    static <K> int getWeight(Map<K, Map<K, Integer>> weights, K from, K to) {
+        Map<K, Integer> targets = weights.get(from);
+        return targets != null ? targets.getOrDefault(to, 0) : 0;
+    }
+
+    static <K extends Comparable<? super K>> Map<K, Map<K, Integer>> copy(Map<K, Map<K, Integer>> weights) {
+        Map<K, Map<K, Integer>> copy = new TreeMap<>();
+        for (Map.Entry<K, Map<K, Integer>> entry : weights.entrySet()) {
+            copy.put(entry.getKey(), Collections.unmodifiableMap(new TreeMap<>(entry.getValue())));
+        }
+        return Collections.unmodifiableMap(copy);
+    }
+}
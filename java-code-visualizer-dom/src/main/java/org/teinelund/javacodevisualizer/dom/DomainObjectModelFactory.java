@@ -1,6 +1,7 @@
 package org.teinelund.javacodevisualizer.dom;
 
 import java.nio.file.Path;
+import java.util.Comparator;
 import java.util.List;
 
 public class DomainObjectModelFactory implements IDomainObjectModelFactory {
@@ -21,6 +22,16 @@ public class DomainObjectModelFactory implements IDomainObjectModelFactory {
         return new JavaProjectObjectModelImpl();
     }
 
+    @Override
+    public JavaProjectObjectModel createConcurrentJavaProjectObjectModel() {
+        return new ConcurrentJavaProjectObjectModelImpl();
+    }
+
+    @Override
+    public JavaProjectObjectModel createConcurrentJavaProjectObjectModel(Comparator<JavaTypeDeclarationPath> order) {
+        return new ConcurrentJavaProjectObjectModelImpl(order);
+    }
+
     @Override
     public MavenProject createMavenProject(Path mavenProjectPath, List<JavaTypeDeclarationPath> javaTypeDeclarationPaths) {
         return new MavenProjectImpl(mavenProjectPath, javaTypeDeclarationPaths);
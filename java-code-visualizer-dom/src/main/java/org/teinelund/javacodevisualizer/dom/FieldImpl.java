@@ -27,7 +27,7 @@ class FieldImpl implements Field {
 
 
         public FieldImpl.FieldBuilder setName(String name) {
-            this.name = name;
+            this.name = SymbolTable.instance().intern(name);
             return this;
         }
 
@@ -0,0 +1,28 @@
+package org.teinelund.javacodevisualizer.dom;
+
+/**
+ * A declared field of a type. A field declaration with several variables (String s1, s2;) results in one FieldSummary
+ * per variable.
+ */
+public class FieldSummary {
+
+    private final String name;
+    private final TypeReference type;
+
+    public FieldSummary(String name, TypeReference type) {
+        this.name = SymbolTable.instance().intern(name);
+        this.type = type;
+    }
+
+    public String getName() {
+        return this.name;
+    }
+
+    /**
+     * @return the type of the field, or null if the type is not a class or interface type (a primitive type or an
+     * array, for instance).
+     */
+    public TypeReference getType() {
+        return this.type;
+    }
+}
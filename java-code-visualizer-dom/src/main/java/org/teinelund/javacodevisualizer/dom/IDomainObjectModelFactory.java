@@ -1,9 +1,22 @@
 package org.teinelund.javacodevisualizer.dom;
 
 import java.nio.file.Path;
+import java.util.Comparator;
 import java.util.List;
 
 public interface IDomainObjectModelFactory {
     public JavaProjectObjectModel createJavaProjectObjectModel();
+
+    /**
+     * @return a JavaProjectObjectModel that many threads can add types to and query at the same time.
+     */
+    public JavaProjectObjectModel createConcurrentJavaProjectObjectModel();
+
+    /**
+     * @param order is the order of the types in the model, whatever order they are added in. Of two types with the
+     *              same package name and name, the first in order is the one found by getTypeByQualifiedName.
+     * @return a JavaProjectObjectModel that many threads can add types to and query at the same time.
+     */
+    public JavaProjectObjectModel createConcurrentJavaProjectObjectModel(Comparator<JavaTypeDeclarationPath> order);
     public MavenProject createMavenProject(Path mavenProjectPath, List<JavaTypeDeclarationPath> javaTypeDeclarationPaths);
 }
@@ -0,0 +1,30 @@
+package org.teinelund.javacodevisualizer.dom;
+
+/**
+ * An import declaration of a compilation unit. Example: "import java.util.*;" has the name "java.util", and is an
+ * asterisk import.
+ */
+public class ImportSummary {
+
+    private final String name;
+    private final boolean staticImport;
+    private final boolean asteriskImport;
+
+    public ImportSummary(String name, boolean staticImport, boolean asteriskImport) {
+        this.name = SymbolTable.instance().intern(name);
+        this.staticImport = staticImport;
+        this.asteriskImport = asteriskImport;
+    }
+
+    public String getName() {
+        return this.name;
+    }
+
+    public boolean isStatic() {
+        return this.staticImport;
+    }
+
+    public boolean isAsterisk() {
+        return this.asteriskImport;
+    }
+}
@@ -5,8 +5,65 @@ import java.util.List;
 
 public interface JavaProjectObjectModel {
     public void addJavaTypeDeclarationPaths(List<JavaTypeDeclarationPath> javaTypeDeclarationPaths);
+    public void removeJavaTypeDeclarationPaths(List<JavaTypeDeclarationPath> javaTypeDeclarationPaths);
     public List<JavaTypeDeclarationPath> getAllTypesGivenName(String name);
     public List<JavaTypeDeclarationPath> getAllTypesGivenPackageName(String packageName);
     public Collection<String> getAllTypeNames();
     public Collection<String> getAllPackageNames();
+
+    /**
+     * Turn the model into a compact, read only form, once it is built. Queries on a frozen model do not allocate, and
+     * adding or removing types, or changing their fields, throws an IllegalStateException.
+     */
+    public void freeze();
+
+    public boolean isFrozen();
+
+    /**
+     * Look up a type by its package name and name, without comparing the package names of all types with the same
+     * name.
+     *
+     * @param packageName is the package name of the type. The empty string for the default package.
+     * @param name is the name of the type.
+     * @return the type, or null if the model has no such type.
+     */
+    public JavaTypeDeclarationPath getTypeByQualifiedName(String packageName, String name);
+
+    /**
+     * Look up a type by its fully qualified name, for instance "org.teinelund.ordersystem.Customer".
+     *
+     * @param qualifiedName is the package name and the name of the type, separated by a dot.
+     * @return the type, or null if the model has no such type.
+     */
+    public default JavaTypeDeclarationPath getTypeByQualifiedName(String qualifiedName) {
+        int index = qualifiedName.lastIndexOf('.');
+        return getTypeByQualifiedName(index == -1 ? "" : qualifiedName.substring(0, index),
+                qualifiedName.substring(index + 1));
+    }
+
+    /**
+     * The types that have fields of each type, for impact analysis. The index is updated when fields are wired, and
+     * when types are removed.
+     *
+     * @return the ReverseFieldIndex of the model.
+     */
+    public ReverseFieldIndex getReverseFieldIndex();
+
+    /**
+     * The fields rolled up to weighted dependencies between packages and between Maven modules, for architecture
+     * diagrams. The tables are updated when fields are wired, and when types are removed.
+     *
+     * @return the DependencyRollups of the model.
+     */
+    public DependencyRollups getDependencyRollups();
+
+    /**
+     * Create a DependencyGraph of the fields of the types, for graph algorithms that should not chase Field objects.
+     * The graph is a copy, and is not updated when the model changes.
+     *
+     * @return a new DependencyGraph.
+     */
+    public default DependencyGraph createDependencyGraph() {
+        return DependencyGraph.create(this);
+    }
 }
@@ -1,8 +1,10 @@
 package org.teinelund.javacodevisualizer.dom;
 
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
@@ -19,13 +21,30 @@ class JavaProjectObjectModelImpl implements JavaProjectObjectModel {
      */
     Map<String, List<JavaTypeDeclarationPath>> packageNameToTypeListMap;
 
+    /**
+     * Store types by package name and name. If two types have the same package name and name, the first one added is
+     * stored.
+     */
+    QualifiedNameIndex qualifiedNameIndex;
+
+    /**
+     * The type names and package names of a frozen model. Null until the model is frozen.
+     */
+    Collection<String> frozenTypeNames;
+    Collection<String> frozenPackageNames;
+
+    final ReverseFieldIndex reverseFieldIndex = new ReverseFieldIndex();
+    final DependencyRollups dependencyRollups = new DependencyRollups();
+
     public JavaProjectObjectModelImpl() {
         typeNameMap = new HashMap<>();
         packageNameToTypeListMap = new HashMap<>();
+        qualifiedNameIndex = new QualifiedNameIndex();
     }
 
     @Override
     public void addJavaTypeDeclarationPaths(List<JavaTypeDeclarationPath> javaTypeDeclarationPaths) {
+        checkNotFrozen();
         for (JavaTypeDeclarationPath jtdp : javaTypeDeclarationPaths) {
             if (typeNameMap.containsKey(jtdp.getName())) {
                 List<JavaTypeDeclarationPath> list = typeNameMap.get(jtdp.getName());
@@ -46,12 +65,61 @@ class JavaProjectObjectModelImpl implements JavaProjectObjectModel {
                 list.add(jtdp);
                 packageNameToTypeListMap.put(jtdp.getPackageName(), list);
             }
+            qualifiedNameIndex.add(jtdp);
+        }
+    }
+
+    /**
+     * Remove types from the name and package indices, the reverse field index and the dependency rollups. Types are
+     * compared by identity. A name or package that has no types left is removed as well.
+     *
+     * @param javaTypeDeclarationPaths is a list of types to remove.
+     */
+    @Override
+    public void removeJavaTypeDeclarationPaths(List<JavaTypeDeclarationPath> javaTypeDeclarationPaths) {
+        checkNotFrozen();
+        for (JavaTypeDeclarationPath jtdp : javaTypeDeclarationPaths) {
+            removeFromIndex(typeNameMap, jtdp.getName(), jtdp);
+            removeFromIndex(packageNameToTypeListMap, jtdp.getPackageName(), jtdp);
+            qualifiedNameIndex.remove(jtdp, typeNameMap.get(jtdp.getName()));
+            reverseFieldIndex.remove(jtdp);
+            dependencyRollups.removeFields(jtdp);
+        }
+    }
+
+    void removeFromIndex(Map<String, List<JavaTypeDeclarationPath>> index, String key, JavaTypeDeclarationPath jtdp) {
+        List<JavaTypeDeclarationPath> list = index.get(key);
+        if (list == null) {
+            return;
+        }
+        Iterator<JavaTypeDeclarationPath> iterator = list.iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next() == jtdp) {
+                iterator.remove();
+                break;
+            }
+        }
+        if (list.isEmpty()) {
+            index.remove(key);
         }
     }
 
     @Override
     public List<JavaTypeDeclarationPath> getAllTypesGivenName(String name) {
-        List<JavaTypeDeclarationPath> list = this.typeNameMap.get(name);
+        return getTypes(this.typeNameMap, name);
+    }
+
+    @Override
+    public List<JavaTypeDeclarationPath> getAllTypesGivenPackageName(String packageName) {
+        return getTypes(this.packageNameToTypeListMap, packageName);
+    }
+
+    List<JavaTypeDeclarationPath> getTypes(Map<String, List<JavaTypeDeclarationPath>> index, String key) {
+        List<JavaTypeDeclarationPath> list = index.get(key);
+        if (isFrozen()) {
+            // The lists of a frozen model are unmodifiable already.
+            return list != null ? list : Collections.emptyList();
+        }
         if (list != null) {
             return Collections.unmodifiableList(list);
         }
@@ -59,17 +127,88 @@ class JavaProjectObjectModelImpl implements JavaProjectObjectModel {
     }
 
     @Override
-    public List<JavaTypeDeclarationPath> getAllTypesGivenPackageName(String packageName) {
-        return Collections.unmodifiableList(this.packageNameToTypeListMap.get(packageName));
+    public JavaTypeDeclarationPath getTypeByQualifiedName(String packageName, String name) {
+        return this.qualifiedNameIndex.get(packageName, name);
     }
 
     @Override
     public Collection<String> getAllTypeNames() {
+        if (isFrozen()) {
+            return this.frozenTypeNames;
+        }
         return Collections.unmodifiableCollection(this.typeNameMap.keySet());
     }
 
     @Override
     public Collection<String> getAllPackageNames() {
+        if (isFrozen()) {
+            return this.frozenPackageNames;
+        }
         return Collections.unmodifiableCollection(this.packageNameToTypeListMap.keySet());
     }
+
+    @Override
+    public ReverseFieldIndex getReverseFieldIndex() {
+        return this.reverseFieldIndex;
+    }
+
+    @Override
+    public DependencyRollups getDependencyRollups() {
+        return this.dependencyRollups;
+    }
+
+    /**
+     * Replace the LinkedList buckets with unmodifiable lists backed by arrays, in maps sized for their content, and
+     * freeze the fields of the types. The views returned by the queries are created here, once, so the queries of a
+     * frozen model return them without allocating.
+     */
+    @Override
+    public void freeze() {
+        if (isFrozen()) {
+            return;
+        }
+        this.typeNameMap = freezeIndex(this.typeNameMap);
+        this.packageNameToTypeListMap = freezeIndex(this.packageNameToTypeListMap);
+        this.qualifiedNameIndex.freeze();
+        for (List<JavaTypeDeclarationPath> list : this.typeNameMap.values()) {
+            for (JavaTypeDeclarationPath jtdp : list) {
+                if (jtdp instanceof JavaTypeDeclarationPathImpl) {
+                    ((JavaTypeDeclarationPathImpl) jtdp).freeze();
+                }
+            }
+        }
+        this.frozenPackageNames = freezeKeys(this.packageNameToTypeListMap);
+        this.frozenTypeNames = freezeKeys(this.typeNameMap);
+    }
+
+    @Override
+    public boolean isFrozen() {
+        return this.frozenTypeNames != null;
+    }
+
+    static Map<String, List<JavaTypeDeclarationPath>> freezeIndex(Map<String, List<JavaTypeDeclarationPath>> index) {
+        Map<String, List<JavaTypeDeclarationPath>> frozenIndex = new HashMap<>(capacity(index.size()));
+        for (Map.Entry<String, List<JavaTypeDeclarationPath>> entry : index.entrySet()) {
+            frozenIndex.put(entry.getKey(), Collections.unmodifiableList(Arrays.asList(
+                    entry.getValue().toArray(new JavaTypeDeclarationPath[0]))));
+        }
+        return frozenIndex;
+    }
+
+    static Collection<String> freezeKeys(Map<String, ?> index) {
+        return Collections.unmodifiableList(Arrays.asList(index.keySet().toArray(new String[0])));
+    }
+
+    /**
+     * @return the initial capacity of a HashMap that holds size entries without being resized.
+     */
+    static int capacity(int size) {
+        return (int) (size / 0.75f) + 1;
+    }
+
+    void checkNotFrozen() {
+        if (isFrozen()) {
+            throw new IllegalStateException("The JavaProjectObjectModel is frozen.");
+        }
+    }
 }
@@ -11,7 +11,16 @@ public interface JavaTypeDeclarationPath {
     public Path getPathToTypeDeclaration();
     public JavaType getJavaType();
     public AccessModifier getAccessModifier();
+    public TypeSummary getTypeSummary();
+
+    /**
+     * The TypeDeclaration is not kept in memory by the type, but taken from the TypeDeclarationCache, which parses
+     * the java source file again on a miss. Use getTypeSummary where possible.
+     *
+     * @return the parsed Java Parser object of the type, or null if it is not available.
+     */
     public TypeDeclaration<?> getTypeDeclaration();
     public void addField(String s, JavaTypeDeclarationPath fieldClass);
+    public void clearFields();
     public List<Field> getFields();
 }
@@ -1,7 +1,5 @@
 package org.teinelund.javacodevisualizer.dom;
 
-import com.github.javaparser.ast.body.TypeDeclaration;
-
 import java.nio.file.Path;
 
 public class JavaTypeDeclarationPathBuilder {
@@ -11,7 +9,7 @@ public class JavaTypeDeclarationPathBuilder {
     private Path pathToTypeDeclaration;
     private JavaType javaType;
     private AccessModifier accessModifier;
-    private TypeDeclaration<?> typeDeclaration;
+    private TypeSummary typeSummary;
 
     public static JavaTypeDeclarationPathBuilder builder() {
         return new JavaTypeDeclarationPathBuilder();
@@ -19,12 +17,12 @@ public class JavaTypeDeclarationPathBuilder {
 
 
     public JavaTypeDeclarationPathBuilder setName(String name) {
-        this.name = name;
+        this.name = SymbolTable.instance().intern(name);
         return this;
     }
 
     public JavaTypeDeclarationPathBuilder setPackageName(String packageName) {
-        this.packageName = packageName;
+        this.packageName = SymbolTable.instance().intern(packageName);
         return this;
     }
 
@@ -43,8 +41,8 @@ public class JavaTypeDeclarationPathBuilder {
         return this;
     }
 
-    public JavaTypeDeclarationPathBuilder setTypeDeclaration(TypeDeclaration<?> typeDeclaration) {
-        this.typeDeclaration = typeDeclaration;
+    public JavaTypeDeclarationPathBuilder setTypeSummary(TypeSummary typeSummary) {
+        this.typeSummary = typeSummary;
         return this;
     }
 
@@ -72,7 +70,7 @@ public class JavaTypeDeclarationPathBuilder {
         return accessModifier;
     }
 
-    public TypeDeclaration<?> getTypeDeclaration() {
-        return typeDeclaration;
+    public TypeSummary getTypeSummary() {
+        return typeSummary;
     }
 }
@@ -3,6 +3,7 @@ package org.teinelund.javacodevisualizer.dom;
 import com.github.javaparser.ast.body.TypeDeclaration;
 
 import java.nio.file.Path;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
@@ -14,8 +15,9 @@ class JavaTypeDeclarationPathImpl implements JavaTypeDeclarationPath {
     private Path pathToTypeDeclaration;
     private JavaType javaType;
     private AccessModifier accessModifier;
-    private TypeDeclaration<?> typeDeclaration;
+    private TypeSummary typeSummary;
     private List<Field> fields;
+    private boolean frozen;
 
     public JavaTypeDeclarationPathImpl( JavaTypeDeclarationPathBuilder javaTypeDeclarationPathBuilder) {
         this.name = javaTypeDeclarationPathBuilder.getName();
@@ -23,7 +25,7 @@ class JavaTypeDeclarationPathImpl implements JavaTypeDeclarationPath {
         this.pathToTypeDeclaration = javaTypeDeclarationPathBuilder.getPathToTypeDeclaration();
         this.javaType = javaTypeDeclarationPathBuilder.getJavaType();
         this.accessModifier = javaTypeDeclarationPathBuilder.getAccessModifier();
-        this.typeDeclaration = javaTypeDeclarationPathBuilder.getTypeDeclaration();
+        this.typeSummary = javaTypeDeclarationPathBuilder.getTypeSummary();
         this.fields = new LinkedList<>();
     }
 
@@ -52,20 +54,54 @@ class JavaTypeDeclarationPathImpl implements JavaTypeDeclarationPath {
         return this.accessModifier;
     }
 
+    @Override
+    public TypeSummary getTypeSummary() {
+        return this.typeSummary;
+    }
+
     @Override
     public TypeDeclaration<?> getTypeDeclaration() {
-        return this.typeDeclaration;
+        if (this.pathToTypeDeclaration == null) {
+            return null;
+        }
+        return TypeDeclarationCache.instance().getTypeDeclaration(this.pathToTypeDeclaration, this.name);
     }
 
     @Override
     public void addField(String fieldName, JavaTypeDeclarationPath fieldClass) {
+        checkNotFrozen();
         this.fields.add(FieldImpl.builder().setName(fieldName).setType(fieldClass).build());
     }
 
+    @Override
+    public void clearFields() {
+        checkNotFrozen();
+        this.fields.clear();
+    }
+
     @Override
     public List<Field> getFields() {
+        if (this.frozen) {
+            return this.fields;
+        }
         return Collections.unmodifiableList(this.fields);
     }
 
+    /**
+     * Replace the fields with an unmodifiable list backed by an array. Called when the JavaProjectObjectModel is
+     * frozen.
+     */
+    void freeze() {
+        if (!this.frozen) {
+            this.fields = Collections.unmodifiableList(Arrays.asList(this.fields.toArray(new Field[0])));
+            this.frozen = true;
+        }
+    }
+
+    void checkNotFrozen() {
+        if (this.frozen) {
+            throw new IllegalStateException("The type " + this.packageName + "." + this.name + " is frozen.");
+        }
+    }
 
 }
\ No newline at end of file
@@ -9,6 +9,28 @@ public interface MavenProject {
     public List<JavaTypeDeclarationPath> getAllTypesGivenPackageName(String packageName);
     public Collection<String> getAllTypeNames();
     public Collection<String> getAllPackageNames();
+
+    /**
+     * Look up a type by its package name and name, without comparing the package names of all types with the same
+     * name.
+     *
+     * @param packageName is the package name of the type. The empty string for the default package.
+     * @param name is the name of the type.
+     * @return the type, or null if the model has no such type.
+     */
+    public JavaTypeDeclarationPath getTypeByQualifiedName(String packageName, String name);
+
+    /**
+     * Look up a type by its fully qualified name, for instance "org.teinelund.ordersystem.Customer".
+     *
+     * @param qualifiedName is the package name and the name of the type, separated by a dot.
+     * @return the type, or null if the model has no such type.
+     */
+    public default JavaTypeDeclarationPath getTypeByQualifiedName(String qualifiedName) {
+        int index = qualifiedName.lastIndexOf('.');
+        return getTypeByQualifiedName(index == -1 ? "" : qualifiedName.substring(0, index),
+                qualifiedName.substring(index + 1));
+    }
     public Path getMavenProjectPath();
     public List<JavaTypeDeclarationPath> getAllTypes();
 }
@@ -1,6 +1,7 @@
 package org.teinelund.javacodevisualizer.dom;
 
 import java.nio.file.Path;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
@@ -20,11 +21,25 @@ class MavenProjectImpl implements MavenProject {
      */
     Map<String, List<JavaTypeDeclarationPath>> packageNameToTypeListMap;
 
+    /**
+     * Store types by package name and name.
+     */
+    QualifiedNameIndex qualifiedNameIndex;
+
     Path mavenProjectPath;
 
+    /**
+     * A MavenProject is not changed after it is created, so the lists returned by the queries are created once, in
+     * the constructor.
+     */
+    List<JavaTypeDeclarationPath> allTypes;
+    Collection<String> typeNames;
+    Collection<String> packageNames;
+
     public MavenProjectImpl(Path mavenProjectPath, List<JavaTypeDeclarationPath> javaTypeDeclarationPaths) {
         typeNameMap = new HashMap<>();
         packageNameToTypeListMap = new HashMap<>();
+        qualifiedNameIndex = new QualifiedNameIndex();
         for (JavaTypeDeclarationPath jtdp : javaTypeDeclarationPaths) {
             if (typeNameMap.containsKey(jtdp.getName())) {
                 List<JavaTypeDeclarationPath> list = typeNameMap.get(jtdp.getName());
@@ -45,28 +60,46 @@ class MavenProjectImpl implements MavenProject {
                 list.add(jtdp);
                 packageNameToTypeListMap.put(jtdp.getPackageName(), list);
             }
+            qualifiedNameIndex.add(jtdp);
         }
         this.mavenProjectPath = mavenProjectPath;
+        List<JavaTypeDeclarationPath> mainList = new LinkedList<>();
+        for (List<JavaTypeDeclarationPath> list : typeNameMap.values()) {
+            mainList.addAll(list);
+        }
+        allTypes = Collections.unmodifiableList(Arrays.asList(mainList.toArray(new JavaTypeDeclarationPath[0])));
+        typeNameMap = JavaProjectObjectModelImpl.freezeIndex(typeNameMap);
+        packageNameToTypeListMap = JavaProjectObjectModelImpl.freezeIndex(packageNameToTypeListMap);
+        qualifiedNameIndex.freeze();
+        typeNames = JavaProjectObjectModelImpl.freezeKeys(typeNameMap);
+        packageNames = JavaProjectObjectModelImpl.freezeKeys(packageNameToTypeListMap);
     }
 
     @Override
     public List<JavaTypeDeclarationPath> getAllTypesGivenName(String name) {
-        return Collections.unmodifiableList(this.typeNameMap.get(name));
+        List<JavaTypeDeclarationPath> list = this.typeNameMap.get(name);
+        return list != null ? list : Collections.emptyList();
     }
 
     @Override
     public List<JavaTypeDeclarationPath> getAllTypesGivenPackageName(String packageName) {
-        return Collections.unmodifiableList(this.packageNameToTypeListMap.get(packageName));
+        List<JavaTypeDeclarationPath> list = this.packageNameToTypeListMap.get(packageName);
+        return list != null ? list : Collections.emptyList();
+    }
+
+    @Override
+    public JavaTypeDeclarationPath getTypeByQualifiedName(String packageName, String name) {
+        return this.qualifiedNameIndex.get(packageName, name);
     }
 
     @Override
     public Collection<String> getAllTypeNames() {
-        return Collections.unmodifiableCollection(this.typeNameMap.keySet());
+        return this.typeNames;
     }
 
     @Override
     public Collection<String> getAllPackageNames() {
-        return Collections.unmodifiableCollection(this.packageNameToTypeListMap.keySet());
+        return this.packageNames;
     }
 
     @Override
@@ -76,10 +109,6 @@ class MavenProjectImpl implements MavenProject {
 
     @Override
     public List<JavaTypeDeclarationPath> getAllTypes() {
-        List<JavaTypeDeclarationPath> mainList = new LinkedList<>();
-        for (List<JavaTypeDeclarationPath> list : typeNameMap.values()) {
-            mainList.addAll(list);
-        }
-        return mainList;
+        return this.allTypes;
     }
 }
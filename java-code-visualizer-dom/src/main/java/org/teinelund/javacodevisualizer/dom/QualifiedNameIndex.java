@@ -0,0 +1,106 @@
+package org.teinelund.javacodevisualizer.dom;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Types by package name and name. The index is a map of maps, package name to name to type, so a look up is two hash
+ * look ups and does not allocate a qualified name string. Package names and names are interned by the SymbolTable,
+ * and their hash codes are therefore computed once.
+ *
+ * All changes of a package are made in a compute of the outer map, so with ConcurrentHashMaps (see concurrent) the
+ * index can be changed by many threads, while it is read without locks.
+ */
+class QualifiedNameIndex {
+
+    private final boolean concurrent;
+    private Map<String, Map<String, JavaTypeDeclarationPath>> packageNameToTypeMap;
+
+    QualifiedNameIndex() {
+        this(false);
+    }
+
+    private QualifiedNameIndex(boolean concurrent) {
+        this.concurrent = concurrent;
+        this.packageNameToTypeMap = concurrent ? new ConcurrentHashMap<>() : new HashMap<>();
+    }
+
+    /**
+     * @return an index backed by ConcurrentHashMaps.
+     */
+    static QualifiedNameIndex concurrent() {
+        return new QualifiedNameIndex(true);
+    }
+
+    /**
+     * Add a type. If a type with the same package name and name is already in the index, the index is unchanged.
+     */
+    void add(JavaTypeDeclarationPath jtdp) {
+        add(jtdp, null);
+    }
+
+    /**
+     * Add a type. If a type with the same package name and name is already in the index, the first of the two in order
+     * is kept, or the one already in the index if order is null.
+     */
+    void add(JavaTypeDeclarationPath jtdp, Comparator<JavaTypeDeclarationPath> order) {
+        this.packageNameToTypeMap.compute(jtdp.getPackageName(), (packageName, typeMap) -> {
+            Map<String, JavaTypeDeclarationPath> map = typeMap != null ? typeMap : newTypeMap();
+            map.merge(jtdp.getName(), jtdp, (existing, added) ->
+                    order != null && order.compare(added, existing) < 0 ? added : existing);
+            return map;
+        });
+    }
+
+    /**
+     * Remove a type. Types are compared by identity. If another type with the same package name and name remains in
+     * typesWithSameName, it takes the place of the removed type.
+     *
+     * @param jtdp is the type to remove.
+     * @param typesWithSameName are the remaining types with the same name as jtdp, or null if there are none.
+     */
+    void remove(JavaTypeDeclarationPath jtdp, List<JavaTypeDeclarationPath> typesWithSameName) {
+        this.packageNameToTypeMap.computeIfPresent(jtdp.getPackageName(), (packageName, typeMap) -> {
+            if (typeMap.get(jtdp.getName()) != jtdp) {
+                return typeMap;
+            }
+            typeMap.remove(jtdp.getName());
+            if (typesWithSameName != null) {
+                for (JavaTypeDeclarationPath typeWithSameName : typesWithSameName) {
+                    if (typeWithSameName != jtdp && typeWithSameName.getPackageName().equals(packageName)) {
+                        typeMap.put(jtdp.getName(), typeWithSameName);
+                        break;
+                    }
+                }
+            }
+            return typeMap.isEmpty() ? null : typeMap;
+        });
+    }
+
+    /**
+     * Copy the index into maps sized for their content.
+     */
+    void freeze() {
+        Map<String, Map<String, JavaTypeDeclarationPath>> frozenMap = new HashMap<>(
+                JavaProjectObjectModelImpl.capacity(this.packageNameToTypeMap.size()));
+        for (Map.Entry<String, Map<String, JavaTypeDeclarationPath>> entry : this.packageNameToTypeMap.entrySet()) {
+            Map<String, JavaTypeDeclarationPath> typeMap = new HashMap<>(
+                    JavaProjectObjectModelImpl.capacity(entry.getValue().size()));
+            typeMap.putAll(entry.getValue());
+            frozenMap.put(entry.getKey(), typeMap);
+        }
+        this.packageNameToTypeMap = frozenMap;
+    }
+
+    JavaTypeDeclarationPath get(String packageName, String name) {
+        Map<String, JavaTypeDeclarationPath> typeMap = this.packageNameToTypeMap.get(packageName);
+        return typeMap != null ? typeMap.get(name) : null;
+    }
+
+    Map<String, JavaTypeDeclarationPath> newTypeMap() {
+        return this.concurrent ? new ConcurrentHashMap<>() : new HashMap<>();
+    }
+}
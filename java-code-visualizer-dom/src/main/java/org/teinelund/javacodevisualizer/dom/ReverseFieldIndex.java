@@ -0,0 +1,97 @@
+package org.teinelund.javacodevisualizer.dom;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The fields of a JavaProjectObjectModel in reverse: for each type, the types that have a field of that type (its
+ * holders). The index is updated as fields are wired, so the holders of a type are looked up without scanning the
+ * fields of all types in the model.
+ *
+ * JavaTypeDeclarationPaths do not override equals, so types are compared by identity. A holder is indexed once per
+ * type, however many fields of that type it has, and is removed with all its fields: fields are only ever cleared all
+ * at once. The methods are synchronized, since types may be removed from a concurrent model on several threads.
+ */
+public class ReverseFieldIndex {
+
+    private final Map<JavaTypeDeclarationPath, Set<JavaTypeDeclarationPath>> holdersByType = new LinkedHashMap<>();
+
+    /**
+     * Index a field of holder, of type fieldType. Does nothing if fieldType is null.
+     */
+    public synchronized void add(JavaTypeDeclarationPath holder, JavaTypeDeclarationPath fieldType) {
+        if (fieldType != null) {
+            this.holdersByType.computeIfAbsent(fieldType, key -> new LinkedHashSet<>()).add(holder);
+        }
+    }
+
+    /**
+     * Index all current fields of holder.
+     */
+    public synchronized void addFields(JavaTypeDeclarationPath holder) {
+        for (Field field : holder.getFields()) {
+            add(holder, field.getType());
+        }
+    }
+
+    /**
+     * Remove the fields of holder from the index. Must be called before the fields of holder are cleared, since the
+     * current fields tell which types holder is indexed under.
+     */
+    public synchronized void removeFields(JavaTypeDeclarationPath holder) {
+        for (Field field : holder.getFields()) {
+            Set<JavaTypeDeclarationPath> holders = this.holdersByType.get(field.getType());
+            if (holders != null) {
+                holders.remove(holder);
+                if (holders.isEmpty()) {
+                    this.holdersByType.remove(field.getType());
+                }
+            }
+        }
+    }
+
+    /**
+     * Remove a type that is removed from the model: both its own fields, and the index of its holders. The holders
+     * still have fields of the type, until they are wired again.
+     */
+    public synchronized void remove(JavaTypeDeclarationPath type) {
+        removeFields(type);
+        this.holdersByType.remove(type);
+    }
+
+    /**
+     * @return the types with one or more fields of type, in the order they were indexed.
+     */
+    public synchronized List<JavaTypeDeclarationPath> getHolders(JavaTypeDeclarationPath type) {
+        Set<JavaTypeDeclarationPath> holders = this.holdersByType.get(type);
+        return holders != null ? new ArrayList<>(holders) : Collections.emptyList();
+    }
+
+    /**
+     * Find the types that depend on type through a chain of fields: its holders, their holders and so on. type itself
+     * is included only if it is part of a cycle of fields.
+     *
+     * @return the types, in breadth first order.
+     */
+    public synchronized Set<JavaTypeDeclarationPath> getTransitiveHolders(JavaTypeDeclarationPath type) {
+        Set<JavaTypeDeclarationPath> result = new LinkedHashSet<>();
+        List<JavaTypeDeclarationPath> queue = new ArrayList<>();
+        queue.add(type);
+        for (int i = 0; i < queue.size(); i++) {
+            Set<JavaTypeDeclarationPath> holders = this.holdersByType.get(queue.get(i));
+            if (holders != null) {
+                for (JavaTypeDeclarationPath holder : holders) {
+                    if (result.add(holder)) {
+                        queue.add(holder);
+                    }
+                }
+            }
+        }
+        return result;
+    }
+}
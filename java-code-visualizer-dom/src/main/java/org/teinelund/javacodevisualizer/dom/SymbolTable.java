@@ -0,0 +1,76 @@
+package org.teinelund.javacodevisualizer.dom;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Interns package names, type names and field names, so that all occurrences of a name in the model share one
+ * canonical String instance. A package name like "com.company.platform.core.internal" is then stored once, instead of
+ * once per type in the package, and two interned names are equal if and only if they are the same instance.
+ *
+ * The parser output, the model and the wiring step intern all names through JavaTypeDeclarationPathBuilder,
+ * FieldImpl.FieldBuilder and the TypeSummary classes.
+ *
+ * The table only holds weak references to the names. A name is kept as long as a model, a parsed type or a caller
+ * refers to it, and is released by the garbage collector when no one does, such as the names of types that are
+ * deleted from a watched model. The table is split in SEGMENTS segments with a lock each, so parser threads seldom
+ * wait for each other.
+ */
+public class SymbolTable {
+
+    static final int SEGMENTS = 16;
+
+    private static SymbolTable symbolTable = null;
+
+    private final List<Map<String, WeakReference<String>>> segments = new ArrayList<>(SEGMENTS);
+
+    SymbolTable() {
+        for (int i = 0; i < SEGMENTS; i++) {
+            this.segments.add(new WeakHashMap<>());
+        }
+    }
+
+    public static synchronized SymbolTable instance() {
+        if (symbolTable == null) {
+            symbolTable = new SymbolTable();
+        }
+        return symbolTable;
+    }
+
+    /**
+     * @param name is a name, or null.
+     * @return the canonical instance of name, or null if name is null.
+     */
+    public String intern(String name) {
+        if (name == null) {
+            return null;
+        }
+        int hash = name.hashCode();
+        Map<String, WeakReference<String>> segment = this.segments.get((hash ^ (hash >>> 16)) & (SEGMENTS - 1));
+        synchronized (segment) {
+            WeakReference<String> reference = segment.get(name);
+            String symbol = reference != null ? reference.get() : null;
+            if (symbol == null) {
+                segment.put(name, new WeakReference<>(name));
+                symbol = name;
+            }
+            return symbol;
+        }
+    }
+
+    /**
+     * @return the number of interned names, that are not yet released.
+     */
+    public int size() {
+        int size = 0;
+        for (Map<String, WeakReference<String>> segment : this.segments) {
+            synchronized (segment) {
+                size += segment.size();
+            }
+        }
+        return size;
+    }
+}
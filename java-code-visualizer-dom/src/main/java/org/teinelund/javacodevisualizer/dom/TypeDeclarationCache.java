@@ -0,0 +1,174 @@
+package org.teinelund.javacodevisualizer.dom;
+
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.body.TypeDeclaration;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A size bounded cache of parsed java source files, used by JavaTypeDeclarationPath.getTypeDeclaration. On a miss,
+ * the java source file is parsed again.
+ *
+ * The size of the cache is measured in characters of java source, which grows with the number of AST nodes of the
+ * cached files. When the total exceeds the maximum weight, the least recently used files are evicted. A cached file
+ * that has been modified since it was parsed counts as a miss.
+ *
+ * The hit, miss and eviction counters are meant for sizing the cache against real access patterns. The returned
+ * TypeDeclarations are shared, and must not be modified.
+ */
+public class TypeDeclarationCache {
+
+    static final long DEFAULT_MAXIMUM_WEIGHT = 4L * 1024 * 1024;
+
+    private static TypeDeclarationCache typeDeclarationCache = null;
+
+    private final LinkedHashMap<Path, CacheEntry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long maximumWeight;
+    private long weight = 0;
+    private long hitCount = 0;
+    private long missCount = 0;
+    private long evictionCount = 0;
+
+    TypeDeclarationCache(long maximumWeight) {
+        this.maximumWeight = maximumWeight;
+    }
+
+    public static synchronized TypeDeclarationCache instance() {
+        if (typeDeclarationCache == null) {
+            typeDeclarationCache = new TypeDeclarationCache(DEFAULT_MAXIMUM_WEIGHT);
+        }
+        return typeDeclarationCache;
+    }
+
+    /**
+     * Set the maximum number of characters of java source, whose ASTs are kept in the cache. Files are evicted
+     * right away if the cache is larger than that.
+     *
+     * @param maximumWeight is the maximum weight. Zero disables the cache.
+     */
+    public synchronized void setMaximumWeight(long maximumWeight) {
+        if (maximumWeight < 0) {
+            throw new IllegalArgumentException("Maximum weight must be zero or more, was " + maximumWeight + ".");
+        }
+        this.maximumWeight = maximumWeight;
+        evict();
+    }
+
+    /**
+     * Get the TypeDeclaration of a top level type, from the cache or else by parsing its java source file.
+     *
+     * @param path is the path to the java source file.
+     * @param name is the name of the type.
+     * @return the TypeDeclaration, or null if the file contains no top level type with the name.
+     * @throws UncheckedIOException if the file can not be read.
+     */
+    public TypeDeclaration<?> getTypeDeclaration(Path path, String name) {
+        FileTime lastModifiedTime = getLastModifiedTime(path);
+        CompilationUnit compilationUnit = null;
+        synchronized (this) {
+            CacheEntry entry = this.entries.get(path);
+            if (entry != null && entry.lastModifiedTime.equals(lastModifiedTime)) {
+                this.hitCount++;
+                compilationUnit = entry.compilationUnit;
+            }
+            else {
+                this.missCount++;
+                if (entry != null) {
+                    this.entries.remove(path);
+                    this.weight -= entry.weight;
+                }
+            }
+        }
+        if (compilationUnit == null) {
+            // Parse outside the lock, so other threads are not blocked by a slow parse.
+            TypeDeclarationLoader.LoadedCompilationUnit loaded = TypeDeclarationLoader.instance().load(path);
+            compilationUnit = loaded.compilationUnit;
+            synchronized (this) {
+                CacheEntry previous = this.entries.put(path, new CacheEntry(compilationUnit, lastModifiedTime,
+                        loaded.sourceLength));
+                if (previous != null) {
+                    this.weight -= previous.weight;
+                }
+                this.weight += loaded.sourceLength;
+                evict();
+            }
+        }
+        for (TypeDeclaration<?> typeDeclaration : compilationUnit.getTypes()) {
+            if (typeDeclaration.getNameAsString().equals(name)) {
+                return typeDeclaration;
+            }
+        }
+        return null;
+    }
+
+    FileTime getLastModifiedTime(Path path) {
+        try {
+            return Files.getLastModifiedTime(path);
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Evict the least recently used files, until the weight is within the maximum weight.
+     */
+    void evict() {
+        Iterator<Map.Entry<Path, CacheEntry>> iterator = this.entries.entrySet().iterator();
+        while (this.weight > this.maximumWeight && iterator.hasNext()) {
+            this.weight -= iterator.next().getValue().weight;
+            iterator.remove();
+            this.evictionCount++;
+        }
+    }
+
+    /**
+     * Remove all files from the cache. The counters are not reset.
+     */
+    public synchronized void clear() {
+        this.entries.clear();
+        this.weight = 0;
+    }
+
+    public synchronized long getHitCount() {
+        return this.hitCount;
+    }
+
+    public synchronized long getMissCount() {
+        return this.missCount;
+    }
+
+    public synchronized long getEvictionCount() {
+        return this.evictionCount;
+    }
+
+    /**
+     * @return the number of characters of java source, whose ASTs are in the cache.
+     */
+    public synchronized long getWeight() {
+        return this.weight;
+    }
+
+    public synchronized int getSize() {
+        return this.entries.size();
+    }
+
+    private static class CacheEntry {
+        final CompilationUnit compilationUnit;
+        final FileTime lastModifiedTime;
+        final long weight;
+
+        CacheEntry(CompilationUnit compilationUnit, FileTime lastModifiedTime, long weight) {
+            this.compilationUnit = compilationUnit;
+            this.lastModifiedTime = lastModifiedTime;
+            this.weight = weight;
+        }
+    }
+}
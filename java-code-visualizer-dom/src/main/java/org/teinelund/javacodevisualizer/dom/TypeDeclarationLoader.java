@@ -0,0 +1,54 @@
+package org.teinelund.javacodevisualizer.dom;
+
+import com.github.javaparser.JavaParser;
+import com.github.javaparser.ast.CompilationUnit;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Parses a java source file into a CompilationUnit. The model keeps a TypeSummary of each type, and the full
+ * JavaParser AST is parsed again, through the TypeDeclarationCache, when it is asked for.
+ */
+class TypeDeclarationLoader {
+
+    private static TypeDeclarationLoader typeDeclarationLoader = null;
+
+    private TypeDeclarationLoader() {}
+
+    static TypeDeclarationLoader instance() {
+        if (typeDeclarationLoader == null) {
+            typeDeclarationLoader = new TypeDeclarationLoader();
+        }
+        return typeDeclarationLoader;
+    }
+
+    /**
+     * @param path is the path to the java source file.
+     * @return the parsed CompilationUnit, and the length of the source in characters.
+     * @throws UncheckedIOException if the file can not be read.
+     */
+    LoadedCompilationUnit load(Path path) {
+        String source;
+        try {
+            source = new String(Files.readAllBytes(path), StandardCharsets.UTF_8);
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return new LoadedCompilationUnit(JavaParser.parse(source), source.length());
+    }
+
+    static class LoadedCompilationUnit {
+        final CompilationUnit compilationUnit;
+        final long sourceLength;
+
+        LoadedCompilationUnit(CompilationUnit compilationUnit, long sourceLength) {
+            this.compilationUnit = compilationUnit;
+            this.sourceLength = sourceLength;
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package org.teinelund.javacodevisualizer.dom;
+
+/**
+ * A reference to a class or interface type, as written in the source code. Example: for the field type
+ * "org.teinelund.ticketapp.Customer" the name is "Customer" and the scope is "org.teinelund.ticketapp". The scope is
+ * null if the type is written without one.
+ */
+public class TypeReference {
+
+    private final String name;
+    private final String scope;
+
+    public TypeReference(String name, String scope) {
+        this.name = SymbolTable.instance().intern(name);
+        this.scope = SymbolTable.instance().intern(scope);
+    }
+
+    public String getName() {
+        return this.name;
+    }
+
+    public String getScope() {
+        return this.scope;
+    }
+}
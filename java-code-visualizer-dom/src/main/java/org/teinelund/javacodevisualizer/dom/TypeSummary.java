@@ -0,0 +1,143 @@
+package org.teinelund.javacodevisualizer.dom;
+
+import com.github.javaparser.ast.Modifier;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * What the model needs to know about a parsed type declaration: its name, package, modifiers, the imports of its
+ * compilation unit, its declared fields, its supertypes and its nested types. A TypeSummary is extracted when the
+ * java source file is parsed, so the JavaParser AST, with all method bodies, comments and tokens, does not have to be
+ * kept in memory.
+ */
+public class TypeSummary {
+
+    private final String name;
+    private final String packageName;
+    private final JavaType javaType;
+    private final Set<Modifier> modifiers;
+    private final List<ImportSummary> imports;
+    private final List<FieldSummary> fields;
+    private final List<TypeReference> supertypes;
+    private final List<TypeSummary> nestedTypes;
+
+    TypeSummary(TypeSummaryBuilder builder) {
+        this.name = builder.name;
+        this.packageName = builder.packageName;
+        this.javaType = builder.javaType;
+        this.modifiers = Collections.unmodifiableSet(builder.modifiers);
+        this.imports = builder.imports;
+        this.fields = Collections.unmodifiableList(builder.fields);
+        this.supertypes = Collections.unmodifiableList(builder.supertypes);
+        this.nestedTypes = Collections.unmodifiableList(builder.nestedTypes);
+    }
+
+    public String getName() {
+        return this.name;
+    }
+
+    public String getPackageName() {
+        return this.packageName;
+    }
+
+    public JavaType getJavaType() {
+        return this.javaType;
+    }
+
+    public Set<Modifier> getModifiers() {
+        return this.modifiers;
+    }
+
+    /**
+     * @return the imports of the compilation unit the type is declared in. All types of a compilation unit share the
+     * same list.
+     */
+    public List<ImportSummary> getImports() {
+        return this.imports;
+    }
+
+    public List<FieldSummary> getFields() {
+        return this.fields;
+    }
+
+    /**
+     * @return the extended and implemented types, in declaration order.
+     */
+    public List<TypeReference> getSupertypes() {
+        return this.supertypes;
+    }
+
+    /**
+     * @return the member types declared in the type.
+     */
+    public List<TypeSummary> getNestedTypes() {
+        return this.nestedTypes;
+    }
+
+    public static TypeSummaryBuilder builder() {
+        return new TypeSummaryBuilder();
+    }
+
+    public static class TypeSummaryBuilder {
+        private String name;
+        private String packageName;
+        private JavaType javaType;
+        private Set<Modifier> modifiers = EnumSet.noneOf(Modifier.class);
+        private List<ImportSummary> imports = Collections.emptyList();
+        private List<FieldSummary> fields = new LinkedList<>();
+        private List<TypeReference> supertypes = new LinkedList<>();
+        private List<TypeSummary> nestedTypes = new LinkedList<>();
+
+        public TypeSummaryBuilder setName(String name) {
+            this.name = SymbolTable.instance().intern(name);
+            return this;
+        }
+
+        public TypeSummaryBuilder setPackageName(String packageName) {
+            this.packageName = SymbolTable.instance().intern(packageName);
+            return this;
+        }
+
+        public TypeSummaryBuilder setJavaType(JavaType javaType) {
+            this.javaType = javaType;
+            return this;
+        }
+
+        public TypeSummaryBuilder setModifiers(Set<Modifier> modifiers) {
+            this.modifiers = modifiers.isEmpty() ? EnumSet.noneOf(Modifier.class) : EnumSet.copyOf(modifiers);
+            return this;
+        }
+
+        /**
+         * @param imports are the imports of the compilation unit. The list is kept as is, so all types of a
+         *                compilation unit can share one unmodifiable list.
+         */
+        public TypeSummaryBuilder setImports(List<ImportSummary> imports) {
+            this.imports = imports;
+            return this;
+        }
+
+        public TypeSummaryBuilder addField(FieldSummary field) {
+            this.fields.add(field);
+            return this;
+        }
+
+        public TypeSummaryBuilder addSupertype(TypeReference supertype) {
+            this.supertypes.add(supertype);
+            return this;
+        }
+
+        public TypeSummaryBuilder addNestedType(TypeSummary nestedType) {
+            this.nestedTypes.add(nestedType);
+            return this;
+        }
+
+        public TypeSummary build() {
+            return new TypeSummary(this);
+        }
+    }
+}
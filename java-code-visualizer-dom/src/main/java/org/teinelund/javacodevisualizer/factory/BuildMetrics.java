@@ -0,0 +1,177 @@
+package org.teinelund.javacodevisualizer.factory;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * What a model build did, and how long it took. JavaProjectObjectModelFactory.createrAndStore records one
+ * BuildMetrics per build, see JavaProjectObjectModelFactory.getBuildMetrics.
+ *
+ * The recording methods are called from the discovery, parser and wiring threads, and are thread safe. The phases
+ * of a ModelBuildPipeline run at the same time, so their wall times may add up to more than the TOTAL wall time.
+ */
+public class BuildMetrics {
+
+    public enum Phase {
+        /** Finding the Maven projects and their java source files. */
+        DISCOVER,
+        /** Reading and parsing the java source files. */
+        PARSE,
+        /** Adding the parsed types to the model, and removing the types of deleted files. */
+        INDEX,
+        /** Resolving the field types. */
+        WIRE,
+        /** Writing the snapshot and the manifest. */
+        STORE,
+        /** The whole build. */
+        TOTAL
+    }
+
+    private final Map<Phase, LongAdder> phaseNanos = new EnumMap<>(Phase.class);
+    private final LongAdder directoriesListed = new LongAdder();
+    private final LongAdder filesStated = new LongAdder();
+    private final LongAdder bytesRead = new LongAdder();
+    private final LongAdder typesIndexed = new LongAdder();
+    private final LongAdder fieldsResolved = new LongAdder();
+    private final LongAdder fieldsUnresolved = new LongAdder();
+    private long[] parseNanos = new long[64];
+    private int filesParsed = 0;
+    private long startNanos;
+    private long peakHeapBytes;
+
+    public BuildMetrics() {
+        for (Phase phase : Phase.values()) {
+            this.phaseNanos.put(phase, new LongAdder());
+        }
+    }
+
+    /**
+     * Start the TOTAL wall time, and reset the peak usage of the heap memory pools.
+     */
+    void start() {
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                pool.resetPeakUsage();
+            }
+        }
+        this.startNanos = System.nanoTime();
+    }
+
+    /**
+     * Stop the TOTAL wall time, and record an upper bound of the peak heap usage since start: the sum of the peak
+     * usage of each heap memory pool. The pools peak at different times (eden before a collection, the old generation
+     * after it), so the sum may be well above the heap usage at any single moment.
+     */
+    void finish() {
+        addPhaseNanos(Phase.TOTAL, System.nanoTime() - this.startNanos);
+        long peak = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP && pool.getPeakUsage() != null) {
+                peak += pool.getPeakUsage().getUsed();
+            }
+        }
+        this.peakHeapBytes = peak;
+    }
+
+    void addPhaseNanos(Phase phase, long nanos) {
+        this.phaseNanos.get(phase).add(nanos);
+    }
+
+    void directoryListed() {
+        this.directoriesListed.increment();
+    }
+
+    void fileStated() {
+        this.filesStated.increment();
+    }
+
+    void bytesRead(long bytes) {
+        this.bytesRead.add(bytes);
+    }
+
+    synchronized void fileParsed(long nanos) {
+        if (this.filesParsed == this.parseNanos.length) {
+            this.parseNanos = Arrays.copyOf(this.parseNanos, 2 * this.parseNanos.length);
+        }
+        this.parseNanos[this.filesParsed++] = nanos;
+    }
+
+    /**
+     * @param types is the number of types added to the model, or removed from it if negative.
+     */
+    void typesIndexed(long types) {
+        this.typesIndexed.add(types);
+    }
+
+    void fieldsWired(long resolved, long unresolved) {
+        this.fieldsResolved.add(resolved);
+        this.fieldsUnresolved.add(unresolved);
+    }
+
+    public long getWallTimeNanos(Phase phase) {
+        return this.phaseNanos.get(phase).sum();
+    }
+
+    public long getDirectoriesListed() {
+        return this.directoriesListed.sum();
+    }
+
+    public long getFilesStated() {
+        return this.filesStated.sum();
+    }
+
+    public long getBytesRead() {
+        return this.bytesRead.sum();
+    }
+
+    public synchronized long getFilesParsed() {
+        return this.filesParsed;
+    }
+
+    /**
+     * @param percentile is a percentile, from 0 to 100.
+     * @return the parse time of a single file at the percentile (nearest rank), or 0 if no file was parsed.
+     */
+    public synchronized long getParseTimeNanos(double percentile) {
+        if (this.filesParsed == 0) {
+            return 0;
+        }
+        long[] sorted = Arrays.copyOf(this.parseNanos, this.filesParsed);
+        Arrays.sort(sorted);
+        int rank = (int) Math.ceil(percentile / 100 * sorted.length);
+        return sorted[Math.max(0, Math.min(sorted.length, rank) - 1)];
+    }
+
+    /**
+     * @return the number of types added to the model, less the number of types removed from it. When a stored model
+     * is updated, only the types of the changed files are counted.
+     */
+    public long getTypesIndexed() {
+        return this.typesIndexed.sum();
+    }
+
+    public long getFieldsResolved() {
+        return this.fieldsResolved.sum();
+    }
+
+    /**
+     * @return the number of fields of a class or interface type, that is not declared in any of the Maven projects
+     * (String, or a type in a library, for instance).
+     */
+    public long getFieldsUnresolved() {
+        return this.fieldsUnresolved.sum();
+    }
+
+    /**
+     * @return the sum of the peak usage of the heap memory pools during the build. This is an upper bound of the peak
+     * heap usage, not the peak itself, since the pools do not peak at the same time.
+     */
+    public long getPeakHeapBytes() {
+        return this.peakHeapBytes;
+    }
+}
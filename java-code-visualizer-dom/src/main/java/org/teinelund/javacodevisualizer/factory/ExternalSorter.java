@@ -0,0 +1,186 @@
+package org.teinelund.javacodevisualizer.factory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Sorts more records than fit in memory. A record is a string key, a kind and an int value, and records are sorted
+ * on key, then kind, then value. Keys are compared with String.compareTo, like the string table of a snapshot.
+ *
+ * Added records are kept in memory until their estimated size reaches the run size. They are then sorted and written
+ * to a run file in the directory, and merge merges the run files in one pass. Equal records are passed on once, so a
+ * key that is added many times (a common field name, for instance) takes little space in the runs.
+ */
+class ExternalSorter {
+
+    /**
+     * Estimated size of a record in memory, not counting the chars of its key.
+     */
+    static final int RECORD_OVERHEAD = 48;
+
+    static final Comparator<Record> RECORD_ORDER = Comparator.comparing((Record record) -> record.key).
+            thenComparingInt(record -> record.kind).thenComparingInt(record -> record.value);
+
+    private final Path directory;
+    private final String prefix;
+    private final long runSize;
+    private final List<Path> runs = new ArrayList<>();
+    private List<Record> records = new ArrayList<>();
+    private long recordsSize = 0;
+
+    /**
+     * @param directory is the directory to write the run files in.
+     * @param prefix is the start of the file names of the run files.
+     * @param runSize is the estimated size in bytes of the records kept in memory. Must be one or more.
+     */
+    ExternalSorter(Path directory, String prefix, long runSize) {
+        if (runSize < 1) {
+            throw new IllegalArgumentException("Run size must be one or more, was " + runSize + ".");
+        }
+        this.directory = directory;
+        this.prefix = prefix;
+        this.runSize = runSize;
+    }
+
+    void add(String key, int kind, int value) throws IOException {
+        this.records.add(new Record(key, kind, value));
+        this.recordsSize += RECORD_OVERHEAD + 2L * key.length();
+        if (this.recordsSize >= this.runSize) {
+            writeRun();
+        }
+    }
+
+    /**
+     * @return the number of run files written so far.
+     */
+    int getRunCount() {
+        return this.runs.size();
+    }
+
+    /**
+     * Pass all distinct added records, in sorted order, to consumer. The run files are deleted afterwards.
+     */
+    void merge(RecordConsumer consumer) throws IOException {
+        if (this.runs.isEmpty()) {
+            this.records.sort(RECORD_ORDER);
+            Record previous = null;
+            for (Record record : this.records) {
+                if (previous == null || RECORD_ORDER.compare(previous, record) != 0) {
+                    consumer.accept(record.key, record.kind, record.value);
+                }
+                previous = record;
+            }
+            this.records = new ArrayList<>();
+            this.recordsSize = 0;
+            return;
+        }
+        if (!this.records.isEmpty()) {
+            writeRun();
+        }
+        List<RunReader> readers = new ArrayList<>(this.runs.size());
+        PriorityQueue<RunReader> queue = new PriorityQueue<>(this.runs.size(),
+                (a, b) -> RECORD_ORDER.compare(a.record, b.record));
+        try {
+            for (Path run : this.runs) {
+                RunReader reader = new RunReader(run);
+                readers.add(reader);
+                if (reader.next()) {
+                    queue.add(reader);
+                }
+            }
+            Record previous = null;
+            while (!queue.isEmpty()) {
+                RunReader reader = queue.poll();
+                if (previous == null || RECORD_ORDER.compare(previous, reader.record) != 0) {
+                    consumer.accept(reader.record.key, reader.record.kind, reader.record.value);
+                }
+                previous = reader.record;
+                if (reader.next()) {
+                    queue.add(reader);
+                }
+            }
+        }
+        finally {
+            for (RunReader reader : readers) {
+                reader.in.close();
+            }
+            for (Path run : this.runs) {
+                Files.deleteIfExists(run);
+            }
+            this.runs.clear();
+        }
+    }
+
+    void writeRun() throws IOException {
+        this.records.sort(RECORD_ORDER);
+        Path run = this.directory.resolve(this.prefix + "-" + this.runs.size() + ".run");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(run), 1 << 16))) {
+            Record previous = null;
+            for (Record record : this.records) {
+                if (previous == null || RECORD_ORDER.compare(previous, record) != 0) {
+                    out.writeUTF(record.key);
+                    out.writeInt(record.kind);
+                    out.writeInt(record.value);
+                }
+                previous = record;
+            }
+        }
+        this.runs.add(run);
+        this.records = new ArrayList<>();
+        this.recordsSize = 0;
+    }
+
+    interface RecordConsumer {
+        void accept(String key, int kind, int value) throws IOException;
+    }
+
+    static class Record {
+        final String key;
+        final int kind;
+        final int value;
+
+        Record(String key, int kind, int value) {
+            this.key = key;
+            this.kind = kind;
+            this.value = value;
+        }
+    }
+
+    /**
+     * Reads the records of a run file, one at a time.
+     */
+    static class RunReader {
+        final DataInputStream in;
+        Record record;
+
+        RunReader(Path run) throws IOException {
+            this.in = new DataInputStream(new BufferedInputStream(Files.newInputStream(run), 1 << 13));
+        }
+
+        /**
+         * @return true if a record was read, or false at the end of the run.
+         */
+        boolean next() throws IOException {
+            String key;
+            try {
+                key = this.in.readUTF();
+            }
+            catch (EOFException e) {
+                this.record = null;
+                return false;
+            }
+            this.record = new Record(key, this.in.readInt(), this.in.readInt());
+            return true;
+        }
+    }
+}
@@ -8,13 +8,24 @@ import java.io.IOException;
 import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 public class FetchMavenProject {
 
     private static FetchMavenProject fetchMavenProject;
 
+    /**
+     * Number of threads used to parse java source files. One (the default) parses every file on the calling thread.
+     */
+    private int numberOfWorkers = 1;
+
     FetchMavenProject() {}
 
     public static FetchMavenProject instance() {
@@ -24,6 +35,23 @@ public class FetchMavenProject {
         return fetchMavenProject;
     }
 
+    /**
+     * Set the number of threads used to parse java source files. The parsed result is the same, in the same order,
+     * regardless of the number of workers.
+     *
+     * @param numberOfWorkers is the number of parser threads. Must be one or more.
+     */
+    public void setNumberOfWorkers(int numberOfWorkers) {
+        if (numberOfWorkers < 1) {
+            throw new IllegalArgumentException("Number of workers must be one or more, was " + numberOfWorkers + ".");
+        }
+        this.numberOfWorkers = numberOfWorkers;
+    }
+
+    public int getNumberOfWorkers() {
+        return this.numberOfWorkers;
+    }
+
     /**
      * TODO: Instead of a list of Path, the input could be a list of MavanProject objects, containing
      * a Path object to the "src"-folder.
@@ -35,12 +63,13 @@ public class FetchMavenProject {
     List<MavenProject> getMavenProjects(List<Path> mavenProjectPaths) throws IOException {
         List<MavenProject> mavenProjects = new LinkedList<>();
         for (Path path : mavenProjectPaths) {
-            DirectoryStream<Path> stream = Files.newDirectoryStream(path);
             Path srcDirectory = null;
-            for (Path fileOrDirectoryPath : stream) {
-                if (Files.isDirectory(fileOrDirectoryPath) && "src".equals(fileOrDirectoryPath.getFileName().toString())) {
-                    srcDirectory = fileOrDirectoryPath;
-                    break;
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(path)) {
+                for (Path fileOrDirectoryPath : stream) {
+                    if (Files.isDirectory(fileOrDirectoryPath) && "src".equals(fileOrDirectoryPath.getFileName().toString())) {
+                        srcDirectory = fileOrDirectoryPath;
+                        break;
+                    }
                 }
             }
             List<JavaTypeDeclarationPath> javaTypeDeclarationPaths = findJavaClassPathsInSrcDirectory(srcDirectory);
@@ -50,24 +79,184 @@ public class FetchMavenProject {
         return mavenProjects;
     }
 
+    /**
+     * Create MavenProject objects from Maven projects found by MavenProjectPath.findMavenProjects. The java source
+     * files of all projects are parsed in one batch, so the workers are kept busy across project boundaries.
+     *
+     * @param mavenProjectSourceFiles is a list of Maven projects and their java source files.
+     * @return a list of MavenProject objects, in the same order as mavenProjectSourceFiles.
+     * @throws IOException
+     */
+    List<MavenProject> createMavenProjects(List<MavenProjectSourceFiles> mavenProjectSourceFiles) throws IOException {
+        return createMavenProjects(mavenProjectSourceFiles, this::readJavaFile);
+    }
 
+    /**
+     * Create MavenProject objects from Maven projects found by MavenProjectPath.findMavenProjects, where each java
+     * source file is read by javaFileReader.
+     *
+     * @param mavenProjectSourceFiles is a list of Maven projects and their java source files.
+     * @param javaFileReader reads one java source file. Called from the worker threads.
+     * @return a list of MavenProject objects, in the same order as mavenProjectSourceFiles.
+     * @throws IOException
+     */
+    List<MavenProject> createMavenProjects(List<MavenProjectSourceFiles> mavenProjectSourceFiles,
+                                           JavaFileReader javaFileReader) throws IOException {
+        return createMavenProjects(mavenProjectSourceFiles, javaFileReader, this.numberOfWorkers);
+    }
+
+    /**
+     * Same as createMavenProjects above, with numberOfWorkers parser threads instead of the number set on this
+     * instance.
+     */
+    List<MavenProject> createMavenProjects(List<MavenProjectSourceFiles> mavenProjectSourceFiles,
+                                           JavaFileReader javaFileReader, int numberOfWorkers) throws IOException {
+        List<Path> javaSourceFiles = new ArrayList<>();
+        for (MavenProjectSourceFiles sourceFiles : mavenProjectSourceFiles) {
+            javaSourceFiles.addAll(sourceFiles.getJavaSourceFiles());
+        }
+        Iterator<List<JavaTypeDeclarationPath>> parseResults = parseJavaFiles(javaSourceFiles, javaFileReader,
+                numberOfWorkers).iterator();
+        List<MavenProject> mavenProjects = new LinkedList<>();
+        for (MavenProjectSourceFiles sourceFiles : mavenProjectSourceFiles) {
+            List<JavaTypeDeclarationPath> javaTypeDeclarationPaths = new LinkedList<>();
+            for (int i = 0; i < sourceFiles.getJavaSourceFiles().size(); i++) {
+                javaTypeDeclarationPaths.addAll(parseResults.next());
+            }
+            mavenProjects.add(DomainObjectModelFactory.instance().createMavenProject(
+                    sourceFiles.getMavenProjectPath(), javaTypeDeclarationPaths));
+        }
+        return mavenProjects;
+    }
 
+    /**
+     * Find all java source files in a directory and its sub directories, and parse them into a list of
+     * JavaTypeDeclarationPath. The files are parsed by numberOfWorkers threads, but the list is always in
+     * directory traversal order.
+     *
+     * @param path is a Path object to a directory.
+     * @return a list of JavaTypeDeclarationPath.
+     * @throws IOException
+     */
     List<JavaTypeDeclarationPath> findJavaClassPathsInSrcDirectory(Path path) throws IOException {
+        List<Path> javaSourceFiles = new ArrayList<>();
+        findJavaSourceFilesInSrcDirectory(path, javaSourceFiles);
+        return readJavaFiles(javaSourceFiles);
+    }
+
+    void findJavaSourceFilesInSrcDirectory(Path path, List<Path> javaSourceFiles) throws IOException {
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(path)) {
+            for (Path fileOrDirectoryPath : stream) {
+                if (Files.isDirectory(fileOrDirectoryPath)) {
+                    findJavaSourceFilesInSrcDirectory(fileOrDirectoryPath, javaSourceFiles);
+                }
+                String filename = fileOrDirectoryPath.getFileName().toString();
+                if (Files.isRegularFile(fileOrDirectoryPath) && filename.endsWith(".java")) {
+                    javaSourceFiles.add(fileOrDirectoryPath);
+                }
+            }
+        }
+    }
+
+    /**
+     * Parse a list of java source files into one list of JavaTypeDeclarationPath.
+     *
+     * @param javaSourceFiles is a list of Path objects to java source files.
+     * @return a list of JavaTypeDeclarationPath, in the same order as the files in javaSourceFiles.
+     * @throws IOException
+     */
+    List<JavaTypeDeclarationPath> readJavaFiles(List<Path> javaSourceFiles) throws IOException {
         List<JavaTypeDeclarationPath> javaTypeDeclarationPaths = new LinkedList<>();
-        DirectoryStream<Path> stream = Files.newDirectoryStream(path);
-        for (Path fileOrDirectoryPath : stream) {
-            if (Files.isDirectory(fileOrDirectoryPath)) {
-                javaTypeDeclarationPaths.addAll(findJavaClassPathsInSrcDirectory(fileOrDirectoryPath));
+        for (List<JavaTypeDeclarationPath> parseResult : parseJavaFiles(javaSourceFiles)) {
+            javaTypeDeclarationPaths.addAll(parseResult);
+        }
+        return javaTypeDeclarationPaths;
+    }
+
+    /**
+     * Parse a list of java source files. With more than one worker the files are parsed in a thread pool, and the
+     * results are collected in the order of the javaSourceFiles list, which makes the result deterministic.
+     *
+     * @param javaSourceFiles is a list of Path objects to java source files.
+     * @return one list of JavaTypeDeclarationPath per file, in the same order as the files in javaSourceFiles.
+     * @throws IOException
+     */
+    List<List<JavaTypeDeclarationPath>> parseJavaFiles(List<Path> javaSourceFiles) throws IOException {
+        return parseJavaFiles(javaSourceFiles, this::readJavaFile);
+    }
+
+    /**
+     * Parse a list of java source files, where each file is read by javaFileReader.
+     *
+     * @param javaSourceFiles is a list of Path objects to java source files.
+     * @param javaFileReader reads one java source file. Called from the worker threads.
+     * @return one list of JavaTypeDeclarationPath per file, in the same order as the files in javaSourceFiles.
+     * @throws IOException
+     */
+    List<List<JavaTypeDeclarationPath>> parseJavaFiles(List<Path> javaSourceFiles, JavaFileReader javaFileReader) throws IOException {
+        return parseJavaFiles(javaSourceFiles, javaFileReader, this.numberOfWorkers);
+    }
+
+    /**
+     * Same as parseJavaFiles above, with numberOfWorkers parser threads instead of the number set on this instance.
+     */
+    List<List<JavaTypeDeclarationPath>> parseJavaFiles(List<Path> javaSourceFiles, JavaFileReader javaFileReader,
+                                                       int numberOfWorkers) throws IOException {
+        List<List<JavaTypeDeclarationPath>> parseResults = new ArrayList<>(javaSourceFiles.size());
+        int workers = Math.min(numberOfWorkers, javaSourceFiles.size());
+        if (workers <= 1) {
+            for (Path javaSourceFile : javaSourceFiles) {
+                parseResults.add(javaFileReader.readJavaFile(javaSourceFile));
+            }
+            return parseResults;
+        }
+        ExecutorService executorService = Executors.newFixedThreadPool(workers);
+        try {
+            List<Future<List<JavaTypeDeclarationPath>>> futures = new ArrayList<>(javaSourceFiles.size());
+            for (Path javaSourceFile : javaSourceFiles) {
+                futures.add(executorService.submit(() -> javaFileReader.readJavaFile(javaSourceFile)));
             }
-            String filename = fileOrDirectoryPath.getFileName().toString();
-            if (Files.isRegularFile(fileOrDirectoryPath) && filename.endsWith(".java")) {
-                javaTypeDeclarationPaths.addAll(readJavaFile(fileOrDirectoryPath));
+            for (Future<List<JavaTypeDeclarationPath>> future : futures) {
+                parseResults.add(getParseResult(future));
             }
         }
-        return javaTypeDeclarationPaths;
+        finally {
+            executorService.shutdownNow();
+        }
+        return parseResults;
+    }
+
+    List<JavaTypeDeclarationPath> getParseResult(Future<List<JavaTypeDeclarationPath>> future) throws IOException {
+        try {
+            return future.get();
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while parsing java source files.", e);
+        }
+        catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IOException(cause);
+        }
     }
 
     List<JavaTypeDeclarationPath> readJavaFile(Path path) throws IOException {
         return JavaSourceFileParser.instance().readJavaFile(path);
     }
+
+    /**
+     * Reads and parses one java source file.
+     */
+    interface JavaFileReader {
+        List<JavaTypeDeclarationPath> readJavaFile(Path path) throws IOException;
+    }
 }
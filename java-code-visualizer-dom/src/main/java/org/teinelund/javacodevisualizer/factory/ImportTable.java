@@ -0,0 +1,103 @@
+package org.teinelund.javacodevisualizer.factory;
+
+import org.teinelund.javacodevisualizer.dom.ImportSummary;
+import org.teinelund.javacodevisualizer.dom.JavaProjectObjectModel;
+import org.teinelund.javacodevisualizer.dom.JavaTypeDeclarationPath;
+import org.teinelund.javacodevisualizer.dom.SymbolTable;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The imports of one compilation unit, used to resolve the simple type names in it to types in a
+ * JavaProjectObjectModel. A simple name is resolved as the Java compiler does:
+ *
+ * 1. A single-type import (import org.teinelund.ordersystem.Customer;) with the same simple name. A single-type
+ *    import shadows the types of the package, also if the imported type is not in the model (like java.util.List).
+ * 2. A type in the package of the compilation unit.
+ * 3. A type in a package imported on demand (import org.teinelund.ordersystem.*;), or in java.lang.
+ *
+ * Static imports do not import types and are ignored. A resolved name is cached, so each simple name is resolved
+ * once per compilation unit. An ImportTable must therefore not be used after the model has changed.
+ */
+class ImportTable {
+
+    static final String JAVA_LANG = "java.lang";
+
+    private final String packageName;
+
+    /**
+     * The package of each single-type import, by simple name.
+     */
+    private final Map<String, String> singleTypeImports = new HashMap<>();
+
+    /**
+     * The packages imported on demand, and java.lang.
+     */
+    private final List<String> onDemandImports = new ArrayList<>();
+
+    /**
+     * The resolved types by simple name. A simple name that could not be resolved maps to null.
+     */
+    private final Map<String, JavaTypeDeclarationPath> resolvedTypes = new HashMap<>();
+
+    /**
+     * @param packageName is the package of the compilation unit.
+     * @param imports are the imports of the compilation unit.
+     */
+    ImportTable(String packageName, List<ImportSummary> imports) {
+        this.packageName = packageName;
+        for (ImportSummary importSummary : imports) {
+            if (importSummary.isStatic()) {
+                continue;
+            }
+            if (importSummary.isAsterisk()) {
+                this.onDemandImports.add(importSummary.getName());
+            }
+            else {
+                int index = importSummary.getName().lastIndexOf('.');
+                if (index != -1) {
+                    this.singleTypeImports.putIfAbsent(importSummary.getName().substring(index + 1),
+                            SymbolTable.instance().intern(importSummary.getName().substring(0, index)));
+                }
+            }
+        }
+        this.onDemandImports.add(JAVA_LANG);
+    }
+
+    /**
+     * Resolve a simple type name used in the compilation unit.
+     *
+     * @param simpleName is the simple name of a type, for instance Customer.
+     * @param jpom is the JavaProjectObjectModel to look up the type in.
+     * @return the type, or null if the name does not resolve to a type in jpom.
+     */
+    JavaTypeDeclarationPath resolve(String simpleName, JavaProjectObjectModel jpom) {
+        JavaTypeDeclarationPath jtdp = this.resolvedTypes.get(simpleName);
+        if (jtdp == null && !this.resolvedTypes.containsKey(simpleName)) {
+            jtdp = lookUp(simpleName, jpom);
+            this.resolvedTypes.put(simpleName, jtdp);
+        }
+        return jtdp;
+    }
+
+    JavaTypeDeclarationPath lookUp(String simpleName, JavaProjectObjectModel jpom) {
+        String importedPackageName = this.singleTypeImports.get(simpleName);
+        if (importedPackageName != null) {
+            return jpom.getTypeByQualifiedName(importedPackageName, simpleName);
+        }
+        JavaTypeDeclarationPath jtdp = jpom.getTypeByQualifiedName(this.packageName, simpleName);
+        if (jtdp != null) {
+            return jtdp;
+        }
+        for (String onDemandImport : this.onDemandImports) {
+            jtdp = jpom.getTypeByQualifiedName(onDemandImport, simpleName);
+            if (jtdp != null) {
+                return jtdp;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,458 @@
+package org.teinelund.javacodevisualizer.factory;
+
+import org.teinelund.javacodevisualizer.dom.DomainObjectModelFactory;
+import org.teinelund.javacodevisualizer.dom.JavaProjectObjectModel;
+import org.teinelund.javacodevisualizer.dom.JavaTypeDeclarationPath;
+import org.teinelund.javacodevisualizer.dom.MavenProject;
+import org.teinelund.javacodevisualizer.dom.TypeSummary;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Builds a JavaProjectObjectModel and stores it as a snapshot, together with a SourceFileManifest. If a snapshot and
+ * a manifest already exist, the stored model is updated instead of built from scratch:
+ *
+ * - Files with the same size and last modified time as in the manifest are unchanged, and are not read at all.
+ * - Other files are read and hashed. Files with the same hash as in the manifest are unchanged as well, and are not
+ *   parsed. Files with a new hash, and new files, are parsed.
+ * - Types of changed and deleted files are removed from the model, and the types of changed and new files are added
+ *   and wired.
+ * - Types in unchanged files, with fields referring to a type name that was removed or added, are wired again. Their
+ *   files are parsed, since the snapshot does not keep the TypeSummaries of the types.
+ *
+ * Parsing and wiring is thereby done for the changed files and the files depending on them only.
+ */
+class IncrementalModelBuilder {
+
+    private final int numberOfWorkers;
+    private final boolean lexicalExtraction;
+
+    IncrementalModelBuilder() {
+        this(1, false);
+    }
+
+    /**
+     * @param numberOfWorkers is the number of threads that parse the java source files, and wire the fields of all
+     *                        classes. Must be one or more.
+     * @param lexicalExtraction is true to parse with JavaSourceFileExtractor, and false to use JavaParser.
+     */
+    IncrementalModelBuilder(int numberOfWorkers, boolean lexicalExtraction) {
+        if (numberOfWorkers < 1) {
+            throw new IllegalArgumentException("Number of workers must be one or more, was " + numberOfWorkers + ".");
+        }
+        this.numberOfWorkers = numberOfWorkers;
+        this.lexicalExtraction = lexicalExtraction;
+    }
+
+    /**
+     * Build or update the JavaProjectObjectModel of the java source files in mavenProjectSourceFiles, and store it
+     * in storagePath.
+     *
+     * @param mavenProjectSourceFiles is a list of Maven projects and their java source files.
+     * @param storagePath is a Path object pointing to the snapshot file.
+     * @return the JavaProjectObjectModel.
+     * @throws IOException
+     */
+    JavaProjectObjectModel build(List<MavenProjectSourceFiles> mavenProjectSourceFiles, Path storagePath) throws IOException {
+        return build(mavenProjectSourceFiles, storagePath, new BuildMetrics());
+    }
+
+    /**
+     * Same as build above, and records the work done in metrics.
+     */
+    JavaProjectObjectModel build(List<MavenProjectSourceFiles> mavenProjectSourceFiles, Path storagePath,
+                                 BuildMetrics metrics) throws IOException {
+        SourceFileManifest manifest = null;
+        JavaProjectObjectModel jpom = null;
+        if (Files.exists(storagePath) && Files.exists(SourceFileManifest.manifestPath(storagePath))) {
+            try {
+                manifest = SourceFileManifest.read(storagePath);
+                jpom = JavaProjectObjectModelSnapshot.instance().read(storagePath);
+            }
+            catch (IOException | RuntimeException e) {
+                // A snapshot or manifest from an other version, or a damaged one. Build the model from scratch.
+                manifest = null;
+            }
+        }
+        if (manifest == null) {
+            return buildAll(mavenProjectSourceFiles, storagePath, metrics);
+        }
+        return update(mavenProjectSourceFiles, manifest, jpom, storagePath, metrics);
+    }
+
+    JavaProjectObjectModel buildAll(List<MavenProjectSourceFiles> mavenProjectSourceFiles, Path storagePath,
+                                    BuildMetrics metrics) throws IOException {
+        SourceFileManifest manifest = new SourceFileManifest();
+        JavaProjectObjectModel jpom = buildAll(mavenProjectSourceFiles, manifest, metrics);
+        store(jpom, manifest, storagePath, metrics);
+        return jpom;
+    }
+
+    /**
+     * Build the JavaProjectObjectModel of the java source files in mavenProjectSourceFiles from scratch.
+     *
+     * @param mavenProjectSourceFiles is a list of Maven projects and their java source files.
+     * @param manifest is an empty manifest, to which an entry for each java source file is added.
+     * @return the JavaProjectObjectModel.
+     * @throws IOException
+     */
+    JavaProjectObjectModel buildAll(List<MavenProjectSourceFiles> mavenProjectSourceFiles, SourceFileManifest manifest) throws IOException {
+        return buildAll(mavenProjectSourceFiles, manifest, new BuildMetrics());
+    }
+
+    JavaProjectObjectModel buildAll(List<MavenProjectSourceFiles> mavenProjectSourceFiles, SourceFileManifest manifest,
+                                    BuildMetrics metrics) throws IOException {
+        Map<Path, BasicFileAttributes> attributes = getAttributes(mavenProjectSourceFiles);
+        Map<Path, SourceFileManifest.Entry> entries = new ConcurrentHashMap<>();
+        long start = System.nanoTime();
+        List<MavenProject> mavenProjects = FetchMavenProject.instance().createMavenProjects(mavenProjectSourceFiles,
+                path -> readJavaFile(path, attributes.get(path), entries, metrics), this.numberOfWorkers);
+        metrics.addPhaseNanos(BuildMetrics.Phase.PARSE, System.nanoTime() - start);
+        start = System.nanoTime();
+        JavaProjectObjectModel jpom = DomainObjectModelFactory.instance().createJavaProjectObjectModel();
+        WireClassField.instance().wireClasses(jpom, mavenProjects);
+        for (MavenProject mavenProject : mavenProjects) {
+            metrics.typesIndexed(mavenProject.getAllTypes().size());
+        }
+        metrics.addPhaseNanos(BuildMetrics.Phase.INDEX, System.nanoTime() - start);
+        WireClassField.instance().wireClassFields(jpom, metrics, this.numberOfWorkers);
+        for (Path path : attributes.keySet()) {
+            manifest.put(entries.get(path));
+        }
+        return jpom;
+    }
+
+    JavaProjectObjectModel update(List<MavenProjectSourceFiles> mavenProjectSourceFiles, SourceFileManifest manifest,
+                                  JavaProjectObjectModel jpom, Path storagePath, BuildMetrics metrics) throws IOException {
+        Map<Path, BasicFileAttributes> attributes = getAttributes(mavenProjectSourceFiles);
+        // Find the files that may have changed, and the deleted files.
+        Map<Path, BasicFileAttributes> candidates = new LinkedHashMap<>();
+        for (Map.Entry<Path, BasicFileAttributes> file : attributes.entrySet()) {
+            SourceFileManifest.Entry entry = manifest.get(file.getKey());
+            if (entry == null || entry.getSize() != file.getValue().size() ||
+                    entry.getLastModified() != file.getValue().lastModifiedTime().toMillis()) {
+                candidates.put(file.getKey(), file.getValue());
+            }
+        }
+        List<Path> deletedPaths = new ArrayList<>();
+        for (SourceFileManifest.Entry entry : manifest.getEntries()) {
+            if (!attributes.containsKey(entry.getPath())) {
+                deletedPaths.add(entry.getPath());
+            }
+        }
+        // The Maven projects, which are the modules of the dependency rollups, may have changed since the snapshot.
+        List<Path> modulePaths = new ArrayList<>();
+        for (MavenProjectSourceFiles sourceFiles : mavenProjectSourceFiles) {
+            modulePaths.add(sourceFiles.getMavenProjectPath());
+        }
+        jpom.getDependencyRollups().setModulePaths(modulePaths);
+        Map<Path, SourceFileManifest.Entry> entries = applyChanges(jpom, manifest, candidates, deletedPaths, metrics);
+        store(jpom, createManifest(attributes, entries, manifest), storagePath, metrics);
+        return jpom;
+    }
+
+    /**
+     * Patch a JavaProjectObjectModel in place with the changes of a set of java source files. The manifest describes
+     * the files as they were when the model was last built or patched, and is not changed.
+     *
+     * @param jpom is the JavaProjectObjectModel to patch.
+     * @param manifest is the manifest of the files in jpom.
+     * @param candidates are the files that may have changed, or are new, and their attributes.
+     * @param deletedPaths are the files that are deleted.
+     * @return the new manifest entries of the files in candidates, and of files that turned out to be changed.
+     * @throws IOException
+     */
+    Map<Path, SourceFileManifest.Entry> applyChanges(JavaProjectObjectModel jpom, SourceFileManifest manifest,
+                                                     Map<Path, BasicFileAttributes> candidates,
+                                                     List<Path> deletedPaths) throws IOException {
+        return applyChanges(jpom, manifest, candidates, deletedPaths, new BuildMetrics());
+    }
+
+    Map<Path, SourceFileManifest.Entry> applyChanges(JavaProjectObjectModel jpom, SourceFileManifest manifest,
+                                                     Map<Path, BasicFileAttributes> candidates,
+                                                     List<Path> deletedPaths, BuildMetrics metrics) throws IOException {
+        return applyChanges(jpom, manifest, candidates, deletedPaths, metrics, null);
+    }
+
+    /**
+     * Same as applyChanges above, and records the work done in metrics.
+     *
+     * @param failures collects the candidates that can not be read or parsed, and the exception of each. They are
+     *                 left out of the change, as if they were unchanged, and have no new manifest entry. If null, a
+     *                 candidate that can not be read or parsed fails the whole change instead.
+     */
+    Map<Path, SourceFileManifest.Entry> applyChanges(JavaProjectObjectModel jpom, SourceFileManifest manifest,
+                                                     Map<Path, BasicFileAttributes> candidates,
+                                                     List<Path> deletedPaths, BuildMetrics metrics,
+                                                     Map<Path, Exception> failures) throws IOException {
+        List<Path> candidatePaths = new ArrayList<>(candidates.keySet());
+        Map<Path, SourceFileManifest.Entry> entries = new ConcurrentHashMap<>();
+        long start = System.nanoTime();
+        List<List<JavaTypeDeclarationPath>> parseResults = FetchMavenProject.instance().parseJavaFiles(candidatePaths,
+                path -> {
+                    try {
+                        return readChangedJavaFile(path, candidates.get(path), manifest.get(path), entries, metrics);
+                    }
+                    catch (IOException | RuntimeException e) {
+                        if (failures == null) {
+                            throw e;
+                        }
+                        failures.put(path, e);
+                        return null;
+                    }
+                }, this.numberOfWorkers);
+        metrics.addPhaseNanos(BuildMetrics.Phase.PARSE, System.nanoTime() - start);
+        // Collect the types to remove and to add.
+        Set<Path> changedPaths = new HashSet<>();
+        List<JavaTypeDeclarationPath> oldTypes = new LinkedList<>();
+        List<JavaTypeDeclarationPath> newTypes = new LinkedList<>();
+        for (int i = 0; i < candidatePaths.size(); i++) {
+            List<JavaTypeDeclarationPath> parseResult = parseResults.get(i);
+            if (parseResult != null) {
+                Path path = candidatePaths.get(i);
+                changedPaths.add(path);
+                if (manifest.get(path) != null) {
+                    oldTypes.addAll(findTypes(jpom, manifest.get(path)));
+                }
+                newTypes.addAll(parseResult);
+            }
+        }
+        for (Path path : deletedPaths) {
+            if (manifest.get(path) != null) {
+                changedPaths.add(path);
+                oldTypes.addAll(findTypes(jpom, manifest.get(path)));
+            }
+        }
+        List<Path> dependentPaths = findDependentPaths(manifest, oldTypes, newTypes, changedPaths);
+        // Parse before the model is patched, so a file that can not be parsed leaves the model as it was.
+        Map<Path, SourceFileManifest.Entry> dependentEntries = new ConcurrentHashMap<>();
+        start = System.nanoTime();
+        Map<Path, List<JavaTypeDeclarationPath>> dependentParseResults = parseDependentJavaFiles(dependentPaths,
+                manifest, jpom, dependentEntries, metrics);
+        metrics.addPhaseNanos(BuildMetrics.Phase.PARSE, System.nanoTime() - start);
+        // Patch the model.
+        start = System.nanoTime();
+        jpom.removeJavaTypeDeclarationPaths(oldTypes);
+        jpom.addJavaTypeDeclarationPaths(newTypes);
+        metrics.typesIndexed(newTypes.size() - oldTypes.size());
+        metrics.addPhaseNanos(BuildMetrics.Phase.INDEX, System.nanoTime() - start);
+        start = System.nanoTime();
+        for (JavaTypeDeclarationPath newType : newTypes) {
+            WireClassField.instance().wireClassFields(newType, jpom, metrics);
+        }
+        rewireJavaFiles(dependentPaths, dependentParseResults, manifest, jpom, dependentEntries, entries, metrics);
+        metrics.addPhaseNanos(BuildMetrics.Phase.WIRE, System.nanoTime() - start);
+        return entries;
+    }
+
+    /**
+     * Find the unchanged files that have fields referring to a type name of a removed or an added type.
+     */
+    List<Path> findDependentPaths(SourceFileManifest manifest, List<JavaTypeDeclarationPath> oldTypes,
+                                  List<JavaTypeDeclarationPath> newTypes, Set<Path> changedPaths) {
+        if (oldTypes.isEmpty() && newTypes.isEmpty()) {
+            return Collections.emptyList();
+        }
+        Set<String> touchedTypeNames = new HashSet<>();
+        for (JavaTypeDeclarationPath jtdp : oldTypes) {
+            touchedTypeNames.add(jtdp.getName());
+        }
+        for (JavaTypeDeclarationPath jtdp : newTypes) {
+            touchedTypeNames.add(jtdp.getName());
+        }
+        Set<Path> dependentPaths = new LinkedHashSet<>();
+        for (String typeName : touchedTypeNames) {
+            for (Path path : manifest.getReferencingPaths(typeName)) {
+                if (!changedPaths.contains(path)) {
+                    dependentPaths.add(path);
+                }
+            }
+        }
+        return new ArrayList<>(dependentPaths);
+    }
+
+    /**
+     * Parse the dependent files, whose types have no TypeSummaries (types loaded from a snapshot).
+     *
+     * @return the parsed types by path.
+     */
+    Map<Path, List<JavaTypeDeclarationPath>> parseDependentJavaFiles(List<Path> paths, SourceFileManifest manifest,
+                                                                     JavaProjectObjectModel jpom,
+                                                                     Map<Path, SourceFileManifest.Entry> entries,
+                                                                     BuildMetrics metrics) throws IOException {
+        List<Path> pathsToParse = new ArrayList<>();
+        for (Path path : paths) {
+            if (findTypes(jpom, manifest.get(path)).stream().anyMatch(jtdp -> jtdp.getTypeSummary() == null)) {
+                pathsToParse.add(path);
+            }
+        }
+        List<List<JavaTypeDeclarationPath>> parseResults = FetchMavenProject.instance().parseJavaFiles(pathsToParse,
+                path -> readJavaFile(path, Files.readAttributes(path, BasicFileAttributes.class), entries, metrics),
+                this.numberOfWorkers);
+        Map<Path, List<JavaTypeDeclarationPath>> parseResultsByPath = new HashMap<>();
+        for (int i = 0; i < pathsToParse.size(); i++) {
+            parseResultsByPath.put(pathsToParse.get(i), parseResults.get(i));
+        }
+        return parseResultsByPath;
+    }
+
+    /**
+     * Wire the fields of the types in unchanged files again. If the types in the model still have their
+     * TypeSummaries, these are used. Otherwise the parsed types are matched with the types in the model by name.
+     * If they do not match, the file has changed after all (without a new size or last modified time), and its types
+     * are replaced instead.
+     */
+    void rewireJavaFiles(List<Path> paths, Map<Path, List<JavaTypeDeclarationPath>> parseResults,
+                         SourceFileManifest manifest, JavaProjectObjectModel jpom,
+                         Map<Path, SourceFileManifest.Entry> parsedEntries,
+                         Map<Path, SourceFileManifest.Entry> entries, BuildMetrics metrics) {
+        for (Path path : paths) {
+            List<JavaTypeDeclarationPath> existingTypes = findTypes(jpom, manifest.get(path));
+            List<JavaTypeDeclarationPath> parsedTypes = parseResults.get(path);
+            if (parsedTypes == null) {
+                for (JavaTypeDeclarationPath existingType : existingTypes) {
+                    WireClassField.instance().clearClassFields(existingType, jpom);
+                    WireClassField.instance().wireClassFields(existingType, jpom, metrics);
+                }
+                continue;
+            }
+            Map<String, TypeSummary> typeSummaries = new HashMap<>();
+            for (JavaTypeDeclarationPath parsedType : parsedTypes) {
+                typeSummaries.put(parsedType.getName(), parsedType.getTypeSummary());
+            }
+            if (existingTypes.size() == parsedTypes.size() && existingTypes.stream().allMatch(
+                    existingType -> typeSummaries.containsKey(existingType.getName()))) {
+                for (JavaTypeDeclarationPath existingType : existingTypes) {
+                    WireClassField.instance().clearClassFields(existingType, jpom);
+                    WireClassField.instance().wireClassFields(typeSummaries.get(existingType.getName()),
+                            existingType, jpom, metrics);
+                }
+            }
+            else {
+                jpom.removeJavaTypeDeclarationPaths(existingTypes);
+                jpom.addJavaTypeDeclarationPaths(parsedTypes);
+                metrics.typesIndexed(parsedTypes.size() - existingTypes.size());
+                for (JavaTypeDeclarationPath parsedType : parsedTypes) {
+                    WireClassField.instance().wireClassFields(parsedType, jpom, metrics);
+                }
+                entries.put(path, parsedEntries.get(path));
+            }
+        }
+    }
+
+    /**
+     * @return the types in the model, that are declared in the file of entry.
+     */
+    List<JavaTypeDeclarationPath> findTypes(JavaProjectObjectModel jpom, SourceFileManifest.Entry entry) {
+        List<JavaTypeDeclarationPath> types = new LinkedList<>();
+        for (String typeName : new LinkedHashSet<>(entry.getDeclaredTypeNames())) {
+            for (JavaTypeDeclarationPath jtdp : jpom.getAllTypesGivenName(typeName)) {
+                if (entry.getPath().equals(jtdp.getPathToTypeDeclaration())) {
+                    types.add(jtdp);
+                }
+            }
+        }
+        return types;
+    }
+
+    /**
+     * Read a java source file that has a new size or last modified time.
+     *
+     * @return the parsed types of the file, or null if its content is the same as in the manifest.
+     */
+    List<JavaTypeDeclarationPath> readChangedJavaFile(Path path, BasicFileAttributes attributes,
+                                                      SourceFileManifest.Entry oldEntry,
+                                                      Map<Path, SourceFileManifest.Entry> entries,
+                                                      BuildMetrics metrics) throws IOException {
+        byte[] content = Files.readAllBytes(path);
+        metrics.bytesRead(content.length);
+        byte[] hash = SourceFileManifest.hash(content);
+        if (oldEntry != null && oldEntry.hasHash(hash)) {
+            entries.put(path, oldEntry.touch(attributes.size(), attributes.lastModifiedTime().toMillis()));
+            return null;
+        }
+        long start = System.nanoTime();
+        List<JavaTypeDeclarationPath> javaTypeDeclarationPaths = parseJavaFile(content, path);
+        metrics.fileParsed(System.nanoTime() - start);
+        entries.put(path, createEntry(path, attributes, hash, javaTypeDeclarationPaths));
+        return javaTypeDeclarationPaths;
+    }
+
+    List<JavaTypeDeclarationPath> readJavaFile(Path path, BasicFileAttributes attributes,
+                                               Map<Path, SourceFileManifest.Entry> entries,
+                                               BuildMetrics metrics) throws IOException {
+        byte[] content = Files.readAllBytes(path);
+        metrics.bytesRead(content.length);
+        long start = System.nanoTime();
+        List<JavaTypeDeclarationPath> javaTypeDeclarationPaths = parseJavaFile(content, path);
+        metrics.fileParsed(System.nanoTime() - start);
+        entries.put(path, createEntry(path, attributes, SourceFileManifest.hash(content), javaTypeDeclarationPaths));
+        return javaTypeDeclarationPaths;
+    }
+
+    List<JavaTypeDeclarationPath> parseJavaFile(byte[] content, Path path) {
+        return JavaSourceFileParser.instance().parseJavaFile(content, path, this.lexicalExtraction);
+    }
+
+    SourceFileManifest.Entry createEntry(Path path, BasicFileAttributes attributes, byte[] hash,
+                                         List<JavaTypeDeclarationPath> javaTypeDeclarationPaths) {
+        List<String> declaredTypeNames = new ArrayList<>();
+        Set<String> referencedTypeNames = new HashSet<>();
+        for (JavaTypeDeclarationPath jtdp : javaTypeDeclarationPaths) {
+            declaredTypeNames.add(jtdp.getName());
+            referencedTypeNames.addAll(WireClassField.instance().getReferencedTypeNames(jtdp.getTypeSummary()));
+        }
+        return new SourceFileManifest.Entry(path, attributes.size(), attributes.lastModifiedTime().toMillis(), hash,
+                declaredTypeNames, referencedTypeNames);
+    }
+
+    /**
+     * @return the java source files of all Maven projects and their attributes, in directory traversal order.
+     */
+    Map<Path, BasicFileAttributes> getAttributes(List<MavenProjectSourceFiles> mavenProjectSourceFiles) throws IOException {
+        Map<Path, BasicFileAttributes> attributes = new LinkedHashMap<>();
+        for (MavenProjectSourceFiles sourceFiles : mavenProjectSourceFiles) {
+            List<Path> javaSourceFiles = sourceFiles.getJavaSourceFiles();
+            List<BasicFileAttributes> javaSourceFileAttributes = sourceFiles.getJavaSourceFileAttributes();
+            for (int i = 0; i < javaSourceFiles.size(); i++) {
+                attributes.put(javaSourceFiles.get(i), javaSourceFileAttributes != null ? javaSourceFileAttributes.get(i) :
+                        Files.readAttributes(javaSourceFiles.get(i), BasicFileAttributes.class));
+            }
+        }
+        return attributes;
+    }
+
+    /**
+     * @return a manifest of the files in attributes, with the entries in entries, or else the entries in oldManifest.
+     */
+    SourceFileManifest createManifest(Map<Path, BasicFileAttributes> attributes,
+                                      Map<Path, SourceFileManifest.Entry> entries, SourceFileManifest oldManifest) {
+        SourceFileManifest manifest = new SourceFileManifest();
+        for (Path path : attributes.keySet()) {
+            SourceFileManifest.Entry entry = entries.get(path);
+            manifest.put(entry != null ? entry : oldManifest.get(path));
+        }
+        return manifest;
+    }
+
+    void store(JavaProjectObjectModel jpom, SourceFileManifest manifest, Path storagePath, BuildMetrics metrics) throws IOException {
+        long start = System.nanoTime();
+        JavaProjectObjectModelSnapshot.instance().write(jpom, storagePath);
+        manifest.write(storagePath);
+        metrics.addPhaseNanos(BuildMetrics.Phase.STORE, System.nanoTime() - start);
+    }
+}
@@ -13,16 +13,42 @@ public interface JavaProjectObjectModelFactory {
      * store (serialize) that object in file storagePath.
      *
      * @param javaProjectPaths is a list of Path objects containing Maven projects.
-     * @param storagePath is a Path object pointing to the file to serialize the JavaProjectObjectModel.
-     * @return
+     * @param storagePath is a Path object pointing to the file to serialize the JavaProjectObjectModel. If null, the
+     *                    JavaProjectObjectModel is not stored.
+     * @return a frozen JavaProjectObjectModel, see JavaProjectObjectModel.freeze.
      */
     JavaProjectObjectModel createrAndStore(List<Path> javaProjectPaths, List<Path> excludePaths, Path storagePath) throws IOException;
 
+    /**
+     * @return the metrics of the last call to createrAndStore, or null if createrAndStore has not been called.
+     */
+    BuildMetrics getBuildMetrics();
+
     /**
      * Reads (deserialize) the file given by the Path storagePath to a JavaProjectObjectModel.
      *
      * @param storagePath is a Path object pointing to the file to deserialize to a JavaProjectObjectModel.
-     * @return
+     * @return a frozen JavaProjectObjectModel, see JavaProjectObjectModel.freeze.
+     */
+    JavaProjectObjectModel loadAndCreate(Path storagePath) throws IOException;
+
+    /**
+     * Memory-maps the file given by the Path storagePath into a read only JavaProjectObjectModel. In contrast to
+     * loadAndCreate, the file is not deserialized up front. Queries are answered from the mapped file, and only the
+     * types that are accessed are created, so the time and memory needed do not grow with the size of the file.
+     *
+     * @param storagePath is a Path object pointing to the file written by createrAndStore.
+     * @return a read only JavaProjectObjectModel.
+     */
+    JavaProjectObjectModel loadAndMap(Path storagePath) throws IOException;
+
+    /**
+     * Reads all java classes that are found in the path list, javaProjectPaths, and create a JavaProjectObjectModel,
+     * which is kept up to date with changes to the java source files until the returned watcher is closed.
+     *
+     * @param javaProjectPaths is a list of Path objects containing Maven projects.
+     * @param excludePaths is a list of Path objects that are not searched for Maven projects.
+     * @return a watcher, giving access to the JavaProjectObjectModel.
      */
-    JavaProjectObjectModel loadAndCreate(Path storagePath);
+    JavaProjectObjectModelWatcher createAndWatch(List<Path> javaProjectPaths, List<Path> excludePaths) throws IOException;
 }
@@ -1,29 +1,188 @@
 package org.teinelund.javacodevisualizer.factory;
 
-import org.teinelund.javacodevisualizer.dom.DomainObjectModelFactory;
 import org.teinelund.javacodevisualizer.dom.JavaProjectObjectModel;
-import org.teinelund.javacodevisualizer.dom.MavenProject;
 
 import java.io.IOException;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.List;
 
 public class JavaProjectObjectModelFactoryImpl implements JavaProjectObjectModelFactory {
 
+    private int numberOfWorkers = 1;
 
+    private boolean lexicalExtraction = false;
+
+    private long debounceMillis = JavaProjectObjectModelWatcher.DEFAULT_DEBOUNCE_MILLIS;
+
+    private long memoryCeiling = 0;
+
+    private Path spillDirectory = null;
+
+    /**
+     * The IncrementalModelBuilder to use, or null (the default) to create one with the settings of this factory.
+     */
+    IncrementalModelBuilder incrementalModelBuilder = null;
+
+    private BuildMetrics buildMetrics = null;
+
+    /**
+     * Set the number of threads used to parse the java source files, and to wire the fields of the classes, in
+     * createrAndStore.
+     *
+     * @param numberOfWorkers is the number of worker threads. Must be one or more.
+     */
+    public void setNumberOfWorkers(int numberOfWorkers) {
+        if (numberOfWorkers < 1) {
+            throw new IllegalArgumentException("Number of workers must be one or more, was " + numberOfWorkers + ".");
+        }
+        this.numberOfWorkers = numberOfWorkers;
+    }
+
+    /**
+     * Extract the types of the java source files with JavaSourceFileExtractor instead of JavaParser, in
+     * createrAndStore and createAndWatch. The extractor is several times faster, since it does not build a syntax tree
+     * of the method bodies.
+     *
+     * @param lexicalExtraction is true to use JavaSourceFileExtractor, and false (the default) to use JavaParser.
+     */
+    public void setLexicalExtraction(boolean lexicalExtraction) {
+        this.lexicalExtraction = lexicalExtraction;
+    }
+
+    /**
+     * Build the model in bounded memory in createrAndStore, for code bases whose model does not fit in the heap. The
+     * parsed types are spilled to disk as they are parsed, the name and package indices are built on disk, and the
+     * fields are wired against the memory-mapped indices, see SpillingModelBuilder. The model is then always built
+     * from scratch, a storage path is required, and the returned model is mapped from the stored snapshot, like
+     * loadAndMap.
+     *
+     * @param memoryCeiling is the size in bytes of the sort buffers used to build the indices. Must be one or more,
+     *                      or zero (the default) to build the model in memory.
+     */
+    public void setMemoryCeiling(long memoryCeiling) {
+        if (memoryCeiling < 0) {
+            throw new IllegalArgumentException("Memory ceiling must be zero or more, was " + memoryCeiling + ".");
+        }
+        this.memoryCeiling = memoryCeiling;
+    }
+
+    /**
+     * Set the directory, in which the spilled types and indices are written when a memory ceiling is set. The files
+     * are deleted when the model is built.
+     *
+     * @param spillDirectory is a directory, or null (the default) for the directory of the storage path.
+     */
+    public void setSpillDirectory(Path spillDirectory) {
+        this.spillDirectory = spillDirectory;
+    }
+
+    /**
+     * Set the time without file system events, after which the watcher created by createAndWatch applies a batch of
+     * changes to the model.
+     *
+     * @param debounceMillis is the time in milliseconds. Must be one or more.
+     */
+    public void setDebounceMillis(long debounceMillis) {
+        if (debounceMillis < 1) {
+            throw new IllegalArgumentException("Debounce time must be one millisecond or more, was " + debounceMillis + ".");
+        }
+        this.debounceMillis = debounceMillis;
+    }
+
+    /**
+     * Create a JavaProjectObjectModel and store it in storagePath. A manifest of the java source files is stored next
+     * to the snapshot. If a snapshot and a manifest from an earlier run exist, only the java source files that have
+     * changed since then are parsed, and the stored model is updated instead of created from scratch. If storagePath
+     * is null, the model is built by a ModelBuildPipeline, which parses the files while they are discovered. If a
+     * memory ceiling is set, the model is built by a SpillingModelBuilder.
+     */
     @Override
     public JavaProjectObjectModel createrAndStore(List<Path> javaProjectPaths, List<Path> excludePaths, Path storagePath) throws IOException {
-        List<Path> mavenProjectPaths = MavenProjectPath.instance().getMavenProjectPaths(javaProjectPaths, excludePaths);
-        List<MavenProject> mavenProjects = FetchMavenProject.instance().getMavenProjects(mavenProjectPaths);
-        JavaProjectObjectModel jpom = DomainObjectModelFactory.instance().createJavaProjectObjectModel();
-        WireClassField.instance().wireClasses(jpom, mavenProjects);
-        WireClassField.instance().wireClassFields(jpom);
+        if (this.memoryCeiling > 0 && storagePath == null) {
+            throw new IllegalArgumentException("A storage path is required when a memory ceiling is set.");
+        }
+        BuildMetrics metrics = new BuildMetrics();
+        metrics.start();
+        JavaProjectObjectModel jpom;
+        if (this.memoryCeiling > 0) {
+            List<MavenProjectSourceFiles> mavenProjectSourceFiles = MavenProjectPath.instance().findMavenProjects(
+                    javaProjectPaths, excludePaths, metrics);
+            Path directory = this.spillDirectory != null ? this.spillDirectory :
+                    storagePath.toAbsolutePath().getParent();
+            jpom = new SpillingModelBuilder(directory, this.memoryCeiling, this.numberOfWorkers, createJavaFileReader())
+                    .build(mavenProjectSourceFiles, storagePath, metrics);
+        }
+        else if (storagePath != null) {
+            List<MavenProjectSourceFiles> mavenProjectSourceFiles = MavenProjectPath.instance().findMavenProjects(
+                    javaProjectPaths, excludePaths, metrics);
+            jpom = getIncrementalModelBuilder().build(mavenProjectSourceFiles, storagePath, metrics);
+        }
+        else {
+            jpom = new ModelBuildPipeline(this.numberOfWorkers, ModelBuildPipeline.DEFAULT_QUEUE_CAPACITY,
+                    createJavaFileReader()).build(javaProjectPaths, excludePaths, metrics);
+        }
+        // The model is not changed after it is built.
+        jpom.freeze();
+        metrics.finish();
+        this.buildMetrics = metrics;
         return jpom;
     }
 
     @Override
-    public JavaProjectObjectModel loadAndCreate(Path storagePath) {
-        return null;
+    public BuildMetrics getBuildMetrics() {
+        return this.buildMetrics;
+    }
+
+    @Override
+    public JavaProjectObjectModelWatcher createAndWatch(List<Path> javaProjectPaths, List<Path> excludePaths) throws IOException {
+        List<MavenProjectSourceFiles> mavenProjectSourceFiles = MavenProjectPath.instance().findMavenProjects(
+                javaProjectPaths, excludePaths);
+        List<Path> srcDirectories = new ArrayList<>();
+        for (MavenProjectSourceFiles sourceFiles : mavenProjectSourceFiles) {
+            srcDirectories.add(sourceFiles.getSrcDirectory());
+        }
+        // Start watching before the model is built, so changes made while it is built are not lost.
+        IncrementalModelBuilder incrementalModelBuilder = getIncrementalModelBuilder();
+        JavaProjectObjectModelWatcher watcher = new JavaProjectObjectModelWatcher(srcDirectories,
+                incrementalModelBuilder, this.debounceMillis);
+        SourceFileManifest manifest = new SourceFileManifest();
+        try {
+            watcher.start(incrementalModelBuilder.buildAll(mavenProjectSourceFiles, manifest), manifest);
+        }
+        catch (IOException | RuntimeException e) {
+            watcher.close();
+            throw e;
+        }
+        return watcher;
+    }
+
+    @Override
+    public JavaProjectObjectModel loadAndCreate(Path storagePath) throws IOException {
+        JavaProjectObjectModel jpom = JavaProjectObjectModelSnapshot.instance().read(storagePath);
+        jpom.freeze();
+        return jpom;
+    }
+
+    @Override
+    public JavaProjectObjectModel loadAndMap(Path storagePath) throws IOException {
+        return JavaProjectObjectModelSnapshot.instance().map(storagePath);
+    }
+
+    /**
+     * The builders are given the settings of this factory, instead of the shared FetchMavenProject, WireClassField
+     * and JavaSourceFileParser instances, so factories with different settings do not affect each other.
+     */
+    IncrementalModelBuilder getIncrementalModelBuilder() {
+        if (this.incrementalModelBuilder != null) {
+            return this.incrementalModelBuilder;
+        }
+        return new IncrementalModelBuilder(this.numberOfWorkers, this.lexicalExtraction);
+    }
+
+    FetchMavenProject.JavaFileReader createJavaFileReader() {
+        boolean lexicalExtraction = this.lexicalExtraction;
+        return path -> JavaSourceFileParser.instance().readJavaFile(path, lexicalExtraction);
     }
 
 }
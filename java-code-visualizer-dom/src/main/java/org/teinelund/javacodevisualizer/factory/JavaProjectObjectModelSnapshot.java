@@ -0,0 +1,421 @@
+package org.teinelund.javacodevisualizer.factory;
+
+import org.teinelund.javacodevisualizer.dom.AccessModifier;
+import org.teinelund.javacodevisualizer.dom.DomainObjectModelFactory;
+import org.teinelund.javacodevisualizer.dom.Field;
+import org.teinelund.javacodevisualizer.dom.JavaProjectObjectModel;
+import org.teinelund.javacodevisualizer.dom.JavaType;
+import org.teinelund.javacodevisualizer.dom.JavaTypeDeclarationPath;
+import org.teinelund.javacodevisualizer.dom.JavaTypeDeclarationPathBuilder;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileSystem;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Writes a JavaProjectObjectModel to, and reads it from, a compact binary snapshot file.
+ *
+ * All strings (type names, package names, field names and paths) are stored once in a sorted string table, and
+ * everything else refers to them by their index in that table. Types and fields are fixed size records, so a type
+ * can be looked up by its index without reading the records before it. Big endian, all numbers are ints:
+ *
+ * header:         MAGIC, VERSION, stringCount, typeCount, fieldCount, nameIndexCount, packageIndexCount,
+ *                 stringDataOffset, typeRecordsOffset, fieldRecordsOffset, nameIndexOffset, packageIndexOffset,
+ *                 modulePathCount, modulePathsOffset
+ * string offsets: stringCount + 1 offsets into the string data (string i is between offset i and offset i + 1)
+ * string data:    UTF-8 bytes, padded to a multiple of four bytes
+ * type records:   nameId, packageNameId, pathId, javaType, accessModifier, firstFieldIndex, fieldCount
+ * field records:  nameId, typeIndex (-1 if the type of the field is not part of the model)
+ * name index:     nameIndexCount entries (nameId, first, count), sorted on nameId, followed by typeCount type indices
+ * package index:  same layout as the name index, for package names
+ * module paths:   modulePathCount string ids of the Maven project paths of the dependency rollups, sorted
+ *
+ * A string id, javaType or accessModifier of -1 means null.
+ *
+ * The type indices of a name are sorted on packageNameId, then on type index, so a type is found by qualified name
+ * with a binary search in the types of its name. Of two types with the same package name and name, the one with the
+ * lowest type index is found.
+ */
+public class JavaProjectObjectModelSnapshot {
+
+    static final int MAGIC = 0x4A435653;
+    static final int VERSION = 3;
+    static final int HEADER_SIZE = 14 * 4;
+    static final int HEADER_STRING_COUNT = 8;
+    static final int HEADER_TYPE_COUNT = 12;
+    static final int HEADER_FIELD_COUNT = 16;
+    static final int HEADER_NAME_INDEX_COUNT = 20;
+    static final int HEADER_PACKAGE_INDEX_COUNT = 24;
+    static final int HEADER_STRING_DATA_OFFSET = 28;
+    static final int HEADER_TYPE_RECORDS_OFFSET = 32;
+    static final int HEADER_FIELD_RECORDS_OFFSET = 36;
+    static final int HEADER_NAME_INDEX_OFFSET = 40;
+    static final int HEADER_PACKAGE_INDEX_OFFSET = 44;
+    static final int HEADER_MODULE_PATH_COUNT = 48;
+    static final int HEADER_MODULE_PATHS_OFFSET = 52;
+    static final int TYPE_RECORD_SIZE = 7 * 4;
+    static final int FIELD_RECORD_SIZE = 2 * 4;
+    static final int INDEX_ENTRY_SIZE = 3 * 4;
+
+    /**
+     * The order of the types of a name in the name index. The string table is sorted, so this is the order of their
+     * packageNameIds.
+     */
+    static final Comparator<JavaTypeDeclarationPath> PACKAGE_NAME_ORDER = Comparator.comparing(
+            JavaTypeDeclarationPath::getPackageName, Comparator.nullsFirst(Comparator.naturalOrder()));
+
+    private static JavaProjectObjectModelSnapshot javaProjectObjectModelSnapshot = null;
+
+    private JavaProjectObjectModelSnapshot() {}
+
+    public static JavaProjectObjectModelSnapshot instance() {
+        if (javaProjectObjectModelSnapshot == null) {
+            javaProjectObjectModelSnapshot = new JavaProjectObjectModelSnapshot();
+        }
+        return javaProjectObjectModelSnapshot;
+    }
+
+    /**
+     * Write a JavaProjectObjectModel to a snapshot file. The snapshot is first written to a temporary file next to
+     * storagePath, which then replaces storagePath in an atomic move, so a failed write never leaves a half written
+     * snapshot. On a file system without atomic moves, the temporary file replaces storagePath in a plain move.
+     *
+     * @param jpom is the JavaProjectObjectModel to write.
+     * @param storagePath is a Path object pointing to the snapshot file.
+     * @throws IOException
+     */
+    public void write(JavaProjectObjectModel jpom, Path storagePath) throws IOException {
+        // Number the types, in name index order.
+        List<JavaTypeDeclarationPath> types = new ArrayList<>();
+        Map<JavaTypeDeclarationPath, Integer> typeIds = new IdentityHashMap<>();
+        for (String name : jpom.getAllTypeNames()) {
+            for (JavaTypeDeclarationPath jtdp : getTypesGivenName(jpom, name)) {
+                typeIds.put(jtdp, types.size());
+                types.add(jtdp);
+            }
+        }
+        // Collect and number the strings.
+        TreeSet<String> sortedStrings = new TreeSet<>();
+        TreeSet<String> modulePaths = new TreeSet<>();
+        for (Path modulePath : jpom.getDependencyRollups().getModulePaths()) {
+            modulePaths.add(modulePath.toString());
+        }
+        sortedStrings.addAll(modulePaths);
+        for (JavaTypeDeclarationPath jtdp : types) {
+            addString(sortedStrings, jtdp.getName());
+            addString(sortedStrings, jtdp.getPackageName());
+            if (jtdp.getPathToTypeDeclaration() != null) {
+                sortedStrings.add(jtdp.getPathToTypeDeclaration().toString());
+            }
+            for (Field field : jtdp.getFields()) {
+                addString(sortedStrings, field.getName());
+            }
+        }
+        Map<String, Integer> stringIds = new HashMap<>(sortedStrings.size() * 2);
+        List<byte[]> encodedStrings = new ArrayList<>(sortedStrings.size());
+        int stringDataSize = 0;
+        for (String string : sortedStrings) {
+            byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+            stringIds.put(string, encodedStrings.size());
+            encodedStrings.add(bytes);
+            stringDataSize += bytes.length;
+        }
+        int paddedStringDataSize = (stringDataSize + 3) & ~3;
+        int fieldCount = 0;
+        for (JavaTypeDeclarationPath jtdp : types) {
+            fieldCount += jtdp.getFields().size();
+        }
+        int[][] nameIndex = createIndex(jpom.getAllTypeNames(), stringIds, typeIds, jpom, true);
+        int[][] packageIndex = createIndex(jpom.getAllPackageNames(), stringIds, typeIds, jpom, false);
+
+        int stringDataOffset = HEADER_SIZE + (encodedStrings.size() + 1) * 4;
+        int typeRecordsOffset = stringDataOffset + paddedStringDataSize;
+        int fieldRecordsOffset = typeRecordsOffset + types.size() * TYPE_RECORD_SIZE;
+        int nameIndexOffset = fieldRecordsOffset + fieldCount * FIELD_RECORD_SIZE;
+        int packageIndexOffset = nameIndexOffset + nameIndex[0].length / 3 * INDEX_ENTRY_SIZE + nameIndex[1].length * 4;
+        int modulePathsOffset = packageIndexOffset + packageIndex[0].length / 3 * INDEX_ENTRY_SIZE +
+                packageIndex[1].length * 4;
+
+        Path temporaryPath = storagePath.resolveSibling(storagePath.getFileName().toString() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporaryPath), 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(encodedStrings.size());
+            out.writeInt(types.size());
+            out.writeInt(fieldCount);
+            out.writeInt(nameIndex[0].length / 3);
+            out.writeInt(packageIndex[0].length / 3);
+            out.writeInt(stringDataOffset);
+            out.writeInt(typeRecordsOffset);
+            out.writeInt(fieldRecordsOffset);
+            out.writeInt(nameIndexOffset);
+            out.writeInt(packageIndexOffset);
+            out.writeInt(modulePaths.size());
+            out.writeInt(modulePathsOffset);
+            int offset = 0;
+            out.writeInt(offset);
+            for (byte[] bytes : encodedStrings) {
+                offset += bytes.length;
+                out.writeInt(offset);
+            }
+            for (byte[] bytes : encodedStrings) {
+                out.write(bytes);
+            }
+            for (int i = stringDataSize; i < paddedStringDataSize; i++) {
+                out.writeByte(0);
+            }
+            int firstFieldIndex = 0;
+            for (JavaTypeDeclarationPath jtdp : types) {
+                out.writeInt(stringId(stringIds, jtdp.getName()));
+                out.writeInt(stringId(stringIds, jtdp.getPackageName()));
+                out.writeInt(jtdp.getPathToTypeDeclaration() == null ? -1 :
+                        stringIds.get(jtdp.getPathToTypeDeclaration().toString()));
+                out.writeInt(jtdp.getJavaType() == null ? -1 : jtdp.getJavaType().ordinal());
+                out.writeInt(jtdp.getAccessModifier() == null ? -1 : jtdp.getAccessModifier().ordinal());
+                out.writeInt(firstFieldIndex);
+                out.writeInt(jtdp.getFields().size());
+                firstFieldIndex += jtdp.getFields().size();
+            }
+            for (JavaTypeDeclarationPath jtdp : types) {
+                for (Field field : jtdp.getFields()) {
+                    Integer typeIndex = typeIds.get(field.getType());
+                    out.writeInt(stringId(stringIds, field.getName()));
+                    out.writeInt(typeIndex == null ? -1 : typeIndex);
+                }
+            }
+            writeIndex(out, nameIndex);
+            writeIndex(out, packageIndex);
+            for (String modulePath : modulePaths) {
+                out.writeInt(stringIds.get(modulePath));
+            }
+        }
+        replace(temporaryPath, storagePath);
+    }
+
+    /**
+     * Replace target with source, in an atomic move if the file system supports it, so readers of target see either
+     * the old or the new file. Otherwise in a plain move.
+     */
+    static void replace(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+        catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * @return the types with a name in name index order: sorted on package name, and else in the order of the model,
+     * so of two types with the same package name and name, the one found by getTypeByQualifiedName comes first.
+     */
+    List<JavaTypeDeclarationPath> getTypesGivenName(JavaProjectObjectModel jpom, String name) {
+        List<JavaTypeDeclarationPath> jtdps = new ArrayList<>(jpom.getAllTypesGivenName(name));
+        jtdps.sort(PACKAGE_NAME_ORDER);
+        return jtdps;
+    }
+
+    void addString(Collection<String> strings, String string) {
+        if (string != null) {
+            strings.add(string);
+        }
+    }
+
+    int stringId(Map<String, Integer> stringIds, String string) {
+        return string == null ? -1 : stringIds.get(string);
+    }
+
+    /**
+     * Create a name or package index. Element 0 of the result is the entries (keyId, first, count) sorted on keyId,
+     * element 1 is the list of type indices the entries point into.
+     */
+    int[][] createIndex(Collection<String> keys, Map<String, Integer> stringIds, Map<JavaTypeDeclarationPath, Integer> typeIds,
+                        JavaProjectObjectModel jpom, boolean isNameIndex) {
+        List<String> sortedKeys = new ArrayList<>(keys);
+        int[] keyIds = new int[sortedKeys.size()];
+        for (int i = 0; i < keyIds.length; i++) {
+            keyIds[i] = stringId(stringIds, sortedKeys.get(i));
+        }
+        Integer[] order = new Integer[keyIds.length];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Integer.compare(keyIds[a], keyIds[b]));
+        int[] entries = new int[keyIds.length * 3];
+        List<Integer> typeList = new ArrayList<>(typeIds.size());
+        for (int i = 0; i < order.length; i++) {
+            String key = sortedKeys.get(order[i]);
+            List<JavaTypeDeclarationPath> jtdps = isNameIndex ? getTypesGivenName(jpom, key) : jpom.getAllTypesGivenPackageName(key);
+            entries[i * 3] = keyIds[order[i]];
+            entries[i * 3 + 1] = typeList.size();
+            entries[i * 3 + 2] = jtdps.size();
+            for (JavaTypeDeclarationPath jtdp : jtdps) {
+                typeList.add(typeIds.get(jtdp));
+            }
+        }
+        int[] types = new int[typeList.size()];
+        for (int i = 0; i < types.length; i++) {
+            types[i] = typeList.get(i);
+        }
+        return new int[][] { entries, types };
+    }
+
+    void writeIndex(DataOutputStream out, int[][] index) throws IOException {
+        for (int value : index[0]) {
+            out.writeInt(value);
+        }
+        for (int value : index[1]) {
+            out.writeInt(value);
+        }
+    }
+
+    /**
+     * Read a snapshot file into a new JavaProjectObjectModel. The types have no TypeDeclaration, since the parsed
+     * java source code is not part of the snapshot.
+     *
+     * @param storagePath is a Path object pointing to the snapshot file.
+     * @return a JavaProjectObjectModel.
+     * @throws IOException if the file can not be read or is not a snapshot file of a supported version.
+     */
+    public JavaProjectObjectModel read(Path storagePath) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(storagePath));
+        checkHeader(buffer, storagePath);
+        int stringCount = buffer.getInt(HEADER_STRING_COUNT);
+        int typeCount = buffer.getInt(HEADER_TYPE_COUNT);
+        int stringDataOffset = buffer.getInt(HEADER_STRING_DATA_OFFSET);
+        int typeRecordsOffset = buffer.getInt(HEADER_TYPE_RECORDS_OFFSET);
+        int fieldRecordsOffset = buffer.getInt(HEADER_FIELD_RECORDS_OFFSET);
+
+        String[] strings = new String[stringCount];
+        for (int i = 0; i < stringCount; i++) {
+            int start = buffer.getInt(HEADER_SIZE + i * 4);
+            int end = buffer.getInt(HEADER_SIZE + (i + 1) * 4);
+            strings[i] = new String(buffer.array(), stringDataOffset + start, end - start, StandardCharsets.UTF_8);
+        }
+        FileSystem fileSystem = storagePath.getFileSystem();
+        JavaType[] javaTypes = JavaType.values();
+        AccessModifier[] accessModifiers = AccessModifier.values();
+        JavaTypeDeclarationPath[] types = new JavaTypeDeclarationPath[typeCount];
+        for (int i = 0; i < typeCount; i++) {
+            int position = typeRecordsOffset + i * TYPE_RECORD_SIZE;
+            int pathId = buffer.getInt(position + 8);
+            int javaType = buffer.getInt(position + 12);
+            int accessModifier = buffer.getInt(position + 16);
+            types[i] = JavaTypeDeclarationPathBuilder.builder().
+                    setName(string(strings, buffer.getInt(position))).
+                    setPackageName(string(strings, buffer.getInt(position + 4))).
+                    setPathToTypeDeclaration(pathId == -1 ? null : fileSystem.getPath(strings[pathId])).
+                    setJavaType(javaType == -1 ? null : javaTypes[javaType]).
+                    setAccessModifier(accessModifier == -1 ? null : accessModifiers[accessModifier]).build();
+        }
+        for (int i = 0; i < typeCount; i++) {
+            int position = typeRecordsOffset + i * TYPE_RECORD_SIZE;
+            int firstFieldIndex = buffer.getInt(position + 20);
+            int fieldCount = buffer.getInt(position + 24);
+            for (int j = firstFieldIndex; j < firstFieldIndex + fieldCount; j++) {
+                int fieldPosition = fieldRecordsOffset + j * FIELD_RECORD_SIZE;
+                int typeIndex = buffer.getInt(fieldPosition + 4);
+                types[i].addField(string(strings, buffer.getInt(fieldPosition)), typeIndex == -1 ? null : types[typeIndex]);
+            }
+        }
+        JavaProjectObjectModel jpom = DomainObjectModelFactory.instance().createJavaProjectObjectModel();
+        jpom.addJavaTypeDeclarationPaths(Collections.unmodifiableList(Arrays.asList(types)));
+        for (JavaTypeDeclarationPath type : types) {
+            jpom.getReverseFieldIndex().addFields(type);
+            jpom.getDependencyRollups().addFields(type);
+        }
+        List<Path> modulePaths = new ArrayList<>();
+        int modulePathsOffset = buffer.getInt(HEADER_MODULE_PATHS_OFFSET);
+        for (int i = 0; i < buffer.getInt(HEADER_MODULE_PATH_COUNT); i++) {
+            modulePaths.add(fileSystem.getPath(strings[buffer.getInt(modulePathsOffset + i * 4)]));
+        }
+        jpom.getDependencyRollups().setModulePaths(modulePaths);
+        return jpom;
+    }
+
+    /**
+     * Memory-map a snapshot file into a read only JavaProjectObjectModel. Nothing is decoded up front: queries are
+     * answered from the mapped file, and JavaTypeDeclarationPath objects are only created for the types that are
+     * accessed. File systems that do not support memory mapping (for instance in-memory file systems) are read into
+     * a heap buffer instead.
+     *
+     * @param storagePath is a Path object pointing to the snapshot file.
+     * @return a read only JavaProjectObjectModel.
+     * @throws IOException if the file can not be read or is not a snapshot file of a supported version.
+     */
+    public JavaProjectObjectModel map(Path storagePath) throws IOException {
+        return mapFile(storagePath);
+    }
+
+    MappedJavaProjectObjectModel mapFile(Path storagePath) throws IOException {
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(storagePath, StandardOpenOption.READ)) {
+            try {
+                buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            }
+            catch (UnsupportedOperationException e) {
+                buffer = ByteBuffer.wrap(Files.readAllBytes(storagePath));
+            }
+        }
+        checkHeader(buffer, storagePath);
+        return new MappedJavaProjectObjectModel(buffer, storagePath.getFileSystem());
+    }
+
+    String string(String[] strings, int id) {
+        return id == -1 ? null : strings[id];
+    }
+
+    void checkHeader(ByteBuffer buffer, Path storagePath) throws IOException {
+        if (buffer.limit() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+            throw new IOException("File " + storagePath + " is not a java code visualizer snapshot.");
+        }
+        if (buffer.getInt(4) != VERSION) {
+            throw new IOException("File " + storagePath + " has snapshot version " + buffer.getInt(4) +
+                    ", expected version " + VERSION + ".");
+        }
+        // The sections follow each other, and end at the end of the file. The records are not checked.
+        int stringCount = buffer.getInt(HEADER_STRING_COUNT);
+        int typeCount = buffer.getInt(HEADER_TYPE_COUNT);
+        int fieldCount = buffer.getInt(HEADER_FIELD_COUNT);
+        int nameIndexCount = buffer.getInt(HEADER_NAME_INDEX_COUNT);
+        int packageIndexCount = buffer.getInt(HEADER_PACKAGE_INDEX_COUNT);
+        int modulePathCount = buffer.getInt(HEADER_MODULE_PATH_COUNT);
+        long stringDataOffset = buffer.getInt(HEADER_STRING_DATA_OFFSET);
+        long typeRecordsOffset = buffer.getInt(HEADER_TYPE_RECORDS_OFFSET);
+        long fieldRecordsOffset = buffer.getInt(HEADER_FIELD_RECORDS_OFFSET);
+        long nameIndexOffset = buffer.getInt(HEADER_NAME_INDEX_OFFSET);
+        long packageIndexOffset = buffer.getInt(HEADER_PACKAGE_INDEX_OFFSET);
+        long modulePathsOffset = buffer.getInt(HEADER_MODULE_PATHS_OFFSET);
+        if (stringCount < 0 || typeCount < 0 || fieldCount < 0 || nameIndexCount < 0 || packageIndexCount < 0 ||
+                modulePathCount < 0 ||
+                stringDataOffset != HEADER_SIZE + (stringCount + 1L) * 4 ||
+                typeRecordsOffset < stringDataOffset ||
+                fieldRecordsOffset != typeRecordsOffset + (long) typeCount * TYPE_RECORD_SIZE ||
+                nameIndexOffset != fieldRecordsOffset + (long) fieldCount * FIELD_RECORD_SIZE ||
+                packageIndexOffset < nameIndexOffset + (long) nameIndexCount * INDEX_ENTRY_SIZE ||
+                modulePathsOffset < packageIndexOffset + (long) packageIndexCount * INDEX_ENTRY_SIZE ||
+                modulePathsOffset + modulePathCount * 4L != buffer.limit() ||
+                buffer.getInt(HEADER_SIZE + stringCount * 4) > typeRecordsOffset - stringDataOffset) {
+            throw new IOException("File " + storagePath + " is a damaged snapshot.");
+        }
+    }
+}
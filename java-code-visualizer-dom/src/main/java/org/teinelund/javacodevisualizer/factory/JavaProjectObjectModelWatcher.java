@@ -0,0 +1,326 @@
+package org.teinelund.javacodevisualizer.factory;
+
+import org.teinelund.javacodevisualizer.dom.JavaProjectObjectModel;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+
+/**
+ * Keeps a JavaProjectObjectModel up to date with the java source files in the src directories of a set of Maven
+ * projects. All directories in the src directories are registered with a WatchService, and a background thread
+ * applies the events to the model.
+ *
+ * Events are merged into batches: after the first event, the thread waits until no new event has arrived for
+ * debounceMillis (but at most MAX_DEBOUNCE_PERIODS times debounceMillis), so saving many files at once results in
+ * one update. Each batch is applied in place by IncrementalModelBuilder.applyChanges: only the touched files are
+ * parsed, their types are removed from and added to the name and package indices, and the fields of the types
+ * referring to them are wired again.
+ *
+ * The model must only be accessed through query, which waits while a batch is applied. Maven projects created after
+ * the watcher was started are not watched.
+ */
+public class JavaProjectObjectModelWatcher implements Closeable {
+
+    static final long DEFAULT_DEBOUNCE_MILLIS = 50;
+    static final int MAX_DEBOUNCE_PERIODS = 4;
+
+    private final WatchService watchService;
+    private final Map<WatchKey, Path> watchedDirectories = new ConcurrentHashMap<>();
+    private final List<Path> srcDirectories;
+    private final IncrementalModelBuilder incrementalModelBuilder;
+    private final long debounceMillis;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+    private JavaProjectObjectModel jpom;
+    private SourceFileManifest manifest;
+    private Thread thread;
+
+    /**
+     * Files that could not be applied: files that do not parse, or all files of a batch that failed for an other
+     * reason. They are tried again in the next batch.
+     */
+    private final Set<Path> pendingPaths = new LinkedHashSet<>();
+
+    /**
+     * Register the src directories with a WatchService. Changes made from now on are applied to the model once the
+     * watcher is started.
+     *
+     * @param srcDirectories are the src directories to watch.
+     * @param incrementalModelBuilder applies the changes to the model.
+     * @param debounceMillis is the time without events, after which a batch of events is applied.
+     * @throws IOException
+     */
+    JavaProjectObjectModelWatcher(List<Path> srcDirectories, IncrementalModelBuilder incrementalModelBuilder,
+                                  long debounceMillis) throws IOException {
+        this.srcDirectories = new ArrayList<>(srcDirectories);
+        this.incrementalModelBuilder = incrementalModelBuilder;
+        this.debounceMillis = debounceMillis;
+        this.watchService = (srcDirectories.isEmpty() ? FileSystems.getDefault() :
+                srcDirectories.get(0).getFileSystem()).newWatchService();
+        for (Path srcDirectory : srcDirectories) {
+            registerDirectories(srcDirectory, new LinkedHashSet<>());
+        }
+    }
+
+    /**
+     * Start applying changes to jpom, in a background thread.
+     *
+     * @param jpom is the JavaProjectObjectModel of the java source files in the src directories.
+     * @param manifest is the manifest of the java source files in jpom.
+     */
+    void start(JavaProjectObjectModel jpom, SourceFileManifest manifest) {
+        this.jpom = jpom;
+        this.manifest = manifest;
+        this.thread = new Thread(this::processEvents, "java-project-object-model-watcher");
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    /**
+     * Run a query on the JavaProjectObjectModel. The query is not run while a batch of changes is applied, and the
+     * result of the query should therefore not be a view of the model.
+     *
+     * @param query is the query to run.
+     * @return the result of the query.
+     */
+    public <T> T query(Function<JavaProjectObjectModel, T> query) {
+        this.lock.readLock().lock();
+        try {
+            return query.apply(this.jpom);
+        }
+        finally {
+            this.lock.readLock().unlock();
+        }
+    }
+
+    public void addListener(Listener listener) {
+        this.listeners.add(listener);
+    }
+
+    /**
+     * Stop watching. Waits until the background thread has stopped.
+     */
+    @Override
+    public void close() throws IOException {
+        this.watchService.close();
+        if (this.thread != null) {
+            try {
+                this.thread.join();
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    void processEvents() {
+        try {
+            while (true) {
+                Set<Path> touchedPaths = new LinkedHashSet<>();
+                boolean overflow = collectEvents(this.watchService.take(), touchedPaths);
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(this.debounceMillis * MAX_DEBOUNCE_PERIODS);
+                WatchKey watchKey;
+                while (System.nanoTime() < deadline &&
+                        (watchKey = this.watchService.poll(this.debounceMillis, TimeUnit.MILLISECONDS)) != null) {
+                    overflow |= collectEvents(watchKey, touchedPaths);
+                }
+                applyBatch(touchedPaths, overflow);
+            }
+        }
+        catch (ClosedWatchServiceException | InterruptedException e) {
+            // The watcher is closed.
+        }
+    }
+
+    /**
+     * Collect the paths of the events of a WatchKey. New directories are registered, and the java source files in
+     * them are collected as well.
+     *
+     * @return true if events were lost.
+     */
+    boolean collectEvents(WatchKey watchKey, Set<Path> touchedPaths) {
+        boolean overflow = false;
+        Path directory = this.watchedDirectories.get(watchKey);
+        for (WatchEvent<?> event : watchKey.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW || directory == null) {
+                overflow = true;
+                continue;
+            }
+            Path path = directory.resolve((Path) event.context());
+            if (event.kind() == StandardWatchEventKinds.ENTRY_CREATE && Files.isDirectory(path)) {
+                try {
+                    registerDirectories(path, touchedPaths);
+                }
+                catch (IOException e) {
+                    overflow = true;
+                }
+            }
+            else {
+                touchedPaths.add(path);
+            }
+        }
+        if (!watchKey.reset()) {
+            this.watchedDirectories.remove(watchKey);
+        }
+        return overflow;
+    }
+
+    /**
+     * Register a directory and its sub directories with the WatchService, and collect the java source files in them.
+     */
+    void registerDirectories(Path directory, Set<Path> javaSourceFiles) throws IOException {
+        Files.walkFileTree(directory, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+                WatchKey watchKey = dir.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                        StandardWatchEventKinds.ENTRY_DELETE, StandardWatchEventKinds.ENTRY_MODIFY);
+                watchedDirectories.put(watchKey, dir);
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                if (isJavaSourceFile(file)) {
+                    javaSourceFiles.add(file);
+                }
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    /**
+     * Apply a batch of touched paths to the model. Touched java source files that exist are changed or new, unless
+     * their size, last modified time or content is the same as in the manifest. Touched paths that do not exist are
+     * deleted java source files, or deleted directories. Java source files that do not parse, typically files saved
+     * while they are edited, are left as they were in the model, and the rest of the batch is applied.
+     *
+     * @param touchedPaths are the paths of the events in the batch.
+     * @param overflow is true if events were lost, in which case all java source files are compared with the
+     *                 manifest.
+     */
+    void applyBatch(Set<Path> touchedPaths, boolean overflow) {
+        Set<Path> paths = new LinkedHashSet<>(this.pendingPaths);
+        paths.addAll(touchedPaths);
+        this.pendingPaths.clear();
+        try {
+            if (overflow) {
+                for (Path srcDirectory : this.srcDirectories) {
+                    registerDirectories(srcDirectory, paths);
+                }
+                for (SourceFileManifest.Entry entry : this.manifest.getEntries()) {
+                    paths.add(entry.getPath());
+                }
+            }
+            Map<Path, BasicFileAttributes> candidates = new LinkedHashMap<>();
+            Set<Path> deletedPaths = new LinkedHashSet<>();
+            for (Path path : paths) {
+                if (Files.isRegularFile(path)) {
+                    if (isJavaSourceFile(path)) {
+                        addCandidate(path, Files.readAttributes(path, BasicFileAttributes.class), candidates);
+                    }
+                }
+                else if (this.manifest.get(path) != null) {
+                    deletedPaths.add(path);
+                }
+                else if (!Files.exists(path)) {
+                    for (SourceFileManifest.Entry entry : this.manifest.getEntries()) {
+                        if (entry.getPath().startsWith(path)) {
+                            deletedPaths.add(entry.getPath());
+                        }
+                    }
+                }
+            }
+            if (candidates.isEmpty() && deletedPaths.isEmpty()) {
+                return;
+            }
+            // Files that do not parse are left out of the batch, and are tried again in the next batch.
+            Map<Path, Exception> failures = new ConcurrentHashMap<>();
+            this.lock.writeLock().lock();
+            try {
+                Map<Path, SourceFileManifest.Entry> entries = this.incrementalModelBuilder.applyChanges(this.jpom,
+                        this.manifest, candidates, new ArrayList<>(deletedPaths), new BuildMetrics(), failures);
+                for (Path deletedPath : deletedPaths) {
+                    this.manifest.remove(deletedPath);
+                }
+                for (SourceFileManifest.Entry entry : entries.values()) {
+                    this.manifest.put(entry);
+                }
+            }
+            finally {
+                this.lock.writeLock().unlock();
+            }
+            Set<Path> changedPaths = new LinkedHashSet<>(candidates.keySet());
+            changedPaths.removeAll(failures.keySet());
+            changedPaths.addAll(deletedPaths);
+            this.pendingPaths.addAll(failures.keySet());
+            if (!changedPaths.isEmpty()) {
+                for (Listener listener : this.listeners) {
+                    listener.modelUpdated(Collections.unmodifiableSet(changedPaths));
+                }
+            }
+            for (Map.Entry<Path, Exception> failure : failures.entrySet()) {
+                for (Listener listener : this.listeners) {
+                    listener.modelUpdateFailed(Collections.singleton(failure.getKey()), failure.getValue());
+                }
+            }
+        }
+        catch (IOException | RuntimeException e) {
+            // The model may be partly updated, if applyChanges failed half way, but the manifest is not. The files
+            // are compared with the manifest, and applied again, in the next batch.
+            this.pendingPaths.addAll(paths);
+            for (Listener listener : this.listeners) {
+                listener.modelUpdateFailed(Collections.unmodifiableSet(paths), e);
+            }
+        }
+    }
+
+    void addCandidate(Path path, BasicFileAttributes attributes, Map<Path, BasicFileAttributes> candidates) {
+        SourceFileManifest.Entry entry = this.manifest.get(path);
+        if (entry == null || entry.getSize() != attributes.size() ||
+                entry.getLastModified() != attributes.lastModifiedTime().toMillis()) {
+            candidates.put(path, attributes);
+        }
+    }
+
+    boolean isJavaSourceFile(Path path) {
+        return path.getFileName() != null && path.getFileName().toString().endsWith(".java");
+    }
+
+    /**
+     * Notified from the background thread, after a batch of changes is applied, or has failed.
+     */
+    public interface Listener {
+        void modelUpdated(Set<Path> changedPaths);
+
+        /**
+         * Called when paths could not be applied. The paths are tried again in the next batch. A file that does not
+         * parse is left out of the model. When a batch fails for an other reason, the model may be partly updated:
+         * some of the types of paths may already be removed, added or wired, until the next batch applies them again.
+         */
+        default void modelUpdateFailed(Set<Path> paths, Exception exception) {}
+    }
+}
@@ -0,0 +1,761 @@
+package org.teinelund.javacodevisualizer.factory;
+
+import com.github.javaparser.ParseProblemException;
+import com.github.javaparser.Problem;
+import com.github.javaparser.ast.Modifier;
+import org.teinelund.javacodevisualizer.dom.FieldSummary;
+import org.teinelund.javacodevisualizer.dom.ImportSummary;
+import org.teinelund.javacodevisualizer.dom.JavaType;
+import org.teinelund.javacodevisualizer.dom.JavaTypeDeclarationPath;
+import org.teinelund.javacodevisualizer.dom.TypeReference;
+import org.teinelund.javacodevisualizer.dom.TypeSummary;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A fast alternative to the JavaParser based extraction in JavaSourceFileParser. The java source file is split into
+ * tokens, and only the package declaration, the imports, the type headers and the field declarations are read. Method
+ * bodies, initializer blocks and field initializers are skipped by matching their brackets, so no syntax tree is
+ * built for them.
+ *
+ * The result is the same list of JavaTypeDeclarationPath, with the same TypeSummary, as JavaSourceFileParser gives for
+ * a compilable java source file. The extractor does not check the syntax of the skipped code, so a file that does not
+ * compile may give a result instead of a ParseProblemException. A ParseProblemException is thrown if the declarations
+ * it reads are malformed, or if the brackets do not match.
+ */
+public class JavaSourceFileExtractor {
+
+    private static JavaSourceFileExtractor javaSourceFileExtractor = null;
+
+    private static final Map<String, Modifier> MODIFIERS = new HashMap<>();
+
+    static {
+        for (Modifier modifier : Modifier.values()) {
+            MODIFIERS.put(modifier.asString(), modifier);
+        }
+        // Only a module requires declaration can be transitive.
+        MODIFIERS.remove(Modifier.TRANSITIVE.asString());
+    }
+
+    private JavaSourceFileExtractor() {}
+
+    public static JavaSourceFileExtractor instance() {
+        if (javaSourceFileExtractor == null) {
+            javaSourceFileExtractor = new JavaSourceFileExtractor();
+        }
+        return javaSourceFileExtractor;
+    }
+
+    /**
+     * Extract the type declarations of a java source file into a list of JavaTypeDeclarationPath.
+     *
+     * @param reader is a Reader to a java source file. The reader is read to the end, but not closed.
+     * @param path is the Path object to the java source file.
+     * @return a list of JavaTypeDeclarationPath.
+     */
+    List<JavaTypeDeclarationPath> extractJavaFile(Reader reader, Path path) {
+        SourceBuffer sourceBuffer = SourceBuffer.instance();
+        try {
+            sourceBuffer.read(reader);
+            return extractJavaFile(sourceBuffer.getChars(), sourceBuffer.getLength(), path);
+        }
+        catch (IOException e) {
+            // Like JavaParser.parse.
+            throw new ParseProblemException(e);
+        }
+        finally {
+            sourceBuffer.release();
+        }
+    }
+
+    /**
+     * @param source is the content of the java source file, in the first length chars.
+     */
+    List<JavaTypeDeclarationPath> extractJavaFile(char[] source, int length, Path path) {
+        List<JavaTypeDeclarationPath> javaTypeDeclarationPaths = new LinkedList<>();
+        for (TypeSummary typeSummary : new Extraction(new Tokens(source, length)).compilationUnit()) {
+            javaTypeDeclarationPaths.add(JavaSourceFileParser.instance().createJavaTypeDeclarationPath(typeSummary,
+                    path));
+        }
+        return javaTypeDeclarationPaths;
+    }
+
+    static ParseProblemException problem(String message) {
+        return new ParseProblemException(Collections.singletonList(new Problem(message, null, null)));
+    }
+
+    /**
+     * The tokens of a java source file. Comments and white space are dropped. Every separator and operator
+     * character is a token of its own, so ">>" is two tokens, which is what the type arguments need.
+     */
+    static class Tokens {
+        static final byte IDENTIFIER = 0;
+        static final byte LITERAL = 1;
+        static final byte SYMBOL = 2;
+        static final byte END = 3;
+
+        final char[] source;
+        final int length;
+        byte[] kinds = new byte[256];
+        int[] starts = new int[256];
+        int[] ends = new int[256];
+        int size = 0;
+
+        Tokens(char[] source, int length) {
+            this.source = source;
+            this.length = length;
+            tokenize();
+        }
+
+        void tokenize() {
+            char[] s = this.source;
+            int n = this.length;
+            int i = 0;
+            while (i < n) {
+                char c = s[i];
+                if (Character.isWhitespace(c) || c == '\ufeff' || c == '\u001a') {
+                    i++;
+                }
+                else if (c == '/' && i + 1 < n && s[i + 1] == '/') {
+                    while (i < n && s[i] != '\n' && s[i] != '\r') {
+                        i++;
+                    }
+                }
+                else if (c == '/' && i + 1 < n && s[i + 1] == '*') {
+                    int end = indexOfCommentEnd(s, i + 2, n);
+                    if (end < 0) {
+                        throw problem("Unterminated comment.");
+                    }
+                    i = end + 2;
+                }
+                else if (c == '"' || c == '\'') {
+                    int start = i++;
+                    while (i < n && s[i] != c) {
+                        if (s[i] == '\\') {
+                            i++;
+                        }
+                        else if (s[i] == '\n' || s[i] == '\r') {
+                            throw problem("Unterminated literal.");
+                        }
+                        i++;
+                    }
+                    if (i >= n) {
+                        throw problem("Unterminated literal.");
+                    }
+                    add(LITERAL, start, ++i);
+                }
+                else if (Character.isJavaIdentifierStart(c)) {
+                    int start = i++;
+                    while (i < n && Character.isJavaIdentifierPart(s[i])) {
+                        i++;
+                    }
+                    add(IDENTIFIER, start, i);
+                }
+                else if (c >= '0' && c <= '9' || c == '.' && i + 1 < n && s[i + 1] >= '0' && s[i + 1] <= '9') {
+                    int start = i++;
+                    while (i < n && (Character.isLetterOrDigit(s[i]) || s[i] == '_' || s[i] == '.' ||
+                            (s[i] == '+' || s[i] == '-') && isExponent(s[i - 1]))) {
+                        i++;
+                    }
+                    add(LITERAL, start, i);
+                }
+                else {
+                    add(SYMBOL, i, ++i);
+                }
+            }
+            add(END, n, n);
+        }
+
+        static boolean isExponent(char c) {
+            return c == 'e' || c == 'E' || c == 'p' || c == 'P';
+        }
+
+        static int indexOfCommentEnd(char[] s, int from, int n) {
+            for (int i = from; i + 1 < n; i++) {
+                if (s[i] == '*' && s[i + 1] == '/') {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        void add(byte kind, int start, int end) {
+            if (this.size == this.kinds.length) {
+                this.kinds = Arrays.copyOf(this.kinds, 2 * this.size);
+                this.starts = Arrays.copyOf(this.starts, 2 * this.size);
+                this.ends = Arrays.copyOf(this.ends, 2 * this.size);
+            }
+            this.kinds[this.size] = kind;
+            this.starts[this.size] = start;
+            this.ends[this.size] = end;
+            this.size++;
+        }
+
+        boolean isIdentifier(int i) {
+            return this.kinds[i] == IDENTIFIER;
+        }
+
+        boolean is(int i, char symbol) {
+            return this.kinds[i] == SYMBOL && this.source[this.starts[i]] == symbol;
+        }
+
+        boolean is(int i, String identifier) {
+            int length = this.ends[i] - this.starts[i];
+            if (this.kinds[i] != IDENTIFIER || length != identifier.length()) {
+                return false;
+            }
+            for (int j = 0; j < length; j++) {
+                if (this.source[this.starts[i] + j] != identifier.charAt(j)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        String text(int i) {
+            return new String(this.source, this.starts[i], this.ends[i] - this.starts[i]);
+        }
+    }
+
+    /**
+     * A recursive descent over the declarations of one compilation unit. The position is the index of the current
+     * token.
+     */
+    static class Extraction {
+        private final Tokens tokens;
+        private int position = 0;
+        private String packageName = "";
+        private List<ImportSummary> imports = Collections.emptyList();
+
+        Extraction(Tokens tokens) {
+            this.tokens = tokens;
+        }
+
+        List<TypeSummary> compilationUnit() {
+            List<ImportSummary> importList = new ArrayList<>();
+            List<TypeSummary> types = new ArrayList<>();
+            while (!atEnd()) {
+                if (isSymbol(';')) {
+                    this.position++;
+                }
+                else if (isAnnotation()) {
+                    skipAnnotation();
+                }
+                else if (isIdentifier("package")) {
+                    this.position++;
+                    this.packageName = qualifiedName();
+                    expect(';');
+                }
+                else if (isIdentifier("import")) {
+                    importList.add(importDeclaration());
+                }
+                else if (isIdentifier("module") || isIdentifier("open")) {
+                    // A module declaration has no types.
+                    break;
+                }
+                else {
+                    if (types.isEmpty()) {
+                        // One list for all types in the compilation unit. WireClassField builds one ImportTable per
+                        // list.
+                        this.imports = Collections.unmodifiableList(importList);
+                    }
+                    types.add(typeDeclaration(modifiers()));
+                }
+            }
+            return types;
+        }
+
+        ImportSummary importDeclaration() {
+            this.position++;
+            boolean staticImport = false;
+            if (isIdentifier("static")) {
+                staticImport = true;
+                this.position++;
+            }
+            StringBuilder name = new StringBuilder(identifier());
+            boolean asteriskImport = false;
+            while (isSymbol('.')) {
+                this.position++;
+                if (isSymbol('*')) {
+                    this.position++;
+                    asteriskImport = true;
+                    break;
+                }
+                name.append('.').append(identifier());
+            }
+            expect(';');
+            return new ImportSummary(name.toString(), staticImport, asteriskImport);
+        }
+
+        /**
+         * Read the modifiers and skip the annotations in front of a declaration.
+         */
+        EnumSet<Modifier> modifiers() {
+            EnumSet<Modifier> modifiers = EnumSet.noneOf(Modifier.class);
+            while (true) {
+                if (isAnnotation()) {
+                    skipAnnotation();
+                    continue;
+                }
+                Modifier modifier = this.tokens.isIdentifier(this.position) ?
+                        MODIFIERS.get(this.tokens.text(this.position)) : null;
+                if (modifier == null) {
+                    return modifiers;
+                }
+                modifiers.add(modifier);
+                this.position++;
+            }
+        }
+
+        /**
+         * Read a type declaration, starting at the class, interface, enum or @interface keyword.
+         */
+        TypeSummary typeDeclaration(EnumSet<Modifier> modifiers) {
+            TypeSummary.TypeSummaryBuilder builder = TypeSummary.builder().setPackageName(this.packageName).
+                    setModifiers(modifiers).setImports(this.imports);
+            if (isIdentifier("class") || isIdentifier("interface")) {
+                JavaType javaType = isIdentifier("class") ? JavaType.CLASS : JavaType.INTERFACE;
+                this.position++;
+                builder.setName(identifier()).setJavaType(javaType);
+                if (isSymbol('<')) {
+                    skipTypeArguments();
+                }
+                if (isIdentifier("extends")) {
+                    this.position++;
+                    supertypes(builder);
+                }
+                if (isIdentifier("implements")) {
+                    this.position++;
+                    supertypes(builder);
+                }
+                expect('{');
+                classBody(builder);
+            }
+            else if (isIdentifier("enum")) {
+                this.position++;
+                builder.setName(identifier()).setJavaType(JavaType.ENUM);
+                if (isIdentifier("implements")) {
+                    this.position++;
+                    supertypes(builder);
+                }
+                expect('{');
+                enumConstants();
+                classBody(builder);
+            }
+            else if (isSymbol('@') && this.tokens.is(this.position + 1, "interface")) {
+                // JavaSourceFileParser gives an annotation type declaration an empty name, and the CLASS java type.
+                this.position += 2;
+                identifier();
+                builder.setName("").setJavaType(JavaType.CLASS);
+                expect('{');
+                classBody(builder);
+            }
+            else {
+                throw problem("Expected a type declaration, found '" + this.tokens.text(this.position) + "'.");
+            }
+            return builder.build();
+        }
+
+        void supertypes(TypeSummary.TypeSummaryBuilder builder) {
+            builder.addSupertype(classOrInterfaceType(new StringBuilder()));
+            while (isSymbol(',')) {
+                this.position++;
+                builder.addSupertype(classOrInterfaceType(new StringBuilder()));
+            }
+        }
+
+        /**
+         * Skip the enum constants, with their arguments and class bodies, up to the ';' that starts the members, or
+         * to the '}' that ends the enum.
+         */
+        void enumConstants() {
+            while (!isSymbol('}')) {
+                if (isSymbol(';')) {
+                    this.position++;
+                    return;
+                }
+                if (isSymbol('(') || isSymbol('{')) {
+                    skipBalanced();
+                }
+                else if (isSymbol('@')) {
+                    skipAnnotation();
+                }
+                else {
+                    this.position++;
+                }
+                if (atEnd()) {
+                    throw problem("Unterminated enum body.");
+                }
+            }
+        }
+
+        /**
+         * Read the members of a class, interface, enum or annotation type body, up to and including its '}'.
+         */
+        void classBody(TypeSummary.TypeSummaryBuilder builder) {
+            while (!isSymbol('}')) {
+                if (atEnd()) {
+                    throw problem("Unterminated type body.");
+                }
+                if (isSymbol(';')) {
+                    this.position++;
+                    continue;
+                }
+                EnumSet<Modifier> modifiers = modifiers();
+                if (isSymbol('{')) {
+                    // An initializer block.
+                    skipBalanced();
+                }
+                else if (isIdentifier("class") || isIdentifier("interface") || isIdentifier("enum") ||
+                        isSymbol('@') && this.tokens.is(this.position + 1, "interface")) {
+                    builder.addNestedType(typeDeclaration(modifiers));
+                }
+                else {
+                    member(builder);
+                }
+            }
+            this.position++;
+        }
+
+        /**
+         * Read a constructor, method or field declaration, after its modifiers. Only fields are kept.
+         */
+        void member(TypeSummary.TypeSummaryBuilder builder) {
+            if (isSymbol('<')) {
+                // The type parameters of a generic method or constructor.
+                skipTypeArguments();
+                skipAnnotations();
+            }
+            TypeReference type = type();
+            if (isSymbol('(')) {
+                // A constructor. The type was its name.
+                skipMethodRest();
+                return;
+            }
+            String name = identifier();
+            if (isSymbol('(')) {
+                skipMethodRest();
+                return;
+            }
+            while (true) {
+                boolean array = false;
+                while (isSymbol('[')) {
+                    this.position++;
+                    expect(']');
+                    array = true;
+                }
+                builder.addField(new FieldSummary(name, array ? null : type));
+                if (isSymbol('=')) {
+                    skipVariableInitializer();
+                }
+                if (isSymbol(';')) {
+                    this.position++;
+                    return;
+                }
+                expect(',');
+                name = identifier();
+            }
+        }
+
+        /**
+         * Read a type. Returns null if the type is not a class or interface type (a primitive type or an array, for
+         * instance), like JavaSourceFileParser.
+         */
+        TypeReference type() {
+            skipAnnotations();
+            TypeReference typeReference = classOrInterfaceType(null);
+            if (isSymbol('[')) {
+                while (isSymbol('[')) {
+                    this.position++;
+                    expect(']');
+                    skipAnnotations();
+                }
+                return null;
+            }
+            return isPrimitive(typeReference.getName()) && typeReference.getScope() == null ? null : typeReference;
+        }
+
+        /**
+         * Read a class or interface type: annotated identifiers with type arguments, separated by '.'. If text is not
+         * null, the type is appended to it the way JavaParser prints a type.
+         */
+        TypeReference classOrInterfaceType(StringBuilder text) {
+            StringBuilder scope = null;
+            skipAnnotations();
+            String name = identifier();
+            StringBuilder typeArguments = isSymbol('<') ? typeArguments() : null;
+            while (isSymbol('.') && !isSymbol(this.position + 1, '.')) {
+                this.position++;
+                if (scope == null) {
+                    scope = new StringBuilder();
+                }
+                else {
+                    scope.append('.');
+                }
+                scope.append(name);
+                if (typeArguments != null) {
+                    scope.append(typeArguments);
+                }
+                skipAnnotations();
+                name = identifier();
+                typeArguments = isSymbol('<') ? typeArguments() : null;
+            }
+            if (text != null) {
+                if (scope != null) {
+                    text.append(scope).append('.');
+                }
+                text.append(name);
+                if (typeArguments != null) {
+                    text.append(typeArguments);
+                }
+            }
+            return new TypeReference(name, scope == null ? null : scope.toString());
+        }
+
+        /**
+         * Read type arguments, starting at '<', and return them as JavaParser prints them.
+         */
+        StringBuilder typeArguments() {
+            StringBuilder text = new StringBuilder("<");
+            this.position++;
+            while (!isSymbol('>')) {
+                if (text.length() > 1) {
+                    expect(',');
+                    text.append(", ");
+                }
+                skipAnnotations();
+                if (isSymbol('?')) {
+                    this.position++;
+                    text.append('?');
+                    if (isIdentifier("extends") || isIdentifier("super")) {
+                        text.append(' ').append(this.tokens.text(this.position)).append(' ');
+                        this.position++;
+                        typeArgument(text);
+                    }
+                }
+                else {
+                    typeArgument(text);
+                }
+            }
+            this.position++;
+            return text.append('>');
+        }
+
+        void typeArgument(StringBuilder text) {
+            classOrInterfaceType(text);
+            while (isSymbol('[')) {
+                this.position++;
+                expect(']');
+                text.append("[]");
+            }
+        }
+
+        static boolean isPrimitive(String name) {
+            switch (name) {
+                case "boolean":
+                case "byte":
+                case "char":
+                case "short":
+                case "int":
+                case "long":
+                case "float":
+                case "double":
+                case "void":
+                    return true;
+                default:
+                    return false;
+            }
+        }
+
+        /**
+         * Skip the rest of a method or constructor declaration, from its parameter list to the end of its body, or to
+         * its ';' if it has no body. An annotation type element may have a default value, which may be an array in
+         * braces.
+         */
+        void skipMethodRest() {
+            skipBalanced();
+            boolean defaultValue = false;
+            while (true) {
+                if (isSymbol(';')) {
+                    this.position++;
+                    return;
+                }
+                if (isSymbol('{')) {
+                    skipBalanced();
+                    if (!defaultValue) {
+                        return;
+                    }
+                }
+                else if (isSymbol('(') || isSymbol('[')) {
+                    skipBalanced();
+                }
+                else if (atEnd()) {
+                    throw problem("Unterminated method declaration.");
+                }
+                else {
+                    defaultValue |= isIdentifier("default");
+                    this.position++;
+                }
+            }
+        }
+
+        /**
+         * Skip a field initializer, starting at '=', up to the ',' that starts the next variable or the ';' that ends
+         * the declaration. Brackets are skipped as a whole, and a ',' between type arguments (new HashMap<K, V>(),
+         * Collections.<K, V>emptyMap()) does not start a variable: it is inside a '<' that is not closed yet.
+         *
+         * A '<' may also be a less than operator. Type arguments only hold names, '.', ',', '?', '&', annotations and
+         * brackets, so any other token (1 < 2, a < b + 1) ends them.
+         */
+        void skipVariableInitializer() {
+            this.position++;
+            int typeArgumentDepth = 0;
+            while (true) {
+                if (isSymbol(';')) {
+                    return;
+                }
+                if (isSymbol(',') && typeArgumentDepth == 0) {
+                    return;
+                }
+                if (isSymbol('(') || isSymbol('[') || isSymbol('{')) {
+                    skipBalanced();
+                }
+                else if (atEnd()) {
+                    throw problem("Unterminated field declaration.");
+                }
+                else {
+                    if (isSymbol('<')) {
+                        typeArgumentDepth++;
+                    }
+                    else if (isSymbol('>')) {
+                        typeArgumentDepth = Math.max(typeArgumentDepth - 1, 0);
+                    }
+                    else if (!isTypeArgumentToken()) {
+                        typeArgumentDepth = 0;
+                    }
+                    this.position++;
+                }
+            }
+        }
+
+        /**
+         * @return true if the current token may be part of type arguments, besides '<', '>' and brackets.
+         */
+        boolean isTypeArgumentToken() {
+            return this.tokens.isIdentifier(this.position) || isSymbol('.') || isSymbol(',') || isSymbol('?') ||
+                    isSymbol('&') || isSymbol('@');
+        }
+
+        boolean isAnnotation() {
+            return isSymbol('@') && !this.tokens.is(this.position + 1, "interface");
+        }
+
+        void skipAnnotations() {
+            while (isAnnotation()) {
+                skipAnnotation();
+            }
+        }
+
+        void skipAnnotation() {
+            this.position++;
+            qualifiedName();
+            if (isSymbol('(')) {
+                skipBalanced();
+            }
+        }
+
+        /**
+         * Skip type parameters or type arguments, starting at '<', up to and including the matching '>'.
+         */
+        void skipTypeArguments() {
+            int depth = 0;
+            do {
+                if (isSymbol('<')) {
+                    depth++;
+                }
+                else if (isSymbol('>')) {
+                    depth--;
+                }
+                else if (isSymbol('(')) {
+                    // The arguments of an annotation.
+                    skipBalanced();
+                    continue;
+                }
+                else if (atEnd()) {
+                    throw problem("Unterminated type parameters.");
+                }
+                this.position++;
+            } while (depth > 0);
+        }
+
+        /**
+         * Skip from an opening bracket, '(', '[' or '{', up to and including the matching closing bracket.
+         */
+        void skipBalanced() {
+            int depth = 0;
+            do {
+                char c = this.tokens.kinds[this.position] == Tokens.SYMBOL ?
+                        this.tokens.source[this.tokens.starts[this.position]] : 0;
+                if (c == '(' || c == '[' || c == '{') {
+                    depth++;
+                }
+                else if (c == ')' || c == ']' || c == '}') {
+                    depth--;
+                }
+                else if (atEnd()) {
+                    throw problem("Unbalanced brackets.");
+                }
+                this.position++;
+            } while (depth > 0);
+        }
+
+        String qualifiedName() {
+            StringBuilder name = new StringBuilder(identifier());
+            while (isSymbol('.') && this.tokens.isIdentifier(this.position + 1)) {
+                this.position++;
+                name.append('.').append(identifier());
+            }
+            return name.toString();
+        }
+
+        String identifier() {
+            if (!this.tokens.isIdentifier(this.position)) {
+                throw problem("Expected an identifier, found '" + this.tokens.text(this.position) + "'.");
+            }
+            return this.tokens.text(this.position++);
+        }
+
+        void expect(char symbol) {
+            if (!isSymbol(symbol)) {
+                throw problem("Expected '" + symbol + "', found '" + this.tokens.text(this.position) + "'.");
+            }
+            this.position++;
+        }
+
+        boolean isSymbol(char symbol) {
+            return this.tokens.is(this.position, symbol);
+        }
+
+        boolean isSymbol(int position, char symbol) {
+            return position < this.tokens.size && this.tokens.is(position, symbol);
+        }
+
+        boolean isIdentifier(String identifier) {
+            return this.tokens.is(this.position, identifier);
+        }
+
+        boolean atEnd() {
+            return this.tokens.kinds[this.position] == Tokens.END;
+        }
+    }
+}
@@ -1,32 +1,65 @@
 package org.teinelund.javacodevisualizer.factory;
 
 import com.github.javaparser.JavaParser;
+import com.github.javaparser.ParseProblemException;
+import com.github.javaparser.ParseResult;
+import com.github.javaparser.ParseStart;
+import com.github.javaparser.ParserConfiguration;
 import com.github.javaparser.ast.CompilationUnit;
 import com.github.javaparser.ast.ImportDeclaration;
 import com.github.javaparser.ast.Modifier;
 import com.github.javaparser.ast.NodeList;
 import com.github.javaparser.ast.PackageDeclaration;
+import com.github.javaparser.ast.body.BodyDeclaration;
 import com.github.javaparser.ast.body.ClassOrInterfaceDeclaration;
 import com.github.javaparser.ast.body.EnumDeclaration;
+import com.github.javaparser.ast.body.FieldDeclaration;
 import com.github.javaparser.ast.body.TypeDeclaration;
+import com.github.javaparser.ast.body.VariableDeclarator;
+import com.github.javaparser.ast.type.ClassOrInterfaceType;
+import com.github.javaparser.ast.type.Type;
 import org.teinelund.javacodevisualizer.dom.AccessModifier;
+import org.teinelund.javacodevisualizer.dom.FieldSummary;
+import org.teinelund.javacodevisualizer.dom.ImportSummary;
 import org.teinelund.javacodevisualizer.dom.JavaType;
 import org.teinelund.javacodevisualizer.dom.JavaTypeDeclarationPath;
 import org.teinelund.javacodevisualizer.dom.JavaTypeDeclarationPathBuilder;
+import org.teinelund.javacodevisualizer.dom.TypeReference;
+import org.teinelund.javacodevisualizer.dom.TypeSummary;
 
-import java.io.BufferedReader;
+import java.io.CharArrayReader;
 import java.io.IOException;
 import java.io.Reader;
-import java.nio.file.Files;
+import java.nio.ByteBuffer;
+import java.nio.charset.CodingErrorAction;
 import java.nio.file.Path;
-import java.util.EnumSet;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Optional;
+
+import static com.github.javaparser.Providers.provider;
 
 public class JavaSourceFileParser {
 
     private static JavaSourceFileParser javaSourceFileParser = null;
 
+    /**
+     * The configuration of the parsers. Comments are not attributed to nodes, and tokens are not stored, since only the
+     * TypeSummary is kept.
+     */
+    private static final ParserConfiguration PARSER_CONFIGURATION = new ParserConfiguration().
+            setAttributeComments(false).setStoreTokens(false);
+
+    /**
+     * A JavaParser keeps its generated parser between calls to parse, but is not thread safe. One per thread.
+     */
+    private static final ThreadLocal<JavaParser> PARSERS = ThreadLocal.withInitial(
+            () -> new JavaParser(PARSER_CONFIGURATION));
+
+    private boolean lexicalExtraction = false;
+
     private JavaSourceFileParser() {}
 
     public static JavaSourceFileParser instance() {
@@ -37,7 +70,21 @@ public class JavaSourceFileParser {
     }
 
     /**
-     * Transform a Path to a Reader and invokes the method parseJavaFile, which returns a list of
+     * Use JavaSourceFileExtractor instead of JavaParser in parseJavaFile. The extractor skips method bodies and
+     * initializers without building a syntax tree, and gives the same result for a compilable java source file.
+     *
+     * @param lexicalExtraction is true to use JavaSourceFileExtractor, and false to use JavaParser.
+     */
+    public void setLexicalExtraction(boolean lexicalExtraction) {
+        this.lexicalExtraction = lexicalExtraction;
+    }
+
+    public boolean isLexicalExtraction() {
+        return this.lexicalExtraction;
+    }
+
+    /**
+     * Read the java source file into the SourceBuffer of the thread, and parse the content into a list of
      * JavaTypeDeclarationPath.
      *
      * @param path is the path to the java source file
@@ -45,69 +92,199 @@ public class JavaSourceFileParser {
      * @throws IOException
      */
     List<JavaTypeDeclarationPath> readJavaFile(Path path) throws IOException {
-        BufferedReader reader = Files.newBufferedReader(path);
-        List<JavaTypeDeclarationPath> javaTypeDeclarationPaths = parseJavaFile(reader, path);
-        return javaTypeDeclarationPaths;
+        return readJavaFile(path, this.lexicalExtraction);
+    }
+
+    /**
+     * Same as readJavaFile above, with lexicalExtraction instead of the setting of this instance.
+     */
+    List<JavaTypeDeclarationPath> readJavaFile(Path path, boolean lexicalExtraction) throws IOException {
+        SourceBuffer sourceBuffer = SourceBuffer.instance();
+        try {
+            sourceBuffer.read(path);
+            return parseJavaFile(sourceBuffer.getChars(), sourceBuffer.getLength(), path, lexicalExtraction);
+        }
+        finally {
+            sourceBuffer.release();
+        }
+    }
+
+    /**
+     * Decode the UTF-8 encoded content of a java source file into the SourceBuffer of the thread, and parse it into a
+     * list of JavaTypeDeclarationPath. Malformed input is replaced, like an InputStreamReader does.
+     *
+     * @param content is the content of the java source file.
+     * @param path is the Path object to the java source file.
+     * @return a list of JavaTypeDeclarationPath.
+     */
+    List<JavaTypeDeclarationPath> parseJavaFile(byte[] content, Path path) {
+        return parseJavaFile(content, path, this.lexicalExtraction);
+    }
+
+    /**
+     * Same as parseJavaFile above, with lexicalExtraction instead of the setting of this instance.
+     */
+    List<JavaTypeDeclarationPath> parseJavaFile(byte[] content, Path path, boolean lexicalExtraction) {
+        SourceBuffer sourceBuffer = SourceBuffer.instance();
+        try {
+            sourceBuffer.decode(ByteBuffer.wrap(content), CodingErrorAction.REPLACE);
+            return parseJavaFile(sourceBuffer.getChars(), sourceBuffer.getLength(), path, lexicalExtraction);
+        }
+        catch (IOException e) {
+            // Like JavaParser.parse.
+            throw new ParseProblemException(e);
+        }
+        finally {
+            sourceBuffer.release();
+        }
     }
 
     /**
-     * Parse a java souece file into a list of JavaTypeDeclarationPath.
+     * Parse a java souece file into a list of JavaTypeDeclarationPath. Each JavaTypeDeclarationPath gets a TypeSummary
+     * of its type, and the parsed Java Parser objects are not kept.
      *
      * TODO: What to do with inner classes, local classes, annonymous classes and static inner classes.
      *
-     * @param reader is a Reader to a java source file.
+     * @param reader is a Reader to a java source file. The reader is read to the end, but not closed.
      * @param path is the Path object to the java source file.
      * @return a list of JavaTypeDeclarationPath.
      */
     List<JavaTypeDeclarationPath> parseJavaFile(Reader reader, Path path) {
-        CompilationUnit compilationUnit = JavaParser.parse(reader);
+        SourceBuffer sourceBuffer = SourceBuffer.instance();
+        try {
+            sourceBuffer.read(reader);
+            return parseJavaFile(sourceBuffer.getChars(), sourceBuffer.getLength(), path);
+        }
+        catch (IOException e) {
+            // Like JavaParser.parse.
+            throw new ParseProblemException(e);
+        }
+        finally {
+            sourceBuffer.release();
+        }
+    }
+
+    /**
+     * @param source is the content of the java source file, in the first length chars.
+     */
+    List<JavaTypeDeclarationPath> parseJavaFile(char[] source, int length, Path path) {
+        return parseJavaFile(source, length, path, this.lexicalExtraction);
+    }
+
+    List<JavaTypeDeclarationPath> parseJavaFile(char[] source, int length, Path path, boolean lexicalExtraction) {
+        if (lexicalExtraction) {
+            return JavaSourceFileExtractor.instance().extractJavaFile(source, length, path);
+        }
+        ParseResult<CompilationUnit> parseResult = PARSERS.get().parse(ParseStart.COMPILATION_UNIT,
+                provider(new CharArrayReader(source, 0, length)));
+        if (!parseResult.isSuccessful() || !parseResult.getResult().isPresent()) {
+            throw new ParseProblemException(parseResult.getProblems());
+        }
+        CompilationUnit compilationUnit = parseResult.getResult().get();
         String packageName = "";
         if (compilationUnit.getPackageDeclaration().isPresent()) {
             PackageDeclaration packageDeclaration = compilationUnit.getPackageDeclaration().get();
             packageName = packageDeclaration.getNameAsString();
         }
-        NodeList<ImportDeclaration> importDeclarations = compilationUnit.getImports();
-        for (ImportDeclaration importDeclaration : importDeclarations) {
-            String importText = importDeclaration.getName().asString();
-            int x = 0;
+        List<ImportSummary> importList = new ArrayList<>();
+        for (ImportDeclaration importDeclaration : compilationUnit.getImports()) {
+            importList.add(new ImportSummary(importDeclaration.getNameAsString(), importDeclaration.isStatic(),
+                    importDeclaration.isAsterisk()));
         }
+        // One list for all types in the compilation unit. WireClassField builds one ImportTable per list.
+        List<ImportSummary> imports = Collections.unmodifiableList(importList);
         NodeList<TypeDeclaration<?>> types = compilationUnit.getTypes();
         List<JavaTypeDeclarationPath> javaTypeDeclarationPaths = new LinkedList<>();
         for (TypeDeclaration<?> typeDeclaration : types) {
-            EnumSet<Modifier> modifiers = typeDeclaration.getModifiers();
-            AccessModifier accessModifier = AccessModifier.PACKAGE;
-            for (Modifier modifier : modifiers) {
-                switch (modifier) {
-                    case PUBLIC:
-                        accessModifier = AccessModifier.PUBLIC;
-                        break;
-                    case PROTECTED:
-                        accessModifier = AccessModifier.PROTECTED;
-                        break;
-                    case PRIVATE:
-                        accessModifier = AccessModifier.PRIVATE;
-                        break;
-                }
+            TypeSummary typeSummary = createTypeSummary(typeDeclaration, packageName, imports);
+            javaTypeDeclarationPaths.add(createJavaTypeDeclarationPath(typeSummary, path));
+        }
+        return javaTypeDeclarationPaths;
+    }
+
+    /**
+     * Create the JavaTypeDeclarationPath of a top level type. The access modifier is taken from the modifiers of the
+     * TypeSummary.
+     *
+     * @param typeSummary is the TypeSummary of the type.
+     * @param path is the Path object to the java source file.
+     * @return a JavaTypeDeclarationPath.
+     */
+    JavaTypeDeclarationPath createJavaTypeDeclarationPath(TypeSummary typeSummary, Path path) {
+        AccessModifier accessModifier = AccessModifier.PACKAGE;
+        for (Modifier modifier : typeSummary.getModifiers()) {
+            switch (modifier) {
+                case PUBLIC:
+                    accessModifier = AccessModifier.PUBLIC;
+                    break;
+                case PROTECTED:
+                    accessModifier = AccessModifier.PROTECTED;
+                    break;
+                case PRIVATE:
+                    accessModifier = AccessModifier.PRIVATE;
+                    break;
             }
-            String name = "";
-            JavaType javaType = JavaType.CLASS;
-            if (typeDeclaration instanceof ClassOrInterfaceDeclaration) {
-                ClassOrInterfaceDeclaration classOrInterfaceDecl = (ClassOrInterfaceDeclaration) typeDeclaration;
-                name = classOrInterfaceDecl.getNameAsString();
-                if (classOrInterfaceDecl.isInterface()) {
-                    javaType = JavaType.INTERFACE;
-                }
+        }
+        return JavaTypeDeclarationPathBuilder.builder().setName(typeSummary.getName()).
+                setPackageName(typeSummary.getPackageName()).setAccessModifier(accessModifier).
+                setJavaType(typeSummary.getJavaType()).setPathToTypeDeclaration(path).setTypeSummary(typeSummary).
+                build();
+    }
 
+    /**
+     * Extract a TypeSummary from a parsed type declaration, and from its member types.
+     *
+     * @param typeDeclaration is the parsed Java Parser object.
+     * @param packageName is the package of the compilation unit.
+     * @param imports are the imports of the compilation unit.
+     * @return a TypeSummary.
+     */
+    TypeSummary createTypeSummary(TypeDeclaration<?> typeDeclaration, String packageName, List<ImportSummary> imports) {
+        TypeSummary.TypeSummaryBuilder builder = TypeSummary.builder().setPackageName(packageName).
+                setModifiers(typeDeclaration.getModifiers()).setImports(imports);
+        String name = "";
+        JavaType javaType = JavaType.CLASS;
+        if (typeDeclaration instanceof ClassOrInterfaceDeclaration) {
+            ClassOrInterfaceDeclaration classOrInterfaceDecl = (ClassOrInterfaceDeclaration) typeDeclaration;
+            name = classOrInterfaceDecl.getNameAsString();
+            if (classOrInterfaceDecl.isInterface()) {
+                javaType = JavaType.INTERFACE;
             }
-            else if (typeDeclaration instanceof EnumDeclaration) {
-                EnumDeclaration enumDeclaration = (EnumDeclaration) typeDeclaration;
-                name = enumDeclaration.getNameAsString();
-                javaType = JavaType.ENUM;
+            for (ClassOrInterfaceType extendedType : classOrInterfaceDecl.getExtendedTypes()) {
+                builder.addSupertype(createTypeReference(extendedType));
+            }
+            for (ClassOrInterfaceType implementedType : classOrInterfaceDecl.getImplementedTypes()) {
+                builder.addSupertype(createTypeReference(implementedType));
             }
-            javaTypeDeclarationPaths.add(JavaTypeDeclarationPathBuilder.builder().setName(name).
-                    setPackageName(packageName).setAccessModifier(accessModifier).setJavaType(javaType).
-                    setPathToTypeDeclaration(path).setTypeDeclaration(typeDeclaration).build());
         }
-        return javaTypeDeclarationPaths;
+        else if (typeDeclaration instanceof EnumDeclaration) {
+            EnumDeclaration enumDeclaration = (EnumDeclaration) typeDeclaration;
+            name = enumDeclaration.getNameAsString();
+            javaType = JavaType.ENUM;
+            for (ClassOrInterfaceType implementedType : enumDeclaration.getImplementedTypes()) {
+                builder.addSupertype(createTypeReference(implementedType));
+            }
+        }
+        for (FieldDeclaration fieldDeclaration : typeDeclaration.getFields()) {
+            // A field may have several variables declared in one statement. Example String s1 = "Java", s2 = "C++";
+            for (VariableDeclarator variable : fieldDeclaration.getVariables()) {
+                Type fieldType = variable.getType();
+                TypeReference typeReference = fieldType.isClassOrInterfaceType() ?
+                        createTypeReference((ClassOrInterfaceType) fieldType) : null;
+                builder.addField(new FieldSummary(variable.getNameAsString(), typeReference));
+            }
+        }
+        for (BodyDeclaration<?> member : typeDeclaration.getMembers()) {
+            if (member instanceof TypeDeclaration) {
+                builder.addNestedType(createTypeSummary((TypeDeclaration<?>) member, packageName, imports));
+            }
+        }
+        return builder.setName(name).setJavaType(javaType).build();
+    }
+
+    TypeReference createTypeReference(ClassOrInterfaceType type) {
+        // It is possible to declare a type with full package name. Example: java.lang.String .
+        Optional<ClassOrInterfaceType> scope = type.getScope();
+        return new TypeReference(type.getName().asString(), scope.isPresent() ? scope.get().toString() : null);
     }
 }
@@ -0,0 +1,659 @@
+package org.teinelund.javacodevisualizer.factory;
+
+import org.teinelund.javacodevisualizer.dom.AccessModifier;
+import org.teinelund.javacodevisualizer.dom.DependencyRollups;
+import org.teinelund.javacodevisualizer.dom.JavaProjectObjectModel;
+import org.teinelund.javacodevisualizer.dom.JavaType;
+import org.teinelund.javacodevisualizer.dom.JavaTypeDeclarationPath;
+import org.teinelund.javacodevisualizer.dom.ReverseFieldIndex;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystem;
+import java.nio.file.Path;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import static org.teinelund.javacodevisualizer.factory.JavaProjectObjectModelSnapshot.FIELD_RECORD_SIZE;
+import static org.teinelund.javacodevisualizer.factory.JavaProjectObjectModelSnapshot.HEADER_FIELD_RECORDS_OFFSET;
+import static org.teinelund.javacodevisualizer.factory.JavaProjectObjectModelSnapshot.HEADER_MODULE_PATHS_OFFSET;
+import static org.teinelund.javacodevisualizer.factory.JavaProjectObjectModelSnapshot.HEADER_MODULE_PATH_COUNT;
+import static org.teinelund.javacodevisualizer.factory.JavaProjectObjectModelSnapshot.HEADER_NAME_INDEX_COUNT;
+import static org.teinelund.javacodevisualizer.factory.JavaProjectObjectModelSnapshot.HEADER_NAME_INDEX_OFFSET;
+import static org.teinelund.javacodevisualizer.factory.JavaProjectObjectModelSnapshot.HEADER_PACKAGE_INDEX_COUNT;
+import static org.teinelund.javacodevisualizer.factory.JavaProjectObjectModelSnapshot.HEADER_PACKAGE_INDEX_OFFSET;
+import static org.teinelund.javacodevisualizer.factory.JavaProjectObjectModelSnapshot.HEADER_SIZE;
+import static org.teinelund.javacodevisualizer.factory.JavaProjectObjectModelSnapshot.HEADER_STRING_COUNT;
+import static org.teinelund.javacodevisualizer.factory.JavaProjectObjectModelSnapshot.HEADER_STRING_DATA_OFFSET;
+import static org.teinelund.javacodevisualizer.factory.JavaProjectObjectModelSnapshot.HEADER_TYPE_COUNT;
+import static org.teinelund.javacodevisualizer.factory.JavaProjectObjectModelSnapshot.HEADER_TYPE_RECORDS_OFFSET;
+import static org.teinelund.javacodevisualizer.factory.JavaProjectObjectModelSnapshot.INDEX_ENTRY_SIZE;
+import static org.teinelund.javacodevisualizer.factory.JavaProjectObjectModelSnapshot.TYPE_RECORD_SIZE;
+
+/**
+ * A read only JavaProjectObjectModel backed by a (memory-mapped) snapshot file, see JavaProjectObjectModelSnapshot
+ * for the file format.
+ *
+ * Names are looked up by binary search in the sorted string table and the sorted name and package indices, and
+ * qualified names by a binary search on package name in the types of the name, so nothing is decoded up front. The
+ * strings of the table are compared with the search key in the mapped file, without decoding them.
+ *
+ * A JavaTypeDeclarationPath is created when a type is accessed, and is held weakly: while any one refers to it, the
+ * type is the same object, and when no one does, it is released, so the heap does not grow with the number of types
+ * accessed. The reverse field index and the dependency rollups are counted from the type and field records, without
+ * creating the types.
+ */
+class MappedJavaProjectObjectModel implements JavaProjectObjectModel {
+
+    private static final int PACKAGE_NAME_ID = 1;
+    private static final int PATH_ID = 2;
+    private static final int FIRST_FIELD_INDEX = 5;
+    private static final int FIELD_COUNT = 6;
+
+    private final ByteBuffer buffer;
+    private final FileSystem fileSystem;
+    private final int stringCount;
+    private final int stringDataOffset;
+    private final int typeRecordsOffset;
+    private final int fieldRecordsOffset;
+    private final MappedIndex nameIndex;
+    private final MappedIndex packageIndex;
+    private final ConcurrentMap<Integer, TypeReference> materializedTypes = new ConcurrentHashMap<>();
+    private final ReferenceQueue<MappedJavaTypeDeclarationPath> releasedTypes = new ReferenceQueue<>();
+    private volatile ReverseFieldIndex reverseFieldIndex = null;
+    private volatile DependencyRollups dependencyRollups = null;
+
+    MappedJavaProjectObjectModel(ByteBuffer buffer, FileSystem fileSystem) {
+        this.buffer = buffer;
+        this.fileSystem = fileSystem;
+        this.stringCount = buffer.getInt(HEADER_STRING_COUNT);
+        this.stringDataOffset = buffer.getInt(HEADER_STRING_DATA_OFFSET);
+        this.typeRecordsOffset = buffer.getInt(HEADER_TYPE_RECORDS_OFFSET);
+        this.fieldRecordsOffset = buffer.getInt(HEADER_FIELD_RECORDS_OFFSET);
+        this.nameIndex = new MappedIndex(buffer.getInt(HEADER_NAME_INDEX_OFFSET),
+                buffer.getInt(HEADER_NAME_INDEX_COUNT));
+        this.packageIndex = new MappedIndex(buffer.getInt(HEADER_PACKAGE_INDEX_OFFSET),
+                buffer.getInt(HEADER_PACKAGE_INDEX_COUNT));
+    }
+
+    @Override
+    public void addJavaTypeDeclarationPaths(List<JavaTypeDeclarationPath> javaTypeDeclarationPaths) {
+        throw new UnsupportedOperationException("A memory-mapped JavaProjectObjectModel is read only.");
+    }
+
+    @Override
+    public void removeJavaTypeDeclarationPaths(List<JavaTypeDeclarationPath> javaTypeDeclarationPaths) {
+        throw new UnsupportedOperationException("A memory-mapped JavaProjectObjectModel is read only.");
+    }
+
+    @Override
+    public List<JavaTypeDeclarationPath> getAllTypesGivenName(String name) {
+        return this.nameIndex.getTypes(findString(name));
+    }
+
+    @Override
+    public List<JavaTypeDeclarationPath> getAllTypesGivenPackageName(String packageName) {
+        return this.packageIndex.getTypes(findString(packageName));
+    }
+
+    /**
+     * The types of a name are sorted on packageNameId in the name index, so the type is found by a binary search on the
+     * package name ids in their type records. Only the type found is created.
+     */
+    @Override
+    public JavaTypeDeclarationPath getTypeByQualifiedName(String packageName, String name) {
+        int packageNameId = findString(packageName);
+        if (packageName != null && packageNameId == -1) {
+            return null;
+        }
+        return this.nameIndex.getTypeGivenPackageNameId(findString(name), packageNameId);
+    }
+
+    @Override
+    public Collection<String> getAllTypeNames() {
+        return this.nameIndex.getKeys();
+    }
+
+    @Override
+    public Collection<String> getAllPackageNames() {
+        return this.packageIndex.getKeys();
+    }
+
+    /**
+     * The snapshot has no reverse field index. It is built from the field records on first access, once, since the
+     * model is read only: an int per type and per holder of a type, see MappedReverseFieldIndex.
+     */
+    @Override
+    public ReverseFieldIndex getReverseFieldIndex() {
+        if (this.reverseFieldIndex == null) {
+            synchronized (this) {
+                if (this.reverseFieldIndex == null) {
+                    this.reverseFieldIndex = new MappedReverseFieldIndex();
+                }
+            }
+        }
+        return this.reverseFieldIndex;
+    }
+
+    /**
+     * The snapshot has no dependency rollups either. Unless they are set by the builder of the snapshot, they are
+     * counted from the type and field records on first access, once. The fields are counted by pair of types' package
+     * name ids and path ids first, so each package name and directory is decoded once per pair.
+     */
+    @Override
+    public DependencyRollups getDependencyRollups() {
+        if (this.dependencyRollups == null) {
+            synchronized (this) {
+                if (this.dependencyRollups == null) {
+                    this.dependencyRollups = countDependencyRollups();
+                }
+            }
+        }
+        return this.dependencyRollups;
+    }
+
+    DependencyRollups countDependencyRollups() {
+        Map<Long, Integer> packageWeights = new HashMap<>();
+        Map<Long, Integer> pathWeights = new HashMap<>();
+        int typeCount = this.buffer.getInt(HEADER_TYPE_COUNT);
+        for (int typeIndex = 0; typeIndex < typeCount; typeIndex++) {
+            int firstFieldIndex = typeRecord(typeIndex, FIRST_FIELD_INDEX);
+            int fieldCount = typeRecord(typeIndex, FIELD_COUNT);
+            for (int fieldIndex = firstFieldIndex; fieldIndex < firstFieldIndex + fieldCount; fieldIndex++) {
+                int fieldTypeIndex = fieldRecord(fieldIndex, 1);
+                if (fieldTypeIndex != -1) {
+                    packageWeights.merge(pair(typeRecord(typeIndex, PACKAGE_NAME_ID),
+                            typeRecord(fieldTypeIndex, PACKAGE_NAME_ID)), 1, Integer::sum);
+                    pathWeights.merge(pair(typeRecord(typeIndex, PATH_ID), typeRecord(fieldTypeIndex, PATH_ID)), 1,
+                            Integer::sum);
+                }
+            }
+        }
+        DependencyRollups rollups = new DependencyRollups();
+        for (Map.Entry<Long, Integer> entry : packageWeights.entrySet()) {
+            rollups.addPackageWeight(getString(first(entry.getKey())), getString(second(entry.getKey())),
+                    entry.getValue());
+        }
+        Map<Integer, Path> directories = new HashMap<>();
+        for (Map.Entry<Long, Integer> entry : pathWeights.entrySet()) {
+            Path holderDirectory = directories.computeIfAbsent(first(entry.getKey()), this::getDirectory);
+            Path fieldTypeDirectory = directories.computeIfAbsent(second(entry.getKey()), this::getDirectory);
+            if (holderDirectory != null && fieldTypeDirectory != null) {
+                rollups.addDirectoryWeight(holderDirectory, fieldTypeDirectory, entry.getValue());
+            }
+        }
+        rollups.setModulePaths(getModulePaths());
+        return rollups;
+    }
+
+    /**
+     * @return the Maven project paths stored in the snapshot.
+     */
+    List<Path> getModulePaths() {
+        List<Path> modulePaths = new ArrayList<>();
+        int modulePathsOffset = this.buffer.getInt(HEADER_MODULE_PATHS_OFFSET);
+        for (int i = 0; i < this.buffer.getInt(HEADER_MODULE_PATH_COUNT); i++) {
+            modulePaths.add(getPath(this.buffer.getInt(modulePathsOffset + i * 4)));
+        }
+        return modulePaths;
+    }
+
+    static long pair(int first, int second) {
+        return (long) first << 32 | (second & 0xFFFFFFFFL);
+    }
+
+    static int first(long pair) {
+        return (int) (pair >> 32);
+    }
+
+    static int second(long pair) {
+        return (int) pair;
+    }
+
+    Path getDirectory(int pathId) {
+        Path path = getPath(pathId);
+        return path != null ? path.getParent() : null;
+    }
+
+    void setDependencyRollups(DependencyRollups dependencyRollups) {
+        this.dependencyRollups = dependencyRollups;
+    }
+
+    /**
+     * A memory-mapped JavaProjectObjectModel is read only, and is therefore always frozen.
+     */
+    @Override
+    public void freeze() {}
+
+    @Override
+    public boolean isFrozen() {
+        return true;
+    }
+
+    //
+    // Access to the mapped file
+    //
+
+    /**
+     * Returns the type with index typeIndex, and creates it if it is not referred to by any one.
+     */
+    JavaTypeDeclarationPath getType(int typeIndex) {
+        TypeReference reference = this.materializedTypes.get(typeIndex);
+        MappedJavaTypeDeclarationPath type = reference != null ? reference.get() : null;
+        if (type == null) {
+            expungeReleasedTypes();
+            MappedJavaTypeDeclarationPath[] created = new MappedJavaTypeDeclarationPath[1];
+            this.materializedTypes.compute(typeIndex, (index, existing) -> {
+                created[0] = existing != null ? existing.get() : null;
+                if (created[0] != null) {
+                    return existing;
+                }
+                created[0] = new MappedJavaTypeDeclarationPath(this, index);
+                return new TypeReference(created[0], this.releasedTypes);
+            });
+            type = created[0];
+        }
+        return type;
+    }
+
+    /**
+     * Remove the entries of the types that are released by the garbage collector.
+     */
+    void expungeReleasedTypes() {
+        Reference<? extends MappedJavaTypeDeclarationPath> reference;
+        while ((reference = this.releasedTypes.poll()) != null) {
+            this.materializedTypes.remove(((TypeReference) reference).typeIndex, reference);
+        }
+    }
+
+    /**
+     * @return the number of types that are created, and not yet released.
+     */
+    int getMaterializedTypeCount() {
+        expungeReleasedTypes();
+        return this.materializedTypes.size();
+    }
+
+    int typeRecord(int typeIndex, int column) {
+        return this.buffer.getInt(this.typeRecordsOffset + typeIndex * TYPE_RECORD_SIZE + column * 4);
+    }
+
+    int fieldRecord(int fieldIndex, int column) {
+        return this.buffer.getInt(this.fieldRecordsOffset + fieldIndex * FIELD_RECORD_SIZE + column * 4);
+    }
+
+    String getString(int id) {
+        if (id == -1) {
+            return null;
+        }
+        int start = this.buffer.getInt(HEADER_SIZE + id * 4);
+        int end = this.buffer.getInt(HEADER_SIZE + (id + 1) * 4);
+        byte[] bytes = new byte[end - start];
+        ByteBuffer duplicate = this.buffer.duplicate();
+        duplicate.position(this.stringDataOffset + start);
+        duplicate.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Binary search for a string in the sorted string table.
+     *
+     * @return the id of the string, or -1 if not found.
+     */
+    int findString(String string) {
+        if (string == null) {
+            return -1;
+        }
+        int low = 0;
+        int high = this.stringCount - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int comparison = compareString(middle, string);
+            if (comparison < 0) {
+                low = middle + 1;
+            }
+            else if (comparison > 0) {
+                high = middle - 1;
+            }
+            else {
+                return middle;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Compare string id with string, like String.compareTo, by decoding the UTF-8 bytes in the mapped file one char at
+     * a time.
+     */
+    int compareString(int id, String string) {
+        int position = this.stringDataOffset + this.buffer.getInt(HEADER_SIZE + id * 4);
+        int end = this.stringDataOffset + this.buffer.getInt(HEADER_SIZE + (id + 1) * 4);
+        int length = string.length();
+        int i = 0;
+        while (position < end) {
+            int b = this.buffer.get(position) & 0xFF;
+            int codePoint;
+            if (b < 0x80) {
+                codePoint = b;
+                position += 1;
+            }
+            else if (b < 0xE0) {
+                codePoint = (b & 0x1F) << 6 | continuation(position + 1);
+                position += 2;
+            }
+            else if (b < 0xF0) {
+                codePoint = (b & 0x0F) << 12 | continuation(position + 1) << 6 | continuation(position + 2);
+                position += 3;
+            }
+            else {
+                codePoint = (b & 0x07) << 18 | continuation(position + 1) << 12 | continuation(position + 2) << 6 |
+                        continuation(position + 3);
+                position += 4;
+            }
+            if (Character.isBmpCodePoint(codePoint)) {
+                if (i == length) {
+                    return 1;
+                }
+                if (codePoint != string.charAt(i)) {
+                    return codePoint - string.charAt(i);
+                }
+                i++;
+            }
+            else {
+                for (char c : Character.toChars(codePoint)) {
+                    if (i == length) {
+                        return 1;
+                    }
+                    if (c != string.charAt(i)) {
+                        return c - string.charAt(i);
+                    }
+                    i++;
+                }
+            }
+        }
+        return i == length ? 0 : -1;
+    }
+
+    private int continuation(int position) {
+        return this.buffer.get(position) & 0x3F;
+    }
+
+    Path getPath(int id) {
+        return id == -1 ? null : this.fileSystem.getPath(getString(id));
+    }
+
+    JavaType getJavaType(int ordinal) {
+        return ordinal == -1 ? null : JavaType.values()[ordinal];
+    }
+
+    AccessModifier getAccessModifier(int ordinal) {
+        return ordinal == -1 ? null : AccessModifier.values()[ordinal];
+    }
+
+    /**
+     * A name or package index in the mapped file: entries (keyId, first, count) sorted on keyId, followed by the
+     * list of type indices the entries point into.
+     */
+    private class MappedIndex {
+        private final int offset;
+        private final int count;
+        private final int typeListOffset;
+
+        MappedIndex(int offset, int count) {
+            this.offset = offset;
+            this.count = count;
+            this.typeListOffset = offset + count * INDEX_ENTRY_SIZE;
+        }
+
+        int entry(int entryIndex, int column) {
+            return buffer.getInt(this.offset + entryIndex * INDEX_ENTRY_SIZE + column * 4);
+        }
+
+        /**
+         * @return the index of the entry of keyId, or -1 if not found.
+         */
+        int findEntry(int keyId) {
+            if (keyId == -1) {
+                return -1;
+            }
+            int low = 0;
+            int high = this.count - 1;
+            while (low <= high) {
+                int middle = (low + high) >>> 1;
+                int middleKeyId = entry(middle, 0);
+                if (middleKeyId < keyId) {
+                    low = middle + 1;
+                }
+                else if (middleKeyId > keyId) {
+                    high = middle - 1;
+                }
+                else {
+                    return middle;
+                }
+            }
+            return -1;
+        }
+
+        List<JavaTypeDeclarationPath> getTypes(int keyId) {
+            int entryIndex = findEntry(keyId);
+            if (entryIndex == -1) {
+                return Collections.emptyList();
+            }
+            return new TypeList(this.typeListOffset + entry(entryIndex, 1) * 4, entry(entryIndex, 2));
+        }
+
+        /**
+         * Binary search for the first type of keyId with packageNameId, in the types of keyId sorted on packageNameId.
+         *
+         * @return the type, or null if not found.
+         */
+        JavaTypeDeclarationPath getTypeGivenPackageNameId(int keyId, int packageNameId) {
+            int entryIndex = findEntry(keyId);
+            if (entryIndex == -1) {
+                return null;
+            }
+            int first = this.typeListOffset + entry(entryIndex, 1) * 4;
+            int low = 0;
+            int high = entry(entryIndex, 2);
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (typeRecord(buffer.getInt(first + middle * 4), PACKAGE_NAME_ID) < packageNameId) {
+                    low = middle + 1;
+                }
+                else {
+                    high = middle;
+                }
+            }
+            if (low < entry(entryIndex, 2)) {
+                int typeIndex = buffer.getInt(first + low * 4);
+                if (typeRecord(typeIndex, PACKAGE_NAME_ID) == packageNameId) {
+                    return getType(typeIndex);
+                }
+            }
+            return null;
+        }
+
+        Collection<String> getKeys() {
+            return new AbstractList<String>() {
+                @Override
+                public String get(int index) {
+                    return getString(entry(index, 0));
+                }
+
+                @Override
+                public int size() {
+                    return count;
+                }
+            };
+        }
+    }
+
+    /**
+     * A weak reference to a created type, that knows the index of the type after it is released.
+     */
+    private static class TypeReference extends WeakReference<MappedJavaTypeDeclarationPath> {
+        private final int typeIndex;
+
+        TypeReference(MappedJavaTypeDeclarationPath type, ReferenceQueue<MappedJavaTypeDeclarationPath> queue) {
+            super(type, queue);
+            this.typeIndex = type.getTypeIndex();
+        }
+    }
+
+    /**
+     * A read only ReverseFieldIndex of the field records. The holders of each type are kept as type indices, in type
+     * order, like the holders that are indexed in type order, and are only created when they are looked up.
+     */
+    private class MappedReverseFieldIndex extends ReverseFieldIndex {
+        /**
+         * The holders of type i are holders[firstHolder[i]] up to holders[firstHolder[i + 1]].
+         */
+        private final int[] firstHolder;
+        private final int[] holders;
+
+        MappedReverseFieldIndex() {
+            int typeCount = buffer.getInt(HEADER_TYPE_COUNT);
+            int[] lastHolder = new int[typeCount];
+            this.firstHolder = new int[typeCount + 1];
+            // Count the holders of each type, then fill them in. A holder with many fields of a type is counted once.
+            Arrays.fill(lastHolder, -1);
+            forEachHolder(lastHolder, (holder, type) -> this.firstHolder[type + 1]++);
+            for (int i = 0; i < typeCount; i++) {
+                this.firstHolder[i + 1] += this.firstHolder[i];
+            }
+            this.holders = new int[this.firstHolder[typeCount]];
+            int[] next = Arrays.copyOf(this.firstHolder, typeCount);
+            Arrays.fill(lastHolder, -1);
+            forEachHolder(lastHolder, (holder, type) -> this.holders[next[type]++] = holder);
+        }
+
+        void forEachHolder(int[] lastHolder, HolderConsumer consumer) {
+            for (int holder = 0; holder < lastHolder.length; holder++) {
+                int firstFieldIndex = typeRecord(holder, FIRST_FIELD_INDEX);
+                int fieldCount = typeRecord(holder, FIELD_COUNT);
+                for (int fieldIndex = firstFieldIndex; fieldIndex < firstFieldIndex + fieldCount; fieldIndex++) {
+                    int type = fieldRecord(fieldIndex, 1);
+                    if (type != -1 && lastHolder[type] != holder) {
+                        lastHolder[type] = holder;
+                        consumer.accept(holder, type);
+                    }
+                }
+            }
+        }
+
+        @Override
+        public void add(JavaTypeDeclarationPath holder, JavaTypeDeclarationPath fieldType) {
+            throw new UnsupportedOperationException("A memory-mapped JavaProjectObjectModel is read only.");
+        }
+
+        @Override
+        public void addFields(JavaTypeDeclarationPath holder) {
+            throw new UnsupportedOperationException("A memory-mapped JavaProjectObjectModel is read only.");
+        }
+
+        @Override
+        public void removeFields(JavaTypeDeclarationPath holder) {
+            throw new UnsupportedOperationException("A memory-mapped JavaProjectObjectModel is read only.");
+        }
+
+        @Override
+        public void remove(JavaTypeDeclarationPath type) {
+            throw new UnsupportedOperationException("A memory-mapped JavaProjectObjectModel is read only.");
+        }
+
+        @Override
+        public List<JavaTypeDeclarationPath> getHolders(JavaTypeDeclarationPath type) {
+            int typeIndex = getTypeIndex(type);
+            if (typeIndex == -1) {
+                return Collections.emptyList();
+            }
+            List<JavaTypeDeclarationPath> result = new ArrayList<>();
+            for (int i = this.firstHolder[typeIndex]; i < this.firstHolder[typeIndex + 1]; i++) {
+                result.add(getType(this.holders[i]));
+            }
+            return result;
+        }
+
+        @Override
+        public Set<JavaTypeDeclarationPath> getTransitiveHolders(JavaTypeDeclarationPath type) {
+            Set<JavaTypeDeclarationPath> result = new LinkedHashSet<>();
+            int typeIndex = getTypeIndex(type);
+            if (typeIndex == -1) {
+                return result;
+            }
+            BitSet found = new BitSet();
+            int[] queue = new int[this.firstHolder.length];
+            int queueSize = 0;
+            queue[queueSize++] = typeIndex;
+            for (int i = 0; i < queueSize; i++) {
+                for (int j = this.firstHolder[queue[i]]; j < this.firstHolder[queue[i] + 1]; j++) {
+                    int holder = this.holders[j];
+                    if (!found.get(holder)) {
+                        found.set(holder);
+                        queue[queueSize++] = holder;
+                        result.add(getType(holder));
+                    }
+                }
+            }
+            return result;
+        }
+
+        /**
+         * @return the type index of type, or -1 if it is not a type of this model.
+         */
+        int getTypeIndex(JavaTypeDeclarationPath type) {
+            if (type instanceof MappedJavaTypeDeclarationPath) {
+                int typeIndex = ((MappedJavaTypeDeclarationPath) type).getTypeIndex();
+                if (getType(typeIndex) == type) {
+                    return typeIndex;
+                }
+            }
+            return -1;
+        }
+    }
+
+    private interface HolderConsumer {
+        void accept(int holder, int type);
+    }
+
+    /**
+     * A list of types backed by a list of type indices in the mapped file.
+     */
+    private class TypeList extends AbstractList<JavaTypeDeclarationPath> {
+        private final int offset;
+        private final int size;
+
+        TypeList(int offset, int size) {
+            this.offset = offset;
+            this.size = size;
+        }
+
+        @Override
+        public JavaTypeDeclarationPath get(int index) {
+            if (index < 0 || index >= this.size) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + this.size);
+            }
+            return getType(buffer.getInt(this.offset + index * 4));
+        }
+
+        @Override
+        public int size() {
+            return this.size;
+        }
+    }
+}
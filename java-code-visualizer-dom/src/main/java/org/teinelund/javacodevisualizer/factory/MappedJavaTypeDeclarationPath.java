@@ -0,0 +1,152 @@
+package org.teinelund.javacodevisualizer.factory;
+
+import com.github.javaparser.ast.body.TypeDeclaration;
+import org.teinelund.javacodevisualizer.dom.AccessModifier;
+import org.teinelund.javacodevisualizer.dom.Field;
+import org.teinelund.javacodevisualizer.dom.JavaType;
+import org.teinelund.javacodevisualizer.dom.JavaTypeDeclarationPath;
+import org.teinelund.javacodevisualizer.dom.SymbolTable;
+import org.teinelund.javacodevisualizer.dom.TypeDeclarationCache;
+import org.teinelund.javacodevisualizer.dom.TypeSummary;
+
+import java.nio.file.Path;
+import java.util.AbstractList;
+import java.util.List;
+
+/**
+ * A read only JavaTypeDeclarationPath backed by a type record in a MappedJavaProjectObjectModel. The name and the
+ * package name are decoded and interned on first access. Fields are read from the mapped file each time getFields is
+ * called, and their names are decoded each time, without being interned.
+ */
+class MappedJavaTypeDeclarationPath implements JavaTypeDeclarationPath {
+
+    private static final int NAME_ID = 0;
+    private static final int PACKAGE_NAME_ID = 1;
+    private static final int PATH_ID = 2;
+    private static final int JAVA_TYPE = 3;
+    private static final int ACCESS_MODIFIER = 4;
+    private static final int FIRST_FIELD_INDEX = 5;
+    private static final int FIELD_COUNT = 6;
+
+    private final MappedJavaProjectObjectModel jpom;
+    private final int typeIndex;
+    private String name;
+    private String packageName;
+
+    MappedJavaTypeDeclarationPath(MappedJavaProjectObjectModel jpom, int typeIndex) {
+        this.jpom = jpom;
+        this.typeIndex = typeIndex;
+    }
+
+    /**
+     * @return the index of the type record in the snapshot file.
+     */
+    int getTypeIndex() {
+        return this.typeIndex;
+    }
+
+    @Override
+    public String getName() {
+        if (this.name == null) {
+            this.name = SymbolTable.instance().intern(
+                    this.jpom.getString(this.jpom.typeRecord(this.typeIndex, NAME_ID)));
+        }
+        return this.name;
+    }
+
+    @Override
+    public String getPackageName() {
+        if (this.packageName == null) {
+            this.packageName = SymbolTable.instance().intern(
+                    this.jpom.getString(this.jpom.typeRecord(this.typeIndex, PACKAGE_NAME_ID)));
+        }
+        return this.packageName;
+    }
+
+    @Override
+    public Path getPathToTypeDeclaration() {
+        return this.jpom.getPath(this.jpom.typeRecord(this.typeIndex, PATH_ID));
+    }
+
+    @Override
+    public JavaType getJavaType() {
+        return this.jpom.getJavaType(this.jpom.typeRecord(this.typeIndex, JAVA_TYPE));
+    }
+
+    @Override
+    public AccessModifier getAccessModifier() {
+        return this.jpom.getAccessModifier(this.jpom.typeRecord(this.typeIndex, ACCESS_MODIFIER));
+    }
+
+    /**
+     * The parsed java source code is not part of a snapshot.
+     *
+     * @return null.
+     */
+    @Override
+    public TypeSummary getTypeSummary() {
+        return null;
+    }
+
+    /**
+     * The parsed java source code is not part of a snapshot, so the java source file is parsed again, through the
+     * TypeDeclarationCache.
+     */
+    @Override
+    public TypeDeclaration<?> getTypeDeclaration() {
+        Path path = getPathToTypeDeclaration();
+        if (path == null) {
+            return null;
+        }
+        return TypeDeclarationCache.instance().getTypeDeclaration(path, getName());
+    }
+
+    @Override
+    public void addField(String fieldName, JavaTypeDeclarationPath fieldClass) {
+        throw new UnsupportedOperationException("A memory-mapped JavaTypeDeclarationPath is read only.");
+    }
+
+    @Override
+    public void clearFields() {
+        throw new UnsupportedOperationException("A memory-mapped JavaTypeDeclarationPath is read only.");
+    }
+
+    @Override
+    public List<Field> getFields() {
+        final int firstFieldIndex = this.jpom.typeRecord(this.typeIndex, FIRST_FIELD_INDEX);
+        final int fieldCount = this.jpom.typeRecord(this.typeIndex, FIELD_COUNT);
+        return new AbstractList<Field>() {
+            @Override
+            public Field get(int index) {
+                if (index < 0 || index >= fieldCount) {
+                    throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + fieldCount);
+                }
+                return new MappedField(firstFieldIndex + index);
+            }
+
+            @Override
+            public int size() {
+                return fieldCount;
+            }
+        };
+    }
+
+    private class MappedField implements Field {
+        private final int fieldIndex;
+
+        MappedField(int fieldIndex) {
+            this.fieldIndex = fieldIndex;
+        }
+
+        @Override
+        public String getName() {
+            return jpom.getString(jpom.fieldRecord(this.fieldIndex, 0));
+        }
+
+        @Override
+        public JavaTypeDeclarationPath getType() {
+            int fieldTypeIndex = jpom.fieldRecord(this.fieldIndex, 1);
+            return fieldTypeIndex == -1 ? null : jpom.getType(fieldTypeIndex);
+        }
+    }
+}
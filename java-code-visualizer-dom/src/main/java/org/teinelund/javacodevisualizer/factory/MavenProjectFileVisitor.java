@@ -0,0 +1,166 @@
+package org.teinelund.javacodevisualizer.factory;
+
+import java.io.IOException;
+import java.nio.file.FileSystemLoopException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * A FileVisitor that finds Maven projects, and collects the java source files in their src directories, in one
+ * walk of a directory tree. The rules are the same as in MavenProjectPath.getMavenProjectPaths:
+ * # a Maven project is a directory with a pom.xml file and a src directory, which contains java source files.
+ * # "target" directories and excluded directories are not searched.
+ * # sub directories of a Maven project are not searched for other Maven projects.
+ *
+ * Whether a directory is a Maven project is not known until all its entries are visited. Every directory on the
+ * walk therefore has a frame on a stack, and the decision is taken when the directory is left.
+ */
+class MavenProjectFileVisitor extends SimpleFileVisitor<Path> {
+
+    private final Set<Path> excludePaths;
+    private final Deque<DirectoryFrame> frames = new ArrayDeque<>();
+    private final List<MavenProjectSourceFiles> mavenProjects = new LinkedList<>();
+    /**
+     * Number of frames on the stack that are currently inside their own src directory.
+     */
+    private int srcDepth = 0;
+    private final JavaSourceFileListener listener;
+    private final BuildMetrics metrics;
+
+    MavenProjectFileVisitor(Collection<Path> excludePaths) {
+        this(excludePaths, null, new BuildMetrics());
+    }
+
+    /**
+     * @param excludePaths are the directories not to search.
+     * @param listener is told about each java source file in a src directory as soon as it is visited, before it is
+     *                 known if the directory is a Maven project. May be null.
+     * @param metrics counts the directories listed and the files stat'ed by the walk.
+     */
+    MavenProjectFileVisitor(Collection<Path> excludePaths, JavaSourceFileListener listener, BuildMetrics metrics) {
+        this.excludePaths = new HashSet<>(excludePaths);
+        this.listener = listener;
+        this.metrics = metrics;
+    }
+
+    List<MavenProjectSourceFiles> getMavenProjects() {
+        return this.mavenProjects;
+    }
+
+    @Override
+    public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+        this.metrics.fileStated();
+        DirectoryFrame parent = this.frames.peek();
+        String name = dir.getFileName() == null ? "" : dir.getFileName().toString();
+        if (this.srcDepth == 0) {
+            if (parent != null && "target".equals(name)) {
+                return FileVisitResult.SKIP_SUBTREE;
+            }
+            if (this.excludePaths.contains(dir)) {
+                return FileVisitResult.SKIP_SUBTREE;
+            }
+        }
+        if (parent != null && parent.srcDirectory == null && "src".equals(name)) {
+            parent.srcDirectory = dir;
+            parent.insideSrcDirectory = true;
+            this.srcDepth++;
+        }
+        this.frames.push(new DirectoryFrame(dir));
+        // The walk lists the entries of the directory when it is continued.
+        this.metrics.directoryListed();
+        return FileVisitResult.CONTINUE;
+    }
+
+    @Override
+    public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+        this.metrics.fileStated();
+        DirectoryFrame parent = this.frames.peek();
+        if (parent == null || !attrs.isRegularFile()) {
+            return FileVisitResult.CONTINUE;
+        }
+        String name = file.getFileName().toString();
+        if ("pom.xml".equals(name)) {
+            parent.pomXmlFound = true;
+        }
+        else if (this.srcDepth > 0 && name.endsWith(".java")) {
+            if (this.listener != null) {
+                this.listener.javaSourceFileFound(file, attrs);
+            }
+            for (DirectoryFrame frame : this.frames) {
+                if (frame.insideSrcDirectory) {
+                    frame.javaSourceFiles.add(file);
+                    frame.javaSourceFileAttributes.add(attrs);
+                }
+            }
+        }
+        return FileVisitResult.CONTINUE;
+    }
+
+    @Override
+    public FileVisitResult visitFileFailed(Path file, IOException exc) throws IOException {
+        if (exc instanceof FileSystemLoopException) {
+            return FileVisitResult.CONTINUE;
+        }
+        throw exc;
+    }
+
+    @Override
+    public FileVisitResult postVisitDirectory(Path dir, IOException exc) throws IOException {
+        if (exc != null) {
+            throw exc;
+        }
+        DirectoryFrame frame = this.frames.pop();
+        DirectoryFrame parent = this.frames.peek();
+        if (parent != null && parent.insideSrcDirectory && dir.equals(parent.srcDirectory)) {
+            parent.insideSrcDirectory = false;
+            this.srcDepth--;
+        }
+        List<MavenProjectSourceFiles> result = parent == null ? this.mavenProjects : parent.mavenProjects;
+        if (frame.isMavenProject()) {
+            result.add(new MavenProjectSourceFiles(frame.directory, frame.srcDirectory, frame.javaSourceFiles,
+                    frame.javaSourceFileAttributes));
+        }
+        else {
+            result.addAll(frame.mavenProjects);
+        }
+        return FileVisitResult.CONTINUE;
+    }
+
+    /**
+     * Told about java source files in src directories, while the directory tree is walked.
+     */
+    interface JavaSourceFileListener {
+        void javaSourceFileFound(Path file, BasicFileAttributes attrs) throws IOException;
+    }
+
+    private static class DirectoryFrame {
+        private final Path directory;
+        private boolean pomXmlFound = false;
+        private Path srcDirectory = null;
+        private boolean insideSrcDirectory = false;
+        private final List<Path> javaSourceFiles = new ArrayList<>();
+        private final List<BasicFileAttributes> javaSourceFileAttributes = new ArrayList<>();
+        /**
+         * Maven projects found in sub directories. Discarded if this directory is a Maven project itself.
+         */
+        private final List<MavenProjectSourceFiles> mavenProjects = new LinkedList<>();
+
+        DirectoryFrame(Path directory) {
+            this.directory = directory;
+        }
+
+        boolean isMavenProject() {
+            return this.pomXmlFound && this.srcDirectory != null && !this.javaSourceFiles.isEmpty();
+        }
+    }
+}
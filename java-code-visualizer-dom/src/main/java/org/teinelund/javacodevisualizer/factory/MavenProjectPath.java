@@ -2,8 +2,10 @@ package org.teinelund.javacodevisualizer.factory;
 
 import java.io.IOException;
 import java.nio.file.DirectoryStream;
+import java.nio.file.FileVisitOption;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.EnumSet;
 import java.util.LinkedList;
 import java.util.List;
 
@@ -37,6 +39,38 @@ public class MavenProjectPath {
         return paths;
     }
 
+    /**
+     * This method returns all maven projects (with java source code), given a list of Path objects, together with
+     * the java source files in their src directories. Each directory is listed once and each file or directory is
+     * stat'ed once, in contrast to getMavenProjectPaths followed by FetchMavenProject.getMavenProjects, which
+     * lists the src directories three times.
+     *
+     * @param javaProjectPaths is a list of Path objects.
+     * @param excludePaths is a list of Path objects containing Path to exclude.
+     * @return a list of MavenProjectSourceFiles objects.
+     * @throws IOException
+     */
+    List<MavenProjectSourceFiles> findMavenProjects(List<Path> javaProjectPaths, List<Path> excludePaths) throws IOException {
+        return findMavenProjects(javaProjectPaths, excludePaths, new BuildMetrics());
+    }
+
+    /**
+     * Same as findMavenProjects above, and records the DISCOVER wall time, the directories listed and the files
+     * stat'ed in metrics.
+     */
+    List<MavenProjectSourceFiles> findMavenProjects(List<Path> javaProjectPaths, List<Path> excludePaths,
+                                                    BuildMetrics metrics) throws IOException {
+        long start = System.nanoTime();
+        MavenProjectFileVisitor visitor = new MavenProjectFileVisitor(excludePaths, null, metrics);
+        for (Path javaProjectPath : javaProjectPaths) {
+            if (Files.exists(javaProjectPath)) {
+                Files.walkFileTree(javaProjectPath, EnumSet.of(FileVisitOption.FOLLOW_LINKS), Integer.MAX_VALUE, visitor);
+            }
+        }
+        metrics.addPhaseNanos(BuildMetrics.Phase.DISCOVER, System.nanoTime() - start);
+        return visitor.getMavenProjects();
+    }
+
     /**
      * This method returns a list of Path objects, which all are maven projects (with java source code),
      * given a Path object.
@@ -60,13 +94,14 @@ public class MavenProjectPath {
             paths.add(javaProjectPath);
         }
         else {
-            DirectoryStream<Path> stream = Files.newDirectoryStream(javaProjectPath);
-            for (Path fileOrDirectoryPath : stream) {
-                if (Files.isDirectory(fileOrDirectoryPath) && "target".equals(fileOrDirectoryPath.getFileName().toString())) {
-                    continue;
-                }
-                if (Files.isDirectory(fileOrDirectoryPath)) {
-                    paths.addAll(getMavenProjectPaths(fileOrDirectoryPath, excludePaths));
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(javaProjectPath)) {
+                for (Path fileOrDirectoryPath : stream) {
+                    if (Files.isDirectory(fileOrDirectoryPath) && "target".equals(fileOrDirectoryPath.getFileName().toString())) {
+                        continue;
+                    }
+                    if (Files.isDirectory(fileOrDirectoryPath)) {
+                        paths.addAll(getMavenProjectPaths(fileOrDirectoryPath, excludePaths));
+                    }
                 }
             }
         }
@@ -86,23 +121,23 @@ public class MavenProjectPath {
      * @throws IOException
      */
     boolean isMavenProject(Path path) throws IOException {
-        DirectoryStream<Path> stream = Files.newDirectoryStream(path);
         Path srcDirectory = null;
         boolean pomXmlFileFound = false;
-        for (Path fileOrDirectoryPath : stream) {
-            if (Files.isDirectory(fileOrDirectoryPath) && "target".equals(fileOrDirectoryPath.getFileName().toString())) {
-                continue;
-            }
-            if (Files.isDirectory(fileOrDirectoryPath) && "src".equals(fileOrDirectoryPath.getFileName().toString())) {
-                srcDirectory = fileOrDirectoryPath;
-                continue;
-            }
-            if (Files.isRegularFile(fileOrDirectoryPath) && "pom.xml".equals(fileOrDirectoryPath.getFileName().toString())) {
-                pomXmlFileFound = true;
-                continue;
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(path)) {
+            for (Path fileOrDirectoryPath : stream) {
+                if (Files.isDirectory(fileOrDirectoryPath) && "target".equals(fileOrDirectoryPath.getFileName().toString())) {
+                    continue;
+                }
+                if (Files.isDirectory(fileOrDirectoryPath) && "src".equals(fileOrDirectoryPath.getFileName().toString())) {
+                    srcDirectory = fileOrDirectoryPath;
+                    continue;
+                }
+                if (Files.isRegularFile(fileOrDirectoryPath) && "pom.xml".equals(fileOrDirectoryPath.getFileName().toString())) {
+                    pomXmlFileFound = true;
+                    continue;
+                }
             }
         }
-        stream.close();
         if (! (srcDirectory != null && pomXmlFileFound)) {
             return false;
         }
@@ -118,16 +153,17 @@ public class MavenProjectPath {
      * @return true if a java source code was found, otherwise false.
      */
     boolean containsJavaSourceCode(Path path) throws IOException {
-        DirectoryStream<Path> stream = Files.newDirectoryStream(path);
-        for (Path fileOrDirectoryPath : stream) {
-            String filename = fileOrDirectoryPath.getFileName().toString();
-            if (Files.isRegularFile(fileOrDirectoryPath) && filename.endsWith(".java")) {
-                return true;
-            }
-            if (Files.isDirectory(fileOrDirectoryPath)) {
-                if (containsJavaSourceCode(fileOrDirectoryPath)) {
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(path)) {
+            for (Path fileOrDirectoryPath : stream) {
+                String filename = fileOrDirectoryPath.getFileName().toString();
+                if (Files.isRegularFile(fileOrDirectoryPath) && filename.endsWith(".java")) {
                     return true;
                 }
+                if (Files.isDirectory(fileOrDirectoryPath)) {
+                    if (containsJavaSourceCode(fileOrDirectoryPath)) {
+                        return true;
+                    }
+                }
             }
         }
         return false;
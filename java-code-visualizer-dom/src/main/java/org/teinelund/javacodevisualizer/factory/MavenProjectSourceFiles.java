@@ -0,0 +1,52 @@
+package org.teinelund.javacodevisualizer.factory;
+
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A Maven project found by MavenProjectPath.findMavenProjects, together with its src directory and all java source
+ * files in that src directory (in directory traversal order). The file attributes read during the walk are kept, in
+ * the same order as the files, so the files do not have to be stat'ed again.
+ */
+class MavenProjectSourceFiles {
+
+    private final Path mavenProjectPath;
+    private final Path srcDirectory;
+    private final List<Path> javaSourceFiles;
+    private final List<BasicFileAttributes> javaSourceFileAttributes;
+
+    MavenProjectSourceFiles(Path mavenProjectPath, Path srcDirectory, List<Path> javaSourceFiles) {
+        this(mavenProjectPath, srcDirectory, javaSourceFiles, null);
+    }
+
+    MavenProjectSourceFiles(Path mavenProjectPath, Path srcDirectory, List<Path> javaSourceFiles,
+                            List<BasicFileAttributes> javaSourceFileAttributes) {
+        this.mavenProjectPath = mavenProjectPath;
+        this.srcDirectory = srcDirectory;
+        this.javaSourceFiles = Collections.unmodifiableList(javaSourceFiles);
+        this.javaSourceFileAttributes = javaSourceFileAttributes == null ? null :
+                Collections.unmodifiableList(javaSourceFileAttributes);
+    }
+
+    public Path getMavenProjectPath() {
+        return this.mavenProjectPath;
+    }
+
+    public Path getSrcDirectory() {
+        return this.srcDirectory;
+    }
+
+    public List<Path> getJavaSourceFiles() {
+        return this.javaSourceFiles;
+    }
+
+    /**
+     * @return the attributes of the java source files, in the same order as getJavaSourceFiles, or null if the
+     * attributes are not known.
+     */
+    public List<BasicFileAttributes> getJavaSourceFileAttributes() {
+        return this.javaSourceFileAttributes;
+    }
+}
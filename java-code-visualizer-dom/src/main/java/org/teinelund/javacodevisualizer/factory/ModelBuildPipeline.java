@@ -0,0 +1,311 @@
+package org.teinelund.javacodevisualizer.factory;
+
+import org.teinelund.javacodevisualizer.dom.DomainObjectModelFactory;
+import org.teinelund.javacodevisualizer.dom.JavaProjectObjectModel;
+import org.teinelund.javacodevisualizer.dom.JavaTypeDeclarationPath;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.file.FileVisitOption;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Builds a JavaProjectObjectModel in a pipeline of stages, connected by bounded queues, instead of one stage after
+ * the other:
+ *
+ * # discover: one thread walks the directory trees with a MavenProjectFileVisitor, and puts each java source file in
+ *   a src directory on the file queue as soon as it is visited.
+ * # parse and index: numberOfWorkers threads take files from the file queue, parse them, and add the types to a
+ *   model created by DomainObjectModelFactory.createConcurrentJavaProjectObjectModel, which many threads can add
+ *   to at the same time.
+ * # wire: when the last file is indexed, WireClassField wires the fields of all classes.
+ *
+ * The model is ordered on the discovery order of the files, so the model is the same regardless of the number of
+ * workers, and of the order in which they add the files: types with the same name are in discovery order, and of
+ * two types with the same package name and name, the one discovered first is found by qualified name. Once the build
+ * is done, the order is dropped, and types added later (by a JavaProjectObjectModelWatcher) are added last.
+ *
+ * A stage that puts to a full queue waits, so a fast stage can not run ahead of a slow one. The discover stage also
+ * takes a permit of a semaphore of queueCapacity permits for each file, and the parser thread returns it when the
+ * file is indexed, or has failed: at most queueCapacity files are discovered but not indexed. The lists of parsed
+ * types are never materialized; the discovery order of each file is kept until the build is done.
+ *
+ * Wiring waits for the complete index. An unqualified field type is resolved through the imports, the package, and
+ * the packages imported on demand of its compilation unit, so any file that is not indexed yet may declare the type
+ * a field resolves to.
+ *
+ * The stages record their work in a BuildMetrics. Since they overlap, DISCOVER is the wall time of the walk, PARSE the
+ * wall time from the start of the build until the last parser thread ends, and INDEX the time the parser threads
+ * spend adding types to the model, summed over the threads, and the time spent removing types from it.
+ *
+ * Whether a directory is a Maven project is not known until the walk leaves it, so files are parsed before it is
+ * known if they belong to one. Types of files that do not (a src directory without a pom.xml, or a project inside
+ * another project) are removed before wiring, and a file that does not parse only fails the build if it belongs to
+ * a Maven project.
+ */
+class ModelBuildPipeline {
+
+    static final int DEFAULT_QUEUE_CAPACITY = 256;
+
+    private final int numberOfWorkers;
+    private final int queueCapacity;
+    private final FetchMavenProject.JavaFileReader javaFileReader;
+
+    /**
+     * @param numberOfWorkers is the number of parser threads, and of threads that wire the fields. Must be one or
+     *                        more.
+     * @param queueCapacity is the capacity of the file queue, and the number of files that may be discovered but not
+     *                      indexed. Must be one or more.
+     * @param javaFileReader reads one java source file. Called from the parser threads.
+     */
+    ModelBuildPipeline(int numberOfWorkers, int queueCapacity, FetchMavenProject.JavaFileReader javaFileReader) {
+        if (numberOfWorkers < 1) {
+            throw new IllegalArgumentException("Number of workers must be one or more, was " + numberOfWorkers + ".");
+        }
+        if (queueCapacity < 1) {
+            throw new IllegalArgumentException("Queue capacity must be one or more, was " + queueCapacity + ".");
+        }
+        this.numberOfWorkers = numberOfWorkers;
+        this.queueCapacity = queueCapacity;
+        this.javaFileReader = javaFileReader;
+    }
+
+    /**
+     * Build a JavaProjectObjectModel of the Maven projects found in javaProjectPaths.
+     *
+     * @param javaProjectPaths is a list of Path objects containing Maven projects.
+     * @param excludePaths is a list of Path objects containing Path to exclude.
+     * @return a wired JavaProjectObjectModel.
+     * @throws IOException
+     */
+    JavaProjectObjectModel build(List<Path> javaProjectPaths, List<Path> excludePaths) throws IOException {
+        return build(javaProjectPaths, excludePaths, new BuildMetrics());
+    }
+
+    /**
+     * Same as build above, and records the work of the stages in metrics.
+     */
+    JavaProjectObjectModel build(List<Path> javaProjectPaths, List<Path> excludePaths, BuildMetrics metrics)
+            throws IOException {
+        long start = System.nanoTime();
+        AtomicLong lastParseEnd = new AtomicLong(start);
+        BlockingQueue<SourceFile> files = new ArrayBlockingQueue<>(this.queueCapacity);
+        Semaphore unindexedFiles = new Semaphore(this.queueCapacity);
+        Map<Path, Integer> sequenceNumbers = new ConcurrentHashMap<>();
+        Map<Integer, FailedFile> failures = new ConcurrentSkipListMap<>();
+        JavaProjectObjectModel jpom = DomainObjectModelFactory.instance().createConcurrentJavaProjectObjectModel(
+                Comparator.comparingInt(jtdp -> sequenceNumbers.getOrDefault(jtdp.getPathToTypeDeclaration(),
+                        Integer.MAX_VALUE)));
+        ExecutorService executorService = Executors.newFixedThreadPool(this.numberOfWorkers + 1);
+        try {
+            Future<List<MavenProjectSourceFiles>> discovery = executorService.submit(() -> discover(javaProjectPaths, excludePaths, files,
+                    unindexedFiles, sequenceNumbers, metrics));
+            List<Future<Void>> workers = new ArrayList<>();
+            for (int i = 0; i < this.numberOfWorkers; i++) {
+                workers.add(executorService.submit(() -> parse(files, unindexedFiles, jpom, failures, metrics,
+                        lastParseEnd)));
+            }
+            for (Future<Void> worker : workers) {
+                getResult(worker);
+            }
+            metrics.addPhaseNanos(BuildMetrics.Phase.PARSE, lastParseEnd.get() - start);
+            List<MavenProjectSourceFiles> mavenProjects = getResult(discovery);
+            Set<Path> javaSourceFiles = new HashSet<>();
+            List<Path> modulePaths = new ArrayList<>();
+            for (MavenProjectSourceFiles mavenProject : mavenProjects) {
+                javaSourceFiles.addAll(mavenProject.getJavaSourceFiles());
+                modulePaths.add(mavenProject.getMavenProjectPath());
+            }
+            jpom.getDependencyRollups().setModulePaths(modulePaths);
+            for (FailedFile failure : failures.values()) {
+                if (javaSourceFiles.contains(failure.path)) {
+                    if (failure.failure instanceof IOException) {
+                        throw (IOException) failure.failure;
+                    }
+                    throw (RuntimeException) failure.failure;
+                }
+            }
+            removeTypesOutsideMavenProjects(jpom, javaSourceFiles, metrics);
+            WireClassField.instance().wireClassFields(jpom, metrics, this.numberOfWorkers);
+            return jpom;
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while building the JavaProjectObjectModel.");
+        }
+        finally {
+            executorService.shutdownNow();
+            // Types added from now on are added last.
+            sequenceNumbers.clear();
+        }
+    }
+
+    /**
+     * The discover stage. Takes a permit of unindexedFiles for each file it puts on the file queue, and records its
+     * discovery order in sequenceNumbers. Puts one end marker per parser thread on the file queue when the walk is
+     * done, also if it fails.
+     *
+     * @return the Maven projects and their java source files.
+     */
+    List<MavenProjectSourceFiles> discover(List<Path> javaProjectPaths, List<Path> excludePaths, BlockingQueue<SourceFile> files,
+                       Semaphore unindexedFiles, Map<Path, Integer> sequenceNumbers, BuildMetrics metrics)
+            throws IOException, InterruptedException {
+        long start = System.nanoTime();
+        try {
+            int[] sequenceNumber = new int[1];
+            MavenProjectFileVisitor visitor = new MavenProjectFileVisitor(excludePaths, (file, attrs) -> {
+                try {
+                    unindexedFiles.acquire();
+                    sequenceNumbers.put(file, sequenceNumber[0]);
+                    files.put(new SourceFile(sequenceNumber[0]++, file, attrs.size()));
+                }
+                catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Interrupted while discovering java source files.");
+                }
+            }, metrics);
+            for (Path javaProjectPath : javaProjectPaths) {
+                if (Files.exists(javaProjectPath)) {
+                    Files.walkFileTree(javaProjectPath, EnumSet.of(FileVisitOption.FOLLOW_LINKS), Integer.MAX_VALUE, visitor);
+                }
+            }
+            return visitor.getMavenProjects();
+        }
+        finally {
+            metrics.addPhaseNanos(BuildMetrics.Phase.DISCOVER, System.nanoTime() - start);
+            for (int i = 0; i < this.numberOfWorkers; i++) {
+                files.put(SourceFile.END);
+            }
+        }
+    }
+
+    /**
+     * The parse and index stage, run by each parser thread. Adds the types of each file to jpom as soon as it is
+     * parsed, and returns the permit of unindexedFiles of the file. A file that can not be read or parsed is recorded
+     * in failures, by sequence number. Returns when it takes an end marker from the file queue.
+     *
+     * @param lastParseEnd is set to the time the last parser thread ended.
+     */
+    Void parse(BlockingQueue<SourceFile> files, Semaphore unindexedFiles, JavaProjectObjectModel jpom,
+               Map<Integer, FailedFile> failures, BuildMetrics metrics, AtomicLong lastParseEnd)
+            throws InterruptedException {
+        try {
+            while (true) {
+                SourceFile file = files.take();
+                if (file == SourceFile.END) {
+                    return null;
+                }
+                try {
+                    List<JavaTypeDeclarationPath> types;
+                    try {
+                        long start = System.nanoTime();
+                        types = this.javaFileReader.readJavaFile(file.path);
+                        metrics.fileParsed(System.nanoTime() - start);
+                        metrics.bytesRead(file.size);
+                    }
+                    catch (IOException | RuntimeException e) {
+                        failures.put(file.sequenceNumber, new FailedFile(file.path, e));
+                        continue;
+                    }
+                    long start = System.nanoTime();
+                    jpom.addJavaTypeDeclarationPaths(types);
+                    metrics.addPhaseNanos(BuildMetrics.Phase.INDEX, System.nanoTime() - start);
+                    metrics.typesIndexed(types.size());
+                }
+                finally {
+                    unindexedFiles.release();
+                }
+            }
+        }
+        finally {
+            lastParseEnd.accumulateAndGet(System.nanoTime(), Math::max);
+        }
+    }
+
+    <T> T getResult(Future<T> future) throws IOException, InterruptedException {
+        try {
+            return future.get();
+        }
+        catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    void removeTypesOutsideMavenProjects(JavaProjectObjectModel jpom, Set<Path> javaSourceFiles, BuildMetrics metrics) {
+        long start = System.nanoTime();
+        List<JavaTypeDeclarationPath> typesToRemove = new ArrayList<>();
+        for (String typeName : jpom.getAllTypeNames()) {
+            for (JavaTypeDeclarationPath jtdp : jpom.getAllTypesGivenName(typeName)) {
+                if (!javaSourceFiles.contains(jtdp.getPathToTypeDeclaration())) {
+                    typesToRemove.add(jtdp);
+                }
+            }
+        }
+        if (!typesToRemove.isEmpty()) {
+            jpom.removeJavaTypeDeclarationPaths(typesToRemove);
+            metrics.typesIndexed(-typesToRemove.size());
+        }
+        metrics.addPhaseNanos(BuildMetrics.Phase.INDEX, System.nanoTime() - start);
+    }
+
+    /**
+     * A discovered java source file, numbered in discovery order.
+     */
+    static class SourceFile {
+        static final SourceFile END = new SourceFile(-1, null, 0);
+
+        final int sequenceNumber;
+        final Path path;
+        /**
+         * The size of the file when it was discovered, counted as bytes read when it is parsed.
+         */
+        final long size;
+
+        SourceFile(int sequenceNumber, Path path, long size) {
+            this.sequenceNumber = sequenceNumber;
+            this.path = path;
+            this.size = size;
+        }
+    }
+
+    /**
+     * A java source file that could not be read or parsed, and the reason.
+     */
+    static class FailedFile {
+        final Path path;
+        final Exception failure;
+
+        FailedFile(Path path, Exception failure) {
+            this.path = path;
+            this.failure = failure;
+        }
+    }
+}
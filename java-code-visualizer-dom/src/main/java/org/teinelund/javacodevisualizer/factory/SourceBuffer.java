@@ -0,0 +1,170 @@
+package org.teinelund.javacodevisualizer.factory;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A growable char buffer that a java source file is read into before it is parsed. There is one SourceBuffer per
+ * thread, see instance, so the buffer is reused for all files the thread parses instead of being allocated per file.
+ *
+ * A file is read through a FileChannel. A small file is read into a reused direct byte buffer, in one read if the
+ * buffer is large enough, and a large file is memory-mapped. The bytes are then decoded from UTF-8 in one pass into
+ * the char buffer, which is sized so the decoder never has to stop for more room.
+ */
+class SourceBuffer {
+
+    static final int INITIAL_CAPACITY = 1 << 14;
+
+    /**
+     * Files of this size or larger are memory-mapped instead of read into the byte buffer.
+     */
+    static final int MAP_THRESHOLD = 1 << 20;
+
+    /**
+     * A buffer grown beyond this capacity, for an unusually large file, is dropped by release, so every thread does
+     * not keep its largest file in memory.
+     */
+    static final int MAX_RETAINED_CAPACITY = 1 << 20;
+
+    private static final ThreadLocal<SourceBuffer> SOURCE_BUFFERS = ThreadLocal.withInitial(SourceBuffer::new);
+
+    private char[] chars = new char[INITIAL_CAPACITY];
+    private int length = 0;
+    private ByteBuffer bytes = ByteBuffer.allocateDirect(INITIAL_CAPACITY);
+    private final CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder();
+
+    /**
+     * @return the SourceBuffer of the calling thread.
+     */
+    static SourceBuffer instance() {
+        return SOURCE_BUFFERS.get();
+    }
+
+    /**
+     * Read the reader to the end into the buffer, replacing its content. The reader is not closed.
+     */
+    SourceBuffer read(Reader reader) throws IOException {
+        this.length = 0;
+        int read;
+        while ((read = reader.read(this.chars, this.length, this.chars.length - this.length)) != -1) {
+            this.length += read;
+            if (this.length == this.chars.length) {
+                char[] chars = new char[2 * this.chars.length];
+                System.arraycopy(this.chars, 0, chars, 0, this.length);
+                this.chars = chars;
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Read a UTF-8 encoded file into the buffer, replacing its content. Like Files.newBufferedReader, malformed
+     * input is reported as a CharacterCodingException.
+     */
+    SourceBuffer read(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("The file " + path + " is too large, " + size + " bytes.");
+            }
+            if (size >= MAP_THRESHOLD) {
+                ByteBuffer mapped = map(channel, size);
+                if (mapped != null) {
+                    return decode(mapped, CodingErrorAction.REPORT);
+                }
+            }
+            return decode(readFully(channel, (int) size), CodingErrorAction.REPORT);
+        }
+    }
+
+    /**
+     * Decode UTF-8 encoded bytes into the buffer, replacing its content.
+     *
+     * @param action is what to do with malformed input, see CharsetDecoder.
+     */
+    SourceBuffer decode(ByteBuffer in, CodingErrorAction action) throws IOException {
+        // A UTF-8 byte sequence never decodes to more chars than it has bytes.
+        if (this.chars.length < in.remaining()) {
+            this.chars = new char[in.remaining()];
+        }
+        CharBuffer out = CharBuffer.wrap(this.chars);
+        this.decoder.reset().onMalformedInput(action).onUnmappableCharacter(action);
+        CoderResult result = this.decoder.decode(in, out, true);
+        if (result.isUnderflow()) {
+            result = this.decoder.flush(out);
+        }
+        if (!result.isUnderflow()) {
+            result.throwException();
+        }
+        this.length = out.position();
+        return this;
+    }
+
+    /**
+     * Read the channel to its end into the byte buffer, which is grown if the file is larger than expectedSize.
+     */
+    ByteBuffer readFully(FileChannel channel, int expectedSize) throws IOException {
+        // One byte more than expected, so the end of the file is found by the same read.
+        if (this.bytes.capacity() <= expectedSize) {
+            this.bytes = ByteBuffer.allocateDirect(Math.max(expectedSize + 1, 2 * this.bytes.capacity()));
+        }
+        // Called through Buffer, since ByteBuffer.clear and flip do not exist in Java 8.
+        ((Buffer) this.bytes).clear();
+        while (channel.read(this.bytes) != -1) {
+            if (!this.bytes.hasRemaining()) {
+                ByteBuffer bytes = ByteBuffer.allocateDirect(2 * this.bytes.capacity());
+                ((Buffer) this.bytes).flip();
+                bytes.put(this.bytes);
+                this.bytes = bytes;
+            }
+        }
+        ((Buffer) this.bytes).flip();
+        return this.bytes;
+    }
+
+    /**
+     * @return the file mapped into memory, or null if the file system of the channel cannot map files.
+     */
+    ByteBuffer map(FileChannel channel, long size) throws IOException {
+        try {
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        }
+        catch (UnsupportedOperationException e) {
+            return null;
+        }
+    }
+
+    /**
+     * @return the buffer. Only the first getLength chars are the content.
+     */
+    char[] getChars() {
+        return this.chars;
+    }
+
+    int getLength() {
+        return this.length;
+    }
+
+    /**
+     * Called when the content is no longer used.
+     */
+    void release() {
+        this.length = 0;
+        if (this.chars.length > MAX_RETAINED_CAPACITY) {
+            this.chars = new char[INITIAL_CAPACITY];
+        }
+        if (this.bytes.capacity() > MAX_RETAINED_CAPACITY) {
+            this.bytes = ByteBuffer.allocateDirect(INITIAL_CAPACITY);
+        }
+    }
+}
@@ -0,0 +1,239 @@
+package org.teinelund.javacodevisualizer.factory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.FileSystem;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The java source files a JavaProjectObjectModel snapshot was built from. For each file the manifest keeps its size,
+ * last modified time and a SHA-1 hash of its content, which tells if the file has changed since the snapshot was
+ * written. It also keeps the names of the types declared in the file, and the names of the types its fields refer
+ * to, so the types affected by a change can be found without parsing the unchanged files.
+ *
+ * The manifest is stored next to the snapshot, in a file with the same name and the suffix ".manifest". Big endian:
+ *
+ * header:  MAGIC, VERSION, entryCount (ints)
+ * entries: path (UTF), size (long), lastModified (long, milliseconds), hash length (int), hash bytes,
+ *          declared type name count (int), declared type names (UTF), referenced type name count (int),
+ *          referenced type names (UTF)
+ */
+class SourceFileManifest {
+
+    static final int MAGIC = 0x4A43564D;
+    static final int VERSION = 1;
+    static final String SUFFIX = ".manifest";
+
+    private final Map<Path, Entry> entries;
+
+    /**
+     * The paths of the files with fields referring to a type name, by type name. Kept up to date by put and remove.
+     */
+    private final Map<String, Set<Path>> referencingPaths;
+
+    SourceFileManifest() {
+        this.entries = new LinkedHashMap<>();
+        this.referencingPaths = new HashMap<>();
+    }
+
+    static Path manifestPath(Path storagePath) {
+        return storagePath.resolveSibling(storagePath.getFileName().toString() + SUFFIX);
+    }
+
+    static byte[] hash(byte[] content) {
+        try {
+            return MessageDigest.getInstance("SHA-1").digest(content);
+        }
+        catch (NoSuchAlgorithmException e) {
+            // Every Java platform is required to support SHA-1.
+            throw new IllegalStateException(e);
+        }
+    }
+
+    Entry get(Path path) {
+        return this.entries.get(path);
+    }
+
+    void put(Entry entry) {
+        removeReferences(this.entries.put(entry.getPath(), entry));
+        for (String typeName : entry.getReferencedTypeNames()) {
+            this.referencingPaths.computeIfAbsent(typeName, key -> new HashSet<>()).add(entry.getPath());
+        }
+    }
+
+    void remove(Path path) {
+        removeReferences(this.entries.remove(path));
+    }
+
+    void removeReferences(Entry entry) {
+        if (entry == null) {
+            return;
+        }
+        for (String typeName : entry.getReferencedTypeNames()) {
+            Set<Path> paths = this.referencingPaths.get(typeName);
+            paths.remove(entry.getPath());
+            if (paths.isEmpty()) {
+                this.referencingPaths.remove(typeName);
+            }
+        }
+    }
+
+    Collection<Entry> getEntries() {
+        return Collections.unmodifiableCollection(this.entries.values());
+    }
+
+    /**
+     * @return the paths of all files with fields referring to a type with the name typeName.
+     */
+    Set<Path> getReferencingPaths(String typeName) {
+        Set<Path> paths = this.referencingPaths.get(typeName);
+        return paths != null ? Collections.unmodifiableSet(paths) : Collections.emptySet();
+    }
+
+    /**
+     * Write the manifest next to the snapshot file storagePath. As for the snapshot, the manifest is first written
+     * to a temporary file.
+     *
+     * @param storagePath is a Path object pointing to the snapshot file.
+     * @throws IOException
+     */
+    void write(Path storagePath) throws IOException {
+        Path manifestPath = manifestPath(storagePath);
+        Path temporaryPath = manifestPath.resolveSibling(manifestPath.getFileName().toString() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporaryPath), 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(this.entries.size());
+            for (Entry entry : this.entries.values()) {
+                out.writeUTF(entry.getPath().toString());
+                out.writeLong(entry.getSize());
+                out.writeLong(entry.getLastModified());
+                out.writeInt(entry.hash.length);
+                out.write(entry.hash);
+                writeStrings(out, entry.getDeclaredTypeNames());
+                writeStrings(out, entry.getReferencedTypeNames());
+            }
+        }
+        JavaProjectObjectModelSnapshot.replace(temporaryPath, manifestPath);
+    }
+
+    void writeStrings(DataOutputStream out, Collection<String> strings) throws IOException {
+        out.writeInt(strings.size());
+        for (String string : strings) {
+            out.writeUTF(string);
+        }
+    }
+
+    /**
+     * Read the manifest of the snapshot file storagePath. Paths are created in the file system of storagePath.
+     *
+     * @param storagePath is a Path object pointing to the snapshot file.
+     * @return the manifest.
+     * @throws IOException if the manifest does not exist, or is not a manifest of this version.
+     */
+    static SourceFileManifest read(Path storagePath) throws IOException {
+        Path manifestPath = manifestPath(storagePath);
+        FileSystem fileSystem = storagePath.getFileSystem();
+        SourceFileManifest manifest = new SourceFileManifest();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(manifestPath), 1 << 16))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("File " + manifestPath + " is not a java code visualizer manifest.");
+            }
+            int version = in.readInt();
+            if (version != VERSION) {
+                throw new IOException("File " + manifestPath + " has manifest version " + version +
+                        ", expected version " + VERSION + ".");
+            }
+            int entryCount = in.readInt();
+            for (int i = 0; i < entryCount; i++) {
+                Path path = fileSystem.getPath(in.readUTF());
+                long size = in.readLong();
+                long lastModified = in.readLong();
+                byte[] hash = new byte[in.readInt()];
+                in.readFully(hash);
+                List<String> declaredTypeNames = readStrings(in);
+                Set<String> referencedTypeNames = new HashSet<>(readStrings(in));
+                manifest.put(new Entry(path, size, lastModified, hash, declaredTypeNames, referencedTypeNames));
+            }
+        }
+        return manifest;
+    }
+
+    static List<String> readStrings(DataInputStream in) throws IOException {
+        int count = in.readInt();
+        List<String> strings = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            strings.add(in.readUTF());
+        }
+        return strings;
+    }
+
+    /**
+     * One java source file in the manifest.
+     */
+    static class Entry {
+        private final Path path;
+        private final long size;
+        private final long lastModified;
+        private final byte[] hash;
+        private final List<String> declaredTypeNames;
+        private final Set<String> referencedTypeNames;
+
+        Entry(Path path, long size, long lastModified, byte[] hash, List<String> declaredTypeNames,
+              Set<String> referencedTypeNames) {
+            this.path = path;
+            this.size = size;
+            this.lastModified = lastModified;
+            this.hash = hash;
+            this.declaredTypeNames = Collections.unmodifiableList(declaredTypeNames);
+            this.referencedTypeNames = Collections.unmodifiableSet(referencedTypeNames);
+        }
+
+        /**
+         * @return a copy of this entry, with a new size and last modified time but the same content.
+         */
+        Entry touch(long size, long lastModified) {
+            return new Entry(this.path, size, lastModified, this.hash, this.declaredTypeNames, this.referencedTypeNames);
+        }
+
+        Path getPath() {
+            return this.path;
+        }
+
+        long getSize() {
+            return this.size;
+        }
+
+        long getLastModified() {
+            return this.lastModified;
+        }
+
+        boolean hasHash(byte[] hash) {
+            return Arrays.equals(this.hash, hash);
+        }
+
+        List<String> getDeclaredTypeNames() {
+            return this.declaredTypeNames;
+        }
+
+        Set<String> getReferencedTypeNames() {
+            return this.referencedTypeNames;
+        }
+    }
+}
@@ -0,0 +1,566 @@
+package org.teinelund.javacodevisualizer.factory;
+
+import org.teinelund.javacodevisualizer.dom.DependencyRollups;
+import org.teinelund.javacodevisualizer.dom.FieldSummary;
+import org.teinelund.javacodevisualizer.dom.ImportSummary;
+import org.teinelund.javacodevisualizer.dom.JavaProjectObjectModel;
+import org.teinelund.javacodevisualizer.dom.JavaType;
+import org.teinelund.javacodevisualizer.dom.JavaTypeDeclarationPath;
+import org.teinelund.javacodevisualizer.dom.TypeSummary;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystem;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+import static org.teinelund.javacodevisualizer.factory.JavaProjectObjectModelSnapshot.HEADER_SIZE;
+import static org.teinelund.javacodevisualizer.factory.JavaProjectObjectModelSnapshot.MAGIC;
+import static org.teinelund.javacodevisualizer.factory.JavaProjectObjectModelSnapshot.VERSION;
+
+/**
+ * Builds a JavaProjectObjectModel, that does not have to fit in memory, and stores it as a snapshot (see
+ * JavaProjectObjectModelSnapshot). The model is built in a work directory, in four phases:
+ *
+ * # parse: the java source files are parsed in a thread pool, and the parsed types of each file are spilled to
+ *   TypeSegments, in file order, as soon as the file is parsed. Their names, package names, paths and field names,
+ *   and the Maven project paths, are added to an ExternalSorter.
+ * # index: the sorted names are merged into the string table and the package index of the snapshot. The types are
+ *   read back from the segments, to write their type records, and their name and package name ids are added to a
+ *   second ExternalSorter, which is merged into the name index, with the types of each name sorted on package name.
+ *   With no fields, this is an index snapshot.
+ * # wire: the index snapshot is memory-mapped, and the types are read back from the segments once more. Their fields
+ *   are resolved by WireClassField against the mapped model, so the indices are looked up on disk.
+ * # store: the index snapshot, with the type records pointing to the resolved fields, and the field records, is
+ *   written to the storage path.
+ *
+ * Each section of a snapshot is written to a file of its own, and the sections are then concatenated after a header.
+ * The memory used is bounded by the memory ceiling, which is the size of the in-memory runs of an ExternalSorter,
+ * and by the parsed files that are not yet spilled. The mapped index model holds the types it creates weakly, so
+ * they, and the names interned by the SymbolTable for them, are released when they are no longer referred to.
+ * What does grow is the list of java source files, one Path per file, and the dependency rollups, one weight per
+ * pair of packages, and per pair of directories, with a field between them.
+ *
+ * The model is built from scratch, and is returned as a memory-mapped, read only model of the stored snapshot. No
+ * manifest is stored, so the next build with a manifest is a full build as well.
+ */
+class SpillingModelBuilder {
+
+    /**
+     * The number of files per parser thread that are submitted to be parsed, and are not yet spilled.
+     */
+    static final int FILES_PER_WORKER = 16;
+
+    static final int KIND_NAME = 0;
+    static final int KIND_PACKAGE = 1;
+    static final int KIND_STRING = 2;
+
+    private static final int NAME_ID = 0;
+    private static final int ACCESS_MODIFIER = 4;
+
+    private final Path spillDirectory;
+    private final long memoryCeiling;
+    private final int numberOfWorkers;
+    private final FetchMavenProject.JavaFileReader javaFileReader;
+    private final int segmentSize;
+
+    /**
+     * @param spillDirectory is the directory, in which the work directory is created.
+     * @param memoryCeiling is the estimated size in bytes of the sort buffers. Must be one or more.
+     * @param numberOfWorkers is the number of parser threads. Must be one or more.
+     * @param javaFileReader reads one java source file. Called from the parser threads.
+     */
+    SpillingModelBuilder(Path spillDirectory, long memoryCeiling, int numberOfWorkers,
+                         FetchMavenProject.JavaFileReader javaFileReader) {
+        this(spillDirectory, memoryCeiling, numberOfWorkers, javaFileReader, TypeSegments.DEFAULT_SEGMENT_SIZE);
+    }
+
+    SpillingModelBuilder(Path spillDirectory, long memoryCeiling, int numberOfWorkers,
+                         FetchMavenProject.JavaFileReader javaFileReader, int segmentSize) {
+        if (memoryCeiling < 1) {
+            throw new IllegalArgumentException("Memory ceiling must be one or more, was " + memoryCeiling + ".");
+        }
+        if (numberOfWorkers < 1) {
+            throw new IllegalArgumentException("Number of workers must be one or more, was " + numberOfWorkers + ".");
+        }
+        this.spillDirectory = spillDirectory;
+        this.memoryCeiling = memoryCeiling;
+        this.numberOfWorkers = numberOfWorkers;
+        this.javaFileReader = javaFileReader;
+        this.segmentSize = segmentSize;
+    }
+
+    /**
+     * Build the JavaProjectObjectModel of the java source files in mavenProjectSourceFiles, and store it in
+     * storagePath.
+     *
+     * @param mavenProjectSourceFiles is a list of Maven projects and their java source files.
+     * @param storagePath is a Path object pointing to the snapshot file.
+     * @return a read only JavaProjectObjectModel, mapped from storagePath.
+     * @throws IOException
+     */
+    JavaProjectObjectModel build(List<MavenProjectSourceFiles> mavenProjectSourceFiles, Path storagePath,
+                                 BuildMetrics metrics) throws IOException {
+        Files.createDirectories(this.spillDirectory);
+        Path workDirectory = Files.createTempDirectory(this.spillDirectory, "jcv-spill");
+        DependencyRollups dependencyRollups;
+        try {
+            TypeSegments segments = new TypeSegments(workDirectory, this.segmentSize);
+            ExternalSorter sorter = new ExternalSorter(workDirectory, "names", this.memoryCeiling);
+            long start = System.nanoTime();
+            parse(mavenProjectSourceFiles, segments, sorter, metrics);
+            metrics.addPhaseNanos(BuildMetrics.Phase.PARSE, System.nanoTime() - start);
+            metrics.typesIndexed(segments.getTypeCount());
+
+            start = System.nanoTime();
+            FileSystem fileSystem = storagePath.getFileSystem();
+            Sections sections = new Sections(workDirectory);
+            sorter.merge(sections::addRecord);
+            sections.finishStrings();
+            Path stringsSnapshot = workDirectory.resolve("strings.snapshot");
+            sections.write(stringsSnapshot, null);
+            MappedJavaProjectObjectModel strings = JavaProjectObjectModelSnapshot.instance().mapFile(stringsSnapshot);
+            sections.writeModulePaths(mavenProjectSourceFiles, strings);
+            ExternalSorter nameSorter = new ExternalSorter(workDirectory, "qualified-names", this.memoryCeiling);
+            try (DataOutputStream typeRecords = sections.open(sections.typeRecords)) {
+                segments.forEach(fileSystem, (typeIndex, jtdp) -> {
+                    int nameId = strings.findString(jtdp.getName());
+                    int packageNameId = strings.findString(jtdp.getPackageName());
+                    if (nameId != -1) {
+                        nameSorter.add(Sections.nameIndexKey(nameId, packageNameId), KIND_NAME, typeIndex);
+                    }
+                    typeRecords.writeInt(nameId);
+                    typeRecords.writeInt(packageNameId);
+                    typeRecords.writeInt(jtdp.getPathToTypeDeclaration() == null ? -1 :
+                            strings.findString(jtdp.getPathToTypeDeclaration().toString()));
+                    typeRecords.writeInt(jtdp.getJavaType() == null ? -1 : jtdp.getJavaType().ordinal());
+                    typeRecords.writeInt(jtdp.getAccessModifier() == null ? -1 : jtdp.getAccessModifier().ordinal());
+                    typeRecords.writeInt(0);
+                    typeRecords.writeInt(0);
+                });
+            }
+            nameSorter.merge(sections::addNameRecord);
+            sections.finishNames();
+            sections.typeCount = segments.getTypeCount();
+            Path indexSnapshot = workDirectory.resolve("index.snapshot");
+            sections.write(indexSnapshot, sections.typeRecords);
+            metrics.addPhaseNanos(BuildMetrics.Phase.INDEX, System.nanoTime() - start);
+
+            start = System.nanoTime();
+            Wiring wiring = new Wiring(indexSnapshot, sections);
+            try {
+                segments.forEach(fileSystem, wiring::wire);
+            }
+            finally {
+                wiring.close();
+            }
+            dependencyRollups = wiring.dependencyRollups;
+            metrics.fieldsWired(sections.fieldCount, wiring.unresolved);
+            metrics.addPhaseNanos(BuildMetrics.Phase.WIRE, System.nanoTime() - start);
+
+            start = System.nanoTime();
+            sections.write(storagePath, sections.finalTypeRecords);
+            Files.deleteIfExists(SourceFileManifest.manifestPath(storagePath));
+            metrics.addPhaseNanos(BuildMetrics.Phase.STORE, System.nanoTime() - start);
+        }
+        finally {
+            deleteDirectory(workDirectory);
+        }
+        MappedJavaProjectObjectModel jpom = JavaProjectObjectModelSnapshot.instance().mapFile(storagePath);
+        List<Path> modulePaths = new ArrayList<>();
+        for (MavenProjectSourceFiles sourceFiles : mavenProjectSourceFiles) {
+            modulePaths.add(sourceFiles.getMavenProjectPath());
+        }
+        dependencyRollups.setModulePaths(modulePaths);
+        jpom.setDependencyRollups(dependencyRollups);
+        return jpom;
+    }
+
+    /**
+     * Parse the java source files in one thread pool, and spill the parsed types of each file in file order. At most
+     * FILES_PER_WORKER files per parser thread are submitted and not yet spilled, so the parsed files held in memory
+     * are bounded, and the parser threads are kept busy while the types of the oldest file are spilled.
+     */
+    void parse(List<MavenProjectSourceFiles> mavenProjectSourceFiles, TypeSegments segments, ExternalSorter sorter,
+               BuildMetrics metrics) throws IOException {
+        int window = this.numberOfWorkers * FILES_PER_WORKER;
+        Deque<Future<List<JavaTypeDeclarationPath>>> inFlight = new ArrayDeque<>(window);
+        ExecutorService executorService = Executors.newFixedThreadPool(this.numberOfWorkers);
+        try {
+            for (MavenProjectSourceFiles sourceFiles : mavenProjectSourceFiles) {
+                sorter.add(sourceFiles.getMavenProjectPath().toString(), KIND_STRING, 0);
+                List<Path> javaSourceFiles = sourceFiles.getJavaSourceFiles();
+                List<BasicFileAttributes> attributes = sourceFiles.getJavaSourceFileAttributes();
+                for (int i = 0; i < javaSourceFiles.size(); i++) {
+                    Path javaSourceFile = javaSourceFiles.get(i);
+                    metrics.bytesRead(attributes != null ? attributes.get(i).size() : Files.size(javaSourceFile));
+                    if (inFlight.size() == window) {
+                        spill(FetchMavenProject.instance().getParseResult(inFlight.removeFirst()), segments, sorter);
+                    }
+                    inFlight.addLast(executorService.submit(() -> {
+                        long start = System.nanoTime();
+                        List<JavaTypeDeclarationPath> javaTypeDeclarationPaths =
+                                this.javaFileReader.readJavaFile(javaSourceFile);
+                        metrics.fileParsed(System.nanoTime() - start);
+                        return javaTypeDeclarationPaths;
+                    }));
+                }
+            }
+            while (!inFlight.isEmpty()) {
+                spill(FetchMavenProject.instance().getParseResult(inFlight.removeFirst()), segments, sorter);
+            }
+        }
+        finally {
+            executorService.shutdownNow();
+            segments.close();
+        }
+    }
+
+    void spill(List<JavaTypeDeclarationPath> parseResult, TypeSegments segments, ExternalSorter sorter)
+            throws IOException {
+        for (JavaTypeDeclarationPath jtdp : parseResult) {
+            int typeIndex = segments.append(jtdp);
+            // The name index is sorted on package name as well, once the string ids are known.
+            if (jtdp.getName() != null) {
+                sorter.add(jtdp.getName(), KIND_STRING, 0);
+            }
+            if (jtdp.getPackageName() != null) {
+                sorter.add(jtdp.getPackageName(), KIND_PACKAGE, typeIndex);
+            }
+            if (jtdp.getPathToTypeDeclaration() != null) {
+                sorter.add(jtdp.getPathToTypeDeclaration().toString(), KIND_STRING, 0);
+            }
+            // Only fields with a class or interface type can be resolved, and stored.
+            for (FieldSummary field : jtdp.getTypeSummary().getFields()) {
+                if (field.getType() != null) {
+                    sorter.add(field.getName(), KIND_STRING, 0);
+                }
+            }
+        }
+    }
+
+    void deleteDirectory(Path directory) throws IOException {
+        try (Stream<Path> stream = Files.walk(directory)) {
+            List<Path> paths = new ArrayList<>();
+            stream.sorted(Comparator.reverseOrder()).forEach(paths::add);
+            for (Path path : paths) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+
+    /**
+     * Resolves the fields of the types read back from the segments, against the memory-mapped index snapshot. Writes
+     * the resolved fields, and the type records with the range of their fields.
+     */
+    class Wiring {
+        private final Sections sections;
+        private final DataOutputStream fieldRecords;
+        private final DataOutputStream typeRecords;
+        private final MappedJavaProjectObjectModel index;
+        private List<ImportSummary> imports = null;
+        private ImportTable importTable = null;
+        long unresolved = 0;
+        /**
+         * The wired fields are counted here, so the mapped model does not have to count them from the field records.
+         */
+        final DependencyRollups dependencyRollups = new DependencyRollups();
+
+        Wiring(Path indexSnapshot, Sections sections) throws IOException {
+            this.sections = sections;
+            this.fieldRecords = sections.open(sections.fieldRecords);
+            this.typeRecords = sections.open(sections.finalTypeRecords);
+            this.index = JavaProjectObjectModelSnapshot.instance().mapFile(indexSnapshot);
+        }
+
+        void wire(int typeIndex, JavaTypeDeclarationPath jtdp) throws IOException {
+            int firstFieldIndex = this.sections.fieldCount;
+            TypeSummary typeSummary = jtdp.getTypeSummary();
+            if (jtdp.getJavaType() == JavaType.CLASS) {
+                // The types of a compilation unit are spilled one after the other, and share one list of imports.
+                if (typeSummary.getImports() != this.imports) {
+                    this.imports = typeSummary.getImports();
+                    this.importTable = new ImportTable(jtdp.getPackageName(), this.imports);
+                }
+                for (FieldSummary field : typeSummary.getFields()) {
+                    if (field.getType() == null) {
+                        continue;
+                    }
+                    JavaTypeDeclarationPath fieldClass = WireClassField.instance().resolveFieldType(field.getType(),
+                            this.importTable, this.index);
+                    if (fieldClass != null) {
+                        this.fieldRecords.writeInt(this.index.findString(field.getName()));
+                        this.fieldRecords.writeInt(((MappedJavaTypeDeclarationPath) fieldClass).getTypeIndex());
+                        this.sections.fieldCount++;
+                        this.dependencyRollups.add(jtdp, fieldClass);
+                    }
+                    else {
+                        this.unresolved++;
+                    }
+                }
+            }
+            for (int column = NAME_ID; column <= ACCESS_MODIFIER; column++) {
+                this.typeRecords.writeInt(this.index.typeRecord(typeIndex, column));
+            }
+            this.typeRecords.writeInt(firstFieldIndex);
+            this.typeRecords.writeInt(this.sections.fieldCount - firstFieldIndex);
+        }
+
+        void close() throws IOException {
+            try {
+                this.fieldRecords.close();
+            }
+            finally {
+                this.typeRecords.close();
+            }
+        }
+    }
+
+    /**
+     * The sections of a snapshot, each in a file of its own, and their sizes.
+     */
+    static class Sections {
+        final Path stringOffsets;
+        final Path stringData;
+        final Path typeRecords;
+        final Path finalTypeRecords;
+        final Path fieldRecords;
+        final Path nameEntries;
+        final Path nameTypes;
+        final Path packageEntries;
+        final Path packageTypes;
+        final Path modulePaths;
+        int stringCount = 0;
+        int typeCount = 0;
+        int fieldCount = 0;
+        int nameIndexCount = 0;
+        int packageIndexCount = 0;
+        int modulePathCount = 0;
+
+        private DataOutputStream stringOffsetsOut;
+        private DataOutputStream stringDataOut;
+        private DataOutputStream nameEntriesOut;
+        private DataOutputStream nameTypesOut;
+        private DataOutputStream packageEntriesOut;
+        private DataOutputStream packageTypesOut;
+        private String lastKey = null;
+        private int stringDataSize = 0;
+        private int groupKind = -1;
+        private int groupKeyId = -1;
+        private int groupFirst = 0;
+        private int groupCount = 0;
+        private int nameTypeCount = 0;
+        private int packageTypeCount = 0;
+
+        Sections(Path directory) throws IOException {
+            this.stringOffsets = directory.resolve("string-offsets.section");
+            this.stringData = directory.resolve("string-data.section");
+            this.typeRecords = directory.resolve("type-records.section");
+            this.finalTypeRecords = directory.resolve("final-type-records.section");
+            this.fieldRecords = directory.resolve("field-records.section");
+            this.nameEntries = directory.resolve("name-entries.section");
+            this.nameTypes = directory.resolve("name-types.section");
+            this.packageEntries = directory.resolve("package-entries.section");
+            this.packageTypes = directory.resolve("package-types.section");
+            this.modulePaths = directory.resolve("module-paths.section");
+            this.stringOffsetsOut = open(this.stringOffsets);
+            this.stringDataOut = open(this.stringData);
+            this.nameEntriesOut = open(this.nameEntries);
+            this.nameTypesOut = open(this.nameTypes);
+            this.packageEntriesOut = open(this.packageEntries);
+            this.packageTypesOut = open(this.packageTypes);
+            this.stringOffsetsOut.writeInt(0);
+        }
+
+        DataOutputStream open(Path section) throws IOException {
+            return new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(section), 1 << 16));
+        }
+
+        /**
+         * The key of a type in the ExternalSorter of the name index: its nameId, then its packageNameId, as chars, so
+         * keys compare like the ids. A packageNameId of -1 (null) is stored as 0, and sorts first.
+         */
+        static String nameIndexKey(int nameId, int packageNameId) {
+            int packageKey = packageNameId + 1;
+            return new String(new char[] { (char) (nameId >>> 16), (char) nameId, (char) (packageKey >>> 16),
+                    (char) packageKey });
+        }
+
+        /**
+         * Add a record from the ExternalSorter of the strings. The records arrive sorted on key, so each new key is the
+         * next string of the string table, and the types of a package name arrive together, in type order.
+         */
+        void addRecord(String key, int kind, int typeIndex) throws IOException {
+            if (!key.equals(this.lastKey)) {
+                finishGroup();
+                byte[] bytes = key.getBytes(StandardCharsets.UTF_8);
+                this.stringDataOut.write(bytes);
+                this.stringDataSize += bytes.length;
+                this.stringOffsetsOut.writeInt(this.stringDataSize);
+                this.stringCount++;
+                this.lastKey = key;
+            }
+            if (kind == KIND_STRING) {
+                return;
+            }
+            if (kind != this.groupKind) {
+                finishGroup();
+                startGroup(kind, this.stringCount - 1);
+            }
+            addToGroup(typeIndex);
+        }
+
+        /**
+         * Add a record from the ExternalSorter of the name index, see nameIndexKey. The types of a name arrive
+         * together, sorted on package name id, then in type order.
+         */
+        void addNameRecord(String key, int kind, int typeIndex) throws IOException {
+            int nameId = key.charAt(0) << 16 | key.charAt(1);
+            if (this.groupKind != KIND_NAME || this.groupKeyId != nameId) {
+                finishGroup();
+                startGroup(KIND_NAME, nameId);
+            }
+            addToGroup(typeIndex);
+        }
+
+        void startGroup(int kind, int keyId) {
+            this.groupKind = kind;
+            this.groupKeyId = keyId;
+            this.groupFirst = kind == KIND_NAME ? this.nameTypeCount : this.packageTypeCount;
+            this.groupCount = 0;
+        }
+
+        void addToGroup(int typeIndex) throws IOException {
+            if (this.groupKind == KIND_NAME) {
+                this.nameTypesOut.writeInt(typeIndex);
+                this.nameTypeCount++;
+            }
+            else {
+                this.packageTypesOut.writeInt(typeIndex);
+                this.packageTypeCount++;
+            }
+            this.groupCount++;
+        }
+
+        void finishGroup() throws IOException {
+            if (this.groupKind == KIND_NAME) {
+                writeEntry(this.nameEntriesOut);
+                this.nameIndexCount++;
+            }
+            else if (this.groupKind == KIND_PACKAGE) {
+                writeEntry(this.packageEntriesOut);
+                this.packageIndexCount++;
+            }
+            this.groupKind = -1;
+        }
+
+        void writeEntry(DataOutputStream out) throws IOException {
+            out.writeInt(this.groupKeyId);
+            out.writeInt(this.groupFirst);
+            out.writeInt(this.groupCount);
+        }
+
+        /**
+         * Called after the last record. Pads the string data to a multiple of four bytes.
+         */
+        void finishStrings() throws IOException {
+            finishGroup();
+            for (int i = this.stringDataSize; i % 4 != 0; i++) {
+                this.stringDataOut.writeByte(0);
+            }
+            this.stringOffsetsOut.close();
+            this.stringDataOut.close();
+            this.packageEntriesOut.close();
+            this.packageTypesOut.close();
+        }
+
+        /**
+         * Called after the last record of the name index.
+         */
+        void finishNames() throws IOException {
+            finishGroup();
+            this.nameEntriesOut.close();
+            this.nameTypesOut.close();
+        }
+
+        /**
+         * Write the string ids of the Maven project paths, in string table order.
+         */
+        void writeModulePaths(List<MavenProjectSourceFiles> mavenProjectSourceFiles,
+                              MappedJavaProjectObjectModel strings) throws IOException {
+            TreeSet<Integer> ids = new TreeSet<>();
+            for (MavenProjectSourceFiles sourceFiles : mavenProjectSourceFiles) {
+                ids.add(strings.findString(sourceFiles.getMavenProjectPath().toString()));
+            }
+            try (DataOutputStream out = open(this.modulePaths)) {
+                for (int id : ids) {
+                    out.writeInt(id);
+                }
+            }
+            this.modulePathCount = ids.size();
+        }
+
+        /**
+         * Write a snapshot of the sections. Like JavaProjectObjectModelSnapshot.write, the snapshot is written to a
+         * temporary file, which then replaces target.
+         *
+         * @param typeRecords is the section of type records to write, or null to write the string table only.
+         */
+        void write(Path target, Path typeRecords) throws IOException {
+            boolean withTypes = typeRecords != null;
+            Path[] sections = withTypes ?
+                    new Path[] { this.stringOffsets, this.stringData, typeRecords, this.fieldRecords,
+                            this.nameEntries, this.nameTypes, this.packageEntries, this.packageTypes,
+                            this.modulePaths } :
+                    new Path[] { this.stringOffsets, this.stringData };
+            long[] offsets = new long[10];
+            offsets[0] = HEADER_SIZE;
+            for (int i = 0; i < 9; i++) {
+                offsets[i + 1] = offsets[i] + (i < sections.length && Files.exists(sections[i]) ?
+                        Files.size(sections[i]) : 0);
+            }
+            if (offsets[9] > Integer.MAX_VALUE) {
+                throw new IOException("The snapshot " + target + " is too large, " + offsets[9] + " bytes.");
+            }
+            Path temporaryPath = target.resolveSibling(target.getFileName().toString() + ".tmp");
+            try (OutputStream stream = new BufferedOutputStream(Files.newOutputStream(temporaryPath), 1 << 16)) {
+                DataOutputStream out = new DataOutputStream(stream);
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeInt(this.stringCount);
+                out.writeInt(withTypes ? this.typeCount : 0);
+                out.writeInt(withTypes ? this.fieldCount : 0);
+                out.writeInt(withTypes ? this.nameIndexCount : 0);
+                out.writeInt(withTypes ? this.packageIndexCount : 0);
+                out.writeInt((int) offsets[1]);
+                out.writeInt((int) offsets[2]);
+                out.writeInt((int) offsets[3]);
+                out.writeInt((int) offsets[4]);
+                out.writeInt((int) offsets[6]);
+                out.writeInt(withTypes ? this.modulePathCount : 0);
+                out.writeInt((int) offsets[8]);
+                out.flush();
+                for (Path section : sections) {
+                    if (Files.exists(section)) {
+                        Files.copy(section, stream);
+                    }
+                }
+            }
+            JavaProjectObjectModelSnapshot.replace(temporaryPath, target);
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package org.teinelund.javacodevisualizer.factory;
+
+import org.teinelund.javacodevisualizer.dom.AccessModifier;
+import org.teinelund.javacodevisualizer.dom.FieldSummary;
+import org.teinelund.javacodevisualizer.dom.ImportSummary;
+import org.teinelund.javacodevisualizer.dom.JavaType;
+import org.teinelund.javacodevisualizer.dom.JavaTypeDeclarationPath;
+import org.teinelund.javacodevisualizer.dom.JavaTypeDeclarationPathBuilder;
+import org.teinelund.javacodevisualizer.dom.TypeReference;
+import org.teinelund.javacodevisualizer.dom.TypeSummary;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.FileSystem;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Parsed types spilled to disk, so they do not have to be kept in memory until they are wired. The types are appended
+ * to segment files in a directory, and are numbered in the order they are appended. A new segment file is started when
+ * the current one reaches the segment size.
+ *
+ * A type is written with what WireClassField needs to wire it: its name, package, path, java type, access modifier,
+ * the imports of its compilation unit and its fields. The modifiers, supertypes and nested types of its TypeSummary
+ * are not written. The types of a compilation unit share one list of imports, which is written once per segment.
+ */
+class TypeSegments {
+
+    static final int DEFAULT_SEGMENT_SIZE = 64 << 20;
+
+    private final Path directory;
+    private final int segmentSize;
+    private final List<Path> segments = new ArrayList<>();
+    private final List<Integer> segmentTypeCounts = new ArrayList<>();
+    private DataOutputStream out = null;
+    private List<ImportSummary> lastImports = null;
+    private int typeCount = 0;
+
+    /**
+     * @param directory is the directory to write the segment files in.
+     * @param segmentSize is the size in bytes, at which a new segment file is started. Must be one or more.
+     */
+    TypeSegments(Path directory, int segmentSize) {
+        if (segmentSize < 1) {
+            throw new IllegalArgumentException("Segment size must be one or more, was " + segmentSize + ".");
+        }
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+    }
+
+    /**
+     * Append a parsed type, which must have a TypeSummary.
+     *
+     * @return the number of the type.
+     */
+    int append(JavaTypeDeclarationPath jtdp) throws IOException {
+        if (this.out == null) {
+            Path segment = this.directory.resolve("types-" + this.segments.size() + ".segment");
+            this.out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(segment), 1 << 16));
+            this.segments.add(segment);
+            this.segmentTypeCounts.add(0);
+            this.lastImports = null;
+        }
+        TypeSummary typeSummary = jtdp.getTypeSummary();
+        writeString(jtdp.getName());
+        writeString(jtdp.getPackageName());
+        writeString(jtdp.getPathToTypeDeclaration() == null ? null : jtdp.getPathToTypeDeclaration().toString());
+        this.out.writeByte(jtdp.getJavaType() == null ? -1 : jtdp.getJavaType().ordinal());
+        this.out.writeByte(jtdp.getAccessModifier() == null ? -1 : jtdp.getAccessModifier().ordinal());
+        boolean sameImports = typeSummary.getImports() == this.lastImports;
+        this.out.writeBoolean(sameImports);
+        if (!sameImports) {
+            this.out.writeInt(typeSummary.getImports().size());
+            for (ImportSummary importSummary : typeSummary.getImports()) {
+                writeString(importSummary.getName());
+                this.out.writeBoolean(importSummary.isStatic());
+                this.out.writeBoolean(importSummary.isAsterisk());
+            }
+            this.lastImports = typeSummary.getImports();
+        }
+        this.out.writeInt(typeSummary.getFields().size());
+        for (FieldSummary field : typeSummary.getFields()) {
+            writeString(field.getName());
+            writeString(field.getType() == null ? null : field.getType().getName());
+            writeString(field.getType() == null ? null : field.getType().getScope());
+        }
+        int last = this.segmentTypeCounts.size() - 1;
+        this.segmentTypeCounts.set(last, this.segmentTypeCounts.get(last) + 1);
+        if (this.out.size() >= this.segmentSize) {
+            closeSegment();
+        }
+        return this.typeCount++;
+    }
+
+    void writeString(String string) throws IOException {
+        this.out.writeBoolean(string != null);
+        if (string != null) {
+            this.out.writeUTF(string);
+        }
+    }
+
+    /**
+     * Finish writing. Must be called before the types are read.
+     */
+    void close() throws IOException {
+        if (this.out != null) {
+            closeSegment();
+        }
+    }
+
+    void closeSegment() throws IOException {
+        this.out.close();
+        this.out = null;
+    }
+
+    int getTypeCount() {
+        return this.typeCount;
+    }
+
+    int getSegmentCount() {
+        return this.segments.size();
+    }
+
+    /**
+     * Read all types, in the order they were appended. Each type is read into a new JavaTypeDeclarationPath with a
+     * TypeSummary, which is passed to consumer with its number.
+     *
+     * @param fileSystem is the file system of the paths of the types.
+     */
+    void forEach(FileSystem fileSystem, TypeConsumer consumer) throws IOException {
+        JavaType[] javaTypes = JavaType.values();
+        AccessModifier[] accessModifiers = AccessModifier.values();
+        int typeIndex = 0;
+        for (int i = 0; i < this.segments.size(); i++) {
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(
+                    this.segments.get(i)), 1 << 16))) {
+                List<ImportSummary> imports = null;
+                for (int j = 0; j < this.segmentTypeCounts.get(i); j++) {
+                    String name = readString(in);
+                    String packageName = readString(in);
+                    String path = readString(in);
+                    int javaType = in.readByte();
+                    int accessModifier = in.readByte();
+                    if (!in.readBoolean()) {
+                        int importCount = in.readInt();
+                        List<ImportSummary> importList = new ArrayList<>(importCount);
+                        for (int k = 0; k < importCount; k++) {
+                            importList.add(new ImportSummary(readString(in), in.readBoolean(), in.readBoolean()));
+                        }
+                        imports = Collections.unmodifiableList(importList);
+                    }
+                    TypeSummary.TypeSummaryBuilder builder = TypeSummary.builder().setName(name).
+                            setPackageName(packageName).setJavaType(javaType == -1 ? null : javaTypes[javaType]).
+                            setImports(imports);
+                    int fieldCount = in.readInt();
+                    for (int k = 0; k < fieldCount; k++) {
+                        String fieldName = readString(in);
+                        String typeName = readString(in);
+                        String scope = readString(in);
+                        builder.addField(new FieldSummary(fieldName, typeName == null ? null :
+                                new TypeReference(typeName, scope)));
+                    }
+                    TypeSummary typeSummary = builder.build();
+                    consumer.accept(typeIndex++, JavaTypeDeclarationPathBuilder.builder().setName(name).
+                            setPackageName(packageName).setPathToTypeDeclaration(path == null ? null :
+                                    fileSystem.getPath(path)).
+                            setJavaType(typeSummary.getJavaType()).
+                            setAccessModifier(accessModifier == -1 ? null : accessModifiers[accessModifier]).
+                            setTypeSummary(typeSummary).build());
+                }
+            }
+        }
+    }
+
+    String readString(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    /**
+     * Delete the segment files.
+     */
+    void delete() throws IOException {
+        close();
+        for (Path segment : this.segments) {
+            Files.deleteIfExists(segment);
+        }
+    }
+
+    interface TypeConsumer {
+        void accept(int typeIndex, JavaTypeDeclarationPath jtdp) throws IOException;
+    }
+}
@@ -1,23 +1,43 @@
 package org.teinelund.javacodevisualizer.factory;
 
-import com.github.javaparser.ast.body.FieldDeclaration;
-import com.github.javaparser.ast.body.TypeDeclaration;
-import com.github.javaparser.ast.body.VariableDeclarator;
-import com.github.javaparser.ast.expr.SimpleName;
-import com.github.javaparser.ast.type.ClassOrInterfaceType;
-import com.github.javaparser.ast.type.Type;
+import org.teinelund.javacodevisualizer.dom.DependencyRollups;
+import org.teinelund.javacodevisualizer.dom.FieldSummary;
+import org.teinelund.javacodevisualizer.dom.ImportSummary;
 import org.teinelund.javacodevisualizer.dom.JavaProjectObjectModel;
 import org.teinelund.javacodevisualizer.dom.JavaType;
 import org.teinelund.javacodevisualizer.dom.JavaTypeDeclarationPath;
 import org.teinelund.javacodevisualizer.dom.MavenProject;
+import org.teinelund.javacodevisualizer.dom.ReverseFieldIndex;
+import org.teinelund.javacodevisualizer.dom.TypeReference;
+import org.teinelund.javacodevisualizer.dom.TypeSummary;
 
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 class WireClassField {
 
+    /**
+     * Wiring a class is cheap, so each worker gets at least this many classes.
+     */
+    static final int MIN_CLASSES_PER_WORKER = 64;
+
     private static WireClassField wireClassField = null;
 
+    /**
+     * Number of threads used to wire the fields of all classes. One (the default) wires every class on the calling
+     * thread.
+     */
+    private int numberOfWorkers = 1;
+
     private WireClassField() {}
 
     public static WireClassField instance() {
@@ -38,102 +58,270 @@ class WireClassField {
     }
 
 
+    /**
+     * Add the types of all Maven projects to jpom, and set the Maven projects as the modules of its dependency
+     * rollups.
+     */
     void addJavaTypeDeclarationPaths(JavaProjectObjectModel jpom, List<MavenProject> mavenProjects) {
+        List<Path> modulePaths = new ArrayList<>();
         for (MavenProject mavenProject : mavenProjects) {
             jpom.addJavaTypeDeclarationPaths(mavenProject.getAllTypes());
+            modulePaths.add(mavenProject.getMavenProjectPath());
+        }
+        jpom.getDependencyRollups().setModulePaths(modulePaths);
+    }
+
+    /**
+     * Set the number of threads used to wire the fields of all classes in wireClassFields. The wired fields are the
+     * same, in the same order, regardless of the number of workers.
+     *
+     * @param numberOfWorkers is the number of wiring threads. Must be one or more.
+     */
+    public void setNumberOfWorkers(int numberOfWorkers) {
+        if (numberOfWorkers < 1) {
+            throw new IllegalArgumentException("Number of workers must be one or more, was " + numberOfWorkers + ".");
         }
+        this.numberOfWorkers = numberOfWorkers;
+    }
+
+    public int getNumberOfWorkers() {
+        return this.numberOfWorkers;
     }
 
+    /**
+     * Wire the fields of all classes in jpom. The classes are split into one contiguous range per worker. A worker
+     * only reads the model: it resolves the field types of its classes into a WiredFields buffer of its own, with
+     * import tables of its own. The buffers are then added to the classes on the calling thread, in the order of
+     * the ranges, so the fields of each class are added in the same order as by a single worker.
+     */
     void wireClassFields(JavaProjectObjectModel jpom) {
+        wireClassFields(jpom, new BuildMetrics());
+    }
+
+    /**
+     * Same as wireClassFields above, and records the WIRE wall time and the resolved and unresolved fields in
+     * metrics.
+     */
+    void wireClassFields(JavaProjectObjectModel jpom, BuildMetrics metrics) {
+        wireClassFields(jpom, metrics, this.numberOfWorkers);
+    }
+
+    /**
+     * Same as wireClassFields above, with numberOfWorkers wiring threads instead of the number set on this instance.
+     */
+    void wireClassFields(JavaProjectObjectModel jpom, BuildMetrics metrics, int numberOfWorkers) {
+        long startNanos = System.nanoTime();
+        List<JavaTypeDeclarationPath> classes = new ArrayList<>();
         // Iterate through all classes (and interfaces and enums)
         for (String typeName : jpom.getAllTypeNames()) {
             // Get a list of classes (and interfaces and enums) which have the same name (but different packages).
             // In most cases, the list contains only one class (or interface or enum).
-            List<JavaTypeDeclarationPath> list = jpom.getAllTypesGivenName(typeName);
-            // Iterate through the list of classes (or interfaces and enums) with the name 'typeName'.
-            for (JavaTypeDeclarationPath thisClass : list) {
-                wireClassFields(thisClass, jpom);
+            classes.addAll(jpom.getAllTypesGivenName(typeName));
+        }
+        int workers = Math.min(numberOfWorkers, classes.size() / MIN_CLASSES_PER_WORKER);
+        if (workers <= 1) {
+            wireClassFields(classes, jpom).apply(jpom, metrics);
+            metrics.addPhaseNanos(BuildMetrics.Phase.WIRE, System.nanoTime() - startNanos);
+            return;
+        }
+        int rangeSize = (classes.size() + workers - 1) / workers;
+        ExecutorService executorService = Executors.newFixedThreadPool(workers);
+        try {
+            List<Future<WiredFields>> futures = new ArrayList<>(workers);
+            for (int start = 0; start < classes.size(); start += rangeSize) {
+                List<JavaTypeDeclarationPath> range = classes.subList(start, Math.min(start + rangeSize, classes.size()));
+                futures.add(executorService.submit(() -> wireClassFields(range, jpom)));
+            }
+            List<WiredFields> wiredFieldsList = new ArrayList<>(futures.size());
+            for (Future<WiredFields> future : futures) {
+                wiredFieldsList.add(getWiredFields(future));
+            }
+            for (WiredFields wiredFields : wiredFieldsList) {
+                wiredFields.apply(jpom, metrics);
             }
         }
+        finally {
+            executorService.shutdownNow();
+        }
+        metrics.addPhaseNanos(BuildMetrics.Phase.WIRE, System.nanoTime() - startNanos);
+    }
+
+    /**
+     * Resolve the fields of a range of classes. The import tables are shared by all types of a compilation unit in
+     * the range.
+     */
+    WiredFields wireClassFields(List<JavaTypeDeclarationPath> classes, JavaProjectObjectModel jpom) {
+        Map<List<ImportSummary>, ImportTable> importTables = new IdentityHashMap<>();
+        WiredFields wiredFields = new WiredFields();
+        for (JavaTypeDeclarationPath thisClass : classes) {
+            wireClassFields(thisClass.getTypeSummary(), thisClass, jpom, importTables, wiredFields);
+        }
+        return wiredFields;
+    }
+
+    WiredFields getWiredFields(Future<WiredFields> future) {
+        try {
+            return future.get();
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while wiring class fields.", e);
+        }
+        catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException(cause);
+        }
     }
 
     void wireClassFields(JavaTypeDeclarationPath thisClass, JavaProjectObjectModel jpom) {
+        wireClassFields(thisClass, jpom, new BuildMetrics());
+    }
+
+    void wireClassFields(JavaTypeDeclarationPath thisClass, JavaProjectObjectModel jpom, BuildMetrics metrics) {
+        // Get the TypeSummary, which is extracted from the parsed Java Parser object.
+        wireClassFields(thisClass.getTypeSummary(), thisClass, jpom, metrics);
+    }
+
+    /**
+     * Wire the fields of a class, given its TypeSummary. Used when thisClass itself has no TypeSummary, for instance
+     * a class loaded from a snapshot, which has to be wired again.
+     *
+     * @param typeSummary is the TypeSummary of thisClass.
+     * @param thisClass is the class to wire.
+     * @param jpom is the JavaProjectObjectModel to look up the types of the fields in.
+     */
+    void wireClassFields(TypeSummary typeSummary, JavaTypeDeclarationPath thisClass, JavaProjectObjectModel jpom) {
+        wireClassFields(typeSummary, thisClass, jpom, new BuildMetrics());
+    }
+
+    void wireClassFields(TypeSummary typeSummary, JavaTypeDeclarationPath thisClass, JavaProjectObjectModel jpom,
+                         BuildMetrics metrics) {
+        WiredFields wiredFields = new WiredFields();
+        wireClassFields(typeSummary, thisClass, jpom, new IdentityHashMap<>(), wiredFields);
+        wiredFields.apply(jpom, metrics);
+    }
+
+    void wireClassFields(TypeSummary typeSummary, JavaTypeDeclarationPath thisClass, JavaProjectObjectModel jpom,
+                         Map<List<ImportSummary>, ImportTable> importTables, WiredFields wiredFields) {
         if (thisClass.getJavaType() == JavaType.CLASS) {
-            // Get the TypeDeclaration, which is the parsed Java Parser object.
-            TypeDeclaration<?> typeDeclaration = thisClass.getTypeDeclaration();
+            ImportTable importTable = getImportTable(typeSummary, thisClass, importTables);
             // Get all declared fields in the class.
-            List<FieldDeclaration> fields = typeDeclaration.getFields();
-            for (FieldDeclaration fieldDeclaration : fields) {
-                wireClassField(fieldDeclaration, thisClass, jpom);
+            for (FieldSummary field : typeSummary.getFields()) {
+                wireClassField(field, thisClass, importTable, jpom, wiredFields);
             }
         }
     }
 
-    void wireClassField(FieldDeclaration fieldDeclaration, JavaTypeDeclarationPath thisClass,
-                        JavaProjectObjectModel jpom) {
-        // A field may have several variables declared in one statement. Example String s1 = "Java", s2 = "C++";
-        for (VariableDeclarator variable : fieldDeclaration.getVariables()) {
-            Type fieldType = variable.getType();
-            if (fieldType.isClassOrInterfaceType()) {
-                ClassOrInterfaceType fieldClassType = (ClassOrInterfaceType) fieldType;
-                // The name of the type. Example: String
-                SimpleName variableTypeName = fieldClassType.getName();
-                // It is possible to declare a type with full package name. Example: java.lang.String .
-                // This is not mandatory (unless two types from different packages).
-                Optional<ClassOrInterfaceType> optionalPackageName = fieldClassType.getScope();
-                // Fetch all types with type name 'variableTypeName'.
-                List<JavaTypeDeclarationPath> classesWithSameNameAsFieldDeclaration = jpom.getAllTypesGivenName(
-                        variableTypeName.asString());
-                if (optionalPackageName.isPresent()) {
-                    String packageName = optionalPackageName.get().toString();
-                    wireClassField(packageName, variable, classesWithSameNameAsFieldDeclaration, thisClass, jpom);
-                }
-                else {
-                    // Get all imports from the file, where the class resides.
-                    // Check if some import matches the type name from the field.
-                    // If not, check if some imports have stars. If so, check these packages
-                    // if they contain any type with the type name from the field.
-                    // If not, do below.
-                    wireClassField(variable, classesWithSameNameAsFieldDeclaration, thisClass, jpom);
-                }
-            }
+    /**
+     * @return the ImportTable of the compilation unit of thisClass. The types of a compilation unit share one list of
+     * imports, which is the key of its ImportTable.
+     */
+    ImportTable getImportTable(TypeSummary typeSummary, JavaTypeDeclarationPath thisClass,
+                               Map<List<ImportSummary>, ImportTable> importTables) {
+        ImportTable importTable = importTables.get(typeSummary.getImports());
+        if (importTable == null) {
+            importTable = new ImportTable(thisClass.getPackageName(), typeSummary.getImports());
+            importTables.put(typeSummary.getImports(), importTable);
         }
+        return importTable;
     }
 
-    void wireClassField(VariableDeclarator variable, List<JavaTypeDeclarationPath> classesWithSameNameAsFieldDeclaration,
-                        JavaTypeDeclarationPath thisClass, JavaProjectObjectModel jpom) {
-        if (classesWithSameNameAsFieldDeclaration.size() == 1) {
-            JavaTypeDeclarationPath fieldClass = classesWithSameNameAsFieldDeclaration.get(0);
-            thisClass.addField(variable.getName().asString(), fieldClass);
+    /**
+     * Clear the fields of a class, so it can be wired again, and remove them from the reverse field index and the
+     * dependency rollups of jpom.
+     */
+    void clearClassFields(JavaTypeDeclarationPath thisClass, JavaProjectObjectModel jpom) {
+        jpom.getReverseFieldIndex().removeFields(thisClass);
+        jpom.getDependencyRollups().removeFields(thisClass);
+        thisClass.clearFields();
+    }
+
+    /**
+     * Returns the names of all types, that wireClassFields looks up in the JavaProjectObjectModel, when it wires the
+     * fields of a class. If a type with one of these names is added or removed, the class has to be wired again.
+     *
+     * @param typeSummary is the TypeSummary of a class.
+     * @return a set of type names.
+     */
+    Set<String> getReferencedTypeNames(TypeSummary typeSummary) {
+        Set<String> typeNames = new HashSet<>();
+        for (FieldSummary field : typeSummary.getFields()) {
+            if (field.getType() != null) {
+                typeNames.add(field.getType().getName());
+            }
         }
-        else {
-            for (JavaTypeDeclarationPath foundFieldClass : classesWithSameNameAsFieldDeclaration) {
-                if (thisClass.getPackageName().equals(foundFieldClass.getPackageName())) {
-                    thisClass.addField(variable.getName().asString(), foundFieldClass);
-                    break;
-                }
+        return typeNames;
+    }
+
+    void wireClassField(FieldSummary field, JavaTypeDeclarationPath thisClass, ImportTable importTable,
+                        JavaProjectObjectModel jpom, WiredFields wiredFields) {
+        TypeReference fieldType = field.getType();
+        if (fieldType != null) {
+            JavaTypeDeclarationPath fieldClass = resolveFieldType(fieldType, importTable, jpom);
+            if (fieldClass != null) {
+                wiredFields.add(thisClass, field.getName(), fieldClass);
+            }
+            else {
+                wiredFields.unresolved++;
             }
+        }
+    }
 
+    /**
+     * Resolve the type of a field.
+     *
+     * @param fieldType is the type of the field, as written in the source code.
+     * @param importTable is the ImportTable of the compilation unit the field is declared in.
+     * @param jpom is the JavaProjectObjectModel to look up the type in.
+     * @return the type, or null if it is not in jpom.
+     */
+    JavaTypeDeclarationPath resolveFieldType(TypeReference fieldType, ImportTable importTable, JavaProjectObjectModel jpom) {
+        // It is possible to declare a type with full package name. Example: java.lang.String .
+        // This is not mandatory (unless two types from different packages).
+        if (fieldType.getScope() != null) {
+            // Look up the type in the qualified name index of the model.
+            return jpom.getTypeByQualifiedName(fieldType.getScope(), fieldType.getName());
         }
+        // Resolve the type name through the imports of the file, where the class resides.
+        return importTable.resolve(fieldType.getName(), jpom);
     }
 
-    void wireClassField(String packageName, VariableDeclarator variable,
-                        List<JavaTypeDeclarationPath> classesWithSameNameAsFieldDeclaration,
-                        JavaTypeDeclarationPath thisClass, JavaProjectObjectModel jpom) {
-        if (classesWithSameNameAsFieldDeclaration.size() == 1) {
-            JavaTypeDeclarationPath fieldClass = classesWithSameNameAsFieldDeclaration.get(0);
-            if (fieldClass.getPackageName().equals(packageName)) {
-                thisClass.addField(variable.getName().asString(), fieldClass);
-            }
+    /**
+     * Fields resolved by one worker, in the order they were resolved. They are added to their classes by apply.
+     */
+    static class WiredFields {
+        private final List<JavaTypeDeclarationPath> classes = new ArrayList<>();
+        private final List<String> fieldNames = new ArrayList<>();
+        private final List<JavaTypeDeclarationPath> fieldClasses = new ArrayList<>();
+        /**
+         * Number of fields of a class or interface type, that is not in the model.
+         */
+        private int unresolved = 0;
+
+        void add(JavaTypeDeclarationPath thisClass, String fieldName, JavaTypeDeclarationPath fieldClass) {
+            this.classes.add(thisClass);
+            this.fieldNames.add(fieldName);
+            this.fieldClasses.add(fieldClass);
         }
-        else {
-            for (JavaTypeDeclarationPath foundFieldClass : classesWithSameNameAsFieldDeclaration) {
-                if (foundFieldClass.getPackageName().equals(packageName)) {
-                    thisClass.addField(variable.getName().asString(), foundFieldClass);
-                    break;
-                }
-            }
 
+        /**
+         * Add the fields to their classes, to the reverse field index and to the dependency rollups of jpom.
+         */
+        void apply(JavaProjectObjectModel jpom, BuildMetrics metrics) {
+            ReverseFieldIndex reverseFieldIndex = jpom.getReverseFieldIndex();
+            DependencyRollups dependencyRollups = jpom.getDependencyRollups();
+            for (int i = 0; i < this.classes.size(); i++) {
+                this.classes.get(i).addField(this.fieldNames.get(i), this.fieldClasses.get(i));
+                reverseFieldIndex.add(this.classes.get(i), this.fieldClasses.get(i));
+                dependencyRollups.add(this.classes.get(i), this.fieldClasses.get(i));
+            }
+            metrics.fieldsWired(this.classes.size(), this.unresolved);
         }
     }
 }
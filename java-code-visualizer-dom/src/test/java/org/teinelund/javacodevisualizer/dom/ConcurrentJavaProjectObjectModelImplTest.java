@@ -0,0 +1,124 @@
+package org.teinelund.javacodevisualizer.dom;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ConcurrentJavaProjectObjectModelImplTest {
+
+    private final String CLASS_NAME_BUILDER = "Builder";
+    private final String PACKAGE_PATH_1 = "org.teinelund.project1";
+    private final String PACKAGE_PATH_2 = "org.teinelund.project2";
+
+    @Test
+    public void addJavaTypeDeclarationPathsWithSeveralWriters() throws Exception {
+        // Initialize
+        JavaProjectObjectModel sut = new ConcurrentJavaProjectObjectModelImpl();
+        int writers = 8;
+        int typesPerWriter = 500;
+        ExecutorService executorService = Executors.newFixedThreadPool(writers);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        // Test
+        try {
+            for (int writer = 0; writer < writers; writer++) {
+                int w = writer;
+                futures.add(executorService.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < typesPerWriter; i++) {
+                        // Every writer adds a Builder, and a type of its own, to each package.
+                        sut.addJavaTypeDeclarationPaths(Arrays.asList(
+                                createJavaTypeDeclarationPath(i % 2 == 0 ? PACKAGE_PATH_1 : PACKAGE_PATH_2, CLASS_NAME_BUILDER),
+                                createJavaTypeDeclarationPath(PACKAGE_PATH_1, "Class" + w + "_" + i)));
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        }
+        finally {
+            executorService.shutdownNow();
+        }
+        // Verify
+        assertThat(sut.getAllTypesGivenName(CLASS_NAME_BUILDER)).hasSize(writers * typesPerWriter);
+        assertThat(sut.getAllTypeNames()).hasSize(writers * typesPerWriter + 1);
+        assertThat(sut.getAllTypesGivenPackageName(PACKAGE_PATH_1)).hasSize(writers * typesPerWriter * 3 / 2);
+        assertThat(sut.getAllTypesGivenPackageName(PACKAGE_PATH_2)).hasSize(writers * typesPerWriter / 2);
+        assertThat(sut.getTypeByQualifiedName(PACKAGE_PATH_1, "Class7_499")).isNotNull();
+        assertThat(sut.getTypeByQualifiedName(PACKAGE_PATH_2, CLASS_NAME_BUILDER)).isNotNull();
+    }
+
+    @Test
+    public void getAllTypesGivenNameWhereTypesAreAddedAfterwards() {
+        // Initialize
+        JavaProjectObjectModel sut = new ConcurrentJavaProjectObjectModelImpl();
+        JavaTypeDeclarationPath builder1 = createJavaTypeDeclarationPath(PACKAGE_PATH_1, CLASS_NAME_BUILDER);
+        JavaTypeDeclarationPath builder2 = createJavaTypeDeclarationPath(PACKAGE_PATH_2, CLASS_NAME_BUILDER);
+        sut.addJavaTypeDeclarationPaths(Collections.singletonList(builder1));
+        // Test
+        List<JavaTypeDeclarationPath> result = sut.getAllTypesGivenName(CLASS_NAME_BUILDER);
+        sut.addJavaTypeDeclarationPaths(Collections.singletonList(builder2));
+        // Verify
+        assertThat(result).containsExactly(builder1);
+        assertThat(sut.getAllTypesGivenName(CLASS_NAME_BUILDER)).containsExactly(builder1, builder2);
+    }
+
+    @Test
+    public void addJavaTypeDeclarationPathsWithOrder() {
+        // Initialize
+        JavaTypeDeclarationPath builder1 = createJavaTypeDeclarationPath(PACKAGE_PATH_1, CLASS_NAME_BUILDER);
+        JavaTypeDeclarationPath builder2 = createJavaTypeDeclarationPath(PACKAGE_PATH_2, CLASS_NAME_BUILDER);
+        JavaTypeDeclarationPath builder3 = createJavaTypeDeclarationPath(PACKAGE_PATH_1, CLASS_NAME_BUILDER);
+        JavaTypeDeclarationPath class1 = createJavaTypeDeclarationPath(PACKAGE_PATH_1, "Class1");
+        Map<JavaTypeDeclarationPath, Integer> order = new IdentityHashMap<>();
+        for (JavaTypeDeclarationPath jtdp : Arrays.asList(builder1, class1, builder2, builder3)) {
+            order.put(jtdp, order.size());
+        }
+        JavaProjectObjectModel sut = new ConcurrentJavaProjectObjectModelImpl(Comparator.comparingInt(order::get));
+        // Test
+        sut.addJavaTypeDeclarationPaths(Collections.singletonList(builder3));
+        sut.addJavaTypeDeclarationPaths(Arrays.asList(builder2, class1));
+        sut.addJavaTypeDeclarationPaths(Collections.singletonList(builder1));
+        // Verify
+        assertThat(sut.getAllTypesGivenName(CLASS_NAME_BUILDER)).containsExactly(builder1, builder2, builder3);
+        assertThat(sut.getAllTypesGivenPackageName(PACKAGE_PATH_1)).containsExactly(builder1, class1, builder3);
+        assertThat(sut.getTypeByQualifiedName(PACKAGE_PATH_1, CLASS_NAME_BUILDER)).isSameAs(builder1);
+    }
+
+    @Test
+    public void removeJavaTypeDeclarationPaths() {
+        // Initialize
+        JavaProjectObjectModel sut = new ConcurrentJavaProjectObjectModelImpl();
+        JavaTypeDeclarationPath builder1 = createJavaTypeDeclarationPath(PACKAGE_PATH_1, CLASS_NAME_BUILDER);
+        JavaTypeDeclarationPath builder2 = createJavaTypeDeclarationPath(PACKAGE_PATH_2, CLASS_NAME_BUILDER);
+        sut.addJavaTypeDeclarationPaths(Arrays.asList(builder1, builder2));
+        // Test
+        sut.removeJavaTypeDeclarationPaths(Collections.singletonList(builder1));
+        // Verify
+        assertThat(sut.getAllTypesGivenName(CLASS_NAME_BUILDER)).containsExactly(builder2);
+        assertThat(sut.getAllPackageNames()).containsExactly(PACKAGE_PATH_2);
+        assertThat(sut.getTypeByQualifiedName(PACKAGE_PATH_1, CLASS_NAME_BUILDER)).isNull();
+        sut.freeze();
+        assertThat(sut.getAllTypesGivenName(CLASS_NAME_BUILDER)).containsExactly(builder2);
+    }
+
+    JavaTypeDeclarationPath createJavaTypeDeclarationPath(String packageName, String name) {
+        return JavaTypeDeclarationPathBuilder.builder().setName(name).setPackageName(packageName).
+                setAccessModifier(AccessModifier.PUBLIC).setJavaType(JavaType.CLASS).build();
+    }
+}
@@ -0,0 +1,158 @@
+package org.teinelund.javacodevisualizer.dom;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DependencyGraphTest {
+
+    private final String PACKAGE_NAME = "org.teinelund.project";
+
+    @Test
+    public void create() {
+        // Initialize
+        JavaProjectObjectModel jpom = new JavaProjectObjectModelImpl();
+        List<JavaTypeDeclarationPath> types = createTypes(jpom, 3);
+        JavaTypeDeclarationPath outside = createJavaTypeDeclarationPath("Outside");
+        types.get(0).addField("type1", types.get(1));
+        types.get(0).addField("type2", types.get(2));
+        types.get(0).addField("outside", outside);
+        types.get(2).addField("type1", types.get(1));
+        // Test
+        DependencyGraph sut = jpom.createDependencyGraph();
+        // Verify
+        assertThat(sut.getTypeCount()).isEqualTo(3);
+        assertThat(sut.getEdgeCount()).isEqualTo(3);
+        assertThat(sut.getId(outside)).isEqualTo(-1);
+        for (JavaTypeDeclarationPath type : types) {
+            assertThat(sut.getType(sut.getId(type))).isSameAs(type);
+        }
+        assertThat(getTargets(sut, types.get(0))).containsExactly(types.get(1), types.get(2));
+        assertThat(getTargets(sut, types.get(1))).isEmpty();
+        assertThat(getTargets(sut, types.get(2))).containsExactly(types.get(1));
+    }
+
+    @Test
+    public void findCycles() {
+        // Initialize
+        JavaProjectObjectModel jpom = new JavaProjectObjectModelImpl();
+        List<JavaTypeDeclarationPath> types = createTypes(jpom, 6);
+        // 0 -> 1 -> 2 -> 0 is a cycle, 3 has a field of its own type, 4 -> 5 is not a cycle.
+        types.get(0).addField("next", types.get(1));
+        types.get(1).addField("next", types.get(2));
+        types.get(2).addField("next", types.get(0));
+        types.get(2).addField("other", types.get(3));
+        types.get(3).addField("parent", types.get(3));
+        types.get(4).addField("next", types.get(5));
+        DependencyGraph sut = DependencyGraph.create(jpom);
+        // Test
+        List<int[]> result = sut.findCycles();
+        // Verify
+        List<List<JavaTypeDeclarationPath>> cycles = new ArrayList<>();
+        for (int[] ids : result) {
+            List<JavaTypeDeclarationPath> cycle = new ArrayList<>();
+            for (int id : ids) {
+                cycle.add(sut.getType(id));
+            }
+            cycles.add(cycle);
+        }
+        assertThat(cycles).hasSize(2);
+        assertThat(cycles).anySatisfy(cycle ->
+                assertThat(cycle).containsExactlyInAnyOrder(types.get(0), types.get(1), types.get(2)));
+        assertThat(cycles).anySatisfy(cycle -> assertThat(cycle).containsExactly(types.get(3)));
+    }
+
+    @Test
+    public void computeLayers() {
+        // Initialize
+        JavaProjectObjectModel jpom = new JavaProjectObjectModelImpl();
+        List<JavaTypeDeclarationPath> types = createTypes(jpom, 5);
+        // 0 -> 1 <-> 2 -> 3, and 4 -> 3.
+        types.get(0).addField("next", types.get(1));
+        types.get(1).addField("next", types.get(2));
+        types.get(2).addField("previous", types.get(1));
+        types.get(2).addField("next", types.get(3));
+        types.get(4).addField("next", types.get(3));
+        DependencyGraph sut = DependencyGraph.create(jpom);
+        // Test
+        int[] result = sut.computeLayers();
+        // Verify
+        assertThat(result[sut.getId(types.get(3))]).isEqualTo(0);
+        assertThat(result[sut.getId(types.get(1))]).isEqualTo(1);
+        assertThat(result[sut.getId(types.get(2))]).isEqualTo(1);
+        assertThat(result[sut.getId(types.get(4))]).isEqualTo(1);
+        assertThat(result[sut.getId(types.get(0))]).isEqualTo(2);
+    }
+
+    @Test
+    public void findReachable() {
+        // Initialize
+        JavaProjectObjectModel jpom = new JavaProjectObjectModelImpl();
+        List<JavaTypeDeclarationPath> types = createTypes(jpom, 5);
+        types.get(0).addField("next", types.get(1));
+        types.get(1).addField("next", types.get(2));
+        types.get(2).addField("previous", types.get(1));
+        types.get(3).addField("next", types.get(4));
+        DependencyGraph sut = DependencyGraph.create(jpom);
+        // Test
+        BitSet result = sut.findReachable(sut.getId(types.get(1)));
+        // Verify
+        assertThat(result.cardinality()).isEqualTo(2);
+        assertThat(result.get(sut.getId(types.get(1)))).isTrue();
+        assertThat(result.get(sut.getId(types.get(2)))).isTrue();
+    }
+
+    @Test
+    public void findStronglyConnectedComponentsWhereGraphIsLarge() {
+        // Initialize
+        JavaProjectObjectModel jpom = new JavaProjectObjectModelImpl();
+        int typeCount = 100_000;
+        List<JavaTypeDeclarationPath> types = createTypes(jpom, typeCount);
+        // A chain through all types, deeper than a recursive search could go, closed into one cycle at the end.
+        Random random = new Random(23);
+        for (int i = 0; i < typeCount; i++) {
+            types.get(i).addField("next", types.get((i + 1) % typeCount));
+            for (int j = 0; j < 9; j++) {
+                types.get(i).addField("field" + j, types.get(random.nextInt(typeCount)));
+            }
+        }
+        DependencyGraph sut = DependencyGraph.create(jpom);
+        // Test
+        int[] result = sut.findStronglyConnectedComponents();
+        // Verify
+        assertThat(sut.getEdgeCount()).isEqualTo(10 * typeCount);
+        assertThat(Arrays.stream(result).distinct().count()).isEqualTo(1);
+        assertThat(sut.findCycles()).hasSize(1);
+        assertThat(sut.findReachable(0).cardinality()).isEqualTo(typeCount);
+        assertThat(Arrays.stream(sut.computeLayers()).max().getAsInt()).isEqualTo(0);
+    }
+
+    List<JavaTypeDeclarationPath> getTargets(DependencyGraph sut, JavaTypeDeclarationPath type) {
+        List<JavaTypeDeclarationPath> targets = new ArrayList<>();
+        int id = sut.getId(type);
+        for (int edge = sut.getOffsets()[id]; edge < sut.getOffsets()[id + 1]; edge++) {
+            targets.add(sut.getType(sut.getTargets()[edge]));
+        }
+        return targets;
+    }
+
+    List<JavaTypeDeclarationPath> createTypes(JavaProjectObjectModel jpom, int count) {
+        List<JavaTypeDeclarationPath> types = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            types.add(createJavaTypeDeclarationPath("Type" + i));
+        }
+        jpom.addJavaTypeDeclarationPaths(types);
+        return types;
+    }
+
+    JavaTypeDeclarationPath createJavaTypeDeclarationPath(String name) {
+        return JavaTypeDeclarationPathBuilder.builder().setName(name).setPackageName(PACKAGE_NAME).
+                setAccessModifier(AccessModifier.PUBLIC).setJavaType(JavaType.CLASS).build();
+    }
+}
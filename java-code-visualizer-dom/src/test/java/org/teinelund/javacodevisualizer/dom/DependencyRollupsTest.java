@@ -0,0 +1,108 @@
+package org.teinelund.javacodevisualizer.dom;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DependencyRollupsTest {
+
+    private final Path MODULE_ORDERS = Paths.get("/Users/Cody/Projects/Shop/orders");
+    private final Path MODULE_CUSTOMERS = Paths.get("/Users/Cody/Projects/Shop/customers");
+    private final Path MODULE_CUSTOMERS_API = MODULE_CUSTOMERS.resolve("api");
+
+    @Test
+    public void getPackageDependencies() {
+        // Initialize
+        DependencyRollups sut = new DependencyRollups();
+        JavaTypeDeclarationPath order = createJavaTypeDeclarationPath(MODULE_ORDERS, "org.shop.orders", "Order");
+        JavaTypeDeclarationPath orderLine = createJavaTypeDeclarationPath(MODULE_ORDERS, "org.shop.orders", "OrderLine");
+        JavaTypeDeclarationPath customer = createJavaTypeDeclarationPath(MODULE_CUSTOMERS, "org.shop.customers",
+                "Customer");
+        order.addField("customer", customer);
+        order.addField("payer", customer);
+        order.addField("firstLine", orderLine);
+        // Test
+        sut.addFields(order);
+        // Verify
+        assertThat(sut.getPackageWeight("org.shop.orders", "org.shop.customers")).isEqualTo(2);
+        assertThat(sut.getPackageWeight("org.shop.orders", "org.shop.orders")).isEqualTo(1);
+        assertThat(sut.getPackageWeight("org.shop.customers", "org.shop.orders")).isEqualTo(0);
+        assertThat(sut.getPackageDependencies()).containsOnlyKeys("org.shop.orders");
+        assertThat(sut.getPackageDependencies().get("org.shop.orders")).containsEntry("org.shop.customers", 2).
+                containsEntry("org.shop.orders", 1).hasSize(2);
+    }
+
+    @Test
+    public void getModuleDependenciesWhereModulesAreNested() {
+        // Initialize
+        DependencyRollups sut = new DependencyRollups();
+        JavaTypeDeclarationPath order = createJavaTypeDeclarationPath(MODULE_ORDERS, "org.shop.orders", "Order");
+        JavaTypeDeclarationPath customer = createJavaTypeDeclarationPath(MODULE_CUSTOMERS, "org.shop.customers",
+                "Customer");
+        JavaTypeDeclarationPath customerId = createJavaTypeDeclarationPath(MODULE_CUSTOMERS_API,
+                "org.shop.customers.api", "CustomerId");
+        JavaTypeDeclarationPath generated = JavaTypeDeclarationPathBuilder.builder().setName("Generated").
+                setPackageName("org.shop.orders").setJavaType(JavaType.CLASS).build();
+        order.addField("customer", customer);
+        order.addField("customerId", customerId);
+        order.addField("generated", generated);
+        customer.addField("id", customerId);
+        sut.addFields(order);
+        sut.addFields(customer);
+        // Test
+        sut.setModulePaths(Arrays.asList(MODULE_ORDERS, MODULE_CUSTOMERS, MODULE_CUSTOMERS_API));
+        // Verify
+        assertThat(sut.getModuleWeight(MODULE_ORDERS, MODULE_CUSTOMERS)).isEqualTo(1);
+        assertThat(sut.getModuleWeight(MODULE_ORDERS, MODULE_CUSTOMERS_API)).isEqualTo(1);
+        assertThat(sut.getModuleWeight(MODULE_CUSTOMERS, MODULE_CUSTOMERS_API)).isEqualTo(1);
+        assertThat(sut.getModuleDependencies()).containsOnlyKeys(MODULE_ORDERS, MODULE_CUSTOMERS);
+        assertThat(sut.getPackageWeight("org.shop.orders", "org.shop.orders")).isEqualTo(1);
+    }
+
+    @Test
+    public void removeFields() {
+        // Initialize
+        DependencyRollups sut = new DependencyRollups();
+        sut.setModulePaths(Arrays.asList(MODULE_ORDERS, MODULE_CUSTOMERS));
+        JavaTypeDeclarationPath order = createJavaTypeDeclarationPath(MODULE_ORDERS, "org.shop.orders", "Order");
+        JavaTypeDeclarationPath customer = createJavaTypeDeclarationPath(MODULE_CUSTOMERS, "org.shop.customers",
+                "Customer");
+        order.addField("customer", customer);
+        sut.addFields(order);
+        assertThat(sut.getModuleWeight(MODULE_ORDERS, MODULE_CUSTOMERS)).isEqualTo(1);
+        // Test
+        sut.removeFields(order);
+        // Verify
+        assertThat(sut.getPackageDependencies()).isEmpty();
+        assertThat(sut.getModuleDependencies()).isEmpty();
+    }
+
+    @Test
+    public void removeJavaTypeDeclarationPaths() {
+        // Initialize
+        JavaProjectObjectModel jpom = new JavaProjectObjectModelImpl();
+        JavaTypeDeclarationPath order = createJavaTypeDeclarationPath(MODULE_ORDERS, "org.shop.orders", "Order");
+        JavaTypeDeclarationPath customer = createJavaTypeDeclarationPath(MODULE_CUSTOMERS, "org.shop.customers",
+                "Customer");
+        jpom.addJavaTypeDeclarationPaths(Arrays.asList(order, customer));
+        order.addField("customer", customer);
+        DependencyRollups sut = jpom.getDependencyRollups();
+        sut.addFields(order);
+        // Test
+        jpom.removeJavaTypeDeclarationPaths(Collections.singletonList(order));
+        // Verify
+        assertThat(sut.getPackageDependencies()).isEmpty();
+    }
+
+    JavaTypeDeclarationPath createJavaTypeDeclarationPath(Path modulePath, String packageName, String name) {
+        return JavaTypeDeclarationPathBuilder.builder().setName(name).setPackageName(packageName).
+                setPathToTypeDeclaration(modulePath.resolve("src/main/java").resolve(packageName.replace('.', '/')).
+                        resolve(name + ".java")).
+                setAccessModifier(AccessModifier.PUBLIC).setJavaType(JavaType.CLASS).build();
+    }
+}
@@ -0,0 +1,93 @@
+package org.teinelund.javacodevisualizer.dom;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class JavaProjectObjectModelImplTest {
+
+    private final String CLASS_NAME_BUILDER = "Builder";
+    private final String PACKAGE_PATH_1 = "org.teinelund.project1";
+    private final String PACKAGE_PATH_2 = "org.teinelund.project2";
+
+    @Test
+    public void getTypeByQualifiedNameWhereManyTypesHaveTheSameName() {
+        // Initialize
+        JavaProjectObjectModel sut = new JavaProjectObjectModelImpl();
+        JavaTypeDeclarationPath builder1 = createJavaTypeDeclarationPath(PACKAGE_PATH_1);
+        JavaTypeDeclarationPath builder2 = createJavaTypeDeclarationPath(PACKAGE_PATH_2);
+        sut.addJavaTypeDeclarationPaths(Arrays.asList(builder1, builder2));
+        // Test
+        JavaTypeDeclarationPath result = sut.getTypeByQualifiedName(PACKAGE_PATH_2, CLASS_NAME_BUILDER);
+        // Verify
+        assertThat(result).isSameAs(builder2);
+        assertThat(sut.getTypeByQualifiedName(PACKAGE_PATH_1 + "." + CLASS_NAME_BUILDER)).isSameAs(builder1);
+        assertThat(sut.getTypeByQualifiedName("org.teinelund", CLASS_NAME_BUILDER)).isNull();
+    }
+
+    @Test
+    public void getTypeByQualifiedNameWhereTypeIsRemoved() {
+        // Initialize
+        JavaProjectObjectModel sut = new JavaProjectObjectModelImpl();
+        JavaTypeDeclarationPath builder1 = createJavaTypeDeclarationPath(PACKAGE_PATH_1);
+        JavaTypeDeclarationPath builder2 = createJavaTypeDeclarationPath(PACKAGE_PATH_2);
+        JavaTypeDeclarationPath duplicateBuilder1 = createJavaTypeDeclarationPath(PACKAGE_PATH_1);
+        sut.addJavaTypeDeclarationPaths(Arrays.asList(builder1, builder2, duplicateBuilder1));
+        // Test
+        sut.removeJavaTypeDeclarationPaths(Arrays.asList(builder1, builder2));
+        // Verify
+        assertThat(sut.getTypeByQualifiedName(PACKAGE_PATH_1, CLASS_NAME_BUILDER)).isSameAs(duplicateBuilder1);
+        assertThat(sut.getTypeByQualifiedName(PACKAGE_PATH_2, CLASS_NAME_BUILDER)).isNull();
+        sut.removeJavaTypeDeclarationPaths(Collections.singletonList(duplicateBuilder1));
+        assertThat(sut.getTypeByQualifiedName(PACKAGE_PATH_1, CLASS_NAME_BUILDER)).isNull();
+    }
+
+    @Test
+    public void freeze() {
+        // Initialize
+        JavaProjectObjectModel sut = new JavaProjectObjectModelImpl();
+        JavaTypeDeclarationPath builder1 = createJavaTypeDeclarationPath(PACKAGE_PATH_1);
+        JavaTypeDeclarationPath builder2 = createJavaTypeDeclarationPath(PACKAGE_PATH_2);
+        sut.addJavaTypeDeclarationPaths(Arrays.asList(builder1, builder2));
+        builder1.addField("builder", builder2);
+        // Test
+        sut.freeze();
+        // Verify
+        assertThat(sut.isFrozen()).isTrue();
+        assertThat(sut.getAllTypesGivenName(CLASS_NAME_BUILDER)).containsExactly(builder1, builder2);
+        assertThat(sut.getAllTypesGivenName(CLASS_NAME_BUILDER)).isSameAs(sut.getAllTypesGivenName(CLASS_NAME_BUILDER));
+        assertThat(sut.getAllTypesGivenPackageName(PACKAGE_PATH_2)).containsExactly(builder2);
+        assertThat(sut.getAllTypesGivenName("Config")).isEmpty();
+        assertThat(sut.getAllTypeNames()).containsExactly(CLASS_NAME_BUILDER);
+        assertThat(sut.getAllPackageNames()).isSameAs(sut.getAllPackageNames());
+        assertThat(sut.getTypeByQualifiedName(PACKAGE_PATH_1, CLASS_NAME_BUILDER)).isSameAs(builder1);
+        assertThat(builder1.getFields()).isSameAs(builder1.getFields());
+        assertThat(builder1.getFields().get(0).getType()).isSameAs(builder2);
+    }
+
+    @Test
+    public void freezeWhereModelIsChangedAfterwards() {
+        // Initialize
+        JavaProjectObjectModel sut = new JavaProjectObjectModelImpl();
+        JavaTypeDeclarationPath builder1 = createJavaTypeDeclarationPath(PACKAGE_PATH_1);
+        sut.addJavaTypeDeclarationPaths(Collections.singletonList(builder1));
+        // Test
+        sut.freeze();
+        // Verify
+        assertThatThrownBy(() -> sut.addJavaTypeDeclarationPaths(Collections.singletonList(
+                createJavaTypeDeclarationPath(PACKAGE_PATH_2)))).isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> sut.removeJavaTypeDeclarationPaths(Collections.singletonList(builder1))).isInstanceOf(
+                IllegalStateException.class);
+        assertThatThrownBy(() -> builder1.addField("builder", builder1)).isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(builder1::clearFields).isInstanceOf(IllegalStateException.class);
+    }
+
+    JavaTypeDeclarationPath createJavaTypeDeclarationPath(String packageName) {
+        return JavaTypeDeclarationPathBuilder.builder().setName(CLASS_NAME_BUILDER).setPackageName(packageName).
+                setAccessModifier(AccessModifier.PUBLIC).setJavaType(JavaType.CLASS).build();
+    }
+}
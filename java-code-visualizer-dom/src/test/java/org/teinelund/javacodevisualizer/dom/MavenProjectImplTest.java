@@ -40,6 +40,33 @@ class MavenProjectImplTest {
         assertThat(sut.getAllTypesGivenPackageName(PACKAGE_PATH_2).size()).isEqualTo(1);
     }
 
+    @Test
+    public void getTypeByQualifiedName() {
+        // Initialize
+        MavenProject sut = new MavenProjectImpl(null, createJavaTypeDeclarationPaths());
+        // Test
+        JavaTypeDeclarationPath result = sut.getTypeByQualifiedName(PACKAGE_PATH_2, CLASS_NAME_3);
+        // Verify
+        assertThat(result).isSameAs(sut.getAllTypesGivenName(CLASS_NAME_3).get(0));
+        assertThat(sut.getTypeByQualifiedName(PACKAGE_PATH_1 + "." + CLASS_NAME_1)).isSameAs(
+                sut.getAllTypesGivenName(CLASS_NAME_1).get(0));
+        assertThat(sut.getTypeByQualifiedName(PACKAGE_PATH_1, CLASS_NAME_3)).isNull();
+        assertThat(sut.getTypeByQualifiedName(CLASS_NAME_1)).isNull();
+    }
+
+    @Test
+    public void getAllTypes() {
+        // Initialize
+        MavenProject sut = new MavenProjectImpl(null, createJavaTypeDeclarationPaths());
+        // Test
+        List<JavaTypeDeclarationPath> result = sut.getAllTypes();
+        // Verify
+        assertThat(result).extracting(JavaTypeDeclarationPath::getName).containsExactlyInAnyOrder(CLASS_NAME_1,
+                CLASS_NAME_2, CLASS_NAME_3);
+        assertThat(result).isSameAs(sut.getAllTypes());
+        assertThat(sut.getAllTypesGivenName("Class4")).isEmpty();
+    }
+
     List<JavaTypeDeclarationPath> createJavaTypeDeclarationPaths() {
         List<JavaTypeDeclarationPath> list = new LinkedList<>();
         list.add(JavaTypeDeclarationPathBuilder.builder().setName(CLASS_NAME_1).setPackageName(PACKAGE_PATH_1).
@@ -0,0 +1,96 @@
+package org.teinelund.javacodevisualizer.dom;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReverseFieldIndexTest {
+
+    private final String PACKAGE_NAME = "org.teinelund.ordersystem";
+
+    @Test
+    public void getHolders() {
+        // Initialize
+        ReverseFieldIndex sut = new ReverseFieldIndex();
+        JavaTypeDeclarationPath customer = createJavaTypeDeclarationPath("Customer");
+        JavaTypeDeclarationPath order = createJavaTypeDeclarationPath("Order");
+        JavaTypeDeclarationPath invoice = createJavaTypeDeclarationPath("Invoice");
+        // Test
+        sut.add(order, customer);
+        sut.add(invoice, customer);
+        sut.add(invoice, customer);
+        sut.add(invoice, null);
+        // Verify
+        assertThat(sut.getHolders(customer)).containsExactly(order, invoice);
+        assertThat(sut.getHolders(order)).isEmpty();
+    }
+
+    @Test
+    public void getTransitiveHolders() {
+        // Initialize
+        ReverseFieldIndex sut = new ReverseFieldIndex();
+        JavaTypeDeclarationPath customer = createJavaTypeDeclarationPath("Customer");
+        JavaTypeDeclarationPath order = createJavaTypeDeclarationPath("Order");
+        JavaTypeDeclarationPath invoice = createJavaTypeDeclarationPath("Invoice");
+        JavaTypeDeclarationPath address = createJavaTypeDeclarationPath("Address");
+        sut.add(order, customer);
+        sut.add(invoice, order);
+        sut.add(order, invoice);
+        sut.add(customer, address);
+        // Test
+        // Verify
+        assertThat(sut.getTransitiveHolders(customer)).containsExactly(order, invoice);
+        assertThat(sut.getTransitiveHolders(order)).containsExactly(invoice, order);
+        assertThat(sut.getTransitiveHolders(address)).containsExactly(customer, order, invoice);
+        assertThat(sut.getTransitiveHolders(invoice)).containsExactly(order, invoice);
+    }
+
+    @Test
+    public void removeFieldsWhereFieldsAreWiredAgain() {
+        // Initialize
+        ReverseFieldIndex sut = new ReverseFieldIndex();
+        JavaTypeDeclarationPath customer = createJavaTypeDeclarationPath("Customer");
+        JavaTypeDeclarationPath order = createJavaTypeDeclarationPath("Order");
+        JavaTypeDeclarationPath invoice = createJavaTypeDeclarationPath("Invoice");
+        order.addField("customer", customer);
+        order.addField("invoice", invoice);
+        sut.addFields(order);
+        // Test
+        sut.removeFields(order);
+        order.clearFields();
+        order.addField("invoice", invoice);
+        sut.addFields(order);
+        // Verify
+        assertThat(sut.getHolders(customer)).isEmpty();
+        assertThat(sut.getHolders(invoice)).containsExactly(order);
+    }
+
+    @Test
+    public void removeJavaTypeDeclarationPaths() {
+        // Initialize
+        JavaProjectObjectModel jpom = new JavaProjectObjectModelImpl();
+        JavaTypeDeclarationPath customer = createJavaTypeDeclarationPath("Customer");
+        JavaTypeDeclarationPath order = createJavaTypeDeclarationPath("Order");
+        JavaTypeDeclarationPath invoice = createJavaTypeDeclarationPath("Invoice");
+        jpom.addJavaTypeDeclarationPaths(Arrays.asList(customer, order, invoice));
+        order.addField("customer", customer);
+        invoice.addField("order", order);
+        ReverseFieldIndex sut = jpom.getReverseFieldIndex();
+        sut.addFields(order);
+        sut.addFields(invoice);
+        // Test
+        jpom.removeJavaTypeDeclarationPaths(Collections.singletonList(order));
+        // Verify
+        assertThat(sut.getHolders(customer)).isEmpty();
+        assertThat(sut.getHolders(order)).isEmpty();
+        assertThat(sut.getTransitiveHolders(customer)).isEmpty();
+    }
+
+    JavaTypeDeclarationPath createJavaTypeDeclarationPath(String name) {
+        return JavaTypeDeclarationPathBuilder.builder().setName(name).setPackageName(PACKAGE_NAME).
+                setAccessModifier(AccessModifier.PUBLIC).setJavaType(JavaType.CLASS).build();
+    }
+}
@@ -0,0 +1,57 @@
+package org.teinelund.javacodevisualizer.dom;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SymbolTableTest {
+
+    @Test
+    void internWhereNameIsNew() {
+        // Initialize
+        SymbolTable sut = new SymbolTable();
+        String name = new String("org.teinelund.ordersystem");
+        // Test
+        String result = sut.intern(name);
+        // Verify
+        assertThat(result).isSameAs(name);
+        assertThat(sut.size()).isEqualTo(1);
+    }
+
+    @Test
+    void internWhereNameIsInterned() {
+        // Initialize
+        SymbolTable sut = new SymbolTable();
+        String name = sut.intern(new String("org.teinelund.ordersystem"));
+        // Test
+        String result = sut.intern(new String("org.teinelund.ordersystem"));
+        // Verify
+        assertThat(result).isSameAs(name);
+        assertThat(sut.size()).isEqualTo(1);
+    }
+
+    @Test
+    void internWhereNameIsNull() {
+        // Initialize
+        SymbolTable sut = new SymbolTable();
+        // Test
+        String result = sut.intern(null);
+        // Verify
+        assertThat(result).isNull();
+        assertThat(sut.size()).isEqualTo(0);
+    }
+
+    @Test
+    void internWhereNameIsNoLongerReferenced() throws InterruptedException {
+        // Initialize
+        SymbolTable sut = new SymbolTable();
+        sut.intern(new String("org.teinelund.ordersystem"));
+        // Test
+        for (int i = 0; i < 100 && sut.size() > 0; i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        // Verify
+        assertThat(sut.size()).isEqualTo(0);
+    }
+}
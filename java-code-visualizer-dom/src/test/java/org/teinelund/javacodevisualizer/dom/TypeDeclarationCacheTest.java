@@ -0,0 +1,125 @@
+package org.teinelund.javacodevisualizer.dom;
+
+import com.github.javaparser.ast.body.TypeDeclaration;
+import com.google.common.jimfs.Configuration;
+import com.google.common.jimfs.Jimfs;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystem;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TypeDeclarationCacheTest {
+
+    private FileSystem fs = null;
+    private Path srcPath = null;
+
+    @BeforeEach
+    void initTest() throws IOException {
+        fs = Jimfs.newFileSystem(Configuration.unix());
+        srcPath = fs.getPath("/Users/Cody/Projects/Project/src");
+        Files.createDirectories(srcPath);
+    }
+
+    @AfterEach
+    void cleanUpTest() throws IOException {
+        fs.close();
+    }
+
+    @Test
+    void getTypeDeclarationWhereFileIsCached() throws IOException {
+        // Initialize
+        TypeDeclarationCache sut = new TypeDeclarationCache(1000);
+        Path customer = writeJavaSourceFile("Customer");
+        TypeDeclaration<?> expected = sut.getTypeDeclaration(customer, "Customer");
+        // Test
+        TypeDeclaration<?> result = sut.getTypeDeclaration(customer, "Customer");
+        // Verify
+        assertThat(result).isSameAs(expected);
+        assertThat(result.getNameAsString()).isEqualTo("Customer");
+        assertThat(sut.getMissCount()).isEqualTo(1);
+        assertThat(sut.getHitCount()).isEqualTo(1);
+        assertThat(sut.getEvictionCount()).isEqualTo(0);
+        assertThat(sut.getWeight()).isEqualTo(Files.size(customer));
+    }
+
+    @Test
+    void getTypeDeclarationWhereTypeDoesNotExist() throws IOException {
+        // Initialize
+        TypeDeclarationCache sut = new TypeDeclarationCache(1000);
+        Path customer = writeJavaSourceFile("Customer");
+        // Test
+        TypeDeclaration<?> result = sut.getTypeDeclaration(customer, "Order");
+        // Verify
+        assertThat(result).isNull();
+    }
+
+    @Test
+    void getTypeDeclarationEvictsLeastRecentlyUsedFile() throws IOException {
+        // Initialize
+        Path customer = writeJavaSourceFile("Customer");
+        Path order = writeJavaSourceFile("Order");
+        Path invoice = writeJavaSourceFile("Invoice");
+        TypeDeclarationCache sut = new TypeDeclarationCache(Files.size(customer) + Files.size(order) +
+                Files.size(invoice) - 1);
+        sut.getTypeDeclaration(customer, "Customer");
+        sut.getTypeDeclaration(order, "Order");
+        sut.getTypeDeclaration(customer, "Customer");
+        // Test
+        sut.getTypeDeclaration(invoice, "Invoice");
+        // Verify
+        assertThat(sut.getEvictionCount()).isEqualTo(1);
+        assertThat(sut.getSize()).isEqualTo(2);
+        sut.getTypeDeclaration(customer, "Customer");
+        assertThat(sut.getHitCount()).isEqualTo(2);
+        sut.getTypeDeclaration(order, "Order");
+        assertThat(sut.getMissCount()).isEqualTo(4);
+    }
+
+    @Test
+    void getTypeDeclarationWhereFileIsModified() throws IOException {
+        // Initialize
+        TypeDeclarationCache sut = new TypeDeclarationCache(1000);
+        Path customer = writeJavaSourceFile("Customer");
+        Files.setLastModifiedTime(customer, FileTime.fromMillis(1000));
+        TypeDeclaration<?> old = sut.getTypeDeclaration(customer, "Customer");
+        Files.setLastModifiedTime(customer, FileTime.fromMillis(2000));
+        // Test
+        TypeDeclaration<?> result = sut.getTypeDeclaration(customer, "Customer");
+        // Verify
+        assertThat(result).isNotSameAs(old);
+        assertThat(sut.getMissCount()).isEqualTo(2);
+        assertThat(sut.getSize()).isEqualTo(1);
+        assertThat(sut.getWeight()).isEqualTo(Files.size(customer));
+    }
+
+    @Test
+    void setMaximumWeightToZero() throws IOException {
+        // Initialize
+        TypeDeclarationCache sut = new TypeDeclarationCache(1000);
+        sut.getTypeDeclaration(writeJavaSourceFile("Customer"), "Customer");
+        // Test
+        sut.setMaximumWeight(0);
+        // Verify
+        assertThat(sut.getSize()).isEqualTo(0);
+        assertThat(sut.getWeight()).isEqualTo(0);
+        assertThat(sut.getEvictionCount()).isEqualTo(1);
+    }
+
+    Path writeJavaSourceFile(String className) throws IOException {
+        Path path = srcPath.resolve(className + ".java");
+        String source = "package org.teinelund.ordersystem;\n\n" +
+                "public class " + className + " {\n" +
+                "   private String name;\n" +
+                "}\n";
+        Files.write(path, source.getBytes(StandardCharsets.UTF_8));
+        return path;
+    }
+}
@@ -0,0 +1,81 @@
+package org.teinelund.javacodevisualizer.factory;
+
+import com.google.common.jimfs.Configuration;
+import com.google.common.jimfs.Jimfs;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.FileSystem;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ExternalSorterTest {
+
+    private FileSystem fs = null;
+    private Path directory = null;
+
+    @BeforeEach
+    void initTest() throws IOException {
+        fs = Jimfs.newFileSystem(Configuration.unix());
+        directory = fs.getPath("/Users/Cody/spill");
+        Files.createDirectories(directory);
+    }
+
+    @AfterEach
+    void cleanUpTest() throws IOException {
+        fs.close();
+    }
+
+    @Test
+    void mergeWhereRecordsAreSpilledToSeveralRuns() throws IOException {
+        // Initialize
+        ExternalSorter sut = new ExternalSorter(directory, "test", 1024);
+        Random random = new Random(31);
+        TreeSet<String> expected = new TreeSet<>();
+        for (int i = 0; i < 2000; i++) {
+            String key = "Name" + random.nextInt(300);
+            int kind = random.nextInt(3);
+            int value = random.nextInt(5);
+            sut.add(key, kind, value);
+            expected.add(describe(key, kind, value));
+        }
+        List<String> result = new ArrayList<>();
+        // Test
+        sut.merge((key, kind, value) -> result.add(describe(key, kind, value)));
+        // Verify
+        assertThat(sut.getRunCount()).isEqualTo(0);
+        assertThat(result).containsExactlyElementsOf(expected);
+        try (Stream<Path> stream = Files.list(directory)) {
+            assertThat(stream.count()).isEqualTo(0);
+        }
+    }
+
+    @Test
+    void mergeWhereRecordsAreKeptInMemory() throws IOException {
+        // Initialize
+        ExternalSorter sut = new ExternalSorter(directory, "test", 1 << 20);
+        sut.add("Order", 1, 2);
+        sut.add("Customer", 2, 0);
+        sut.add("Order", 0, 3);
+        sut.add("Customer", 2, 0);
+        List<String> result = new ArrayList<>();
+        // Test
+        sut.merge((key, kind, value) -> result.add(describe(key, kind, value)));
+        // Verify
+        assertThat(result).containsExactly(describe("Customer", 2, 0), describe("Order", 0, 3),
+                describe("Order", 1, 2));
+    }
+
+    String describe(String key, int kind, int value) {
+        return key + " " + kind + " " + value;
+    }
+}
@@ -18,6 +18,7 @@ import java.util.LinkedList;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
 import static org.teinelund.javacodevisualizer.factory.TestUtility.createMavenProject;
 import static org.teinelund.javacodevisualizer.factory.TestUtility.createSrcDirectoryWithSubDirectoriesWithJavaSourceCode;
 import static org.teinelund.javacodevisualizer.factory.TestUtility.deleteDirectory;
@@ -103,6 +104,68 @@ class FetchMavenProjectTest {
         assertThat(result.get(0).getAllTypeNames().size()).isEqualTo(2);
     }
 
+
+    @Test
+    public void createMavenProjects() throws IOException {
+        // Initialize
+        FetchMavenProjectMock3 sut = new FetchMavenProjectMock3();
+        sut.setNumberOfWorkers(2);
+        List<MavenProjectSourceFiles> mavenProjectSourceFiles = new LinkedList<>();
+        mavenProjectSourceFiles.add(createMavenProjectSourceFiles("Project1", 0, 3));
+        mavenProjectSourceFiles.add(createMavenProjectSourceFiles("Project2", 3, 5));
+        // Test
+        List<MavenProject> result = sut.createMavenProjects(mavenProjectSourceFiles);
+        // Verify
+        assertThat(result.size()).isEqualTo(2);
+        assertThat(result.get(0).getMavenProjectPath()).isEqualTo(mavenProjectSourceFiles.get(0).getMavenProjectPath());
+        assertThat(result.get(0).getAllTypeNames()).containsExactlyInAnyOrder("Class0.java", "Class1.java", "Class2.java");
+        assertThat(result.get(1).getMavenProjectPath()).isEqualTo(mavenProjectSourceFiles.get(1).getMavenProjectPath());
+        assertThat(result.get(1).getAllTypeNames()).containsExactlyInAnyOrder("Class3.java", "Class4.java");
+    }
+
+    MavenProjectSourceFiles createMavenProjectSourceFiles(String projectName, int firstClass, int lastClass) {
+        Path mavenProjectPath = fs.getPath("/Users/Cody/Projects", projectName);
+        Path srcDirectory = mavenProjectPath.resolve("src");
+        List<Path> javaSourceFiles = new LinkedList<>();
+        for (int i = firstClass; i < lastClass; i++) {
+            javaSourceFiles.add(srcDirectory.resolve("Class" + i + ".java"));
+        }
+        return new MavenProjectSourceFiles(mavenProjectPath, srcDirectory, javaSourceFiles);
+    }
+
+
+    //
+    // Read Java Files
+    //
+
+    @Test
+    public void readJavaFilesWithSeveralWorkersKeepsFileOrder() throws IOException {
+        // Initialize
+        FetchMavenProjectMock3 sut = new FetchMavenProjectMock3();
+        sut.setNumberOfWorkers(4);
+        List<Path> javaSourceFiles = new LinkedList<>();
+        for (int i = 0; i < 50; i++) {
+            javaSourceFiles.add(fs.getPath(srcPath.toString(), "Class" + i + ".java"));
+        }
+        // Test
+        List<JavaTypeDeclarationPath> result = sut.readJavaFiles(javaSourceFiles);
+        // Verify
+        assertThat(result.size()).isEqualTo(50);
+        for (int i = 0; i < 50; i++) {
+            assertThat(result.get(i).getName()).isEqualTo("Class" + i + ".java");
+        }
+    }
+
+    @Test
+    public void setNumberOfWorkersWhereNumberIsZero() {
+        // Initialize
+        FetchMavenProject sut = new FetchMavenProject();
+        // Test
+        Throwable result = catchThrowable(() -> sut.setNumberOfWorkers(0));
+        // Verify
+        assertThat(result).isInstanceOf(IllegalArgumentException.class);
+    }
+
 }
 
 
@@ -130,3 +193,23 @@ class FetchMavenProjectMock2 extends FetchMavenProject {
     }
 }
 
+class FetchMavenProjectMock3 extends FetchMavenProject {
+
+    /**
+     * Files with a low number take the longest time to parse, so the workers finish in reverse order.
+     */
+    @Override
+    List<JavaTypeDeclarationPath> readJavaFile(Path path) throws IOException {
+        String filename = path.getFileName().toString();
+        int number = Integer.parseInt(filename.replaceAll("[^0-9]", ""));
+        try {
+            Thread.sleep((50 - number) / 10);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        List<JavaTypeDeclarationPath> list = new LinkedList<>();
+        list.add(JavaTypeDeclarationPathBuilder.builder().setName(filename).build());
+        return list;
+    }
+}
+
@@ -1,5 +1,477 @@
 package org.teinelund.javacodevisualizer.factory;
 
+import com.github.javaparser.ParseProblemException;
+import com.google.common.jimfs.Configuration;
+import com.google.common.jimfs.Jimfs;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.teinelund.javacodevisualizer.dom.Field;
+import org.teinelund.javacodevisualizer.dom.JavaProjectObjectModel;
+import org.teinelund.javacodevisualizer.dom.JavaTypeDeclarationPath;
+import org.teinelund.javacodevisualizer.synthetic.SyntheticCodebaseGenerator;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystem;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
 class JavaProjectObjectModelFactoryImplTest {
 
-}
\ No newline at end of file
+    private FileSystem fs = null;
+    private JavaProjectObjectModelFactoryImpl sut = null;
+    private Path projectPath = null;
+    private Path storagePath = null;
+
+    private final String PACKAGE_NAME = "org.teinelund.ordersystem";
+
+    @BeforeEach
+    void initTest() throws IOException {
+        fs = Jimfs.newFileSystem(Configuration.unix());
+        sut = new JavaProjectObjectModelFactoryImpl();
+        projectPath = fs.getPath("/Users/Cody/Projects/Project");
+        storagePath = fs.getPath("/Users/Cody/model.snapshot");
+        Files.createDirectories(projectPath);
+        Files.createFile(projectPath.resolve("pom.xml"));
+        writeJavaSourceFile("Customer", "String", "name");
+        writeJavaSourceFile("Order", "Customer", "customer");
+    }
+
+    @AfterEach
+    void cleanUpTest() throws IOException {
+        fs.close();
+    }
+
+    @Test
+    void createrAndStore() throws IOException {
+        // Initialize
+        // Test
+        JavaProjectObjectModel result = sut.createrAndStore(paths(projectPath), new LinkedList<>(), storagePath);
+        // Verify
+        assertThat(result.getAllTypeNames()).containsExactlyInAnyOrder("Customer", "Order");
+        assertOrderHasCustomerField(result);
+        assertThat(Files.exists(storagePath)).isTrue();
+    }
+
+    @Test
+    void createrAndStoreRecordsBuildMetrics() throws IOException {
+        // Initialize
+        // Test
+        sut.createrAndStore(paths(projectPath), new LinkedList<>(), storagePath);
+        // Verify
+        assertBuildMetrics(sut.getBuildMetrics());
+        assertThat(sut.getBuildMetrics().getWallTimeNanos(BuildMetrics.Phase.STORE)).isGreaterThan(0);
+    }
+
+    @Test
+    void createrAndStoreWithoutStorageRecordsBuildMetrics() throws IOException {
+        // Initialize
+        // Test
+        sut.createrAndStore(paths(projectPath), new LinkedList<>(), null);
+        // Verify
+        assertBuildMetrics(sut.getBuildMetrics());
+        assertThat(sut.getBuildMetrics().getWallTimeNanos(BuildMetrics.Phase.STORE)).isEqualTo(0);
+    }
+
+    @Test
+    void loadAndCreate() throws IOException {
+        // Initialize
+        sut.createrAndStore(paths(projectPath), new LinkedList<>(), storagePath);
+        // Test
+        JavaProjectObjectModel result = sut.loadAndCreate(storagePath);
+        // Verify
+        assertThat(result.getAllTypeNames()).containsExactlyInAnyOrder("Customer", "Order");
+        assertThat(result.getAllPackageNames()).containsExactly(PACKAGE_NAME);
+        assertOrderHasCustomerField(result);
+        assertThat(result.getAllTypesGivenName("Order").get(0).getPathToTypeDeclaration()).isEqualTo(
+                javaSourceFile("Order"));
+    }
+
+    @Test
+    void loadAndMap() throws IOException {
+        // Initialize
+        sut.createrAndStore(paths(projectPath), new LinkedList<>(), storagePath);
+        // Test
+        JavaProjectObjectModel result = sut.loadAndMap(storagePath);
+        // Verify
+        assertThat(result.getAllTypeNames()).containsExactlyInAnyOrder("Customer", "Order");
+        assertOrderHasCustomerField(result);
+        JavaTypeDeclarationPath order = result.getAllTypesGivenName("Order").get(0);
+        assertThat(order.getTypeDeclaration().getNameAsString()).isEqualTo("Order");
+        assertReverseFieldIndexIsComplete(result);
+        assertThat(result.getDependencyRollups().getPackageWeight(PACKAGE_NAME, PACKAGE_NAME)).isEqualTo(1);
+    }
+
+    @Test
+    void createrAndStoreWhereFilesAreChangedAddedAndDeleted() throws IOException {
+        // Initialize
+        writeJavaSourceFile("Product", "String", "name");
+        sut.createrAndStore(paths(projectPath), new LinkedList<>(), storagePath);
+        writeJavaSourceFile("Customer", "Product", "favouriteProduct");
+        writeJavaSourceFile("Invoice", "Order", "order");
+        Files.delete(javaSourceFile("Product"));
+        writeJavaSourceFile("Product", "String", "name");
+        Files.move(javaSourceFile("Product"), javaSourceFile("Item"));
+        IncrementalModelBuilderMock incrementalModelBuilder = new IncrementalModelBuilderMock();
+        sut.incrementalModelBuilder = incrementalModelBuilder;
+        // Test
+        JavaProjectObjectModel result = sut.createrAndStore(paths(projectPath), new LinkedList<>(), storagePath);
+        // Verify
+        JavaProjectObjectModel expected = new JavaProjectObjectModelFactoryImpl().createrAndStore(paths(projectPath),
+                new LinkedList<>(), fs.getPath("/Users/Cody/expected.snapshot"));
+        assertThat(describe(result)).isEqualTo(describe(expected));
+        assertThat(describe(sut.loadAndCreate(storagePath))).isEqualTo(describe(expected));
+        assertOrderHasCustomerField(result);
+        assertReverseFieldIndexIsComplete(result);
+        assertReverseFieldIndexIsComplete(sut.loadAndCreate(storagePath));
+        assertDependencyRollupsAreComplete(result, projectPath);
+        assertThat(result.getDependencyRollups().getModuleWeight(projectPath, projectPath)).isEqualTo(3);
+        assertThat(sut.loadAndCreate(storagePath).getDependencyRollups().getModuleDependencies()).isEqualTo(
+                result.getDependencyRollups().getModuleDependencies());
+        assertThat(sut.loadAndMap(storagePath).getDependencyRollups().getModuleDependencies()).isEqualTo(
+                result.getDependencyRollups().getModuleDependencies());
+        assertThat(result.getAllTypesGivenName("Invoice").get(0).getFields().get(0).getType()).isSameAs(
+                result.getAllTypesGivenName("Order").get(0));
+        // Customer and Item are changed, Invoice is added, and Order refers to the changed Customer.
+        assertThat(incrementalModelBuilder.parsedPaths).containsExactlyInAnyOrder(javaSourceFile("Customer"),
+                javaSourceFile("Item"), javaSourceFile("Invoice"), javaSourceFile("Order"));
+    }
+
+    @Test
+    void createrAndStoreWhereFieldIsWiredToAShadowingType() throws IOException {
+        // Initialize
+        Path billingProduct = projectPath.resolve("src/main/java/org/teinelund/ordersystem/billing/Product.java");
+        Files.createDirectories(billingProduct.getParent());
+        Files.write(billingProduct, ("package " + PACKAGE_NAME + ".billing;\n\npublic class Product {}\n").
+                getBytes(StandardCharsets.UTF_8));
+        Files.write(javaSourceFile("Catalog"), ("package " + PACKAGE_NAME + ";\n\nimport " + PACKAGE_NAME +
+                ".billing.*;\n\npublic class Catalog {\n   private Product product;\n}\n").
+                getBytes(StandardCharsets.UTF_8));
+        JavaProjectObjectModel before = sut.createrAndStore(paths(projectPath), new LinkedList<>(), storagePath);
+        assertThat(before.getReverseFieldIndex().getHolders(before.getTypeByQualifiedName(PACKAGE_NAME +
+                ".billing.Product"))).hasSize(1);
+        // Test
+        writeJavaSourceFile("Product", "String", "name");
+        JavaProjectObjectModel result = sut.createrAndStore(paths(projectPath), new LinkedList<>(), storagePath);
+        // Verify
+        JavaTypeDeclarationPath catalog = result.getTypeByQualifiedName(PACKAGE_NAME + ".Catalog");
+        JavaTypeDeclarationPath product = result.getTypeByQualifiedName(PACKAGE_NAME + ".Product");
+        assertThat(catalog.getFields().get(0).getType()).isSameAs(product);
+        assertThat(result.getReverseFieldIndex().getHolders(product)).containsExactly(catalog);
+        assertThat(result.getReverseFieldIndex().getHolders(result.getTypeByQualifiedName(PACKAGE_NAME +
+                ".billing.Product"))).isEmpty();
+        assertReverseFieldIndexIsComplete(result);
+        assertDependencyRollupsAreComplete(result, projectPath);
+    }
+
+    @Test
+    void createrAndStoreWhereNoFileIsChanged() throws IOException {
+        // Initialize
+        sut.createrAndStore(paths(projectPath), new LinkedList<>(), storagePath);
+        writeJavaSourceFile("Customer", "String", "name");
+        IncrementalModelBuilderMock incrementalModelBuilder = new IncrementalModelBuilderMock();
+        sut.incrementalModelBuilder = incrementalModelBuilder;
+        // Test
+        JavaProjectObjectModel result = sut.createrAndStore(paths(projectPath), new LinkedList<>(), storagePath);
+        // Verify
+        assertThat(result.getAllTypeNames()).containsExactlyInAnyOrder("Customer", "Order");
+        assertOrderHasCustomerField(result);
+        assertThat(incrementalModelBuilder.parsedPaths).isEmpty();
+    }
+
+    @Test
+    void createrAndStoreWhereManifestIsMissing() throws IOException {
+        // Initialize
+        sut.createrAndStore(paths(projectPath), new LinkedList<>(), storagePath);
+        Files.delete(SourceFileManifest.manifestPath(storagePath));
+        IncrementalModelBuilderMock incrementalModelBuilder = new IncrementalModelBuilderMock();
+        sut.incrementalModelBuilder = incrementalModelBuilder;
+        // Test
+        JavaProjectObjectModel result = sut.createrAndStore(paths(projectPath), new LinkedList<>(), storagePath);
+        // Verify
+        assertOrderHasCustomerField(result);
+        assertThat(incrementalModelBuilder.parsedPaths).hasSize(2);
+        assertThat(Files.exists(SourceFileManifest.manifestPath(storagePath))).isTrue();
+    }
+
+    @Test
+    void createrAndStoreWhereSnapshotIsDamaged() throws IOException {
+        // Initialize
+        sut.createrAndStore(paths(projectPath), new LinkedList<>(), storagePath);
+        // The header is intact, and the field of Order refers to a type that does not exist.
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(storagePath));
+        buffer.putInt(buffer.getInt(JavaProjectObjectModelSnapshot.HEADER_FIELD_RECORDS_OFFSET) + 4, 1000);
+        Files.write(storagePath, buffer.array());
+        IncrementalModelBuilderMock incrementalModelBuilder = new IncrementalModelBuilderMock();
+        sut.incrementalModelBuilder = incrementalModelBuilder;
+        // Test
+        JavaProjectObjectModel result = sut.createrAndStore(paths(projectPath), new LinkedList<>(), storagePath);
+        // Verify
+        assertOrderHasCustomerField(result);
+        assertThat(incrementalModelBuilder.parsedPaths).hasSize(2);
+        assertOrderHasCustomerField(sut.loadAndCreate(storagePath));
+    }
+
+    @Test
+    void createrAndStoreSyntheticCodebase() throws IOException {
+        // Initialize
+        Path rootPath = fs.getPath("/Users/Cody/Projects/Synthetic");
+        List<SyntheticCodebaseGenerator.SyntheticType> types = SyntheticCodebaseGenerator.builder().setSeed(17).
+                setNumberOfModules(3).setPackageDepth(3).setPackagesPerModule(4).setTypesPerPackage(5).
+                setFieldsPerType(5).setNameCollisionRate(0.6).build().generate(rootPath);
+        // Test
+        JavaProjectObjectModel result = sut.createrAndStore(paths(rootPath), new LinkedList<>(), null);
+        // Verify
+        assertThat(result.getAllTypeNames().size()).isLessThan(types.size());
+        assertFieldsAreWired(result, types);
+        assertReverseFieldIndexIsComplete(result);
+        assertDependencyRollupsAreComplete(result, rootPath);
+        assertThat(result.getDependencyRollups().getModuleDependencies()).hasSize(3);
+    }
+
+    @Test
+    void createrAndStoreSyntheticCodebaseWithLexicalExtraction() throws IOException {
+        // Initialize
+        Path rootPath = fs.getPath("/Users/Cody/Projects/Synthetic");
+        List<SyntheticCodebaseGenerator.SyntheticType> types = SyntheticCodebaseGenerator.builder().setSeed(17).
+                setNumberOfModules(3).setPackageDepth(3).setPackagesPerModule(4).setTypesPerPackage(5).
+                setFieldsPerType(5).setNameCollisionRate(0.6).build().generate(rootPath);
+        sut.setLexicalExtraction(true);
+        // Test
+        JavaProjectObjectModel result = sut.createrAndStore(paths(rootPath), new LinkedList<>(), storagePath);
+        // Verify
+        assertFieldsAreWired(result, types);
+        assertDependencyRollupsAreComplete(result, rootPath);
+    }
+
+    @Test
+    void createrAndStoreWithLexicalExtractionWhereMethodBodyIsNotJava() throws IOException {
+        // Initialize
+        Files.write(javaSourceFile("Invoice"), ("package " + PACKAGE_NAME + ";\n\n" +
+                "public class Invoice {\n" +
+                "   private Order order;\n" +
+                "   void print() { this is not java }\n" +
+                "}\n").getBytes(StandardCharsets.UTF_8));
+        sut.setLexicalExtraction(true);
+        sut.setMemoryCeiling(1 << 20);
+        // Test
+        JavaProjectObjectModel result = sut.createrAndStore(paths(projectPath), new LinkedList<>(), storagePath);
+        // Verify
+        assertThat(result.getAllTypesGivenName("Invoice").get(0).getFields().get(0).getType()).isSameAs(
+                result.getAllTypesGivenName("Order").get(0));
+        // The setting is given to the builders, and the shared parser is left as it is.
+        assertThat(JavaSourceFileParser.instance().isLexicalExtraction()).isFalse();
+        assertThatThrownBy(() -> new JavaProjectObjectModelFactoryImpl().createrAndStore(paths(projectPath),
+                new LinkedList<>(), null)).isInstanceOf(ParseProblemException.class);
+    }
+
+    @Test
+    void createrAndStoreWithMemoryCeiling() throws IOException {
+        // Initialize
+        Path rootPath = fs.getPath("/Users/Cody/Projects/Synthetic");
+        List<SyntheticCodebaseGenerator.SyntheticType> types = SyntheticCodebaseGenerator.builder().setSeed(23).
+                setNumberOfModules(3).setPackageDepth(3).setPackagesPerModule(4).setTypesPerPackage(5).
+                setFieldsPerType(5).setNameCollisionRate(0.6).build().generate(rootPath);
+        Path spillDirectory = fs.getPath("/Users/Cody/spill");
+        sut.setMemoryCeiling(1024);
+        sut.setSpillDirectory(spillDirectory);
+        // Test
+        JavaProjectObjectModel result = sut.createrAndStore(paths(rootPath), new LinkedList<>(), storagePath);
+        // Verify
+        JavaProjectObjectModel expected = new JavaProjectObjectModelFactoryImpl().createrAndStore(paths(rootPath),
+                new LinkedList<>(), null);
+        assertThat(describe(result)).isEqualTo(describe(expected));
+        assertThat(describe(sut.loadAndCreate(storagePath))).isEqualTo(describe(expected));
+        assertFieldsAreWired(result, types);
+        assertReverseFieldIndexIsComplete(result);
+        assertDependencyRollupsAreComplete(result, rootPath);
+        assertThat(result.getDependencyRollups().getModuleDependencies()).isEqualTo(
+                expected.getDependencyRollups().getModuleDependencies());
+        assertThat(sut.loadAndCreate(storagePath).getDependencyRollups().getModuleDependencies()).isEqualTo(
+                expected.getDependencyRollups().getModuleDependencies());
+        assertThat(sut.loadAndMap(storagePath).getDependencyRollups().getModuleDependencies()).isEqualTo(
+                expected.getDependencyRollups().getModuleDependencies());
+        assertThat(Files.exists(SourceFileManifest.manifestPath(storagePath))).isFalse();
+        try (Stream<Path> stream = Files.list(spillDirectory)) {
+            assertThat(stream.count()).isEqualTo(0);
+        }
+    }
+
+    @Test
+    void createrAndStoreWithMemoryCeilingRecordsBuildMetrics() throws IOException {
+        // Initialize
+        sut.setMemoryCeiling(1 << 20);
+        // Test
+        JavaProjectObjectModel result = sut.createrAndStore(paths(projectPath), new LinkedList<>(), storagePath);
+        // Verify
+        assertOrderHasCustomerField(result);
+        assertBuildMetrics(sut.getBuildMetrics());
+        assertThat(sut.getBuildMetrics().getWallTimeNanos(BuildMetrics.Phase.STORE)).isGreaterThan(0);
+    }
+
+    @Test
+    void createrAndStoreWithMemoryCeilingWhereStoragePathIsMissing() {
+        // Initialize
+        sut.setMemoryCeiling(1 << 20);
+        // Test
+        // Verify
+        assertThatThrownBy(() -> sut.createrAndStore(paths(projectPath), new LinkedList<>(), null)).isInstanceOf(
+                IllegalArgumentException.class);
+    }
+
+    void assertFieldsAreWired(JavaProjectObjectModel result, List<SyntheticCodebaseGenerator.SyntheticType> types) {
+        for (SyntheticCodebaseGenerator.SyntheticType type : types) {
+            List<String> expectedFields = new ArrayList<>();
+            for (int i = 0; i < type.getFieldTypes().size(); i++) {
+                expectedFields.add(type.getFieldName(i) + ":" + type.getFieldTypes().get(i).getQualifiedName());
+            }
+            List<String> fields = new ArrayList<>();
+            for (Field field : result.getTypeByQualifiedName(type.getQualifiedName()).getFields()) {
+                fields.add(field.getName() + ":" + field.getType().getPackageName() + "." + field.getType().getName());
+            }
+            assertThat(fields).isEqualTo(expectedFields);
+        }
+    }
+
+    /**
+     * Compare the reverse field index of jpom with the holders found by scanning the fields of all types.
+     */
+    void assertReverseFieldIndexIsComplete(JavaProjectObjectModel jpom) {
+        Map<JavaTypeDeclarationPath, Set<JavaTypeDeclarationPath>> expectedHolders = new IdentityHashMap<>();
+        List<JavaTypeDeclarationPath> types = new ArrayList<>();
+        for (String typeName : jpom.getAllTypeNames()) {
+            types.addAll(jpom.getAllTypesGivenName(typeName));
+        }
+        for (JavaTypeDeclarationPath jtdp : types) {
+            for (Field field : jtdp.getFields()) {
+                expectedHolders.computeIfAbsent(field.getType(), key -> new LinkedHashSet<>()).add(jtdp);
+            }
+        }
+        for (JavaTypeDeclarationPath jtdp : types) {
+            assertThat(jpom.getReverseFieldIndex().getHolders(jtdp)).containsExactlyInAnyOrderElementsOf(
+                    expectedHolders.getOrDefault(jtdp, Collections.emptySet()));
+        }
+    }
+
+    /**
+     * Compare the dependency rollups of jpom with the weights found by scanning the fields of all types. The modules
+     * are the directories with a pom.xml file below rootPath.
+     */
+    void assertDependencyRollupsAreComplete(JavaProjectObjectModel jpom, Path rootPath) throws IOException {
+        Set<Path> modulePaths;
+        try (Stream<Path> stream = Files.walk(rootPath)) {
+            modulePaths = stream.filter(path -> path.getFileName().toString().equals("pom.xml")).
+                    map(Path::getParent).collect(Collectors.toSet());
+        }
+        Map<String, Map<String, Integer>> expectedPackageWeights = new HashMap<>();
+        Map<Path, Map<Path, Integer>> expectedModuleWeights = new HashMap<>();
+        for (String typeName : jpom.getAllTypeNames()) {
+            for (JavaTypeDeclarationPath jtdp : jpom.getAllTypesGivenName(typeName)) {
+                for (Field field : jtdp.getFields()) {
+                    expectedPackageWeights.computeIfAbsent(jtdp.getPackageName(), key -> new HashMap<>()).merge(
+                            field.getType().getPackageName(), 1, Integer::sum);
+                    expectedModuleWeights.computeIfAbsent(findModule(jtdp, modulePaths), key -> new HashMap<>()).
+                            merge(findModule(field.getType(), modulePaths), 1, Integer::sum);
+                }
+            }
+        }
+        assertThat(jpom.getDependencyRollups().getPackageDependencies()).isEqualTo(expectedPackageWeights);
+        assertThat(jpom.getDependencyRollups().getModuleDependencies()).isEqualTo(expectedModuleWeights);
+    }
+
+    Path findModule(JavaTypeDeclarationPath jtdp, Set<Path> modulePaths) {
+        Path path = jtdp.getPathToTypeDeclaration();
+        while (!modulePaths.contains(path)) {
+            path = path.getParent();
+        }
+        return path;
+    }
+
+    List<String> describe(JavaProjectObjectModel jpom) {
+        List<String> descriptions = new ArrayList<>();
+        for (String typeName : jpom.getAllTypeNames()) {
+            for (JavaTypeDeclarationPath jtdp : jpom.getAllTypesGivenName(typeName)) {
+                StringBuilder sb = new StringBuilder(jtdp.getPackageName() + "." + jtdp.getName() + " " +
+                        jtdp.getPathToTypeDeclaration());
+                for (Field field : jtdp.getFields()) {
+                    sb.append(" " + field.getName() + ":" + field.getType().getPackageName() + "." +
+                            field.getType().getName());
+                }
+                descriptions.add(sb.toString());
+            }
+        }
+        Collections.sort(descriptions);
+        return descriptions;
+    }
+
+    void assertBuildMetrics(BuildMetrics metrics) throws IOException {
+        assertThat(metrics.getWallTimeNanos(BuildMetrics.Phase.TOTAL)).isGreaterThan(0);
+        assertThat(metrics.getWallTimeNanos(BuildMetrics.Phase.DISCOVER)).isGreaterThan(0);
+        assertThat(metrics.getWallTimeNanos(BuildMetrics.Phase.PARSE)).isGreaterThan(0);
+        assertThat(metrics.getDirectoriesListed()).isGreaterThan(0);
+        assertThat(metrics.getFilesStated()).isGreaterThan(2);
+        assertThat(metrics.getBytesRead()).isEqualTo(Files.size(javaSourceFile("Customer")) +
+                Files.size(javaSourceFile("Order")));
+        assertThat(metrics.getFilesParsed()).isEqualTo(2);
+        assertThat(metrics.getParseTimeNanos(100)).isGreaterThanOrEqualTo(metrics.getParseTimeNanos(50));
+        assertThat(metrics.getTypesIndexed()).isEqualTo(2);
+        // Order.customer is resolved, Customer.name is a String.
+        assertThat(metrics.getFieldsResolved()).isEqualTo(1);
+        assertThat(metrics.getFieldsUnresolved()).isEqualTo(1);
+        assertThat(metrics.getPeakHeapBytes()).isGreaterThan(0);
+    }
+
+    void assertOrderHasCustomerField(JavaProjectObjectModel jpom) {
+        JavaTypeDeclarationPath order = jpom.getAllTypesGivenName("Order").get(0);
+        assertThat(order.getFields().size()).isEqualTo(1);
+        assertThat(order.getFields().get(0).getName()).isEqualTo("customer");
+        assertThat(order.getFields().get(0).getType()).isSameAs(jpom.getAllTypesGivenName("Customer").get(0));
+    }
+
+    List<Path> paths(Path path) {
+        List<Path> paths = new LinkedList<>();
+        paths.add(path);
+        return paths;
+    }
+
+    Path javaSourceFile(String className) {
+        return projectPath.resolve("src/main/java/org/teinelund/ordersystem/" + className + ".java");
+    }
+
+    void writeJavaSourceFile(String className, String fieldType, String fieldName) throws IOException {
+        Path path = javaSourceFile(className);
+        Files.createDirectories(path.getParent());
+        String source = "package " + PACKAGE_NAME + ";\n\n" +
+                "public class " + className + " {\n" +
+                "   private " + fieldType + " " + fieldName + ";\n" +
+                "}\n";
+        Files.write(path, source.getBytes(StandardCharsets.UTF_8));
+    }
+}
+
+class IncrementalModelBuilderMock extends IncrementalModelBuilder {
+
+    final List<Path> parsedPaths = Collections.synchronizedList(new ArrayList<>());
+
+    @Override
+    List<JavaTypeDeclarationPath> parseJavaFile(byte[] content, Path path) {
+        parsedPaths.add(path);
+        return super.parseJavaFile(content, path);
+    }
+}
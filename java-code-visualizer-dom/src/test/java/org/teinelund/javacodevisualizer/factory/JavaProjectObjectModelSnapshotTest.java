@@ -0,0 +1,311 @@
+package org.teinelund.javacodevisualizer.factory;
+
+import com.google.common.jimfs.Configuration;
+import com.google.common.jimfs.Jimfs;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.teinelund.javacodevisualizer.dom.AccessModifier;
+import org.teinelund.javacodevisualizer.dom.DomainObjectModelFactory;
+import org.teinelund.javacodevisualizer.dom.JavaProjectObjectModel;
+import org.teinelund.javacodevisualizer.dom.JavaType;
+import org.teinelund.javacodevisualizer.dom.JavaTypeDeclarationPath;
+import org.teinelund.javacodevisualizer.dom.JavaTypeDeclarationPathBuilder;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.FileSystem;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+class JavaProjectObjectModelSnapshotTest {
+
+    private static FileSystem fs = null;
+    private static JavaProjectObjectModelSnapshot sut = null;
+    private static Path storagePath = null;
+
+    private final String PACKAGE_NAME_ORDERSYSTEM = "org.teinelund.ordersystem";
+    private final String PACKAGE_NAME_TICKETAPP = "org.teinelund.ticketapp";
+    private final String CLASS_NAME_CUSTOMER = "Customer";
+    private final String CLASS_NAME_ORDER = "Order";
+    private final String ENUM_NAME_STATUS = "Status";
+
+    @BeforeAll
+    static void setup() throws IOException {
+        sut = JavaProjectObjectModelSnapshot.instance();
+        fs = Jimfs.newFileSystem(Configuration.unix());
+        Files.createDirectories(fs.getPath("/Users/Cody/.jcv"));
+        storagePath = fs.getPath("/Users/Cody/.jcv/model.snapshot");
+    }
+
+    @Test
+    void writeAndRead() throws IOException {
+        // Initialize
+        JavaProjectObjectModel jpom = createJavaProjectObjectModel();
+        // Test
+        sut.write(jpom, storagePath);
+        JavaProjectObjectModel result = sut.read(storagePath);
+        // Verify
+        assertThat(result.getAllTypeNames()).containsExactlyInAnyOrder(CLASS_NAME_CUSTOMER, CLASS_NAME_ORDER, ENUM_NAME_STATUS);
+        assertThat(result.getAllPackageNames()).containsExactlyInAnyOrder(PACKAGE_NAME_ORDERSYSTEM, PACKAGE_NAME_TICKETAPP);
+        assertThat(result.getAllTypesGivenName(CLASS_NAME_CUSTOMER).size()).isEqualTo(2);
+        assertThat(result.getAllTypesGivenPackageName(PACKAGE_NAME_ORDERSYSTEM).size()).isEqualTo(3);
+        JavaTypeDeclarationPath order = result.getAllTypesGivenName(CLASS_NAME_ORDER).get(0);
+        assertThat(order.getPackageName()).isEqualTo(PACKAGE_NAME_ORDERSYSTEM);
+        assertThat(order.getJavaType()).isEqualTo(JavaType.CLASS);
+        assertThat(order.getAccessModifier()).isEqualTo(AccessModifier.PUBLIC);
+        assertThat(order.getPathToTypeDeclaration()).isEqualTo(fs.getPath("/Users/Cody/Projects/Project/src/Order.java"));
+        assertThat(order.getFields().size()).isEqualTo(2);
+        assertThat(order.getFields().get(0).getName()).isEqualTo("customer");
+        assertThat(order.getFields().get(0).getType().getName()).isEqualTo(CLASS_NAME_CUSTOMER);
+        assertThat(order.getFields().get(0).getType().getPackageName()).isEqualTo(PACKAGE_NAME_TICKETAPP);
+        assertThat(order.getFields().get(1).getName()).isEqualTo("status");
+        assertThat(order.getFields().get(1).getType()).isSameAs(result.getAllTypesGivenName(ENUM_NAME_STATUS).get(0));
+        JavaTypeDeclarationPath status = result.getAllTypesGivenName(ENUM_NAME_STATUS).get(0);
+        assertThat(status.getJavaType()).isEqualTo(JavaType.ENUM);
+        assertThat(status.getAccessModifier()).isEqualTo(AccessModifier.PACKAGE);
+        assertThat(status.getFields()).isEmpty();
+    }
+
+    @Test
+    void writeAndReadEmptyModel() throws IOException {
+        // Initialize
+        JavaProjectObjectModel jpom = DomainObjectModelFactory.instance().createJavaProjectObjectModel();
+        // Test
+        sut.write(jpom, storagePath);
+        JavaProjectObjectModel result = sut.read(storagePath);
+        // Verify
+        assertThat(result.getAllTypeNames()).isEmpty();
+        assertThat(result.getAllPackageNames()).isEmpty();
+    }
+
+    @Test
+    void writeWhereSnapshotExists() throws IOException {
+        // Initialize
+        sut.write(DomainObjectModelFactory.instance().createJavaProjectObjectModel(), storagePath);
+        // Test
+        sut.write(createJavaProjectObjectModel(), storagePath);
+        // Verify
+        assertThat(sut.read(storagePath).getAllTypeNames()).containsExactlyInAnyOrder(CLASS_NAME_CUSTOMER,
+                CLASS_NAME_ORDER, ENUM_NAME_STATUS);
+        assertThat(storagePath.resolveSibling("model.snapshot.tmp")).doesNotExist();
+    }
+
+    @Test
+    void readWhereFileIsNotASnapshot() throws IOException {
+        // Initialize
+        Path path = fs.getPath("/Users/Cody/.jcv/README.txt");
+        Files.write(path, "This is not a snapshot".getBytes());
+        // Test
+        Throwable result = catchThrowable(() -> sut.read(path));
+        // Verify
+        assertThat(result).isInstanceOf(IOException.class);
+    }
+
+    @Test
+    void readWhereSnapshotHasAnOtherVersion() throws IOException {
+        // Initialize
+        sut.write(createJavaProjectObjectModel(), storagePath);
+        byte[] bytes = Files.readAllBytes(storagePath);
+        bytes[7] = (byte) (JavaProjectObjectModelSnapshot.VERSION + 1);
+        Path path = fs.getPath("/Users/Cody/.jcv/other-version.snapshot");
+        Files.write(path, bytes);
+        // Test
+        Throwable result = catchThrowable(() -> sut.read(path));
+        // Verify
+        assertThat(result).isInstanceOf(IOException.class);
+        assertThat(result.getMessage()).contains("version");
+    }
+
+    @Test
+    void readWhereSnapshotIsTruncated() throws IOException {
+        // Initialize
+        sut.write(createJavaProjectObjectModel(), storagePath);
+        byte[] bytes = Files.readAllBytes(storagePath);
+        Path path = fs.getPath("/Users/Cody/.jcv/truncated.snapshot");
+        Files.write(path, Arrays.copyOf(bytes, bytes.length - 4));
+        // Test
+        Throwable readResult = catchThrowable(() -> sut.read(path));
+        Throwable mapResult = catchThrowable(() -> sut.map(path));
+        // Verify
+        assertThat(readResult).isInstanceOf(IOException.class);
+        assertThat(readResult.getMessage()).contains("damaged");
+        assertThat(mapResult).isInstanceOf(IOException.class);
+    }
+
+    @Test
+    void readWhereSnapshotHasADamagedOffset() throws IOException {
+        // Initialize
+        sut.write(createJavaProjectObjectModel(), storagePath);
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(storagePath));
+        buffer.putInt(JavaProjectObjectModelSnapshot.HEADER_FIELD_RECORDS_OFFSET, Integer.MAX_VALUE);
+        Path path = fs.getPath("/Users/Cody/.jcv/damaged.snapshot");
+        Files.write(path, buffer.array());
+        // Test
+        Throwable result = catchThrowable(() -> sut.read(path));
+        // Verify
+        assertThat(result).isInstanceOf(IOException.class);
+        assertThat(result.getMessage()).contains("damaged");
+    }
+
+    @Test
+    void writeAndMap() throws IOException {
+        // Initialize
+        JavaProjectObjectModel jpom = createJavaProjectObjectModel();
+        // Test
+        sut.write(jpom, storagePath);
+        JavaProjectObjectModel result = sut.map(storagePath);
+        // Verify
+        assertMappedModel(result, fs);
+    }
+
+    @Test
+    void writeAndMapWhereFileIsOnTheDefaultFileSystem(@TempDir Path temporaryDirectory) throws IOException {
+        // Initialize
+        JavaProjectObjectModel jpom = createJavaProjectObjectModel();
+        Path path = temporaryDirectory.resolve("model.snapshot");
+        // Test
+        sut.write(jpom, path);
+        JavaProjectObjectModel result = sut.map(path);
+        // Verify
+        assertMappedModel(result, temporaryDirectory.getFileSystem());
+    }
+
+    @Test
+    void writeAndMapWhereTypesShareAName() throws IOException {
+        // Initialize
+        List<JavaTypeDeclarationPath> list = new LinkedList<>();
+        for (String packageName : new String[] { "org.teinelund.z", PACKAGE_NAME_TICKETAPP, null, "org.teinelund.a" }) {
+            list.add(createType(CLASS_NAME_CUSTOMER, packageName, JavaType.CLASS, AccessModifier.PUBLIC));
+        }
+        list.add(createType(CLASS_NAME_CUSTOMER, PACKAGE_NAME_TICKETAPP, JavaType.INTERFACE, AccessModifier.PUBLIC));
+        JavaProjectObjectModel jpom = DomainObjectModelFactory.instance().createJavaProjectObjectModel();
+        jpom.addJavaTypeDeclarationPaths(list);
+        // Test
+        sut.write(jpom, storagePath);
+        JavaProjectObjectModel result = sut.map(storagePath);
+        // Verify
+        assertThat(result.getAllTypesGivenName(CLASS_NAME_CUSTOMER)).extracting(JavaTypeDeclarationPath::getPackageName)
+                .containsExactly(null, "org.teinelund.a", PACKAGE_NAME_TICKETAPP, PACKAGE_NAME_TICKETAPP, "org.teinelund.z");
+        for (String packageName : new String[] { "org.teinelund.z", PACKAGE_NAME_TICKETAPP, null, "org.teinelund.a" }) {
+            assertThat(result.getTypeByQualifiedName(packageName, CLASS_NAME_CUSTOMER).getPackageName())
+                    .isEqualTo(packageName);
+        }
+        assertThat(result.getTypeByQualifiedName(PACKAGE_NAME_TICKETAPP, CLASS_NAME_CUSTOMER).getJavaType())
+                .isEqualTo(JavaType.CLASS);
+        assertThat(result.getTypeByQualifiedName(PACKAGE_NAME_ORDERSYSTEM, CLASS_NAME_CUSTOMER)).isNull();
+        assertThat(result.getTypeByQualifiedName(CLASS_NAME_CUSTOMER, CLASS_NAME_CUSTOMER)).isNull();
+        assertThat(result.getTypeByQualifiedName(PACKAGE_NAME_TICKETAPP, CLASS_NAME_ORDER)).isNull();
+    }
+
+    @Test
+    void writeAndMapWhereNamesAreNotAscii() throws IOException {
+        // Initialize
+        String[] names = { "Zürich", "Ärende", "\uD835\uDC00rende", "Arende", "\u00E9v\u00E9nement" };
+        List<JavaTypeDeclarationPath> list = new LinkedList<>();
+        for (String name : names) {
+            list.add(createType(name, "org.teinelund.\u00E5tg\u00E4rd", JavaType.CLASS, AccessModifier.PUBLIC));
+        }
+        JavaProjectObjectModel jpom = DomainObjectModelFactory.instance().createJavaProjectObjectModel();
+        jpom.addJavaTypeDeclarationPaths(list);
+        // Test
+        sut.write(jpom, storagePath);
+        JavaProjectObjectModel result = sut.map(storagePath);
+        // Verify
+        for (String name : names) {
+            assertThat(result.getAllTypesGivenName(name)).extracting(JavaTypeDeclarationPath::getName).containsExactly(name);
+            assertThat(result.getTypeByQualifiedName("org.teinelund.\u00E5tg\u00E4rd", name).getName()).isEqualTo(name);
+        }
+        assertThat(result.getAllTypesGivenPackageName("org.teinelund.\u00E5tg\u00E4rd")).hasSize(names.length);
+        for (String name : new String[] { "Zürichs", "Züric", "Ä", "\uD835\uDC00", "\uD835\uDC01rende", "\uD835", "\uFFFF" }) {
+            assertThat(result.getAllTypesGivenName(name)).isEmpty();
+        }
+    }
+
+    @Test
+    void writeAndMapWhereHoldersAndRollupsAreQueried() throws IOException {
+        // Initialize
+        JavaProjectObjectModel jpom = createJavaProjectObjectModel();
+        JavaTypeDeclarationPath invoice = createType("Invoice", PACKAGE_NAME_TICKETAPP, JavaType.CLASS, AccessModifier.PUBLIC);
+        invoice.addField("order", jpom.getAllTypesGivenName(CLASS_NAME_ORDER).get(0));
+        invoice.addField("previousOrder", jpom.getAllTypesGivenName(CLASS_NAME_ORDER).get(0));
+        invoice.addField("status", jpom.getAllTypesGivenName(ENUM_NAME_STATUS).get(0));
+        jpom.addJavaTypeDeclarationPaths(Collections.singletonList(invoice));
+        // Test
+        sut.write(jpom, storagePath);
+        JavaProjectObjectModel expected = sut.read(storagePath);
+        JavaProjectObjectModel result = sut.map(storagePath);
+        // Verify
+        for (String name : new String[] { CLASS_NAME_ORDER, ENUM_NAME_STATUS, "Invoice" }) {
+            assertThat(result.getReverseFieldIndex().getHolders(result.getAllTypesGivenName(name).get(0)))
+                    .extracting(JavaTypeDeclarationPath::getName)
+                    .containsExactlyElementsOf(expected.getReverseFieldIndex().getHolders(
+                            expected.getAllTypesGivenName(name).get(0)).stream()
+                            .map(JavaTypeDeclarationPath::getName).collect(Collectors.toList()));
+        }
+        JavaTypeDeclarationPath customer = result.getTypeByQualifiedName(PACKAGE_NAME_TICKETAPP, CLASS_NAME_CUSTOMER);
+        assertThat(result.getReverseFieldIndex().getTransitiveHolders(customer))
+                .containsExactly(result.getAllTypesGivenName(CLASS_NAME_ORDER).get(0),
+                        result.getAllTypesGivenName("Invoice").get(0));
+        assertThat(result.getReverseFieldIndex().getHolders(expected.getAllTypesGivenName(CLASS_NAME_ORDER).get(0)))
+                .isEmpty();
+        assertThat(result.getDependencyRollups().getPackageDependencies())
+                .isEqualTo(expected.getDependencyRollups().getPackageDependencies());
+        assertThat(result.getDependencyRollups().getPackageWeight(PACKAGE_NAME_TICKETAPP, PACKAGE_NAME_ORDERSYSTEM))
+                .isEqualTo(3);
+        Throwable throwable = catchThrowable(() -> result.getReverseFieldIndex().remove(customer));
+        assertThat(throwable).isInstanceOf(UnsupportedOperationException.class);
+    }
+
+    void assertMappedModel(JavaProjectObjectModel result, FileSystem fileSystem) {
+        assertThat(result.getAllTypeNames()).containsExactlyInAnyOrder(CLASS_NAME_CUSTOMER, CLASS_NAME_ORDER, ENUM_NAME_STATUS);
+        assertThat(result.getAllPackageNames()).containsExactlyInAnyOrder(PACKAGE_NAME_ORDERSYSTEM, PACKAGE_NAME_TICKETAPP);
+        assertThat(result.getAllTypesGivenName(CLASS_NAME_CUSTOMER).size()).isEqualTo(2);
+        assertThat(result.getAllTypesGivenName("DoesNotExist")).isEmpty();
+        assertThat(result.getAllTypesGivenPackageName(PACKAGE_NAME_ORDERSYSTEM).size()).isEqualTo(3);
+        assertThat(result.getAllTypesGivenPackageName(PACKAGE_NAME_TICKETAPP).get(0).getName()).isEqualTo(CLASS_NAME_CUSTOMER);
+        JavaTypeDeclarationPath order = result.getAllTypesGivenName(CLASS_NAME_ORDER).get(0);
+        assertThat(order).isSameAs(result.getAllTypesGivenName(CLASS_NAME_ORDER).get(0));
+        assertThat(order.getPackageName()).isEqualTo(PACKAGE_NAME_ORDERSYSTEM);
+        assertThat(order.getJavaType()).isEqualTo(JavaType.CLASS);
+        assertThat(order.getAccessModifier()).isEqualTo(AccessModifier.PUBLIC);
+        assertThat(order.getPathToTypeDeclaration()).isEqualTo(fileSystem.getPath("/Users/Cody/Projects/Project/src/Order.java"));
+        assertThat(order.getFields().size()).isEqualTo(2);
+        assertThat(order.getFields().get(0).getName()).isEqualTo("customer");
+        assertThat(order.getFields().get(0).getType().getPackageName()).isEqualTo(PACKAGE_NAME_TICKETAPP);
+        assertThat(order.getFields().get(1).getType()).isSameAs(result.getAllTypesGivenName(ENUM_NAME_STATUS).get(0));
+        Throwable throwable = catchThrowable(() -> order.addField("name", order));
+        assertThat(throwable).isInstanceOf(UnsupportedOperationException.class);
+    }
+
+    JavaProjectObjectModel createJavaProjectObjectModel() {
+        JavaTypeDeclarationPath customer1 = createType(CLASS_NAME_CUSTOMER, PACKAGE_NAME_ORDERSYSTEM, JavaType.CLASS, AccessModifier.PUBLIC);
+        JavaTypeDeclarationPath customer2 = createType(CLASS_NAME_CUSTOMER, PACKAGE_NAME_TICKETAPP, JavaType.CLASS, AccessModifier.PUBLIC);
+        JavaTypeDeclarationPath order = createType(CLASS_NAME_ORDER, PACKAGE_NAME_ORDERSYSTEM, JavaType.CLASS, AccessModifier.PUBLIC);
+        JavaTypeDeclarationPath status = createType(ENUM_NAME_STATUS, PACKAGE_NAME_ORDERSYSTEM, JavaType.ENUM, AccessModifier.PACKAGE);
+        order.addField("customer", customer2);
+        order.addField("status", status);
+        List<JavaTypeDeclarationPath> list = new LinkedList<>();
+        list.add(customer1);
+        list.add(customer2);
+        list.add(order);
+        list.add(status);
+        JavaProjectObjectModel jpom = DomainObjectModelFactory.instance().createJavaProjectObjectModel();
+        jpom.addJavaTypeDeclarationPaths(list);
+        return jpom;
+    }
+
+    JavaTypeDeclarationPath createType(String name, String packageName, JavaType javaType, AccessModifier accessModifier) {
+        return JavaTypeDeclarationPathBuilder.builder().setName(name).setPackageName(packageName).
+                setJavaType(javaType).setAccessModifier(accessModifier).
+                setPathToTypeDeclaration(fs.getPath("/Users/Cody/Projects/Project/src/" + name + ".java")).build();
+    }
+}
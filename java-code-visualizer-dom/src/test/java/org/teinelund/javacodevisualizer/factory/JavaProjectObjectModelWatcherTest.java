@@ -0,0 +1,204 @@
+package org.teinelund.javacodevisualizer.factory;
+
+import com.google.common.jimfs.Configuration;
+import com.google.common.jimfs.Jimfs;
+import com.google.common.jimfs.WatchServiceConfiguration;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.teinelund.javacodevisualizer.dom.JavaTypeDeclarationPath;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystem;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JavaProjectObjectModelWatcherTest {
+
+    private FileSystem fs = null;
+    private JavaProjectObjectModelWatcher sut = null;
+    private Path projectPath = null;
+    private final LinkedBlockingQueue<Set<Path>> updates = new LinkedBlockingQueue<>();
+    private final LinkedBlockingQueue<Set<Path>> failures = new LinkedBlockingQueue<>();
+
+    private final String PACKAGE_NAME = "org.teinelund.ordersystem";
+
+    @BeforeEach
+    void initTest() throws IOException {
+        fs = Jimfs.newFileSystem(Configuration.unix().toBuilder().setWatchServiceConfiguration(
+                WatchServiceConfiguration.polling(5, TimeUnit.MILLISECONDS)).build());
+        projectPath = fs.getPath("/Users/Cody/Projects/Project");
+        Files.createDirectories(projectPath);
+        Files.createFile(projectPath.resolve("pom.xml"));
+        writeJavaSourceFile("Customer", "String", "name");
+        writeJavaSourceFile("Order", "Customer", "customer");
+        JavaProjectObjectModelFactoryImpl factory = new JavaProjectObjectModelFactoryImpl();
+        factory.setDebounceMillis(20);
+        List<Path> paths = new LinkedList<>();
+        paths.add(projectPath);
+        sut = factory.createAndWatch(paths, new LinkedList<>());
+        sut.addListener(new JavaProjectObjectModelWatcher.Listener() {
+            @Override
+            public void modelUpdated(Set<Path> changedPaths) {
+                updates.add(changedPaths);
+            }
+
+            @Override
+            public void modelUpdateFailed(Set<Path> paths, Exception exception) {
+                failures.add(paths);
+            }
+        });
+    }
+
+    @AfterEach
+    void cleanUpTest() throws IOException {
+        sut.close();
+        fs.close();
+    }
+
+    @Test
+    void createAndWatch() {
+        // Initialize
+        // Test
+        // Verify
+        assertThat(typeNames().size()).isEqualTo(2);
+        assertThat(orderCustomerField(type("Order"))).isEqualTo(
+                "customer:" + PACKAGE_NAME + ".Customer");
+    }
+
+    @Test
+    void modifyFile() throws Exception {
+        // Initialize
+        JavaTypeDeclarationPath oldCustomer = type("Customer");
+        // Test
+        writeJavaSourceFile("Customer", "Order", "lastOrder");
+        // Verify
+        assertThat(awaitUpdate()).containsExactly(javaSourceFile("Customer"));
+        JavaTypeDeclarationPath customer = type("Customer");
+        assertThat(customer).isNotSameAs(oldCustomer);
+        assertThat(customer.getFields().get(0).getName()).isEqualTo("lastOrder");
+        assertThat(type("Order").getFields().get(0).getType()).isSameAs(customer);
+    }
+
+    @Test
+    void addFileInNewDirectory() throws Exception {
+        // Initialize
+        // Test
+        writeJavaSourceFile("billing", "Invoice", "Order", "order");
+        // Verify
+        assertThat(awaitUpdate()).containsExactly(javaSourceFile("billing", "Invoice"));
+        assertThat(packageNames()).contains(PACKAGE_NAME + ".billing");
+        assertThat(type("Invoice").getFields().get(0).getType()).isSameAs(type("Order"));
+    }
+
+    @Test
+    void deleteFile() throws Exception {
+        // Initialize
+        // Test
+        Files.delete(javaSourceFile("Customer"));
+        // Verify
+        assertThat(awaitUpdate()).containsExactly(javaSourceFile("Customer"));
+        assertThat(typeNames()).containsExactly("Order");
+        assertThat(type("Order").getFields()).isEmpty();
+    }
+
+    @Test
+    void saveFilesInBurst() throws Exception {
+        // Initialize
+        // Test
+        for (int i = 0; i < 5; i++) {
+            writeJavaSourceFile("Product" + i, "Customer", "customer");
+        }
+        // Verify
+        int numberOfTypes = 2;
+        while (numberOfTypes < 7) {
+            numberOfTypes += awaitUpdate().size();
+        }
+        assertThat(typeNames().size()).isEqualTo(7);
+    }
+
+    @Test
+    void saveFileThatDoesNotParse() throws Exception {
+        // Initialize
+        Files.write(javaSourceFile("Customer"), "public class Customer {".getBytes(StandardCharsets.UTF_8));
+        assertThat(failures.poll(5, TimeUnit.SECONDS)).contains(javaSourceFile("Customer"));
+        assertThat(orderCustomerField(type("Order"))).isEqualTo("customer:" + PACKAGE_NAME + ".Customer");
+        // Test
+        writeJavaSourceFile("Customer", "Order", "lastOrder");
+        // Verify
+        assertThat(awaitUpdate()).containsExactly(javaSourceFile("Customer"));
+        assertThat(type("Customer").getFields().get(0).getName()).isEqualTo("lastOrder");
+    }
+
+    @Test
+    void modifyFileWhereAnOtherFileDoesNotParse() throws Exception {
+        // Initialize
+        Files.write(javaSourceFile("Customer"), "public class Customer {".getBytes(StandardCharsets.UTF_8));
+        assertThat(failures.poll(5, TimeUnit.SECONDS)).containsExactly(javaSourceFile("Customer"));
+        // Test
+        writeJavaSourceFile("Order", "Customer", "buyer");
+        // Verify
+        assertThat(awaitUpdate()).containsExactly(javaSourceFile("Order"));
+        assertThat(type("Order").getFields().get(0).getName()).isEqualTo("buyer");
+        assertThat(type("Order").getFields().get(0).getType()).isSameAs(type("Customer"));
+        assertThat(failures.poll(5, TimeUnit.SECONDS)).containsExactly(javaSourceFile("Customer"));
+    }
+
+    Set<Path> awaitUpdate() throws InterruptedException {
+        Set<Path> changedPaths = updates.poll(5, TimeUnit.SECONDS);
+        assertThat(changedPaths).isNotNull();
+        return changedPaths;
+    }
+
+    JavaTypeDeclarationPath type(String name) {
+        return sut.query(jpom -> jpom.getAllTypesGivenName(name).get(0));
+    }
+
+    List<String> typeNames() {
+        return sut.query(jpom -> new ArrayList<>(jpom.getAllTypeNames()));
+    }
+
+    List<String> packageNames() {
+        return sut.query(jpom -> new ArrayList<>(jpom.getAllPackageNames()));
+    }
+
+    String orderCustomerField(JavaTypeDeclarationPath order) {
+        return order.getFields().get(0).getName() + ":" + order.getFields().get(0).getType().getPackageName() + "." +
+                order.getFields().get(0).getType().getName();
+    }
+
+    Path javaSourceFile(String className) {
+        return projectPath.resolve("src/main/java/org/teinelund/ordersystem/" + className + ".java");
+    }
+
+    Path javaSourceFile(String subPackageName, String className) {
+        return projectPath.resolve("src/main/java/org/teinelund/ordersystem/" + subPackageName + "/" + className + ".java");
+    }
+
+    void writeJavaSourceFile(String className, String fieldType, String fieldName) throws IOException {
+        writeJavaSourceFile(javaSourceFile(className), PACKAGE_NAME, className, fieldType, fieldName);
+    }
+
+    void writeJavaSourceFile(String subPackageName, String className, String fieldType, String fieldName) throws IOException {
+        writeJavaSourceFile(javaSourceFile(subPackageName, className), PACKAGE_NAME + "." + subPackageName,
+                className, "org.teinelund.ordersystem." + fieldType, fieldName);
+    }
+
+    void writeJavaSourceFile(Path path, String packageName, String className, String fieldType, String fieldName) throws IOException {
+        Files.createDirectories(path.getParent());
+        String source = "package " + packageName + ";\n\n" +
+                "public class " + className + " {\n" +
+                "   private " + fieldType + " " + fieldName + ";\n" +
+                "}\n";
+        Files.write(path, source.getBytes(StandardCharsets.UTF_8));
+    }
+}
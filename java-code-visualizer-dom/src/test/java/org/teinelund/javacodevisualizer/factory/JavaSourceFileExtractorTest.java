@@ -0,0 +1,250 @@
+package org.teinelund.javacodevisualizer.factory;
+
+import com.github.javaparser.ParseProblemException;
+import com.google.common.jimfs.Configuration;
+import com.google.common.jimfs.Jimfs;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.teinelund.javacodevisualizer.dom.FieldSummary;
+import org.teinelund.javacodevisualizer.dom.ImportSummary;
+import org.teinelund.javacodevisualizer.dom.JavaTypeDeclarationPath;
+import org.teinelund.javacodevisualizer.dom.TypeReference;
+import org.teinelund.javacodevisualizer.dom.TypeSummary;
+import org.teinelund.javacodevisualizer.synthetic.SyntheticCodebaseGenerator;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystem;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * The extractor is cross-checked against JavaSourceFileParser: both must give the same JavaTypeDeclarationPath and
+ * TypeSummary for the same java source file.
+ */
+class JavaSourceFileExtractorTest {
+
+    private JavaSourceFileExtractor sut = null;
+    private FileSystem fs = null;
+    private Path javaSourceFile = null;
+
+    @BeforeEach
+    void initTest() {
+        sut = JavaSourceFileExtractor.instance();
+        JavaSourceFileParser.instance().setLexicalExtraction(false);
+        fs = Jimfs.newFileSystem(Configuration.unix());
+        javaSourceFile = fs.getPath("/Users/Cody/Projects/Project/src/main/java/org/teinelund/Customer.java");
+    }
+
+    @AfterEach
+    void cleanUpTest() throws IOException {
+        fs.close();
+    }
+
+    @Test
+    void extractJavaFileWhereSourceFileHasDeclarationsOfAllKinds() {
+        // Initialize
+        String source = lines(
+                "/* A header comment with a { brace. */",
+                "@Generated(\"test\")",
+                "package org.teinelund.ordersystem;",
+                "",
+                "import java.io.Serializable;",
+                "import java.util.*;",
+                "import static java.util.Collections.emptyList;",
+                "import static java.util.Objects.*;",
+                "",
+                "@SuppressWarnings({\"unchecked\", \"rawtypes\"})",
+                "public abstract class Customer<K extends Comparable<? super K>, V> extends org.teinelund.Person",
+                "        implements Serializable, Comparable<Customer<K, V>> {",
+                "    private static final long serialVersionUID = 1L;",
+                "    private String name = \"}\", alias, codes[];",
+                "    protected final Map<String, List<Order>> orders = new HashMap<String, List<Order>>(), other = null;",
+                "    private char brace = '{';",
+                "    private int[] counts = {1, 2, 3};",
+                "    private java.util.Map.Entry<K, V> entry;",
+                "    private Outer<String>.Inner inner;",
+                "    private Pair<String, List<? extends Number[]>>.Inner pairInner;",
+                "    @Deprecated transient volatile Address address;",
+                "    private Runnable task = () -> { int x = 1 < 2 ? 3 : 4; }, later;",
+                "    private Comparator<String> comparator = new Comparator<String>() {",
+                "        private String hidden;",
+                "        @Override public int compare(String a, String b) { return a.compareTo(b); }",
+                "    };",
+                "    boolean less = 1 < 2, more = 2 > 1;",
+                "    Map<String, Integer> empty = Collections.<String, Integer>emptyMap();",
+                "    Map<String, byte[]> bytes = new HashMap<String, byte[]>();",
+                "    T<X, Y, Z> triple = new T<X, Y, Z>(), otherTriple;",
+                "    M<X, Y, Z> factory = F.<X, Y, Z>of(), otherFactory = F.<X, Y, Z>of();",
+                "    int shifted = 1 >> 2, compared = (1 < 2) ? 1 : 2, lessThan = 3 < 4 ? 5 : 6;",
+                "    double d = 1.5e-3, h = 0x1.8p1;",
+                "",
+                "    static { System.out.println(\"static {\"); }",
+                "    { name = \"instance\"; }",
+                "",
+                "    public Customer(String name) throws IllegalArgumentException { this.name = name; }",
+                "    <T> Customer(T t, int... rest) { }",
+                "    public abstract <T extends Order> List<T> getOrders(Class<T> type);",
+                "    public synchronized int[] getCounts()[] { return null; }",
+                "    // String commented;",
+                "",
+                "    public static class CreditCard implements Serializable {",
+                "        private String number;",
+                "        private Customer<String, String> owner;",
+                "        class Nested { private Address address; }",
+                "    }",
+                "",
+                "    private enum Level implements Comparable<Level> {",
+                "        LOW(1) { @Override int weight() { return 1; } }, @Deprecated HIGH(2);",
+                "        private final int value;",
+                "        Level(int value) { this.value = value; }",
+                "        int weight() { return value; }",
+                "    }",
+                "",
+                "    interface Listener extends EventListener, Serializable {",
+                "        String PREFIX = \"listener\";",
+                "        void onEvent(Event e);",
+                "        default void onOther() { }",
+                "    }",
+                "",
+                "    @interface Marker {",
+                "        String value() default \"\";",
+                "        String[] tags() default {};",
+                "        int LIMIT = 10;",
+                "    }",
+                "}",
+                "",
+                "enum Status { ACTIVE, INACTIVE }",
+                "",
+                "final class Empty { ; }",
+                "",
+                "interface Repository<T> { T find(long id); }",
+                "",
+                "@interface Audited { }");
+        // Test
+        List<JavaTypeDeclarationPath> result = sut.extractJavaFile(new StringReader(source), javaSourceFile);
+        // Verify
+        assertThat(result).hasSize(5);
+        assertThat(describe(result)).isEqualTo(describe(parse(source)));
+        for (JavaTypeDeclarationPath jtdp : result) {
+            assertThat(jtdp.getTypeSummary().getImports()).isSameAs(result.get(0).getTypeSummary().getImports());
+        }
+    }
+
+    @Test
+    void extractJavaFileWhereSourceFilesAreSynthetic() throws IOException {
+        // Initialize
+        Path rootPath = fs.getPath("/Users/Cody/Projects/Synthetic");
+        List<SyntheticCodebaseGenerator.SyntheticType> types = SyntheticCodebaseGenerator.builder().setSeed(19).
+                setNumberOfModules(2).setPackageDepth(3).setPackagesPerModule(4).setTypesPerPackage(5).
+                setFieldsPerType(5).setNameCollisionRate(0.5).build().generate(rootPath);
+        // Test
+        // Verify
+        for (SyntheticCodebaseGenerator.SyntheticType type : types) {
+            assertSameResult(type.getPath());
+        }
+    }
+
+    @Test
+    void extractJavaFileWhereSourceFilesAreTheSourcesOfThisModule() throws IOException {
+        // Initialize
+        List<Path> paths;
+        try (Stream<Path> stream = Stream.concat(Files.walk(Paths.get("src", "main", "java")),
+                Files.walk(Paths.get("src", "test", "java")))) {
+            paths = stream.filter(path -> path.toString().endsWith(".java")).collect(Collectors.toList());
+        }
+        // Test
+        // Verify
+        assertThat(paths).isNotEmpty();
+        for (Path path : paths) {
+            assertSameResult(path);
+        }
+    }
+
+    @Test
+    void extractJavaFileWhereSourceFileIsAModuleDeclaration() {
+        // Initialize
+        String source = lines("module org.teinelund.ordersystem {", "    requires transitive java.sql;", "}");
+        // Test
+        List<JavaTypeDeclarationPath> result = sut.extractJavaFile(new StringReader(source), javaSourceFile);
+        // Verify
+        assertThat(result).isEmpty();
+    }
+
+    @Test
+    void extractJavaFileWhereBracesDoNotMatch() {
+        // Initialize
+        String source = lines("package org.teinelund;", "public class Customer {", "    void run() {", "}");
+        // Test
+        // Verify
+        assertThatThrownBy(() -> sut.extractJavaFile(new StringReader(source), javaSourceFile)).isInstanceOf(
+                ParseProblemException.class);
+    }
+
+    @Test
+    void extractJavaFileWhereFieldDeclarationIsMalformed() {
+        // Initialize
+        String source = lines("package org.teinelund;", "public class Customer {", "    private String ;", "}");
+        // Test
+        // Verify
+        assertThatThrownBy(() -> sut.extractJavaFile(new StringReader(source), javaSourceFile)).isInstanceOf(
+                ParseProblemException.class);
+    }
+
+    void assertSameResult(Path path) throws IOException {
+        String source = new String(Files.readAllBytes(path), StandardCharsets.UTF_8);
+        List<JavaTypeDeclarationPath> result = sut.extractJavaFile(new StringReader(source), javaSourceFile);
+        assertThat(describe(result)).as(path.toString()).isEqualTo(describe(parse(source)));
+    }
+
+    List<JavaTypeDeclarationPath> parse(String source) {
+        return JavaSourceFileParser.instance().parseJavaFile(new StringReader(source), javaSourceFile);
+    }
+
+    String lines(String... lines) {
+        return String.join("\n", lines) + "\n";
+    }
+
+    List<String> describe(List<JavaTypeDeclarationPath> jtdps) {
+        List<String> descriptions = new ArrayList<>();
+        for (JavaTypeDeclarationPath jtdp : jtdps) {
+            descriptions.add(jtdp.getPackageName() + "." + jtdp.getName() + " " + jtdp.getJavaType() + " " +
+                    jtdp.getAccessModifier() + " " + jtdp.getPathToTypeDeclaration());
+            describe(jtdp.getTypeSummary(), "  ", descriptions);
+        }
+        return descriptions;
+    }
+
+    void describe(TypeSummary typeSummary, String indent, List<String> descriptions) {
+        descriptions.add(indent + typeSummary.getPackageName() + "." + typeSummary.getName() + " " +
+                typeSummary.getJavaType() + " " + new TreeSet<>(typeSummary.getModifiers()));
+        for (ImportSummary importSummary : typeSummary.getImports()) {
+            descriptions.add(indent + "import " + importSummary.getName() + " static=" + importSummary.isStatic() +
+                    " asterisk=" + importSummary.isAsterisk());
+        }
+        for (TypeReference supertype : typeSummary.getSupertypes()) {
+            descriptions.add(indent + "supertype " + describe(supertype));
+        }
+        for (FieldSummary field : typeSummary.getFields()) {
+            descriptions.add(indent + "field " + field.getName() + " " + describe(field.getType()));
+        }
+        for (TypeSummary nestedType : typeSummary.getNestedTypes()) {
+            describe(nestedType, indent + "  ", descriptions);
+        }
+    }
+
+    String describe(TypeReference typeReference) {
+        return typeReference == null ? "null" : typeReference.getScope() + "/" + typeReference.getName();
+    }
+}
@@ -1,5 +1,9 @@
 package org.teinelund.javacodevisualizer.factory;
 
+import com.github.javaparser.ParseProblemException;
+import com.github.javaparser.ast.Modifier;
+import com.sun.management.UnixOperatingSystemMXBean;
+import com.github.javaparser.ast.body.TypeDeclaration;
 import com.google.common.jimfs.Configuration;
 import com.google.common.jimfs.Jimfs;
 import org.junit.jupiter.api.AfterEach;
@@ -8,18 +12,28 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.Test;
 import org.teinelund.javacodevisualizer.dom.AccessModifier;
+import org.teinelund.javacodevisualizer.dom.FieldSummary;
+import org.teinelund.javacodevisualizer.dom.ImportSummary;
 import org.teinelund.javacodevisualizer.dom.JavaType;
 import org.teinelund.javacodevisualizer.dom.JavaTypeDeclarationPath;
+import org.teinelund.javacodevisualizer.dom.TypeReference;
+import org.teinelund.javacodevisualizer.dom.TypeSummary;
 
 import java.io.IOException;
 import java.io.Reader;
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
 import java.io.StringReader;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.FileSystem;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
 import static org.teinelund.javacodevisualizer.factory.TestUtility.deleteDirectory;
 
 class JavaSourceFileParserTest {
@@ -236,4 +250,217 @@ class JavaSourceFileParserTest {
         sb.append("}"); sb.append(java.lang.System.lineSeparator());
         return new StringReader(sb.toString());
     }
-}
\ No newline at end of file
+
+    @Test
+    void parseJavaFileCreatesTypeSummary() {
+        // Initialize
+        Reader reader = createJavaSourceFileContainingClassWithSupertypesAndNestedClass();
+        // Test
+        List<JavaTypeDeclarationPath> result = sut.parseJavaFile(reader, javaSourceFile);
+        // Verify
+        TypeSummary typeSummary = result.get(0).getTypeSummary();
+        assertThat(typeSummary.getName()).isEqualTo(CLASS_NAME);
+        assertThat(typeSummary.getPackageName()).isEqualTo(PACKAGE_NAME);
+        assertThat(typeSummary.getJavaType()).isEqualTo(JavaType.CLASS);
+        assertThat(typeSummary.getModifiers()).containsExactlyInAnyOrder(Modifier.PUBLIC, Modifier.ABSTRACT);
+        assertThat(typeSummary.getImports()).extracting(ImportSummary::getName).containsExactly("java.io.Serializable",
+                "java.util");
+        assertThat(typeSummary.getImports()).extracting(ImportSummary::isAsterisk).containsExactly(false, true);
+        assertThat(typeSummary.getSupertypes()).extracting(TypeReference::getName).containsExactly("Person",
+                "Serializable");
+        assertThat(typeSummary.getFields()).extracting(FieldSummary::getName).containsExactly("name", "age",
+                "creditCard", "address");
+        assertThat(typeSummary.getFields().get(1).getType()).isNull();
+        assertThat(typeSummary.getFields().get(2).getType().getName()).isEqualTo(INNER_CLASS_NAME);
+        assertThat(typeSummary.getFields().get(2).getType().getScope()).isNull();
+        assertThat(typeSummary.getFields().get(3).getType().getName()).isEqualTo("Address");
+        assertThat(typeSummary.getFields().get(3).getType().getScope()).isEqualTo("org.teinelund.address");
+        assertThat(typeSummary.getNestedTypes()).extracting(TypeSummary::getName).containsExactly(INNER_CLASS_NAME);
+        assertThat(typeSummary.getNestedTypes().get(0).getFields()).extracting(FieldSummary::getName).containsExactly(
+                "number");
+    }
+
+    @Test
+    void parseJavaFileInternsNames() {
+        // Initialize
+        Reader classReader = createJavaSourceFileContainingClassWithSupertypesAndNestedClass();
+        Reader otherClassReader = createJavaSourceFileContainingClassWithSupertypesAndNestedClass();
+        // Test
+        List<JavaTypeDeclarationPath> classResult = sut.parseJavaFile(classReader, javaSourceFile);
+        List<JavaTypeDeclarationPath> otherClassResult = sut.parseJavaFile(otherClassReader, javaSourceFile);
+        // Verify
+        assertThat(otherClassResult.get(0).getPackageName()).isSameAs(classResult.get(0).getPackageName());
+        assertThat(otherClassResult.get(0).getName()).isSameAs(classResult.get(0).getName());
+        assertThat(otherClassResult.get(0).getTypeSummary().getFields().get(3).getType().getScope()).isSameAs(
+                classResult.get(0).getTypeSummary().getFields().get(3).getType().getScope());
+    }
+
+    @Test
+    void getTypeDeclarationParsesJavaSourceFile() throws IOException {
+        // Initialize
+        Files.createDirectories(javaSourceFile.getParent());
+        Files.write(javaSourceFile, readAll(createJavaSourceFileContainingClassWithSupertypesAndNestedClass()).getBytes(
+                StandardCharsets.UTF_8));
+        List<JavaTypeDeclarationPath> result = sut.readJavaFile(javaSourceFile);
+        // Test
+        TypeDeclaration<?> typeDeclaration = result.get(0).getTypeDeclaration();
+        // Verify
+        assertThat(typeDeclaration.getNameAsString()).isEqualTo(CLASS_NAME);
+        assertThat(typeDeclaration.getMethods()).hasSize(1);
+    }
+
+    @Test
+    void readJavaFileClosesTheFile() throws IOException {
+        // Initialize
+        final int NUMBER_OF_READS = 2000;
+        OperatingSystemMXBean operatingSystem = ManagementFactory.getOperatingSystemMXBean();
+        assumeTrue(operatingSystem instanceof UnixOperatingSystemMXBean);
+        Path directory = Files.createTempDirectory("java-source-file-parser-test");
+        try {
+            Path path = directory.resolve("Customer.java");
+            Files.write(path, readAll(createJavaSourceFileContainingAClassReader()).getBytes(StandardCharsets.UTF_8));
+            long openFiles = ((UnixOperatingSystemMXBean) operatingSystem).getOpenFileDescriptorCount();
+            // Test
+            for (int i = 0; i < NUMBER_OF_READS; i++) {
+                sut.readJavaFile(path);
+            }
+            // Verify
+            assertThat(((UnixOperatingSystemMXBean) operatingSystem).getOpenFileDescriptorCount()).isLessThan(
+                    openFiles + 10);
+        }
+        finally {
+            deleteDirectory(directory);
+        }
+    }
+
+    @Test
+    void readJavaFileWhereSourceFileIsLargerThanTheSourceBuffer() throws IOException {
+        // Initialize
+        Files.createDirectories(javaSourceFile.getParent());
+        Files.write(javaSourceFile, createLargeJavaSource(2 * SourceBuffer.MAX_RETAINED_CAPACITY).getBytes(
+                StandardCharsets.UTF_8));
+        // Test
+        List<JavaTypeDeclarationPath> result = sut.readJavaFile(javaSourceFile);
+        List<JavaTypeDeclarationPath> nextResult = sut.parseJavaFile(createJavaSourceFileContainingAClassReader(),
+                javaSourceFile);
+        // Verify
+        assertThat(result.get(0).getTypeSummary().getFields()).extracting(FieldSummary::getName).containsExactly(
+                "name", "age");
+        assertThat(nextResult.get(0).getTypeSummary().getFields()).extracting(FieldSummary::getName).containsExactly(
+                "name");
+    }
+
+    @Test
+    void readJavaFileWhereSourceFileIsMemoryMapped() throws IOException {
+        // Initialize
+        Path directory = Files.createTempDirectory("java-source-file-parser-test");
+        try {
+            Path path = directory.resolve("Customer.java");
+            Files.write(path, createLargeJavaSource(2 * SourceBuffer.MAP_THRESHOLD).getBytes(StandardCharsets.UTF_8));
+            // Test
+            List<JavaTypeDeclarationPath> result = sut.readJavaFile(path);
+            // Verify
+            assertThat(Files.size(path)).isGreaterThanOrEqualTo(SourceBuffer.MAP_THRESHOLD);
+            assertThat(result.get(0).getTypeSummary().getFields()).extracting(FieldSummary::getName).containsExactly(
+                    "name", "age");
+        }
+        finally {
+            deleteDirectory(directory);
+        }
+    }
+
+    @Test
+    void readJavaFileWhereSourceFileContainsNonAsciiCharacters() throws IOException {
+        // Initialize
+        Files.createDirectories(javaSourceFile.getParent());
+        Files.write(javaSourceFile, ("package " + PACKAGE_NAME + ";\npublic class Kund {\n" +
+                "   private String förnamn = \"Åsa \uD83D\uDE00\";\n   private String efternamn;\n}\n").getBytes(
+                StandardCharsets.UTF_8));
+        // Test
+        List<JavaTypeDeclarationPath> result = sut.readJavaFile(javaSourceFile);
+        // Verify
+        assertThat(result.get(0).getTypeSummary().getFields()).extracting(FieldSummary::getName).containsExactly(
+                "förnamn", "efternamn");
+    }
+
+    @Test
+    void readJavaFileWhereSourceFileIsNotUtf8() throws IOException {
+        // Initialize
+        Files.createDirectories(javaSourceFile.getParent());
+        Files.write(javaSourceFile, ("package " + PACKAGE_NAME + ";\npublic class Kund {\n" +
+                "   private String förnamn;\n}\n").getBytes(StandardCharsets.ISO_8859_1));
+        // Test
+        // Verify
+        assertThatThrownBy(() -> sut.readJavaFile(javaSourceFile)).isInstanceOf(CharacterCodingException.class);
+    }
+
+    @Test
+    void parseJavaFileWhereContentIsNotUtf8() {
+        // Initialize
+        byte[] content = ("package " + PACKAGE_NAME + ";\npublic class Kund {\n   private String name = \"Åsa\";\n}\n").
+                getBytes(StandardCharsets.ISO_8859_1);
+        // Test
+        List<JavaTypeDeclarationPath> result = sut.parseJavaFile(content, javaSourceFile);
+        // Verify
+        assertThat(result.get(0).getTypeSummary().getFields()).extracting(FieldSummary::getName).containsExactly(
+                "name");
+    }
+
+    @Test
+    void parseJavaFileWhereSourceFileDoesNotParse() {
+        // Initialize
+        Reader reader = new StringReader("package " + PACKAGE_NAME + ";\npublic class {\n}\n");
+        // Test
+        // Verify
+        assertThatThrownBy(() -> sut.parseJavaFile(reader, javaSourceFile)).isInstanceOf(ParseProblemException.class);
+    }
+
+    /**
+     * A class with the fields name and age, and a comment between them, so the source is at least size chars.
+     */
+    String createLargeJavaSource(int size) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("package " + PACKAGE_NAME + ";\n");
+        sb.append("public class " + CLASS_NAME + " {\n");
+        sb.append("   private String name;\n");
+        while (sb.length() < size) {
+            sb.append("   // Lorem ipsum dolor sit amet, consectetur adipiscing elit.\n");
+        }
+        sb.append("   private int age;\n");
+        sb.append("}\n");
+        return sb.toString();
+    }
+
+    String readAll(Reader reader) throws IOException {
+        StringBuilder sb = new StringBuilder();
+        int c;
+        while ((c = reader.read()) != -1) {
+            sb.append((char) c);
+        }
+        return sb.toString();
+    }
+
+    Reader createJavaSourceFileContainingClassWithSupertypesAndNestedClass() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("package " + PACKAGE_NAME + ";"); sb.append(java.lang.System.lineSeparator());
+        sb.append(""); sb.append(java.lang.System.lineSeparator());
+        sb.append("import java.io.Serializable;"); sb.append(java.lang.System.lineSeparator());
+        sb.append("import java.util.*;"); sb.append(java.lang.System.lineSeparator());
+        sb.append(""); sb.append(java.lang.System.lineSeparator());
+        sb.append("public abstract class " + CLASS_NAME + " extends Person implements Serializable {"); sb.append(java.lang.System.lineSeparator());
+        sb.append("   private String name;"); sb.append(java.lang.System.lineSeparator());
+        sb.append("   private int age;"); sb.append(java.lang.System.lineSeparator());
+        sb.append("   private " + INNER_CLASS_NAME + " creditCard;"); sb.append(java.lang.System.lineSeparator());
+        sb.append("   private org.teinelund.address.Address address;"); sb.append(java.lang.System.lineSeparator());
+        sb.append(""); sb.append(java.lang.System.lineSeparator());
+        sb.append("   public void setName(String name) {"); sb.append(java.lang.System.lineSeparator());
+        sb.append("      this.name = name;"); sb.append(java.lang.System.lineSeparator());
+        sb.append("   }"); sb.append(java.lang.System.lineSeparator());
+        sb.append(""); sb.append(java.lang.System.lineSeparator());
+        sb.append("   public static class " + INNER_CLASS_NAME + " {"); sb.append(java.lang.System.lineSeparator());
+        sb.append("      private String number;"); sb.append(java.lang.System.lineSeparator());
+        sb.append("   }"); sb.append(java.lang.System.lineSeparator());
+        sb.append("}"); sb.append(java.lang.System.lineSeparator());
+        return new StringReader(sb.toString());
+    }
+}
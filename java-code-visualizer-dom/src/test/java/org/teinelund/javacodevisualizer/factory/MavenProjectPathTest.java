@@ -219,6 +219,135 @@ class MavenProjectPathTest {
         assertThat(result.size()).isEqualTo(EXPECTED_SIZE);
     }
 
+    //
+    // Find Maven Projects
+    //
+
+    @Test
+    void findMavenProjectsWhereProjectIsLegal() throws IOException {
+        // Initialize
+        Path root = fs.getPath("/Users/Cody/Walk/LegalProject");
+        createWalkProject(root, true, "Customer.java", "Order.java");
+        List<Path> excludePaths = new LinkedList<>();
+        // Test
+        List<MavenProjectSourceFiles> result = sut.findMavenProjects(asList(root), excludePaths);
+        // Verify
+        assertThat(result.size()).isEqualTo(1);
+        assertThat(result.get(0).getMavenProjectPath()).isEqualTo(root);
+        assertThat(result.get(0).getSrcDirectory()).isEqualTo(root.resolve("src"));
+        assertThat(result.get(0).getJavaSourceFiles()).containsExactlyInAnyOrder(
+                root.resolve("src/main/java/org/teinelund/Customer.java"),
+                root.resolve("src/main/java/org/teinelund/Order.java"));
+        deleteDirectory(root);
+    }
+
+    @Test
+    void findMavenProjectsWhereProjectDoesNotContainAnyJavaSourceCode() throws IOException {
+        // Initialize
+        Path root = fs.getPath("/Users/Cody/Walk/EmptyProject");
+        createWalkProject(root, true);
+        List<Path> excludePaths = new LinkedList<>();
+        // Test
+        List<MavenProjectSourceFiles> result = sut.findMavenProjects(asList(root), excludePaths);
+        // Verify
+        assertThat(result.isEmpty()).isTrue();
+        deleteDirectory(root);
+    }
+
+    @Test
+    void findMavenProjectsWhereProjectDoesNotContainPomXmlFile() throws IOException {
+        // Initialize
+        Path root = fs.getPath("/Users/Cody/Walk/NoPomProject");
+        createWalkProject(root, false, "Customer.java");
+        List<Path> excludePaths = new LinkedList<>();
+        // Test
+        List<MavenProjectSourceFiles> result = sut.findMavenProjects(asList(root), excludePaths);
+        // Verify
+        assertThat(result.isEmpty()).isTrue();
+        deleteDirectory(root);
+    }
+
+    @Test
+    void findMavenProjectsWhereProjectContainsTwoSubProjectsAndTargetDirectory() throws IOException {
+        // Initialize
+        Path root = fs.getPath("/Users/Cody/Walk/MultiModuleProject");
+        Files.createDirectories(root);
+        Files.createFile(root.resolve("pom.xml"));
+        createWalkProject(root.resolve("SubProject1"), true, "Customer.java");
+        createWalkProject(root.resolve("SubProject2"), true, "Order.java");
+        createWalkProject(root.resolve("target"), true, "Generated.java");
+        List<Path> excludePaths = new LinkedList<>();
+        // Test
+        List<MavenProjectSourceFiles> result = sut.findMavenProjects(asList(root), excludePaths);
+        // Verify
+        assertThat(result.size()).isEqualTo(2);
+        assertThat(result.get(0).getMavenProjectPath().getFileName().toString()).startsWith("SubProject");
+        assertThat(result.get(1).getMavenProjectPath().getFileName().toString()).startsWith("SubProject");
+        deleteDirectory(root);
+    }
+
+    @Test
+    void findMavenProjectsWhereSubProjectIsExcluded() throws IOException {
+        // Initialize
+        Path root = fs.getPath("/Users/Cody/Walk/ExcludedProject");
+        createWalkProject(root.resolve("SubProject1"), true, "Customer.java");
+        createWalkProject(root.resolve("SubProject2"), true, "Order.java");
+        List<Path> excludePaths = new LinkedList<>();
+        excludePaths.add(root.resolve("SubProject2"));
+        // Test
+        List<MavenProjectSourceFiles> result = sut.findMavenProjects(asList(root), excludePaths);
+        // Verify
+        assertThat(result.size()).isEqualTo(1);
+        assertThat(result.get(0).getMavenProjectPath()).isEqualTo(root.resolve("SubProject1"));
+        deleteDirectory(root);
+    }
+
+    @Test
+    void findMavenProjectsWhereProjectContainsNestedProject() throws IOException {
+        // Initialize
+        Path root = fs.getPath("/Users/Cody/Walk/OuterProject");
+        createWalkProject(root, true, "Customer.java");
+        createWalkProject(root.resolve("InnerProject"), true, "Order.java");
+        List<Path> excludePaths = new LinkedList<>();
+        // Test
+        List<MavenProjectSourceFiles> result = sut.findMavenProjects(asList(root), excludePaths);
+        // Verify
+        assertThat(result.size()).isEqualTo(1);
+        assertThat(result.get(0).getMavenProjectPath()).isEqualTo(root);
+        assertThat(result.get(0).getJavaSourceFiles().size()).isEqualTo(1);
+        deleteDirectory(root);
+    }
+
+    @Test
+    void findMavenProjectsWherePathDoesNotExist() throws IOException {
+        // Initialize
+        List<Path> excludePaths = new LinkedList<>();
+        Path path = fs.getPath("/this/path/does/not/exist");
+        // Test
+        List<MavenProjectSourceFiles> result = sut.findMavenProjects(asList(path), excludePaths);
+        // Verify
+        assertThat(result.isEmpty()).isTrue();
+    }
+
+    List<Path> asList(Path path) {
+        List<Path> paths = new LinkedList<>();
+        paths.add(path);
+        return paths;
+    }
+
+    void createWalkProject(Path root, boolean createPomXmlFile, String... javaSourceFileNames) throws IOException {
+        Path javaPath = root.resolve("src/main/java/org/teinelund");
+        Files.createDirectories(javaPath);
+        Files.createDirectories(root.resolve("src/main/resources"));
+        Files.createFile(root.resolve("src/main/resources/environment.properties"));
+        if (createPomXmlFile) {
+            Files.createFile(root.resolve("pom.xml"));
+        }
+        for (String javaSourceFileName : javaSourceFileNames) {
+            Files.createFile(javaPath.resolve(javaSourceFileName));
+        }
+    }
+
     void createSubProjects(boolean createTargetDirectory) throws IOException {
         // src
         Files.createDirectories(projectSubproject1Path);
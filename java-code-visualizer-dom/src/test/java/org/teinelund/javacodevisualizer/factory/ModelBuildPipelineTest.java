@@ -0,0 +1,186 @@
+package org.teinelund.javacodevisualizer.factory;
+
+import com.github.javaparser.ParseProblemException;
+import com.google.common.jimfs.Configuration;
+import com.google.common.jimfs.Jimfs;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.teinelund.javacodevisualizer.dom.DomainObjectModelFactory;
+import org.teinelund.javacodevisualizer.dom.Field;
+import org.teinelund.javacodevisualizer.dom.JavaProjectObjectModel;
+import org.teinelund.javacodevisualizer.dom.JavaTypeDeclarationPath;
+import org.teinelund.javacodevisualizer.dom.MavenProject;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystem;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+class ModelBuildPipelineTest {
+
+    private FileSystem fs = null;
+    private Path rootPath = null;
+
+    @BeforeEach
+    void initTest() throws IOException {
+        fs = Jimfs.newFileSystem(Configuration.unix());
+        rootPath = fs.getPath("/Users/Cody/Projects");
+        for (int project = 0; project < 3; project++) {
+            Path projectPath = rootPath.resolve("Project" + project);
+            Files.createDirectories(projectPath);
+            Files.createFile(projectPath.resolve("pom.xml"));
+            for (int i = 0; i < 20; i++) {
+                writeJavaSourceFile(projectPath, "org.teinelund.project" + project, "Class" + i,
+                        "Class" + ((i + 1) % 20), "next");
+            }
+        }
+        // A src directory without a pom.xml is not a Maven project.
+        writeJavaSourceFile(rootPath.resolve("Scratch"), "org.teinelund.scratch", "Class0", "Class1", "next");
+    }
+
+    @AfterEach
+    void cleanUpTest() throws IOException {
+        fs.close();
+    }
+
+    @Test
+    void buildWithSeveralWorkersAndSmallQueues() throws IOException {
+        // Initialize
+        ModelBuildPipeline sut = new ModelBuildPipeline(4, 2, FetchMavenProject.instance()::readJavaFile);
+        // Test
+        JavaProjectObjectModel result = sut.build(paths(rootPath), new LinkedList<>());
+        // Verify
+        assertThat(describe(result)).isEqualTo(describe(buildOneStageAfterTheOther()));
+        assertThat(result.getAllPackageNames()).containsExactlyInAnyOrder("org.teinelund.project0",
+                "org.teinelund.project1", "org.teinelund.project2");
+        assertThat(result.getAllTypesGivenName("Class3")).extracting(JavaTypeDeclarationPath::getPackageName)
+                .containsExactly("org.teinelund.project0", "org.teinelund.project1", "org.teinelund.project2");
+        assertThat(result.getTypeByQualifiedName("org.teinelund.project1.Class3").getFields().get(0).getType())
+                .isSameAs(result.getTypeByQualifiedName("org.teinelund.project1.Class4"));
+    }
+
+    @Test
+    void buildWhereFileOutsideMavenProjectDoesNotParse() throws IOException {
+        // Initialize
+        Files.write(javaSourceFile(rootPath.resolve("Scratch"), "org.teinelund.scratch", "Class1"),
+                "public class Class1 {".getBytes(StandardCharsets.UTF_8));
+        ModelBuildPipeline sut = new ModelBuildPipeline(2, 4, FetchMavenProject.instance()::readJavaFile);
+        // Test
+        JavaProjectObjectModel result = sut.build(paths(rootPath), new LinkedList<>());
+        // Verify
+        assertThat(result.getAllTypeNames()).hasSize(20);
+    }
+
+    @Test
+    void buildWhereFileInMavenProjectDoesNotParse() throws IOException {
+        // Initialize
+        Files.write(javaSourceFile(rootPath.resolve("Project1"), "org.teinelund.project1", "Class7"),
+                "public class Class7 {".getBytes(StandardCharsets.UTF_8));
+        ModelBuildPipeline sut = new ModelBuildPipeline(2, 4, FetchMavenProject.instance()::readJavaFile);
+        // Test
+        Throwable result = catchThrowable(() -> sut.build(paths(rootPath), new LinkedList<>()));
+        // Verify
+        assertThat(result).isInstanceOf(ParseProblemException.class);
+    }
+
+    @Test
+    void buildWhereAFileTakesLongToParse() throws Exception {
+        // Initialize
+        int queueCapacity = 4;
+        CountDownLatch slowFileParsed = new CountDownLatch(1);
+        AtomicBoolean firstFile = new AtomicBoolean(true);
+        AtomicInteger filesRead = new AtomicInteger();
+        ModelBuildPipeline sut = new ModelBuildPipeline(2, queueCapacity, path -> {
+            filesRead.incrementAndGet();
+            if (firstFile.getAndSet(false)) {
+                try {
+                    slowFileParsed.await(10, TimeUnit.SECONDS);
+                }
+                catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return FetchMavenProject.instance().readJavaFile(path);
+        });
+        BuildMetrics metrics = new BuildMetrics();
+        ExecutorService executorService = Executors.newSingleThreadExecutor();
+        try {
+            // Test
+            Future<JavaProjectObjectModel> result = executorService.submit(() -> sut.build(paths(rootPath),
+                    new LinkedList<>(), metrics));
+            Thread.sleep(500);
+            long filesReadButNotIndexed = filesRead.get() - metrics.getTypesIndexed();
+            slowFileParsed.countDown();
+            // Verify
+            assertThat(filesReadButNotIndexed).isLessThanOrEqualTo(queueCapacity);
+            assertThat(result.get(10, TimeUnit.SECONDS).getAllTypesGivenName("Class3")).hasSize(3);
+        }
+        finally {
+            slowFileParsed.countDown();
+            executorService.shutdownNow();
+        }
+    }
+
+    JavaProjectObjectModel buildOneStageAfterTheOther() throws IOException {
+        List<MavenProjectSourceFiles> mavenProjectSourceFiles = MavenProjectPath.instance().findMavenProjects(
+                paths(rootPath), new LinkedList<>());
+        List<MavenProject> mavenProjects = FetchMavenProject.instance().createMavenProjects(mavenProjectSourceFiles);
+        JavaProjectObjectModel jpom = DomainObjectModelFactory.instance().createJavaProjectObjectModel();
+        WireClassField.instance().wireClasses(jpom, mavenProjects);
+        WireClassField.instance().wireClassFields(jpom);
+        return jpom;
+    }
+
+    List<String> describe(JavaProjectObjectModel jpom) {
+        List<String> descriptions = new ArrayList<>();
+        for (String typeName : jpom.getAllTypeNames()) {
+            for (JavaTypeDeclarationPath jtdp : jpom.getAllTypesGivenName(typeName)) {
+                StringBuilder sb = new StringBuilder(jtdp.getPackageName() + "." + jtdp.getName() + " " +
+                        jtdp.getPathToTypeDeclaration());
+                for (Field field : jtdp.getFields()) {
+                    sb.append(" " + field.getName() + ":" + field.getType().getPackageName() + "." +
+                            field.getType().getName());
+                }
+                descriptions.add(sb.toString());
+            }
+        }
+        Collections.sort(descriptions);
+        return descriptions;
+    }
+
+    List<Path> paths(Path path) {
+        List<Path> paths = new LinkedList<>();
+        paths.add(path);
+        return paths;
+    }
+
+    Path javaSourceFile(Path projectPath, String packageName, String className) {
+        return projectPath.resolve("src/main/java/" + packageName.replace('.', '/') + "/" + className + ".java");
+    }
+
+    void writeJavaSourceFile(Path projectPath, String packageName, String className, String fieldType, String fieldName) throws IOException {
+        Path path = javaSourceFile(projectPath, packageName, className);
+        Files.createDirectories(path.getParent());
+        String source = "package " + packageName + ";\n\n" +
+                "public class " + className + " {\n" +
+                "   private " + fieldType + " " + fieldName + ";\n" +
+                "}\n";
+        Files.write(path, source.getBytes(StandardCharsets.UTF_8));
+    }
+}
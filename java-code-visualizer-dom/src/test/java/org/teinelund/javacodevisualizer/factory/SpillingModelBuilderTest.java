@@ -0,0 +1,131 @@
+package org.teinelund.javacodevisualizer.factory;
+
+import com.google.common.jimfs.Configuration;
+import com.google.common.jimfs.Jimfs;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.teinelund.javacodevisualizer.dom.Field;
+import org.teinelund.javacodevisualizer.dom.JavaProjectObjectModel;
+import org.teinelund.javacodevisualizer.dom.JavaTypeDeclarationPath;
+import org.teinelund.javacodevisualizer.synthetic.SyntheticCodebaseGenerator;
+
+import java.io.IOException;
+import java.nio.file.FileSystem;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SpillingModelBuilderTest {
+
+    private FileSystem fs = null;
+    private Path rootPath = null;
+    private Path spillDirectory = null;
+    private Path storagePath = null;
+
+    @BeforeEach
+    void initTest() throws IOException {
+        fs = Jimfs.newFileSystem(Configuration.unix());
+        rootPath = fs.getPath("/Users/Cody/Projects/Synthetic");
+        spillDirectory = fs.getPath("/Users/Cody/spill");
+        storagePath = fs.getPath("/Users/Cody/model.snapshot");
+        SyntheticCodebaseGenerator.builder().setSeed(29).setNumberOfModules(3).setPackageDepth(2).
+                setPackagesPerModule(3).setTypesPerPackage(6).setFieldsPerType(4).setNameCollisionRate(0.5).build().
+                generate(rootPath);
+    }
+
+    @AfterEach
+    void cleanUpTest() throws IOException {
+        fs.close();
+    }
+
+    @Test
+    void buildWithSeveralSegmentsAndSortRuns() throws IOException {
+        // Initialize
+        SpillingModelBuilder sut = new SpillingModelBuilder(spillDirectory, 256, 4,
+                FetchMavenProject.instance()::readJavaFile, 512);
+        List<MavenProjectSourceFiles> mavenProjectSourceFiles = MavenProjectPath.instance().findMavenProjects(
+                paths(rootPath), new LinkedList<>());
+        BuildMetrics metrics = new BuildMetrics();
+        // Test
+        JavaProjectObjectModel result = sut.build(mavenProjectSourceFiles, storagePath, metrics);
+        // Verify
+        JavaProjectObjectModel expected = new IncrementalModelBuilder().buildAll(mavenProjectSourceFiles,
+                new SourceFileManifest());
+        assertThat(describe(result)).isEqualTo(describe(expected));
+        assertThat(result.getAllPackageNames()).containsExactlyInAnyOrderElementsOf(expected.getAllPackageNames());
+        for (String packageName : expected.getAllPackageNames()) {
+            assertThat(result.getAllTypesGivenPackageName(packageName)).hasSameSizeAs(
+                    expected.getAllTypesGivenPackageName(packageName));
+        }
+        for (String typeName : expected.getAllTypeNames()) {
+            for (JavaTypeDeclarationPath jtdp : expected.getAllTypesGivenName(typeName)) {
+                assertThat(result.getTypeByQualifiedName(jtdp.getPackageName(), typeName).getPathToTypeDeclaration())
+                        .isEqualTo(expected.getTypeByQualifiedName(jtdp.getPackageName(), typeName).getPathToTypeDeclaration());
+            }
+        }
+        assertThat(metrics.getTypesIndexed()).isEqualTo(54);
+        assertThat(metrics.getFieldsResolved()).isEqualTo(54 * 4);
+        try (Stream<Path> stream = Files.list(spillDirectory)) {
+            assertThat(stream.count()).isEqualTo(0);
+        }
+    }
+
+    @Test
+    void buildWhereTypesShareANameAcrossPackages() throws IOException {
+        // Initialize
+        Path projectsPath = fs.getPath("/Users/Cody/Projects/Builders");
+        for (int project = 0; project < 5; project++) {
+            // The packages are in the reverse order of the projects.
+            String packageName = "org.teinelund.package" + (9 - project);
+            Path javaSourceFile = projectsPath.resolve("Project" + project + "/src/main/java/" +
+                    packageName.replace('.', '/') + "/Builder.java");
+            Files.createDirectories(javaSourceFile.getParent());
+            Files.createFile(projectsPath.resolve("Project" + project + "/pom.xml"));
+            Files.write(javaSourceFile, ("package " + packageName + ";\n\npublic class Builder {\n}\n").getBytes());
+        }
+        SpillingModelBuilder sut = new SpillingModelBuilder(spillDirectory, 256, 1,
+                FetchMavenProject.instance()::readJavaFile, 512);
+        List<MavenProjectSourceFiles> mavenProjectSourceFiles = MavenProjectPath.instance().findMavenProjects(
+                paths(projectsPath), new LinkedList<>());
+        // Test
+        JavaProjectObjectModel result = sut.build(mavenProjectSourceFiles, storagePath, new BuildMetrics());
+        // Verify
+        assertThat(result.getAllTypesGivenName("Builder")).extracting(JavaTypeDeclarationPath::getPackageName)
+                .isSorted().hasSize(5);
+        for (int project = 0; project < 5; project++) {
+            assertThat(result.getTypeByQualifiedName("org.teinelund.package" + (9 - project), "Builder")
+                    .getPathToTypeDeclaration().toString()).contains("Project" + project);
+        }
+        assertThat(result.getTypeByQualifiedName("org.teinelund.package0", "Builder")).isNull();
+    }
+
+    List<String> describe(JavaProjectObjectModel jpom) {
+        List<String> descriptions = new ArrayList<>();
+        for (String typeName : jpom.getAllTypeNames()) {
+            for (JavaTypeDeclarationPath jtdp : jpom.getAllTypesGivenName(typeName)) {
+                StringBuilder sb = new StringBuilder(jtdp.getPackageName() + "." + jtdp.getName() + " " +
+                        jtdp.getJavaType() + " " + jtdp.getAccessModifier() + " " + jtdp.getPathToTypeDeclaration());
+                for (Field field : jtdp.getFields()) {
+                    sb.append(" " + field.getName() + ":" + field.getType().getPackageName() + "." +
+                            field.getType().getName());
+                }
+                descriptions.add(sb.toString());
+            }
+        }
+        Collections.sort(descriptions);
+        return descriptions;
+    }
+
+    List<Path> paths(Path path) {
+        List<Path> paths = new LinkedList<>();
+        paths.add(path);
+        return paths;
+    }
+}
@@ -20,13 +20,14 @@ public class TestUtility {
      * @throws IOException
      */
     public static void deleteDirectory(Path path) throws IOException {
-        DirectoryStream<Path> stream = Files.newDirectoryStream(path);
-        for (Path fileOrDirectoryPath : stream) {
-            if (Files.isRegularFile(fileOrDirectoryPath)) {
-                Files.delete(fileOrDirectoryPath);
-            }
-            if (Files.isDirectory(fileOrDirectoryPath)) {
-                deleteDirectory(fileOrDirectoryPath);
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(path)) {
+            for (Path fileOrDirectoryPath : stream) {
+                if (Files.isRegularFile(fileOrDirectoryPath)) {
+                    Files.delete(fileOrDirectoryPath);
+                }
+                if (Files.isDirectory(fileOrDirectoryPath)) {
+                    deleteDirectory(fileOrDirectoryPath);
+                }
             }
         }
         Files.delete(path);
@@ -5,6 +5,7 @@ import com.google.common.jimfs.Jimfs;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 import org.teinelund.javacodevisualizer.dom.DomainObjectModelFactory;
+import org.teinelund.javacodevisualizer.dom.ImportSummary;
 import org.teinelund.javacodevisualizer.dom.JavaProjectObjectModel;
 import org.teinelund.javacodevisualizer.dom.JavaTypeDeclarationPath;
 
@@ -12,7 +13,9 @@ import java.io.Reader;
 import java.io.StringReader;
 import java.nio.file.FileSystem;
 import java.nio.file.Path;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -51,6 +54,8 @@ class WireClassFieldTest {
         JavaTypeDeclarationPath fieldClass = jdom.getAllTypesGivenName(CLASS_NAME_ORDER).get(0).getFields().get(0).getType();
         assertThat(fieldClass.getName()).isEqualTo(CLASS_NAME_CUSTOMER);
         assertThat(fieldClass.getPackageName()).isEqualTo(PACKAGE_NAME_ORG_TEINELUND_ORDERSYSTEM);
+        assertThat(jdom.getReverseFieldIndex().getHolders(fieldClass)).containsExactly(
+                jdom.getAllTypesGivenName(CLASS_NAME_ORDER).get(0));
     }
 
     /**
@@ -114,6 +119,143 @@ class WireClassFieldTest {
         assertThat(fieldClass.getPackageName()).isEqualTo(PACKAGE_NAME_ORG_TEINELUND_TICKETAPP);
     }
 
+    /**
+     * In this test an Order and two Customer exist. One Customer exist in the same package as Order, but Order
+     * imports the other Customer.
+     *
+     * Order should be connected to the imported Customer, which shadows the Customer in the same package.
+     */
+    @Test
+    public void wireClassFieldsWhereCustomerIsImported() {
+        // Initialize
+        JavaProjectObjectModel jdom = createJavaProjectObjectModel(JavaProjectObjectModelState.TWO_CUSTOMER);
+        jdom.removeJavaTypeDeclarationPaths(jdom.getAllTypesGivenName(CLASS_NAME_ORDER));
+        jdom.addJavaTypeDeclarationPaths(JavaSourceFileParser.instance().parseJavaFile(
+                createJavaSourceFileContainingClassWithImportAndField(PACKAGE_NAME_ORG_TEINELUND_ORDERSYSTEM,
+                        CLASS_NAME_ORDER, PACKAGE_NAME_ORG_TEINELUND_TICKETAPP + "." + CLASS_NAME_CUSTOMER,
+                        CLASS_NAME_CUSTOMER, "customer"), javaSourceFile));
+        // Test
+        sut.wireClassFields(jdom);
+        // Verify
+        JavaTypeDeclarationPath fieldClass = jdom.getAllTypesGivenName(CLASS_NAME_ORDER).get(0).getFields().get(0).getType();
+        assertThat(fieldClass.getPackageName()).isEqualTo(PACKAGE_NAME_ORG_TEINELUND_TICKETAPP);
+    }
+
+    /**
+     * In this test an Order and a Customer in an other package exist. Order imports the package of Customer on
+     * demand.
+     *
+     * Order and Customer should be connected.
+     */
+    @Test
+    public void wireClassFieldsWhereCustomerIsImportedOnDemand() {
+        // Initialize
+        JavaProjectObjectModel jdom = DomainObjectModelFactory.instance().createJavaProjectObjectModel();
+        jdom.addJavaTypeDeclarationPaths(JavaSourceFileParser.instance().parseJavaFile(
+                createJavaSourceFileContainingClassWithField(PACKAGE_NAME_ORG_TEINELUND_TICKETAPP, CLASS_NAME_CUSTOMER,
+                        null, "String", "name"), javaSourceFile));
+        jdom.addJavaTypeDeclarationPaths(JavaSourceFileParser.instance().parseJavaFile(
+                createJavaSourceFileContainingClassWithImportAndField(PACKAGE_NAME_ORG_TEINELUND_ORDERSYSTEM,
+                        CLASS_NAME_ORDER, PACKAGE_NAME_ORG_TEINELUND_TICKETAPP + ".*", CLASS_NAME_CUSTOMER,
+                        "customer"), javaSourceFile));
+        // Test
+        sut.wireClassFields(jdom);
+        // Verify
+        JavaTypeDeclarationPath fieldClass = jdom.getAllTypesGivenName(CLASS_NAME_ORDER).get(0).getFields().get(0).getType();
+        assertThat(fieldClass.getPackageName()).isEqualTo(PACKAGE_NAME_ORG_TEINELUND_TICKETAPP);
+    }
+
+    /**
+     * In this test an Order and a Customer in an other package exist. Order does not import Customer.
+     *
+     * Order and Customer should not be connected, although there is only one Customer.
+     */
+    @Test
+    public void wireClassFieldsWhereCustomerIsNotImported() {
+        // Initialize
+        JavaProjectObjectModel jdom = DomainObjectModelFactory.instance().createJavaProjectObjectModel();
+        jdom.addJavaTypeDeclarationPaths(JavaSourceFileParser.instance().parseJavaFile(
+                createJavaSourceFileContainingClassWithField(PACKAGE_NAME_ORG_TEINELUND_TICKETAPP, CLASS_NAME_CUSTOMER,
+                        null, "String", "name"), javaSourceFile));
+        jdom.addJavaTypeDeclarationPaths(JavaSourceFileParser.instance().parseJavaFile(
+                createJavaSourceFileContainingClassWithField(PACKAGE_NAME_ORG_TEINELUND_ORDERSYSTEM, CLASS_NAME_ORDER,
+                        null, CLASS_NAME_CUSTOMER, "customer"), javaSourceFile));
+        // Test
+        sut.wireClassFields(jdom);
+        // Verify
+        assertThat(jdom.getAllTypesGivenName(CLASS_NAME_ORDER).get(0).getFields()).isEmpty();
+    }
+
+    @Test
+    public void getImportTableWhereTypesAreInTheSameFile() {
+        // Initialize
+        List<JavaTypeDeclarationPath> jtdps = JavaSourceFileParser.instance().parseJavaFile(new StringReader(
+                "package " + PACKAGE_NAME_ORG_TEINELUND_ORDERSYSTEM + ";\n" +
+                "import " + PACKAGE_NAME_ORG_TEINELUND_TICKETAPP + ".*;\n" +
+                "public class " + CLASS_NAME_ORDER + " {}\n" +
+                "class " + CLASS_NAME_CUSTOMER + " {}\n"), javaSourceFile);
+        Map<List<ImportSummary>, ImportTable> importTables = new IdentityHashMap<>();
+        // Test
+        ImportTable result = sut.getImportTable(jtdps.get(0).getTypeSummary(), jtdps.get(0), importTables);
+        // Verify
+        assertThat(sut.getImportTable(jtdps.get(1).getTypeSummary(), jtdps.get(1), importTables)).isSameAs(result);
+        assertThat(importTables).hasSize(1);
+    }
+
+    @Test
+    public void wireClassFieldsWithSeveralWorkersKeepsFieldOrder() {
+        // Initialize
+        JavaProjectObjectModel expected = createJavaProjectObjectModel(300);
+        sut.wireClassFields(expected);
+        JavaProjectObjectModel jdom = createJavaProjectObjectModel(300);
+        sut.setNumberOfWorkers(4);
+        // Test
+        try {
+            sut.wireClassFields(jdom);
+        }
+        finally {
+            sut.setNumberOfWorkers(1);
+        }
+        // Verify
+        assertThat(describe(jdom)).isEqualTo(describe(expected));
+        assertThat(jdom.getAllTypesGivenName("Class7").get(0).getFields()).hasSize(3);
+    }
+
+    /**
+     * Create a model of numberOfClasses classes in three packages. Each class has a field of the next class in the
+     * same package, a field of a class in the next package (imported), and a field of a class that does not exist.
+     */
+    JavaProjectObjectModel createJavaProjectObjectModel(int numberOfClasses) {
+        JavaProjectObjectModel jpom = DomainObjectModelFactory.instance().createJavaProjectObjectModel();
+        for (int i = 0; i < numberOfClasses; i++) {
+            String packageName = "org.teinelund.package" + (i % 3);
+            String source = "package " + packageName + ";\n" +
+                    "import org.teinelund.package" + ((i + 1) % 3) + ".*;\n" +
+                    "public class Class" + i + " {\n" +
+                    "   private Class" + ((i + 3) % numberOfClasses) + " next;\n" +
+                    "   private Class" + ((i + 1) % numberOfClasses) + " other;\n" +
+                    "   private Missing missing;\n" +
+                    "   private Class" + ((i + 6) % numberOfClasses) + " afterNext;\n" +
+                    "}\n";
+            jpom.addJavaTypeDeclarationPaths(JavaSourceFileParser.instance().parseJavaFile(new StringReader(source),
+                    javaSourceFile));
+        }
+        return jpom;
+    }
+
+    String describe(JavaProjectObjectModel jpom) {
+        StringBuilder sb = new StringBuilder();
+        for (String typeName : jpom.getAllTypeNames()) {
+            for (JavaTypeDeclarationPath jtdp : jpom.getAllTypesGivenName(typeName)) {
+                sb.append(jtdp.getPackageName()).append('.').append(jtdp.getName()).append(':');
+                jtdp.getFields().forEach(field -> sb.append(' ').append(field.getName()).append('=').append(
+                        field.getType().getPackageName()).append('.').append(field.getType().getName()));
+                sb.append('\n');
+            }
+        }
+        return sb.toString();
+    }
+
     JavaProjectObjectModel createJavaProjectObjectModel(JavaProjectObjectModelState state) {
         JavaProjectObjectModel jpom = DomainObjectModelFactory.instance().createJavaProjectObjectModel();
         List<JavaTypeDeclarationPath> jtdps = null;
@@ -172,6 +314,18 @@ class WireClassFieldTest {
 
     enum JavaProjectObjectModelState {ONE_CUSTOMER, ONE_CUSTOMER_WITH_EXPLICIT_PACKAGE_NAME, TWO_CUSTOMER, TWO_CUSTOMER_WITH_EXPLICIT_PACKAGE_NAME;}
 
+    Reader createJavaSourceFileContainingClassWithImportAndField(String packageName, String className, String importName, String fieldType, String fieldName) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("package " + packageName + ";"); sb.append(java.lang.System.lineSeparator());
+        sb.append(""); sb.append(java.lang.System.lineSeparator());
+        sb.append("import " + importName + ";"); sb.append(java.lang.System.lineSeparator());
+        sb.append(""); sb.append(java.lang.System.lineSeparator());
+        sb.append("public class " + className + " {"); sb.append(java.lang.System.lineSeparator());
+        sb.append("   private " + fieldType + " " + fieldName + ";"); sb.append(java.lang.System.lineSeparator());
+        sb.append("}"); sb.append(java.lang.System.lineSeparator());
+        return new StringReader(sb.toString());
+    }
+
     Reader createJavaSourceFileContainingClassWithField(String packageName, String className, String fieldTypePackageName, String fieldType, String fieldName) {
         StringBuilder sb = new StringBuilder();
         sb.append("package " + packageName + ";"); sb.append(java.lang.System.lineSeparator());
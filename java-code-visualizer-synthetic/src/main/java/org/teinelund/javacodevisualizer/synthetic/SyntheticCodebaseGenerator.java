@@ -0,0 +1,413 @@
+package org.teinelund.javacodevisualizer.synthetic;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Generates a multi-module Maven tree of java source files, for scale tests and benchmarks. The tree is the same for
+ * the same seed and settings: the root directory gets an aggregator pom.xml, and each module a pom.xml and a
+ * src/main/java directory with packagesPerModule packages of typesPerPackage classes each.
+ *
+ * Each class has fieldsPerType fields, whose types are other generated classes, most of them in the same module. A
+ * field type in another package is referred to by one of the enabled import styles. When the chosen style would make
+ * the simple name ambiguous, or shadowed, the field type is written with its qualified name instead, so the generated
+ * code is valid Java and every field refers to the class recorded in its SyntheticType.
+ *
+ * The generator writes to any file system, Jimfs as well as the default one.
+ */
+public class SyntheticCodebaseGenerator {
+
+    /**
+     * Names shared by many packages, like in a real code base. Type names are drawn from these with the probability
+     * nameCollisionRate. None of them is the name of a type in java.lang.
+     */
+    static final String[] COMMON_TYPE_NAMES = {"Config", "Service", "Util", "Builder", "Factory", "Manager",
+            "Handler", "Context", "Result", "Event", "Request", "Response", "Repository", "Controller", "Validator",
+            "Mapper", "Entity", "Cache", "Client", "Listener"};
+
+    /**
+     * The probability that a field type is a class in the same module.
+     */
+    static final double SAME_MODULE_RATE = 0.8;
+
+    public enum ImportStyle {
+        /** import org.example.Type; */
+        SINGLE_TYPE,
+        /** import org.example.*; */
+        ON_DEMAND,
+        /** No import, the field type is written as org.example.Type. */
+        FULLY_QUALIFIED
+    }
+
+    private final long seed;
+    private final int numberOfModules;
+    private final int packageDepth;
+    private final int packagesPerModule;
+    private final int typesPerPackage;
+    private final int fieldsPerType;
+    private final double nameCollisionRate;
+    private final List<ImportStyle> importStyles;
+
+    SyntheticCodebaseGenerator(Builder builder) {
+        this.seed = builder.seed;
+        this.numberOfModules = builder.numberOfModules;
+        this.packageDepth = builder.packageDepth;
+        this.packagesPerModule = builder.packagesPerModule;
+        this.typesPerPackage = builder.typesPerPackage;
+        this.fieldsPerType = builder.fieldsPerType;
+        this.nameCollisionRate = builder.nameCollisionRate;
+        this.importStyles = new ArrayList<>(builder.importStyles);
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public int getNumberOfTypes() {
+        return this.numberOfModules * this.packagesPerModule * this.typesPerPackage;
+    }
+
+    /**
+     * Write the code base below root.
+     *
+     * @param root is the directory of the aggregator pom.xml. It is created if it does not exist.
+     * @return the generated classes, in the order they were written.
+     * @throws IOException
+     */
+    public List<SyntheticType> generate(Path root) throws IOException {
+        Random random = new Random(this.seed);
+        List<List<SyntheticType>> packages = createPackages(random);
+        Map<String, Set<String>> typeNamesByPackage = new HashMap<>();
+        for (List<SyntheticType> types : packages) {
+            Set<String> typeNames = new HashSet<>();
+            for (SyntheticType type : types) {
+                typeNames.add(type.getName());
+            }
+            typeNamesByPackage.put(types.get(0).getPackageName(), typeNames);
+        }
+        List<SyntheticType> allTypes = new ArrayList<>(getNumberOfTypes());
+        for (List<SyntheticType> types : packages) {
+            allTypes.addAll(types);
+        }
+        int typesPerModule = this.packagesPerModule * this.typesPerPackage;
+        for (SyntheticType type : allTypes) {
+            for (int i = 0; i < this.fieldsPerType; i++) {
+                int target;
+                if (random.nextDouble() < SAME_MODULE_RATE) {
+                    target = type.module * typesPerModule + random.nextInt(typesPerModule);
+                }
+                else {
+                    target = random.nextInt(allTypes.size());
+                }
+                type.fieldTypes.add(allTypes.get(target));
+                type.fieldImportStyles.add(this.importStyles.get(random.nextInt(this.importStyles.size())));
+            }
+        }
+        Files.createDirectories(root);
+        writePom(root.resolve("pom.xml"), "synthetic", moduleNames());
+        for (String moduleName : moduleNames()) {
+            Files.createDirectories(root.resolve(moduleName));
+            writePom(root.resolve(moduleName).resolve("pom.xml"), moduleName, Collections.emptyList());
+        }
+        for (SyntheticType type : allTypes) {
+            type.path = root.resolve(moduleName(type.module)).resolve("src/main/java").
+                    resolve(type.getPackageName().replace('.', '/')).resolve(type.getName() + ".java");
+            Files.createDirectories(type.path.getParent());
+            Files.write(type.path, createJavaSource(type, typeNamesByPackage).getBytes(StandardCharsets.UTF_8));
+        }
+        return allTypes;
+    }
+
+    List<List<SyntheticType>> createPackages(Random random) {
+        List<List<SyntheticType>> packages = new ArrayList<>();
+        int uniqueNames = 0;
+        for (int module = 0; module < this.numberOfModules; module++) {
+            for (int p = 0; p < this.packagesPerModule; p++) {
+                String packageName = packageName(module, p);
+                Set<String> typeNames = new HashSet<>();
+                List<SyntheticType> types = new ArrayList<>(this.typesPerPackage);
+                for (int t = 0; t < this.typesPerPackage; t++) {
+                    String name = null;
+                    if (random.nextDouble() < this.nameCollisionRate) {
+                        name = COMMON_TYPE_NAMES[random.nextInt(COMMON_TYPE_NAMES.length)];
+                    }
+                    if (name == null || typeNames.contains(name)) {
+                        name = "Type" + uniqueNames++;
+                    }
+                    typeNames.add(name);
+                    types.add(new SyntheticType(module, packageName, name));
+                }
+                packages.add(types);
+            }
+        }
+        return packages;
+    }
+
+    /**
+     * The package of a module has packageDepth names below org.teinelund.synthetic.moduleN. All packages of a
+     * module share the names above the last one, so the directories are packageDepth levels deep.
+     */
+    String packageName(int module, int packageIndex) {
+        StringBuilder sb = new StringBuilder("org.teinelund.synthetic.module" + module);
+        for (int level = 1; level < this.packageDepth; level++) {
+            sb.append(".level" + level);
+        }
+        sb.append(".package" + packageIndex);
+        return sb.toString();
+    }
+
+    List<String> moduleNames() {
+        List<String> moduleNames = new ArrayList<>(this.numberOfModules);
+        for (int module = 0; module < this.numberOfModules; module++) {
+            moduleNames.add(moduleName(module));
+        }
+        return moduleNames;
+    }
+
+    String moduleName(int module) {
+        return "module" + module;
+    }
+
+    void writePom(Path path, String artifactId, List<String> modules) throws IOException {
+        StringBuilder sb = new StringBuilder();
+        sb.append("<project>\n");
+        sb.append("    <modelVersion>4.0.0</modelVersion>\n");
+        sb.append("    <groupId>org.teinelund.synthetic</groupId>\n");
+        sb.append("    <artifactId>" + artifactId + "</artifactId>\n");
+        sb.append("    <version>1.0-SNAPSHOT</version>\n");
+        if (!modules.isEmpty()) {
+            sb.append("    <packaging>pom</packaging>\n");
+            sb.append("    <modules>\n");
+            for (String module : modules) {
+                sb.append("        <module>" + module + "</module>\n");
+            }
+            sb.append("    </modules>\n");
+        }
+        sb.append("</project>\n");
+        Files.write(path, sb.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decide how each field type is written, and write the compilation unit. A simple name is only used if it
+     * resolves to the field type in Java: a single type import must not clash with the class itself or with another
+     * single type import, a type in the own package must not be shadowed by a single type import, and a type
+     * imported on demand must not be shadowed, and must be in exactly one of the packages imported on demand.
+     */
+    String createJavaSource(SyntheticType type, Map<String, Set<String>> typeNamesByPackage) {
+        Map<String, SyntheticType> singleTypeImports = new LinkedHashMap<>();
+        Set<String> onDemandImports = new LinkedHashSet<>();
+        Set<String> clashingNames = new HashSet<>();
+        for (int i = 0; i < type.fieldTypes.size(); i++) {
+            SyntheticType fieldType = type.fieldTypes.get(i);
+            if (fieldType.getPackageName().equals(type.getPackageName())) {
+                continue;
+            }
+            if (type.fieldImportStyles.get(i) == ImportStyle.SINGLE_TYPE) {
+                SyntheticType imported = singleTypeImports.get(fieldType.getName());
+                if (fieldType.getName().equals(type.getName()) || (imported != null && imported != fieldType)) {
+                    clashingNames.add(fieldType.getName());
+                }
+                else {
+                    singleTypeImports.put(fieldType.getName(), fieldType);
+                }
+            }
+            else if (type.fieldImportStyles.get(i) == ImportStyle.ON_DEMAND) {
+                onDemandImports.add(fieldType.getPackageName());
+            }
+        }
+        for (String name : clashingNames) {
+            singleTypeImports.remove(name);
+        }
+        List<String> fieldTypeNames = new ArrayList<>(type.fieldTypes.size());
+        for (int i = 0; i < type.fieldTypes.size(); i++) {
+            SyntheticType fieldType = type.fieldTypes.get(i);
+            String name = fieldType.getName();
+            boolean simpleName;
+            if (fieldType.getPackageName().equals(type.getPackageName())) {
+                simpleName = !singleTypeImports.containsKey(name);
+            }
+            else if (type.fieldImportStyles.get(i) == ImportStyle.SINGLE_TYPE) {
+                simpleName = singleTypeImports.get(name) == fieldType;
+            }
+            else if (type.fieldImportStyles.get(i) == ImportStyle.ON_DEMAND) {
+                simpleName = !name.equals(type.getName()) && !singleTypeImports.containsKey(name) &&
+                        !typeNamesByPackage.get(type.getPackageName()).contains(name) &&
+                        countPackagesWithType(onDemandImports, name, typeNamesByPackage) == 1;
+            }
+            else {
+                simpleName = false;
+            }
+            fieldTypeNames.add(simpleName ? name : fieldType.getQualifiedName());
+        }
+        StringBuilder sb = new StringBuilder();
+        sb.append("package " + type.getPackageName() + ";\n\n");
+        for (SyntheticType imported : singleTypeImports.values()) {
+            sb.append("import " + imported.getQualifiedName() + ";\n");
+        }
+        for (String packageName : onDemandImports) {
+            sb.append("import " + packageName + ".*;\n");
+        }
+        sb.append("\n");
+        sb.append("/**\n");
+        sb.append(" * Generated class " + type.getName() + " of module " + type.module + ".\n");
+        sb.append(" */\n");
+        sb.append("public class " + type.getName() + " {\n");
+        for (int i = 0; i < fieldTypeNames.size(); i++) {
+            sb.append("    private " + fieldTypeNames.get(i) + " " + type.getFieldName(i) + ";\n");
+        }
+        for (int i = 0; i < fieldTypeNames.size(); i++) {
+            sb.append("\n");
+            sb.append("    public " + fieldTypeNames.get(i) + " get" + Character.toUpperCase(type.getFieldName(i).charAt(0)) +
+                    type.getFieldName(i).substring(1) + "() {\n");
+            sb.append("        return this." + type.getFieldName(i) + ";\n");
+            sb.append("    }\n");
+        }
+        sb.append("}\n");
+        return sb.toString();
+    }
+
+    int countPackagesWithType(Set<String> packageNames, String name, Map<String, Set<String>> typeNamesByPackage) {
+        int count = 0;
+        for (String packageName : packageNames) {
+            if (typeNamesByPackage.get(packageName).contains(name)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * A generated class, and the classes of its fields.
+     */
+    public static class SyntheticType {
+        private final int module;
+        private final String packageName;
+        private final String name;
+        private final List<SyntheticType> fieldTypes = new ArrayList<>();
+        private final List<ImportStyle> fieldImportStyles = new ArrayList<>();
+        private Path path;
+
+        SyntheticType(int module, String packageName, String name) {
+            this.module = module;
+            this.packageName = packageName;
+            this.name = name;
+        }
+
+        public String getPackageName() {
+            return this.packageName;
+        }
+
+        public String getName() {
+            return this.name;
+        }
+
+        public String getQualifiedName() {
+            return this.packageName + "." + this.name;
+        }
+
+        public Path getPath() {
+            return this.path;
+        }
+
+        public String getFieldName(int index) {
+            return "field" + index;
+        }
+
+        /**
+         * @return the classes of the fields, in declaration order.
+         */
+        public List<SyntheticType> getFieldTypes() {
+            return Collections.unmodifiableList(this.fieldTypes);
+        }
+    }
+
+    public static class Builder {
+        private long seed = 0;
+        private int numberOfModules = 1;
+        private int packageDepth = 1;
+        private int packagesPerModule = 10;
+        private int typesPerPackage = 10;
+        private int fieldsPerType = 4;
+        private double nameCollisionRate = 0.1;
+        private Set<ImportStyle> importStyles = EnumSet.allOf(ImportStyle.class);
+
+        public Builder setSeed(long seed) {
+            this.seed = seed;
+            return this;
+        }
+
+        public Builder setNumberOfModules(int numberOfModules) {
+            this.numberOfModules = numberOfModules;
+            return this;
+        }
+
+        /**
+         * @param packageDepth is the number of package names below the package of the module. One or more.
+         */
+        public Builder setPackageDepth(int packageDepth) {
+            this.packageDepth = packageDepth;
+            return this;
+        }
+
+        public Builder setPackagesPerModule(int packagesPerModule) {
+            this.packagesPerModule = packagesPerModule;
+            return this;
+        }
+
+        public Builder setTypesPerPackage(int typesPerPackage) {
+            this.typesPerPackage = typesPerPackage;
+            return this;
+        }
+
+        public Builder setFieldsPerType(int fieldsPerType) {
+            this.fieldsPerType = fieldsPerType;
+            return this;
+        }
+
+        /**
+         * @param nameCollisionRate is the probability, from 0 to 1, that a class gets a name that is common to many
+         *                          packages, like Service or Config.
+         */
+        public Builder setNameCollisionRate(double nameCollisionRate) {
+            this.nameCollisionRate = nameCollisionRate;
+            return this;
+        }
+
+        /**
+         * @param importStyles are the styles to choose from, with equal probability, when a field type is in another
+         *                     package.
+         */
+        public Builder setImportStyles(Set<ImportStyle> importStyles) {
+            this.importStyles = importStyles.isEmpty() ? EnumSet.noneOf(ImportStyle.class) : EnumSet.copyOf(importStyles);
+            return this;
+        }
+
+        public SyntheticCodebaseGenerator build() {
+            if (this.numberOfModules < 1 || this.packageDepth < 1 || this.packagesPerModule < 1 ||
+                    this.typesPerPackage < 1 || this.fieldsPerType < 0) {
+                throw new IllegalArgumentException("Sizes must be one or more, and fields per type zero or more.");
+            }
+            if (this.nameCollisionRate < 0 || this.nameCollisionRate > 1) {
+                throw new IllegalArgumentException("Name collision rate must be from 0 to 1, was " +
+                        this.nameCollisionRate + ".");
+            }
+            if (this.importStyles.isEmpty()) {
+                throw new IllegalArgumentException("At least one import style must be enabled.");
+            }
+            return new SyntheticCodebaseGenerator(this);
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package org.teinelund.javacodevisualizer.synthetic;
+
+import com.google.common.jimfs.Configuration;
+import com.google.common.jimfs.Jimfs;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystem;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+class SyntheticCodebaseGeneratorTest {
+
+    private FileSystem fs = null;
+    private Path rootPath = null;
+
+    @BeforeEach
+    void initTest() {
+        fs = Jimfs.newFileSystem(Configuration.unix());
+        rootPath = fs.getPath("/Users/Cody/Projects/Synthetic");
+    }
+
+    @AfterEach
+    void cleanUpTest() throws IOException {
+        fs.close();
+    }
+
+    @Test
+    void generateWithSameSeed() throws IOException {
+        // Initialize
+        SyntheticCodebaseGenerator sut = generator(17).build();
+        // Test
+        List<String> first = sources(sut.generate(rootPath));
+        List<String> second = sources(sut.generate(fs.getPath("/Users/Cody/Projects/Other")));
+        // Verify
+        assertThat(second).isEqualTo(first);
+    }
+
+    @Test
+    void generateWithDifferentSeed() throws IOException {
+        // Initialize
+        SyntheticCodebaseGenerator sut = generator(17).build();
+        SyntheticCodebaseGenerator other = generator(18).build();
+        // Test
+        List<String> first = sources(sut.generate(rootPath));
+        List<String> second = sources(other.generate(fs.getPath("/Users/Cody/Projects/Other")));
+        // Verify
+        assertThat(second).isNotEqualTo(first);
+    }
+
+    @Test
+    void generateLayout() throws IOException {
+        // Initialize
+        SyntheticCodebaseGenerator sut = generator(17).build();
+        // Test
+        List<SyntheticCodebaseGenerator.SyntheticType> result = sut.generate(rootPath);
+        // Verify
+        assertThat(result).hasSize(sut.getNumberOfTypes()).hasSize(60);
+        assertThat(new String(Files.readAllBytes(rootPath.resolve("pom.xml")), StandardCharsets.UTF_8))
+                .contains("<module>module0</module>", "<module>module2</module>");
+        assertThat(Files.isRegularFile(rootPath.resolve("module2/pom.xml"))).isTrue();
+        assertThat(result.get(0).getPath()).isEqualTo(rootPath.resolve(
+                "module0/src/main/java/org/teinelund/synthetic/module0/level1/level2/package0/" +
+                result.get(0).getName() + ".java"));
+        for (SyntheticCodebaseGenerator.SyntheticType type : result) {
+            assertThat(type.getFieldTypes()).hasSize(5);
+        }
+    }
+
+    @Test
+    void generateWithoutImportStyles() {
+        // Initialize
+        // Test
+        Throwable result = catchThrowable(() -> generator(17).setImportStyles(
+                EnumSet.noneOf(SyntheticCodebaseGenerator.ImportStyle.class)).build());
+        // Verify
+        assertThat(result).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    SyntheticCodebaseGenerator.Builder generator(long seed) {
+        return SyntheticCodebaseGenerator.builder().setSeed(seed).setNumberOfModules(3).setPackageDepth(3).
+                setPackagesPerModule(4).setTypesPerPackage(5).setFieldsPerType(5).setNameCollisionRate(0.3);
+    }
+
+    List<String> sources(List<SyntheticCodebaseGenerator.SyntheticType> types) throws IOException {
+        List<String> sources = new ArrayList<>();
+        for (SyntheticCodebaseGenerator.SyntheticType type : types) {
+            sources.add(new String(Files.readAllBytes(type.getPath()), StandardCharsets.UTF_8));
+        }
+        return sources;
+    }
+}